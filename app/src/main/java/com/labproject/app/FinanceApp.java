@@ -0,0 +1,49 @@
+package com.labproject.app;
+
+import android.app.Application;
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.labproject.app.data.db.DBHelper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide owner of the database. Every screen gets the same DBHelper
+ * through {@link #getDatabase(Context)} instead of opening its own helper.
+ */
+public class FinanceApp extends Application {
+
+    private static final String TAG = "FinanceApp";
+
+    private DBHelper db;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        db = new DBHelper(this);
+        openInBackground();
+    }
+
+    /**
+     * Open (and migrate) the database once, off the main thread; early callers
+     * simply wait on the helper's own lock until it is ready. The test
+     * application leaves this out, since its tests delete and reopen the file.
+     */
+    protected void openInBackground() {
+        ExecutorService opener = Executors.newSingleThreadExecutor(r -> new Thread(r, "db-open"));
+        opener.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            db.getWritableDatabase();
+            Log.i(TAG, "database opened in " + (SystemClock.elapsedRealtime() - start) + " ms, "
+                    + DBHelper.getOpenHelperCount() + " open helper(s)");
+        });
+        opener.shutdown();
+    }
+
+    public static DBHelper getDatabase(Context context) {
+        return ((FinanceApp) context.getApplicationContext()).db;
+    }
+}
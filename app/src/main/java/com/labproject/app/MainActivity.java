@@ -55,7 +55,7 @@ public class MainActivity extends AppCompatActivity {
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        DBHelper db = new DBHelper(this);
+        DBHelper db = FinanceApp.getDatabase(this);
 
         MainViewModel mainViewModel =
                 new ViewModelProvider(this).get(MainViewModel.class);
@@ -128,7 +128,7 @@ public class MainActivity extends AppCompatActivity {
 
     public void refreshDrawerHeader() {
         SessionManager session = new SessionManager(this);
-        DBHelper db = new DBHelper(this);
+        DBHelper db = FinanceApp.getDatabase(this);
 
         NavigationView navigationView = binding.navView;
         View header = navigationView.getHeaderView(0);
@@ -3,15 +3,34 @@ package com.labproject.app.data.db;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.MatrixCursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
 import androidx.annotation.Nullable;
 
+import com.labproject.app.ui.Models.Budget;
+import com.labproject.app.ui.Models.CategoryDictionary;
+import com.labproject.app.ui.Models.PeriodTotals;
+import com.labproject.app.ui.Models.Recurrence;
+import com.labproject.app.ui.Models.Transaction;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class DBHelper extends SQLiteOpenHelper {
 
-    private static final String DB_NAME = "labproject.db";
-    private static final int DB_VERSION = 7;
+    static final String DB_NAME = "labproject.db";
+    private static final int DB_VERSION = 12;
 
     // USERS TABLE
     public static final String T_USERS = "users";
@@ -25,9 +44,9 @@ public class DBHelper extends SQLiteOpenHelper {
     public static final String TX_ID = "id";
     public static final String TX_EMAIL = "email";
     public static final String TX_TYPE = "type";           // 1 income, 2 expense
-    public static final String TX_AMOUNT = "amount";
+    public static final String TX_AMOUNT = "amount_cents";   // whole cents
     public static final String TX_DATE = "date_millis";
-    public static final String TX_CATEGORY = "category";
+    public static final String TX_CATEGORY_ID = "category_id"; // categories.id
     public static final String TX_DESC = "description";
     public static final String TX_RECURRENCE = "recurrence"; // "once", "weekly", "monthly", "yearly"
     public static final String TX_IS_ACTIVE = "is_active";   // 1 = active, 0 = inactive
@@ -37,13 +56,266 @@ public class DBHelper extends SQLiteOpenHelper {
     public static final String T_BUDGETS = "budgets";
     public static final String B_ID = "id";
     public static final String B_EMAIL = "email";
-    public static final String B_CATEGORY = "category";
-    public static final String B_LIMIT = "limit_amount";
+    public static final String B_CATEGORY_ID = "category_id";  // categories.id
+    public static final String B_LIMIT = "limit_cents";       // whole cents
     public static final String B_PERIOD = "period";        // "monthly", "weekly", "daily"
     public static final String B_ALERT_THRESHOLD = "alert_threshold";  // percentage
 
+    // CATEGORIES TABLE (names shared by transactions and budgets)
+    public static final String T_CATEGORIES = "categories";
+    public static final String CAT_ID = "id";
+    public static final String CAT_NAME = "name";
+
+    // DAILY TOTALS (rollup of transactions per user, type, category and local day)
+    public static final String T_DAILY = "daily_totals";
+    public static final String D_EMAIL = "email";
+    public static final String D_TYPE = "type";
+    public static final String D_CATEGORY_ID = "category_id";
+    public static final String D_DAY = "epoch_day";          // days since 1970-01-01, local time
+    public static final String D_TOTAL = "total";            // one-time rows that occurred that day
+    public static final String D_ACTIVE_TOTAL = "active_total"; // active rows of any recurrence, at face value
+    public static final String D_ROWS = "row_count";         // all rows dated that day; 0 drops the bucket
+
+    // FULL-TEXT SEARCH (FTS4 over each transaction's description and category name; docid = transactions.id)
+    public static final String T_TX_SEARCH = "transactions_fts";
+    public static final String S_DESC = "description";
+    public static final String S_CATEGORY = "category";
+
+    // INDEXES (match the WHERE / ORDER BY of the queries below)
+    static final String IDX_TX_EMAIL_DATE = "idx_tx_email_date";
+    static final String IDX_TX_EMAIL_TYPE_CAT_DATE = "idx_tx_email_type_cat_date";
+    static final String IDX_BUDGETS_EMAIL = "idx_budgets_email";
+    static final String IDX_TX_RECURRING = "idx_tx_recurring";
+    static final String IDX_DAILY_EMAIL_DAY = "idx_daily_totals_email_day";
+
+    // QUERIES (package-private so the query plan test can EXPLAIN them)
+    static final String SQL_USER_EXISTS =
+            "SELECT " + C_EMAIL + " FROM " + T_USERS + " WHERE " + C_EMAIL + "=?";
+
+    static final String SQL_LOGIN =
+            "SELECT " + C_EMAIL + " FROM " + T_USERS +
+                    " WHERE " + C_EMAIL + "=? AND " + C_PASSWORD + "=?";
+
+    static final String SQL_USER_BY_EMAIL =
+            "SELECT " + C_FIRST + ", " + C_LAST + ", " + C_EMAIL +
+                    " FROM " + T_USERS + " WHERE " + C_EMAIL + "=?";
+
+    private static final String TX_COLUMNS =
+            TX_ID + ", " + TX_AMOUNT + ", " + TX_DATE + ", " + TX_CATEGORY_ID + ", " +
+                    TX_DESC + ", " + TX_TYPE + ", " + TX_RECURRENCE + ", " + TX_IS_ACTIVE + ", " + TX_END_DATE;
+
+    static final String SQL_TRANSACTIONS_FOR_USER =
+            "SELECT " + TX_COLUMNS + " FROM " + T_TX +
+                    " WHERE " + TX_EMAIL + "=? ORDER BY " + TX_DATE + " DESC";
+
+    // Keyset pages over (date_millis DESC, id DESC). id is the rowid, which the
+    // email/date index already carries, so each page is an index range read and
+    // costs the same however deep into the history it starts.
+    static final String SQL_TRANSACTIONS_FIRST_PAGE =
+            "SELECT " + TX_COLUMNS + " FROM " + T_TX +
+                    " WHERE " + TX_EMAIL + "=?" +
+                    " ORDER BY " + TX_DATE + " DESC, " + TX_ID + " DESC LIMIT ?";
+
+    // args: email, date, date, id, limit -> rows strictly after (date, id), newest first
+    static final String SQL_TRANSACTIONS_OLDER_PAGE =
+            "SELECT " + TX_COLUMNS + " FROM " + T_TX +
+                    " WHERE " + TX_EMAIL + "=? AND " + TX_DATE + " <= ?" +
+                    " AND (" + TX_DATE + " < ? OR " + TX_ID + " < ?)" +
+                    " ORDER BY " + TX_DATE + " DESC, " + TX_ID + " DESC LIMIT ?";
+
+    // args: email, date, date, id, limit -> rows strictly before (date, id), oldest first
+    static final String SQL_TRANSACTIONS_NEWER_PAGE =
+            "SELECT " + TX_COLUMNS + " FROM " + T_TX +
+                    " WHERE " + TX_EMAIL + "=? AND " + TX_DATE + " >= ?" +
+                    " AND (" + TX_DATE + " > ? OR " + TX_ID + " > ?)" +
+                    " ORDER BY " + TX_DATE + " ASC, " + TX_ID + " ASC LIMIT ?";
+
+    // the newest matches by id are ranked, so a common word costs the same as a rare one
+    static final int SEARCH_CANDIDATES = 1000;
+
+    // args: fts query, email, type, type, from, to, candidates, limit. Matches are
+    // read off the full-text index newest id first, up to the candidate count, and
+    // ranked by how many query words they hold (offsets() lists four numbers per
+    // hit), then newest date first
+    static final String SQL_SEARCH_TRANSACTIONS =
+            "SELECT " + TX_COLUMNS + " FROM (" +
+                    "SELECT t." + TX_ID + ", t." + TX_AMOUNT + ", t." + TX_DATE + ", t." + TX_CATEGORY_ID + ", " +
+                    "t." + TX_DESC + ", t." + TX_TYPE + ", t." + TX_RECURRENCE + ", t." + TX_IS_ACTIVE + ", " +
+                    "t." + TX_END_DATE + ", offsets(" + T_TX_SEARCH + ") AS hits" +
+                    " FROM " + T_TX_SEARCH + " CROSS JOIN " + T_TX + " t ON t." + TX_ID + " = " + T_TX_SEARCH + ".docid" +
+                    " WHERE " + T_TX_SEARCH + " MATCH ? AND t." + TX_EMAIL + "=?" +
+                    " AND (CAST(? AS INTEGER) = 0 OR t." + TX_TYPE + " = ?)" +
+                    " AND t." + TX_DATE + " BETWEEN ? AND ?" +
+                    " ORDER BY " + T_TX_SEARCH + ".docid DESC LIMIT ?)" +
+                    " ORDER BY (LENGTH(hits) - LENGTH(REPLACE(hits, ' ', '')) + 1) / 4 DESC, " +
+                    TX_DATE + " DESC, " + TX_ID + " DESC LIMIT ?";
+
+    static final String SQL_BUDGETS_FOR_USER =
+            "SELECT " + B_ID + ", " + B_CATEGORY_ID + ", " + B_LIMIT + ", " + B_PERIOD + ", " + B_ALERT_THRESHOLD +
+                    " FROM " + T_BUDGETS +
+                    " WHERE " + B_EMAIL + "=?";
+
+    static final String SQL_SPENT_FOR_CATEGORY_AND_PERIOD =
+            "SELECT SUM(" + TX_AMOUNT + ") FROM " + T_TX +
+                    " WHERE " + TX_EMAIL + "=? AND " + TX_TYPE + "=? AND " + TX_CATEGORY_ID + "=? AND " +
+                    TX_DATE + " >= ? AND " + TX_DATE + " <= ?";
+
+    // one row per budget: its own columns plus the expenses in its current window.
+    // The window start depends on the budget period, so the three starts are bound together.
+    static final String SQL_BUDGETS_WITH_SPENT =
+            "SELECT b." + B_ID + ", b." + B_CATEGORY_ID + ", b." + B_LIMIT + ", b." + B_PERIOD + ", b." + B_ALERT_THRESHOLD +
+                    ", IFNULL(SUM(t." + TX_AMOUNT + "), 0) AS spent" +
+                    " FROM " + T_BUDGETS + " b" +
+                    " LEFT JOIN " + T_TX + " t" +
+                    " ON t." + TX_EMAIL + " = b." + B_EMAIL +
+                    " AND t." + TX_TYPE + " = 2" +
+                    " AND t." + TX_CATEGORY_ID + " = b." + B_CATEGORY_ID +
+                    " AND t." + TX_DATE + " >= (CASE b." + B_PERIOD +
+                    " WHEN 'daily' THEN ? WHEN 'weekly' THEN ? ELSE ? END)" +
+                    " AND t." + TX_DATE + " <= ?" +
+                    " WHERE b." + B_EMAIL + "=?" +
+                    " GROUP BY b." + B_ID;
+
+    // recurring expenses that started by ?; their repeats are counted in Java
+    static final String SQL_RECURRING_EXPENSES_FOR_USER =
+            "SELECT " + TX_CATEGORY_ID + ", " + TX_AMOUNT + ", " + TX_DATE + ", " + TX_RECURRENCE + ", " +
+                    TX_IS_ACTIVE + ", " + TX_END_DATE +
+                    " FROM " + T_TX +
+                    " WHERE " + TX_EMAIL + "=? AND " + TX_TYPE + " = 2 AND " + TX_DATE + " <= ?" +
+                    " AND " + TX_RECURRENCE + " <> 'once'";
+
+    // recurring rows of every type that started by ?; served by the partial index
+    static final String SQL_RECURRING_FOR_USER =
+            "SELECT " + TX_TYPE + ", " + TX_CATEGORY_ID + ", " + TX_AMOUNT + ", " + TX_DATE + ", " +
+                    TX_RECURRENCE + ", " + TX_IS_ACTIVE + ", " + TX_END_DATE +
+                    " FROM " + T_TX +
+                    " WHERE " + TX_EMAIL + "=? AND " + TX_DATE + " <= ?" +
+                    " AND " + TX_RECURRENCE + " <> 'once'";
+
+    static final String SQL_FIRST_TRANSACTION_DATE =
+            "SELECT MIN(" + TX_DATE + ") FROM " + T_TX + " WHERE " + TX_EMAIL + "=?";
+
+    // args: email, first day, last day
+    static final String SQL_DAILY_TOTALS_BY_CATEGORY =
+            "SELECT " + D_TYPE + ", " + D_CATEGORY_ID + ", SUM(" + D_TOTAL + ")" +
+                    " FROM " + T_DAILY +
+                    " WHERE " + D_EMAIL + "=? AND " + D_DAY + " BETWEEN ? AND ?" +
+                    " GROUP BY " + D_TYPE + ", " + D_CATEGORY_ID;
+
+    static final String SQL_ALL_TIME_TOTALS =
+            "SELECT " + D_TYPE + ", SUM(" + D_ACTIVE_TOTAL + ")" +
+                    " FROM " + T_DAILY +
+                    " WHERE " + D_EMAIL + "=?" +
+                    " GROUP BY " + D_TYPE;
+
+    static final String SQL_ALL_CATEGORIES =
+            "SELECT " + CAT_ID + ", " + CAT_NAME + " FROM " + T_CATEGORIES;
+
+    static final String SQL_CATEGORY_ID =
+            "SELECT " + CAT_ID + " FROM " + T_CATEGORIES + " WHERE " + CAT_NAME + "=?";
+
+    static final String SQL_INSERT_TRANSACTION =
+            "INSERT INTO " + T_TX + " (" +
+                    TX_EMAIL + ", " + TX_TYPE + ", " + TX_AMOUNT + ", " + TX_DATE + ", " + TX_CATEGORY_ID + ", " +
+                    TX_DESC + ", " + TX_RECURRENCE + ", " + TX_IS_ACTIVE + ", " + TX_END_DATE +
+                    ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String WHERE_USER = C_EMAIL + "=?";
+    static final String WHERE_TX_ID_AND_EMAIL = TX_ID + "=? AND " + TX_EMAIL + "=?";
+    static final String WHERE_BUDGET_ID_AND_EMAIL = B_ID + "=? AND " + B_EMAIL + "=?";
+
+    /**
+     * Connection pragmas applied every time a connection is configured.
+     * WAL is always on, so readers keep working while a write transaction runs.
+     */
+    public static final class Tuning {
+        public static final Tuning DEFAULT = new Tuning("NORMAL", 8 * 1024, "MEMORY", 64L * 1024 * 1024);
+
+        public final String synchronous;  // "OFF", "NORMAL", "FULL"
+        public final int cacheSizeKb;     // page cache per connection
+        public final String tempStore;    // "DEFAULT", "FILE", "MEMORY"
+        public final long mmapSizeBytes;  // 0 disables memory-mapped I/O
+
+        public Tuning(String synchronous, int cacheSizeKb, String tempStore, long mmapSizeBytes) {
+            this.synchronous = synchronous;
+            this.cacheSizeKb = cacheSizeKb;
+            this.tempStore = tempStore;
+            this.mmapSizeBytes = mmapSizeBytes;
+        }
+    }
+
+    private final Tuning tuning;
+
+    // helpers in the process whose database is open; each holds one handle
+    private static final AtomicInteger OPEN_HELPERS = new AtomicInteger();
+    private boolean opened = false;
+
+    // bumped after every committed change to the transactions table, so an
+    // in-memory copy can tell whether it still matches the database
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    // category ids and names, read from the categories table on first use
+    private CategoryDictionary categories;
+
     public DBHelper(@Nullable Context context) {
+        this(context, Tuning.DEFAULT);
+    }
+
+    public DBHelper(@Nullable Context context, Tuning tuning) {
         super(context, DB_NAME, null, DB_VERSION);
+        this.tuning = tuning;
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        pragma(db, "synchronous = " + tuning.synchronous);
+        // negative cache_size is in KiB rather than pages
+        pragma(db, "cache_size = " + (-tuning.cacheSizeKb));
+        pragma(db, "temp_store = " + tuning.tempStore);
+        pragma(db, "mmap_size = " + tuning.mmapSizeBytes);
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        synchronized (this) {
+            if (!opened) {
+                opened = true;
+                OPEN_HELPERS.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        super.close();
+        if (opened) {
+            opened = false;
+            OPEN_HELPERS.decrementAndGet();
+        }
+    }
+
+    public static int getOpenHelperCount() {
+        return OPEN_HELPERS.get();
+    }
+
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * Some pragmas report their new value as a row, which execSQL rejects,
+     * so every pragma goes through rawQuery and the cursor is stepped once.
+     */
+    private static void pragma(SQLiteDatabase db, String assignment) {
+        Cursor c = db.rawQuery("PRAGMA " + assignment, null);
+        try {
+            c.moveToFirst();
+        } finally {
+            c.close();
+        }
     }
 
     @Override
@@ -58,39 +330,291 @@ public class DBHelper extends SQLiteOpenHelper {
                         ");";
         db.execSQL(createUsers);
 
-        String createTransactions =
-                "CREATE TABLE " + T_TX + " (" +
-                        TX_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                        TX_EMAIL + " TEXT NOT NULL, " +
-                        TX_TYPE + " INTEGER NOT NULL, " +
-                        TX_AMOUNT + " REAL NOT NULL, " +
-                        TX_DATE + " INTEGER NOT NULL, " +
-                        TX_CATEGORY + " TEXT NOT NULL, " +
-                        TX_DESC + " TEXT, " +
-                        TX_RECURRENCE + " TEXT DEFAULT 'once', " +
-                        TX_IS_ACTIVE + " INTEGER DEFAULT 1, " +
-                        TX_END_DATE + " INTEGER DEFAULT -1" +
-                        ");";
-        db.execSQL(createTransactions);
-
-        String createBudgets =
-                "CREATE TABLE " + T_BUDGETS + " (" +
-                        B_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                        B_EMAIL + " TEXT NOT NULL, " +
-                        B_CATEGORY + " TEXT NOT NULL, " +
-                        B_LIMIT + " REAL NOT NULL, " +
-                        B_PERIOD + " TEXT NOT NULL, " +
-                        B_ALERT_THRESHOLD + " INTEGER DEFAULT 50" +
-                        ");";
-        db.execSQL(createBudgets);
+        db.execSQL(createCategoriesSql());
+        db.execSQL(createTransactionsSql(T_TX));
+        db.execSQL(createBudgetsSql(T_BUDGETS));
+
+        createIndexes(db);
+        createDailyTotals(db);
+        createSearchIndex(db);
     }
 
+    /**
+     * Step-by-step migrations. Every step keeps the user's data;
+     * only databases older than version 7 (pre-release schema) are rebuilt.
+     */
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + T_USERS);
-        db.execSQL("DROP TABLE IF EXISTS " + T_TX);
-        db.execSQL("DROP TABLE IF EXISTS " + T_BUDGETS);
-        onCreate(db);
+        if (oldVersion < 7) {
+            db.execSQL("DROP TABLE IF EXISTS " + T_USERS);
+            db.execSQL("DROP TABLE IF EXISTS " + T_TX);
+            db.execSQL("DROP TABLE IF EXISTS " + T_BUDGETS);
+            onCreate(db);
+            return;
+        }
+
+        // v8 added the secondary indexes, v9 the daily rollup and the partial index
+        // for recurring rows, v10 turned amounts into whole cents and v11 moved
+        // category names into their own table. Each step rebuilds what the one
+        // before added, so any version from 7 up goes through the v11 step alone;
+        // the indexes can only be made after it, as one of them covers category_id.
+        if (oldVersion < 11) {
+            // v11: transactions and budgets hold a categories id instead of the name.
+            // SQLite can't change a column's type, so both tables are copied into
+            // new ones, keeping ids. Before v10 amounts were REAL and become cents here.
+            boolean inCents = oldVersion >= 10;
+            db.execSQL("DROP TABLE IF EXISTS " + T_DAILY);
+            db.execSQL(createCategoriesSql());
+            db.execSQL("INSERT OR IGNORE INTO " + T_CATEGORIES + " (" + CAT_NAME + ")" +
+                    " SELECT " + categoryNameSql("category") + " FROM " + T_TX +
+                    " UNION SELECT " + categoryNameSql("category") + " FROM " + T_BUDGETS);
+
+            rebuildWithCategoryIds(db, T_TX, createTransactionsSql(T_TX + "_new"),
+                    TX_ID + ", " + TX_EMAIL + ", " + TX_TYPE + ", " + TX_AMOUNT + ", " + TX_DATE + ", " +
+                            TX_CATEGORY_ID + ", " + TX_DESC + ", " + TX_RECURRENCE + ", " + TX_IS_ACTIVE + ", " + TX_END_DATE,
+                    "t.id, t.email, t.type, " + (inCents ? "t.amount_cents" : toCents("t.amount")) +
+                            ", t.date_millis, c." + CAT_ID + ", t.description, t.recurrence, t.is_active, t.end_date_millis");
+            rebuildWithCategoryIds(db, T_BUDGETS, createBudgetsSql(T_BUDGETS + "_new"),
+                    B_ID + ", " + B_EMAIL + ", " + B_CATEGORY_ID + ", " + B_LIMIT + ", " + B_PERIOD + ", " + B_ALERT_THRESHOLD,
+                    "t.id, t.email, c." + CAT_ID + ", " + (inCents ? "t.limit_cents" : toCents("t.limit_amount")) +
+                            ", t.period, t.alert_threshold");
+
+            createIndexes(db);
+            createDailyTotals(db);
+            backfillDailyTotals(db);
+        }
+
+        if (oldVersion < 12) {
+            // v12: full-text search over descriptions and category names
+            createSearchIndex(db);
+            backfillSearchIndex(db);
+        }
+    }
+
+    private static String createCategoriesSql() {
+        return "CREATE TABLE IF NOT EXISTS " + T_CATEGORIES + " (" +
+                CAT_ID + " INTEGER PRIMARY KEY, " +
+                CAT_NAME + " TEXT NOT NULL UNIQUE" +
+                ");";
+    }
+
+    private static String createTransactionsSql(String table) {
+        return "CREATE TABLE " + table + " (" +
+                TX_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                TX_EMAIL + " TEXT NOT NULL, " +
+                TX_TYPE + " INTEGER NOT NULL, " +
+                TX_AMOUNT + " INTEGER NOT NULL, " +
+                TX_DATE + " INTEGER NOT NULL, " +
+                TX_CATEGORY_ID + " INTEGER NOT NULL REFERENCES " + T_CATEGORIES + "(" + CAT_ID + "), " +
+                TX_DESC + " TEXT, " +
+                TX_RECURRENCE + " TEXT DEFAULT 'once', " +
+                TX_IS_ACTIVE + " INTEGER DEFAULT 1, " +
+                TX_END_DATE + " INTEGER DEFAULT -1" +
+                ");";
+    }
+
+    private static String createBudgetsSql(String table) {
+        return "CREATE TABLE " + table + " (" +
+                B_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                B_EMAIL + " TEXT NOT NULL, " +
+                B_CATEGORY_ID + " INTEGER NOT NULL REFERENCES " + T_CATEGORIES + "(" + CAT_ID + "), " +
+                B_LIMIT + " INTEGER NOT NULL, " +
+                B_PERIOD + " TEXT NOT NULL, " +
+                B_ALERT_THRESHOLD + " INTEGER DEFAULT 50" +
+                ");";
+    }
+
+    /**
+     * Copies table into a new one created by createSql (named table_new), then
+     * swaps it in. select reads the old table as t, joined to the categories row
+     * of its category name as c, and fills columns in order. The AUTOINCREMENT
+     * counter carries over, so deleted ids are not handed out again.
+     */
+    private static void rebuildWithCategoryIds(SQLiteDatabase db, String table, String createSql,
+                                               String columns, String select) {
+        String tmp = table + "_new";
+        db.execSQL(createSql);
+        db.execSQL("INSERT INTO " + tmp + " (" + columns + ")" +
+                " SELECT " + select +
+                " FROM " + table + " t JOIN " + T_CATEGORIES + " c" +
+                " ON c." + CAT_NAME + " = " + categoryNameSql("t.category"));
+        // sqlite_sequence has no key on name, so replace the copy's counter by hand
+        db.execSQL("DELETE FROM sqlite_sequence WHERE name = '" + tmp + "'");
+        db.execSQL("INSERT INTO sqlite_sequence (name, seq)" +
+                " SELECT '" + tmp + "', seq FROM sqlite_sequence WHERE name = '" + table + "'");
+        db.execSQL("DROP TABLE " + table);
+        db.execSQL("ALTER TABLE " + tmp + " RENAME TO " + table);
+    }
+
+    // a REAL dollar column as whole cents
+    private static String toCents(String column) {
+        return "CAST(ROUND(" + column + " * 100) AS INTEGER)";
+    }
+
+    // the stored name of a category column, with a blank one filed under "Other"
+    private static String categoryNameSql(String column) {
+        return "CASE WHEN TRIM(IFNULL(" + column + ", '')) = '' THEN 'Other' ELSE " + column + " END";
+    }
+
+    // one bucket per user, type, category and day from the rows already there
+    private static void backfillDailyTotals(SQLiteDatabase db) {
+        db.execSQL("INSERT INTO " + T_DAILY + " (" +
+                D_EMAIL + ", " + D_TYPE + ", " + D_CATEGORY_ID + ", " + D_DAY + ", " +
+                D_TOTAL + ", " + D_ACTIVE_TOTAL + ", " + D_ROWS + ")" +
+                " SELECT " + TX_EMAIL + ", " + TX_TYPE + ", " + TX_CATEGORY_ID + ", " + epochDaySql(T_TX) + ", " +
+                "SUM(" + occurred(T_TX) + "), SUM(" + active(T_TX) + "), COUNT(*)" +
+                " FROM " + T_TX +
+                " GROUP BY 1, 2, 3, 4");
+    }
+
+    private void createIndexes(SQLiteDatabase db) {
+        // getTransactionsForUser: email = ? ORDER BY date_millis
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + IDX_TX_EMAIL_DATE +
+                " ON " + T_TX + " (" + TX_EMAIL + ", " + TX_DATE + ")");
+
+        // spent per category: email = ? AND type = ? AND category_id = ? AND date_millis BETWEEN
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + IDX_TX_EMAIL_TYPE_CAT_DATE +
+                " ON " + T_TX + " (" + TX_EMAIL + ", " + TX_TYPE + ", " + TX_CATEGORY_ID + ", " + TX_DATE + ")");
+
+        // getBudgetsForUser
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + IDX_BUDGETS_EMAIL +
+                " ON " + T_BUDGETS + " (" + B_EMAIL + ")");
+
+        // recurring rows only, usually a handful per user
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + IDX_TX_RECURRING +
+                " ON " + T_TX + " (" + TX_EMAIL + ", " + TX_DATE + ")" +
+                " WHERE " + TX_RECURRENCE + " <> 'once'");
+    }
+
+    /**
+     * The daily_totals rollup and the triggers that keep it in step with every
+     * insert, update and delete on transactions, so period totals read one row
+     * per day and category instead of every transaction.
+     *
+     * Days are bucketed in the device time zone at the time of the write.
+     * Recurring rows only add their face value to active_total; their repeats
+     * are counted in Java (see {@link #getPeriodTotals}).
+     */
+    private void createDailyTotals(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + T_DAILY + " (" +
+                D_EMAIL + " TEXT NOT NULL, " +
+                D_TYPE + " INTEGER NOT NULL, " +
+                D_CATEGORY_ID + " INTEGER NOT NULL, " +
+                D_DAY + " INTEGER NOT NULL, " +
+                D_TOTAL + " INTEGER NOT NULL DEFAULT 0, " +
+                D_ACTIVE_TOTAL + " INTEGER NOT NULL DEFAULT 0, " +
+                D_ROWS + " INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (" + D_EMAIL + ", " + D_TYPE + ", " + D_CATEGORY_ID + ", " + D_DAY + ")" +
+                ") WITHOUT ROWID");
+
+        // range totals across all types and categories
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + IDX_DAILY_EMAIL_DAY +
+                " ON " + T_DAILY + " (" + D_EMAIL + ", " + D_DAY + ")");
+
+        // no upsert before SQLite 3.24, so make sure the bucket exists, then add to it
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_daily_totals_insert AFTER INSERT ON " + T_TX +
+                " BEGIN " +
+                ensureBucket("NEW") +
+                addToBucket("NEW", "+") +
+                " END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_daily_totals_delete AFTER DELETE ON " + T_TX +
+                " BEGIN " +
+                addToBucket("OLD", "-") +
+                dropEmptyBucket("OLD") +
+                " END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_daily_totals_update AFTER UPDATE OF " +
+                TX_EMAIL + ", " + TX_TYPE + ", " + TX_AMOUNT + ", " + TX_DATE + ", " + TX_CATEGORY_ID + ", " +
+                TX_RECURRENCE + ", " + TX_IS_ACTIVE + ", " + TX_END_DATE + " ON " + T_TX +
+                " BEGIN " +
+                addToBucket("OLD", "-") +
+                ensureBucket("NEW") +
+                addToBucket("NEW", "+") +
+                dropEmptyBucket("OLD") +
+                " END");
+    }
+
+    // local calendar day of a row's date; julianday 2440587.5 is the Unix epoch
+    private static String epochDaySql(String row) {
+        return "CAST(julianday(" + row + "." + TX_DATE + " / 1000, 'unixepoch', 'localtime') - 2440587.5 AS INTEGER)";
+    }
+
+    // amount of a one-time row that took place (see Recurrence), else 0
+    private static String occurred(String row) {
+        return "CASE WHEN IFNULL(" + row + "." + TX_RECURRENCE + ", 'once') = 'once'" +
+                " AND (" + row + "." + TX_IS_ACTIVE + " = 1 OR " + row + "." + TX_END_DATE + " >= " + row + "." + TX_DATE + ")" +
+                " THEN " + row + "." + TX_AMOUNT + " ELSE 0 END";
+    }
+
+    private static String active(String row) {
+        return "CASE WHEN " + row + "." + TX_IS_ACTIVE + " = 1 THEN " + row + "." + TX_AMOUNT + " ELSE 0 END";
+    }
+
+    private static String bucketOf(String row) {
+        return D_EMAIL + " = " + row + "." + TX_EMAIL +
+                " AND " + D_TYPE + " = " + row + "." + TX_TYPE +
+                " AND " + D_CATEGORY_ID + " = " + row + "." + TX_CATEGORY_ID +
+                " AND " + D_DAY + " = " + epochDaySql(row);
+    }
+
+    private static String ensureBucket(String row) {
+        return "INSERT OR IGNORE INTO " + T_DAILY +
+                " (" + D_EMAIL + ", " + D_TYPE + ", " + D_CATEGORY_ID + ", " + D_DAY + ")" +
+                " VALUES (" + row + "." + TX_EMAIL + ", " + row + "." + TX_TYPE + ", " +
+                row + "." + TX_CATEGORY_ID + ", " + epochDaySql(row) + "); ";
+    }
+
+    private static String addToBucket(String row, String sign) {
+        return "UPDATE " + T_DAILY + " SET " +
+                D_TOTAL + " = " + D_TOTAL + " " + sign + " (" + occurred(row) + "), " +
+                D_ACTIVE_TOTAL + " = " + D_ACTIVE_TOTAL + " " + sign + " (" + active(row) + "), " +
+                D_ROWS + " = " + D_ROWS + " " + sign + " 1" +
+                " WHERE " + bucketOf(row) + "; ";
+    }
+
+    private static String dropEmptyBucket(String row) {
+        return "DELETE FROM " + T_DAILY + " WHERE " + bucketOf(row) + " AND " + D_ROWS + " = 0; ";
+    }
+
+    /**
+     * The full-text index searched by {@link #searchTransactions}, and the
+     * triggers that keep it in step with transactions. Category names are
+     * copied in, so a search reads no other table to match them; names never
+     * change once a category exists.
+     */
+    private void createSearchIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + T_TX_SEARCH +
+                " USING fts4(" + S_DESC + ", " + S_CATEGORY + ", tokenize=unicode61)");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_tx_search_insert AFTER INSERT ON " + T_TX +
+                " BEGIN " +
+                "INSERT INTO " + T_TX_SEARCH + " (docid, " + S_DESC + ", " + S_CATEGORY + ")" +
+                " VALUES (NEW." + TX_ID + ", IFNULL(NEW." + TX_DESC + ", ''), " + categoryNameOf("NEW") + "); " +
+                " END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_tx_search_delete AFTER DELETE ON " + T_TX +
+                " BEGIN " +
+                "DELETE FROM " + T_TX_SEARCH + " WHERE docid = OLD." + TX_ID + "; " +
+                " END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_tx_search_update AFTER UPDATE OF " +
+                TX_DESC + ", " + TX_CATEGORY_ID + " ON " + T_TX +
+                " BEGIN " +
+                "UPDATE " + T_TX_SEARCH + " SET " + S_DESC + " = IFNULL(NEW." + TX_DESC + ", ''), " +
+                S_CATEGORY + " = " + categoryNameOf("NEW") + " WHERE docid = NEW." + TX_ID + "; " +
+                " END");
+    }
+
+    private static String categoryNameOf(String row) {
+        return "(SELECT " + CAT_NAME + " FROM " + T_CATEGORIES + " WHERE " + CAT_ID + " = " + row + "." + TX_CATEGORY_ID + ")";
+    }
+
+    // one search row per transaction already there
+    private static void backfillSearchIndex(SQLiteDatabase db) {
+        db.execSQL("INSERT INTO " + T_TX_SEARCH + " (docid, " + S_DESC + ", " + S_CATEGORY + ")" +
+                " SELECT t." + TX_ID + ", IFNULL(t." + TX_DESC + ", ''), c." + CAT_NAME +
+                " FROM " + T_TX + " t JOIN " + T_CATEGORIES + " c ON c." + CAT_ID + " = t." + TX_CATEGORY_ID);
     }
 
     //  AUTH
@@ -112,7 +636,7 @@ public class DBHelper extends SQLiteOpenHelper {
     public boolean emailExists(String email) {
         SQLiteDatabase db = getReadableDatabase();
         Cursor c = db.rawQuery(
-                "SELECT " + C_EMAIL + " FROM " + T_USERS + " WHERE " + C_EMAIL + "=?",
+                SQL_USER_EXISTS,
                 new String[]{email.trim().toLowerCase()}
         );
         boolean exists = c.moveToFirst();
@@ -123,8 +647,7 @@ public class DBHelper extends SQLiteOpenHelper {
     public boolean loginValid(String email, String password) {
         SQLiteDatabase db = getReadableDatabase();
         Cursor c = db.rawQuery(
-                "SELECT " + C_EMAIL + " FROM " + T_USERS +
-                        " WHERE " + C_EMAIL + "=? AND " + C_PASSWORD + "=?",
+                SQL_LOGIN,
                 new String[]{email.trim().toLowerCase(), password}
         );
         boolean ok = c.moveToFirst();
@@ -137,8 +660,7 @@ public class DBHelper extends SQLiteOpenHelper {
     public Cursor getUserByEmail(String email) {
         SQLiteDatabase db = getReadableDatabase();
         return db.rawQuery(
-                "SELECT " + C_FIRST + ", " + C_LAST + ", " + C_EMAIL +
-                        " FROM " + T_USERS + " WHERE " + C_EMAIL + "=?",
+                SQL_USER_BY_EMAIL,
                 new String[]{email.trim().toLowerCase()}
         );
     }
@@ -153,58 +675,208 @@ public class DBHelper extends SQLiteOpenHelper {
         int rows = db.update(
                 T_USERS,
                 cv,
-                C_EMAIL + "=?",
+                WHERE_USER,
                 new String[]{email.trim().toLowerCase()}
         );
 
         return rows > 0;
     }
 
+    //  CATEGORIES
+
+    /**
+     * Every category id and name, read from the categories table once and then
+     * kept up to date by this helper's writes. Entries are never removed, so
+     * anything indexed by id stays valid.
+     */
+    public synchronized CategoryDictionary getCategories() {
+        if (categories == null) {
+            categories = new CategoryDictionary();
+            loadCategories(getReadableDatabase());
+        }
+        return categories;
+    }
+
+    /**
+     * Name of a category id. A miss means another helper added the category,
+     * so the table is read again before giving up.
+     */
+    public String getCategoryName(int categoryId) {
+        String name = getCategories().name(categoryId);
+        if (name == null) {
+            loadCategories(getReadableDatabase());
+            name = categories.name(categoryId);
+        }
+        return name == null ? "Other" : name;
+    }
+
+    private void loadCategories(SQLiteDatabase db) {
+        Cursor c = db.rawQuery(SQL_ALL_CATEGORIES, null);
+        try {
+            while (c.moveToNext()) {
+                categories.put(c.getInt(0), c.getString(1));
+            }
+        } finally {
+            c.close();
+        }
+    }
+
+    // a blank category is filed under "Other", as in the v11 migration
+    private static String categoryKey(String category) {
+        return (category == null || category.trim().isEmpty()) ? "Other" : category;
+    }
+
+    // id of an existing category, or -1
+    private int findCategoryId(SQLiteDatabase db, String category) {
+        String name = categoryKey(category);
+        CategoryDictionary dictionary = getCategories();
+        int id = dictionary.idOf(name);
+        if (id >= 0) return id;
+
+        Cursor c = db.rawQuery(SQL_CATEGORY_ID, new String[]{name});
+        try {
+            if (!c.moveToFirst()) return -1;
+            id = c.getInt(0);
+        } finally {
+            c.close();
+        }
+        dictionary.put(id, name);
+        return id;
+    }
+
+    // id of the category, adding it to the categories table if it is new
+    private int categoryId(SQLiteDatabase db, String category) {
+        int id = findCategoryId(db, category);
+        if (id >= 0) return id;
+
+        String name = categoryKey(category);
+        ContentValues cv = new ContentValues();
+        cv.put(CAT_NAME, name);
+        db.insertWithOnConflict(T_CATEGORIES, null, cv, SQLiteDatabase.CONFLICT_IGNORE);
+        return findCategoryId(db, name);
+    }
+
     //  TRANSACTIONS CRUD
 
-    public long insertTransaction(String email, int type, double amount, long dateMillis, String category, String desc) {
-        return insertTransaction(email, type, amount, dateMillis, category, desc, "once", true, -1);
+    public long insertTransaction(String email, int type, long amountCents, long dateMillis, String category, String desc) {
+        return insertTransaction(email, type, amountCents, dateMillis, category, desc, "once", true, -1);
     }
 
-    public long insertTransaction(String email, int type, double amount, long dateMillis, String category, String desc, String recurrence) {
-        return insertTransaction(email, type, amount, dateMillis, category, desc, recurrence, true, -1);
+    public long insertTransaction(String email, int type, long amountCents, long dateMillis, String category, String desc, String recurrence) {
+        return insertTransaction(email, type, amountCents, dateMillis, category, desc, recurrence, true, -1);
     }
 
-    public long insertTransaction(String email, int type, double amount, long dateMillis, String category, 
+    public long insertTransaction(String email, int type, long amountCents, long dateMillis, String category, 
                                   String desc, String recurrence, boolean isActive, long endDateMillis) {
         SQLiteDatabase db = getWritableDatabase();
 
         ContentValues cv = new ContentValues();
         cv.put(TX_EMAIL, email.trim().toLowerCase());
         cv.put(TX_TYPE, type);
-        cv.put(TX_AMOUNT, amount);
+        cv.put(TX_AMOUNT, amountCents);
         cv.put(TX_DATE, dateMillis);
-        cv.put(TX_CATEGORY, category);
+        cv.put(TX_CATEGORY_ID, categoryId(db, category));
         cv.put(TX_DESC, desc);
         cv.put(TX_RECURRENCE, recurrence == null ? "once" : recurrence);
         cv.put(TX_IS_ACTIVE, isActive ? 1 : 0);
         cv.put(TX_END_DATE, endDateMillis);
 
-        return db.insert(T_TX, null, cv);
+        long id = db.insert(T_TX, null, cv);
+        if (id != -1) dataVersion.incrementAndGet();
+        return id;
+    }
+
+    /**
+     * Progress callback for {@link #insertTransactions}, called after each committed chunk.
+     */
+    public interface BulkInsertListener {
+        void onChunkCommitted(int inserted, int total);
+    }
+
+    /**
+     * Insert many transactions for one user in a single SQLite transaction.
+     */
+    public int insertTransactions(String email, List<Transaction> rows) {
+        return insertTransactions(email, rows, 0, null);
+    }
+
+    /**
+     * Insert many transactions for one user with one compiled statement.
+     * Rows are committed every chunkSize rows (0 = everything in one transaction),
+     * so an interrupted import keeps the chunks that were already committed.
+     * The id field of each row is ignored.
+     *
+     * @return number of rows inserted
+     */
+    public int insertTransactions(String email, List<Transaction> rows, int chunkSize,
+                                  @Nullable BulkInsertListener listener) {
+        if (rows == null || rows.isEmpty()) return 0;
+
+        int total = rows.size();
+        int chunk = (chunkSize <= 0) ? total : chunkSize;
+        String owner = email.trim().toLowerCase();
+
+        SQLiteDatabase db = getWritableDatabase();
+        // new categories are added up front, outside the chunk transactions, so a
+        // rolled back chunk can't leave an id in the dictionary the table doesn't have
+        int[] categoryIds = new int[total];
+        for (int i = 0; i < total; i++) categoryIds[i] = categoryId(db, rows.get(i).category);
+
+        SQLiteStatement insert = db.compileStatement(SQL_INSERT_TRANSACTION);
+        int inserted = 0;
+
+        try {
+            while (inserted < total) {
+                int end = Math.min(inserted + chunk, total);
+
+                db.beginTransaction();
+                try {
+                    for (int i = inserted; i < end; i++) {
+                        Transaction t = rows.get(i);
+                        insert.bindString(1, owner);
+                        insert.bindLong(2, t.type);
+                        insert.bindLong(3, t.amountCents);
+                        insert.bindLong(4, t.dateMillis);
+                        insert.bindLong(5, categoryIds[i]);
+                        if (t.description == null) insert.bindNull(6);
+                        else insert.bindString(6, t.description);
+                        insert.bindString(7, t.recurrence == null ? "once" : t.recurrence);
+                        insert.bindLong(8, t.isActive ? 1 : 0);
+                        insert.bindLong(9, t.endDateMillis);
+                        insert.executeInsert();
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+
+                inserted = end;
+                dataVersion.incrementAndGet();
+                if (listener != null) listener.onChunkCommitted(inserted, total);
+            }
+        } finally {
+            insert.close();
+        }
+        return inserted;
     }
 
-    public boolean updateTransaction(String email, int id, int type, double amount, long dateMillis, String category, String desc) {
-        return updateTransaction(email, id, type, amount, dateMillis, category, desc, "once", true, -1);
+    public boolean updateTransaction(String email, int id, int type, long amountCents, long dateMillis, String category, String desc) {
+        return updateTransaction(email, id, type, amountCents, dateMillis, category, desc, "once", true, -1);
     }
 
-    public boolean updateTransaction(String email, int id, int type, double amount, long dateMillis, String category, String desc, String recurrence) {
-        return updateTransaction(email, id, type, amount, dateMillis, category, desc, recurrence, true, -1);
+    public boolean updateTransaction(String email, int id, int type, long amountCents, long dateMillis, String category, String desc, String recurrence) {
+        return updateTransaction(email, id, type, amountCents, dateMillis, category, desc, recurrence, true, -1);
     }
 
-    public boolean updateTransaction(String email, int id, int type, double amount, long dateMillis, 
+    public boolean updateTransaction(String email, int id, int type, long amountCents, long dateMillis, 
                                      String category, String desc, String recurrence, boolean isActive, long endDateMillis) {
         SQLiteDatabase db = getWritableDatabase();
 
         ContentValues cv = new ContentValues();
         cv.put(TX_TYPE, type);
-        cv.put(TX_AMOUNT, amount);
+        cv.put(TX_AMOUNT, amountCents);
         cv.put(TX_DATE, dateMillis);
-        cv.put(TX_CATEGORY, category);
+        cv.put(TX_CATEGORY_ID, categoryId(db, category));
         cv.put(TX_DESC, desc);
         cv.put(TX_RECURRENCE, recurrence == null ? "once" : recurrence);
         cv.put(TX_IS_ACTIVE, isActive ? 1 : 0);
@@ -213,10 +885,11 @@ public class DBHelper extends SQLiteOpenHelper {
         int rows = db.update(
                 T_TX,
                 cv,
-                TX_ID + "=? AND " + TX_EMAIL + "=?",
+                WHERE_TX_ID_AND_EMAIL,
                 new String[]{String.valueOf(id), email.trim().toLowerCase()}
         );
 
+        if (rows > 0) dataVersion.incrementAndGet();
         return rows > 0;
     }
 
@@ -233,10 +906,11 @@ public class DBHelper extends SQLiteOpenHelper {
         int rows = db.update(
                 T_TX,
                 cv,
-                TX_ID + "=? AND " + TX_EMAIL + "=?",
+                WHERE_TX_ID_AND_EMAIL,
                 new String[]{String.valueOf(id), email.trim().toLowerCase()}
         );
 
+        if (rows > 0) dataVersion.incrementAndGet();
         return rows > 0;
     }
 
@@ -253,10 +927,11 @@ public class DBHelper extends SQLiteOpenHelper {
         int rows = db.update(
                 T_TX,
                 cv,
-                TX_ID + "=? AND " + TX_EMAIL + "=?",
+                WHERE_TX_ID_AND_EMAIL,
                 new String[]{String.valueOf(id), email.trim().toLowerCase()}
         );
 
+        if (rows > 0) dataVersion.incrementAndGet();
         return rows > 0;
     }
 
@@ -264,30 +939,113 @@ public class DBHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = getWritableDatabase();
         int rows = db.delete(
                 T_TX,
-                TX_ID + "=? AND " + TX_EMAIL + "=?",
+                WHERE_TX_ID_AND_EMAIL,
                 new String[]{String.valueOf(id), email.trim().toLowerCase()}
         );
+        if (rows > 0) dataVersion.incrementAndGet();
         return rows > 0;
     }
 
     public Cursor getTransactionsForUser(String email) {
         SQLiteDatabase db = getReadableDatabase();
         return db.rawQuery(
-                "SELECT " + TX_ID + ", " + TX_AMOUNT + ", " + TX_DATE + ", " + TX_CATEGORY + ", " + 
-                        TX_DESC + ", " + TX_TYPE + ", " + TX_RECURRENCE + ", " + TX_IS_ACTIVE + ", " + TX_END_DATE +
-                        " FROM " + T_TX +
-                        " WHERE " + TX_EMAIL + "=? ORDER BY " + TX_DATE + " DESC",
+                SQL_TRANSACTIONS_FOR_USER,
                 new String[]{email.trim().toLowerCase()}
         );
     }
 
+    /**
+     * The newest {@code limit} transactions of a user.
+     */
+    public Cursor getTransactionsFirstPage(String email, int limit) {
+        SQLiteDatabase db = getReadableDatabase();
+        return db.rawQuery(
+                SQL_TRANSACTIONS_FIRST_PAGE,
+                new String[]{email.trim().toLowerCase(), String.valueOf(limit)}
+        );
+    }
+
+    /**
+     * Up to {@code limit} transactions that sort after the row (dateMillis, id),
+     * i.e. older ones, newest first.
+     */
+    public Cursor getTransactionsOlderThan(String email, long dateMillis, int id, int limit) {
+        SQLiteDatabase db = getReadableDatabase();
+        String date = String.valueOf(dateMillis);
+        return db.rawQuery(
+                SQL_TRANSACTIONS_OLDER_PAGE,
+                new String[]{email.trim().toLowerCase(), date, date, String.valueOf(id), String.valueOf(limit)}
+        );
+    }
+
+    /**
+     * Up to {@code limit} transactions that sort before the row (dateMillis, id),
+     * i.e. newer ones. They come back oldest first, nearest to the anchor.
+     */
+    public Cursor getTransactionsNewerThan(String email, long dateMillis, int id, int limit) {
+        SQLiteDatabase db = getReadableDatabase();
+        String date = String.valueOf(dateMillis);
+        return db.rawQuery(
+                SQL_TRANSACTIONS_NEWER_PAGE,
+                new String[]{email.trim().toLowerCase(), date, date, String.valueOf(id), String.valueOf(limit)}
+        );
+    }
+
+    //  SEARCH
+
+    /**
+     * Transactions of a user whose description or category holds every word of
+     * the query, each word as a prefix ("cof sta" finds "Coffee at Starbucks").
+     * Case and accents are ignored. type 0 matches both types; dates are
+     * inclusive. Rows holding the query words more often come first, then the
+     * newest. Only the newest {@link #SEARCH_CANDIDATES} matches (by id, which
+     * follows insertion) are ranked, so a word found in most rows is as quick
+     * to search as a rare one.
+     */
+    public Cursor searchTransactions(String email, String query, int type, long dateFrom, long dateTo, int limit) {
+        String match = ftsQuery(query);
+        if (match == null) return new MatrixCursor(TX_COLUMNS.split(", "));
+
+        SQLiteDatabase db = getReadableDatabase();
+        String kind = String.valueOf(type);
+        return db.rawQuery(
+                SQL_SEARCH_TRANSACTIONS,
+                new String[]{match, email.trim().toLowerCase(), kind, kind,
+                        String.valueOf(dateFrom), String.valueOf(dateTo),
+                        String.valueOf(Math.max(limit, SEARCH_CANDIDATES)), String.valueOf(limit)}
+        );
+    }
+
+    /**
+     * The FTS query for what the user typed: every run of letters and digits
+     * becomes a prefix term, and everything else (quotes, operators) is
+     * dropped. null when nothing searchable is left.
+     */
+    static String ftsQuery(String query) {
+        if (query == null) return null;
+        StringBuilder match = new StringBuilder();
+        int i = 0;
+        int n = query.length();
+        while (i < n) {
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(query.charAt(i))) i++;
+            if (i > start) {
+                if (match.length() > 0) match.append(' ');
+                // lowercase, so a typed AND, OR or NOT is a word rather than an operator
+                match.append(query.substring(start, i).toLowerCase(Locale.ROOT)).append('*');
+            } else {
+                i++;
+            }
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
     //  PASSWORD
 
     public boolean checkPassword(String email, String currentPassword) {
         SQLiteDatabase db = getReadableDatabase();
         Cursor c = db.rawQuery(
-                "SELECT " + C_EMAIL + " FROM " + T_USERS +
-                        " WHERE " + C_EMAIL + "=? AND " + C_PASSWORD + "=?",
+                SQL_LOGIN,
                 new String[]{email.trim().toLowerCase(), currentPassword}
         );
         boolean ok = c.moveToFirst();
@@ -304,7 +1062,7 @@ public class DBHelper extends SQLiteOpenHelper {
         int rows = db.update(
                 T_USERS,
                 cv,
-                C_EMAIL + "=?",
+                WHERE_USER,
                 new String[]{email.trim().toLowerCase()}
         );
         return rows > 0;
@@ -312,32 +1070,32 @@ public class DBHelper extends SQLiteOpenHelper {
 
     //  BUDGETS CRUD
 
-    public long insertBudget(String email, String category, double limitAmount, String period, int alertThreshold) {
+    public long insertBudget(String email, String category, long limitCents, String period, int alertThreshold) {
         SQLiteDatabase db = getWritableDatabase();
 
         ContentValues cv = new ContentValues();
         cv.put(B_EMAIL, email.trim().toLowerCase());
-        cv.put(B_CATEGORY, category);
-        cv.put(B_LIMIT, limitAmount);
+        cv.put(B_CATEGORY_ID, categoryId(db, category));
+        cv.put(B_LIMIT, limitCents);
         cv.put(B_PERIOD, period);
         cv.put(B_ALERT_THRESHOLD, alertThreshold);
 
         return db.insert(T_BUDGETS, null, cv);
     }
 
-    public boolean updateBudget(String email, int id, String category, double limitAmount, String period, int alertThreshold) {
+    public boolean updateBudget(String email, int id, String category, long limitCents, String period, int alertThreshold) {
         SQLiteDatabase db = getWritableDatabase();
 
         ContentValues cv = new ContentValues();
-        cv.put(B_CATEGORY, category);
-        cv.put(B_LIMIT, limitAmount);
+        cv.put(B_CATEGORY_ID, categoryId(db, category));
+        cv.put(B_LIMIT, limitCents);
         cv.put(B_PERIOD, period);
         cv.put(B_ALERT_THRESHOLD, alertThreshold);
 
         int rows = db.update(
                 T_BUDGETS,
                 cv,
-                B_ID + "=? AND " + B_EMAIL + "=?",
+                WHERE_BUDGET_ID_AND_EMAIL,
                 new String[]{String.valueOf(id), email.trim().toLowerCase()}
         );
 
@@ -348,7 +1106,7 @@ public class DBHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = getWritableDatabase();
         int rows = db.delete(
                 T_BUDGETS,
-                B_ID + "=? AND " + B_EMAIL + "=?",
+                WHERE_BUDGET_ID_AND_EMAIL,
                 new String[]{String.valueOf(id), email.trim().toLowerCase()}
         );
         return rows > 0;
@@ -357,34 +1115,205 @@ public class DBHelper extends SQLiteOpenHelper {
     public Cursor getBudgetsForUser(String email) {
         SQLiteDatabase db = getReadableDatabase();
         return db.rawQuery(
-                "SELECT " + B_ID + ", " + B_CATEGORY + ", " + B_LIMIT + ", " + B_PERIOD + ", " + B_ALERT_THRESHOLD +
-                        " FROM " + T_BUDGETS +
-                        " WHERE " + B_EMAIL + "=?",
+                SQL_BUDGETS_FOR_USER,
                 new String[]{email.trim().toLowerCase()}
         );
     }
 
-    public double getSpentAmountForCategoryAndPeriod(String email, String category, long startMillis, long endMillis) {
+    public long getSpentAmountForCategoryAndPeriod(String email, String category, long startMillis, long endMillis) {
         SQLiteDatabase db = getReadableDatabase();
+        int categoryId = findCategoryId(db, category);
+        if (categoryId < 0) return 0;
+
         Cursor c = db.rawQuery(
-                "SELECT SUM(" + TX_AMOUNT + ") FROM " + T_TX +
-                        " WHERE " + TX_EMAIL + "=? AND " + TX_CATEGORY + "=? AND " + TX_TYPE + "=? AND " +
-                        TX_DATE + " >= ? AND " + TX_DATE + " <= ?",
+                SQL_SPENT_FOR_CATEGORY_AND_PERIOD,
                 new String[]{
                         email.trim().toLowerCase(),
-                        category,
                         String.valueOf(2), // EXPENSE
+                        String.valueOf(categoryId),
                         String.valueOf(startMillis),
                         String.valueOf(endMillis)
                 }
         );
 
-        double total = 0.0;
+        long total = 0;
         if (c != null && c.moveToFirst()) {
-            total = c.getDouble(0);
+            total = c.getLong(0);
             c.close();
         }
         return total;
     }
 
+    /**
+     * All budgets of the user together with the amount spent in each budget's current
+     * period (daily, weekly or monthly, up to nowMillis), in a single grouped query.
+     * Columns: id, category_id, limit_cents, period, alert_threshold, spent
+     */
+    public Cursor getBudgetsWithSpentForUser(String email, long nowMillis) {
+        SQLiteDatabase db = getReadableDatabase();
+        return db.rawQuery(
+                SQL_BUDGETS_WITH_SPENT,
+                new String[]{
+                        String.valueOf(getPeriodStart("daily", nowMillis)),
+                        String.valueOf(getPeriodStart("weekly", nowMillis)),
+                        String.valueOf(getPeriodStart("monthly", nowMillis)),
+                        String.valueOf(nowMillis),
+                        email.trim().toLowerCase()
+                }
+        );
+    }
+
+    /**
+     * All budgets of the user with what was spent in each budget's current period.
+     * The grouped query sums the rows dated inside the period; a recurring expense
+     * then adds every further occurrence in the period, e.g. a monthly rent that
+     * started last year.
+     */
+    public List<Budget> getBudgetsWithSpent(String email, long nowMillis) {
+        List<Budget> budgets = new ArrayList<>();
+        Map<Integer, List<Budget>> byCategory = new HashMap<>();
+
+        Cursor c = getBudgetsWithSpentForUser(email, nowMillis);
+        try {
+            while (c.moveToNext()) {
+                int categoryId = c.getInt(1);
+                Budget b = new Budget(c.getInt(0), getCategoryName(categoryId), c.getLong(2), c.getString(3), c.getInt(4));
+                b.spentCents = c.getLong(5);
+                budgets.add(b);
+                List<Budget> same = byCategory.get(categoryId);
+                if (same == null) byCategory.put(categoryId, same = new ArrayList<>());
+                same.add(b);
+            }
+        } finally {
+            c.close();
+        }
+        if (budgets.isEmpty()) return budgets;
+
+        Map<String, Recurrence.Window> windows = new HashMap<>();
+        Cursor r = getReadableDatabase().rawQuery(
+                SQL_RECURRING_EXPENSES_FOR_USER,
+                new String[]{email.trim().toLowerCase(), String.valueOf(nowMillis)}
+        );
+        try {
+            while (r.moveToNext()) {
+                List<Budget> matching = byCategory.get(r.getInt(0));
+                if (matching == null) continue;
+
+                long amount = r.getLong(1);
+                long dateMillis = r.getLong(2);
+                String recurrence = r.getString(3);
+                boolean isActive = r.getInt(4) == 1;
+                long endDateMillis = r.getLong(5);
+
+                for (Budget b : matching) {
+                    Recurrence.Window w = windows.get(b.period);
+                    if (w == null) {
+                        w = Recurrence.window(getPeriodStart(b.period, nowMillis), nowMillis);
+                        windows.put(b.period, w);
+                    }
+                    long occurrences = w.count(recurrence, dateMillis, isActive, endDateMillis);
+                    // the grouped query already has the first one if it is dated in the period
+                    if (dateMillis >= w.startMillis) occurrences--;
+                    if (occurrences > 0) b.spentCents += occurrences * amount;
+                }
+            }
+        } finally {
+            r.close();
+        }
+        return budgets;
+    }
+
+    /**
+     * Income and expenses over [startMillis, endMillis], overall and per category.
+     * One-time rows come from the daily rollup, whole local days from the day of
+     * startMillis through the day of endMillis, so the cost grows with the number
+     * of days rather than the number of transactions. Recurring rows add every
+     * occurrence inside the range.
+     */
+    public PeriodTotals getPeriodTotals(String email, long startMillis, long endMillis) {
+        PeriodTotals totals = new PeriodTotals(getCategories());
+        String user = email.trim().toLowerCase();
+        SQLiteDatabase db = getReadableDatabase();
+
+        Cursor c = db.rawQuery(
+                SQL_DAILY_TOTALS_BY_CATEGORY,
+                new String[]{user, String.valueOf(epochDay(startMillis)), String.valueOf(epochDay(endMillis))}
+        );
+        try {
+            while (c.moveToNext()) {
+                totals.add(c.getInt(0), c.getInt(1), c.getLong(2));
+            }
+        } finally {
+            c.close();
+        }
+
+        Recurrence.Window window = Recurrence.window(startMillis, endMillis);
+        Cursor r = db.rawQuery(SQL_RECURRING_FOR_USER, new String[]{user, String.valueOf(endMillis)});
+        try {
+            while (r.moveToNext()) {
+                long occurrences = window.count(r.getString(4), r.getLong(3), r.getInt(5) == 1, r.getLong(6));
+                totals.add(r.getInt(0), r.getInt(1), occurrences * r.getLong(2));
+            }
+        } finally {
+            r.close();
+        }
+        return totals;
+    }
+
+    /**
+     * Face value of every active transaction of the user, whatever its date or recurrence.
+     */
+    public PeriodTotals getAllTimeTotals(String email) {
+        PeriodTotals totals = new PeriodTotals(getCategories());
+        Cursor c = getReadableDatabase().rawQuery(SQL_ALL_TIME_TOTALS, new String[]{email.trim().toLowerCase()});
+        try {
+            while (c.moveToNext()) {
+                int type = c.getInt(0);
+                if (type == Transaction.INCOME) totals.income = c.getLong(1);
+                else if (type == Transaction.EXPENSE) totals.expenses = c.getLong(1);
+            }
+        } finally {
+            c.close();
+        }
+        return totals;
+    }
+
+    /**
+     * Date of the user's oldest transaction, or -1 if there is none.
+     */
+    public long getFirstTransactionDate(String email) {
+        Cursor c = getReadableDatabase().rawQuery(SQL_FIRST_TRANSACTION_DATE, new String[]{email.trim().toLowerCase()});
+        try {
+            return c.moveToFirst() && !c.isNull(0) ? c.getLong(0) : -1;
+        } finally {
+            c.close();
+        }
+    }
+
+    // same day numbering as the rollup: local calendar day since 1970-01-01
+    private static long epochDay(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Start of the current budget period ("daily", "weekly", "monthly") containing nowMillis.
+     */
+    public static long getPeriodStart(String period, long nowMillis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(nowMillis);
+
+        if ("daily".equals(period)) {
+            // today only
+        } else if ("weekly".equals(period)) {
+            cal.set(Calendar.DAY_OF_WEEK, cal.getFirstDayOfWeek());
+        } else { // monthly
+            cal.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+
 }
@@ -1,7 +1,19 @@
 package com.labproject.app.data.db;
 
 import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import com.labproject.app.FinanceApp;
+import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.utils.Money;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -36,6 +48,14 @@ import java.util.Random;
  * 4. Specific test transactions added on December 15, 2025:
  *    - Income: $4500 Monthly Salary, $500 Weekly Freelance, $5000 Yearly Bonus, $100 One-time Gift
  *    - Expense: $1200 Monthly Rent, $150 Weekly Groceries, $1200 Yearly Insurance, $250 One-time Electronics
+ *
+ * LOAD TEST DATA:
+ * ---------------
+ * {@link #generate} fills the database from a {@link Config}: any number of
+ * users, years of history, rows per day, recurring share, categories and
+ * budgets, from a seed. Rows are streamed in batches of {@link #BATCH_ROWS},
+ * each in its own SQLite transaction, so memory stays the same at any size.
+ * {@link Config#HEAVY_USER} and {@link Config#MULTI_TENANT} are the presets.
  */
 public class TestDataGenerator {
 
@@ -45,17 +65,85 @@ public class TestDataGenerator {
     public static final String MONTHLY = "monthly";
     public static final String YEARLY = "yearly";
 
-    public static void generateTestData(Context context) {
-        DBHelper db = new DBHelper(context);
-        String testEmail = "test@finance.com";
+    public static final String PASSWORD = "Test123";
+    // the sample's one user; generate() uses its own load<N>@finance.com users
+    public static final String SAMPLE_EMAIL = "test@finance.com";
+    public static final int BATCH_ROWS = 5_000;
+
+    private static final String[] INCOME_CATEGORIES = {"Salary", "Freelance", "Investment", "Gift", "Refund"};
+    private static final String[] EXPENSE_CATEGORIES = {"Foods", "Bills", "Transportation", "Education",
+            "Healthcare", "Entertainment", "Dining", "Shopping"};
+    private static final String[] RECURRENCES = {WEEKLY, MONTHLY, MONTHLY, YEARLY};
+    private static final String[] BUDGET_PERIODS = {"monthly", "weekly", "daily"};
+    private static final String[] PLACES = {"downtown", "online", "mall", "station", "market", "campus"};
+
+    /**
+     * What {@link #generate} creates. Users are load0@finance.com,
+     * load1@finance.com and so on, all with {@link #PASSWORD}, apart from the
+     * sample's {@link #SAMPLE_EMAIL}.
+     */
+    public static final class Config {
+        /** One user with ten years of history, about 500,000 rows. */
+        public static final Config HEAVY_USER = new Config(1, 10, 137, 2, 20, 10, 12345);
+        /** 1,000 users with a year of history each, about 730,000 rows. */
+        public static final Config MULTI_TENANT = new Config(1_000, 1, 2, 3, 8, 5, 12345);
+
+        public final int users;
+        public final int years;                 // of history, up to the end date
+        public final double transactionsPerDay; // per user; the fraction is the chance of one more
+        public final int recurringPercent;      // share of rows that repeat weekly, monthly or yearly
+        public final int categories;            // expense categories in use; income has its own five
+        public final int budgetsPerUser;        // at most one per expense category
+        public final long seed;
+
+        public Config(int users, int years, double transactionsPerDay, int recurringPercent,
+                      int categories, int budgetsPerUser, long seed) {
+            this.users = users;
+            this.years = years;
+            this.transactionsPerDay = transactionsPerDay;
+            this.recurringPercent = recurringPercent;
+            this.categories = categories;
+            this.budgetsPerUser = budgetsPerUser;
+            this.seed = seed;
+        }
+
+        /** About how many rows generate() inserts, for progress. */
+        public long expectedRows() {
+            return Math.round(users * years * 365.25 * transactionsPerDay);
+        }
+    }
+
+    /**
+     * Called after each committed batch.
+     */
+    public interface Progress {
+        void onBatchCommitted(long inserted, long expected);
+    }
+
+    public static int generateTestData(Context context) {
+        return generateTestData(FinanceApp.getDatabase(context));
+    }
+
+    /**
+     * Fills {@link #SAMPLE_EMAIL} with the 2025 sample.
+     *
+     * @return number of rows inserted, 0 if the user already had some
+     */
+    public static int generateTestData(DBHelper db) {
+        String testEmail = SAMPLE_EMAIL;
         
         // Create test user if not exists
         if (!db.emailExists(testEmail)) {
-            db.registerUser(testEmail, "Test", "User", "Test123");
+            db.registerUser(testEmail, "Test", "User", PASSWORD);
         }
+        // already generated; a second run would only duplicate every row and budget
+        if (db.getFirstTransactionDate(testEmail) >= 0) return 0;
 
         Random random = new Random(12345); // Fixed seed for reproducible data
 
+        // Rows are collected first and written in one bulk transaction
+        List<Transaction> rows = new ArrayList<>();
+
         // Income categories with typical recurrence
         String[] incomeCategories = {"Salary", "Freelance", "Investment", "Gift", "Refund"};
         
@@ -68,25 +156,25 @@ public class TestDataGenerator {
         long dec15 = getDateMillis(2025, Calendar.DECEMBER, 15);
         
         // --- INCOME with different recurrence types
-        db.insertTransaction(testEmail, 1, 4500.00, dec15, "Salary", "Monthly salary from company", MONTHLY);
-        db.insertTransaction(testEmail, 1, 500.00, dec15, "Freelance", "Weekly freelance work", WEEKLY);
-        db.insertTransaction(testEmail, 1, 5000.00, dec15, "Investment", "Annual bonus / dividend", YEARLY);
-        db.insertTransaction(testEmail, 1, 100.00, dec15, "Gift", "One-time birthday gift", ONCE);
+        add(rows, 1, 4500.00, dec15, "Salary", "Monthly salary from company", MONTHLY);
+        add(rows, 1, 500.00, dec15, "Freelance", "Weekly freelance work", WEEKLY);
+        add(rows, 1, 5000.00, dec15, "Investment", "Annual bonus / dividend", YEARLY);
+        add(rows, 1, 100.00, dec15, "Gift", "One-time birthday gift", ONCE);
         
         //  EXPENSES with different recurrence types
-        db.insertTransaction(testEmail, 2, 1200.00, dec15, "Bills", "Monthly rent payment", MONTHLY);
-        db.insertTransaction(testEmail, 2, 150.00, dec15, "Foods", "Weekly grocery shopping", WEEKLY);
-        db.insertTransaction(testEmail, 2, 1200.00, dec15, "Healthcare", "Yearly health insurance", YEARLY);
-        db.insertTransaction(testEmail, 2, 250.00, dec15, "Shopping", "One-time electronics purchase", ONCE);
+        add(rows, 2, 1200.00, dec15, "Bills", "Monthly rent payment", MONTHLY);
+        add(rows, 2, 150.00, dec15, "Foods", "Weekly grocery shopping", WEEKLY);
+        add(rows, 2, 1200.00, dec15, "Healthcare", "Yearly health insurance", YEARLY);
+        add(rows, 2, 250.00, dec15, "Shopping", "One-time electronics purchase", ONCE);
         
         // More monthly recurring expenses (common bills)
-        db.insertTransaction(testEmail, 2, 15.99, dec15, "Entertainment", "Netflix subscription", MONTHLY);
-        db.insertTransaction(testEmail, 2, 79.99, dec15, "Bills", "Internet bill", MONTHLY);
-        db.insertTransaction(testEmail, 2, 45.00, dec15, "Transportation", "Monthly bus pass", MONTHLY);
+        add(rows, 2, 15.99, dec15, "Entertainment", "Netflix subscription", MONTHLY);
+        add(rows, 2, 79.99, dec15, "Bills", "Internet bill", MONTHLY);
+        add(rows, 2, 45.00, dec15, "Transportation", "Monthly bus pass", MONTHLY);
         
         // More weekly recurring expenses
-        db.insertTransaction(testEmail, 2, 50.00, dec15, "Dining", "Weekly dining out", WEEKLY);
-        db.insertTransaction(testEmail, 2, 30.00, dec15, "Transportation", "Weekly gas/fuel", WEEKLY);
+        add(rows, 2, 50.00, dec15, "Dining", "Weekly dining out", WEEKLY);
+        add(rows, 2, 30.00, dec15, "Transportation", "Weekly gas/fuel", WEEKLY);
 
         // GENERATE HISTORICAL DATA (March to November 2025)
         // Mix of recurrence types for realistic data
@@ -96,7 +184,7 @@ public class TestDataGenerator {
             // Monthly salary (always monthly recurrence)
             double salaryAmount = 4000 + random.nextDouble() * 1500;
             int salaryDay = 1 + random.nextInt(5); // Typically early in month
-            db.insertTransaction(testEmail, 1, salaryAmount, 
+            add(rows, 1, salaryAmount, 
                 getDateMillis(2025, month, salaryDay), 
                 "Salary", "Monthly salary", MONTHLY);
             
@@ -105,7 +193,7 @@ public class TestDataGenerator {
                 double freelanceAmount = 200 + random.nextDouble() * 500;
                 int freelanceDay = 10 + random.nextInt(15);
                 String freelanceRecurrence = random.nextBoolean() ? WEEKLY : ONCE;
-                db.insertTransaction(testEmail, 1, freelanceAmount,
+                add(rows, 1, freelanceAmount,
                     getDateMillis(2025, month, freelanceDay),
                     "Freelance", freelanceRecurrence.equals(WEEKLY) ? "Weekly project" : "One-time project", 
                     freelanceRecurrence);
@@ -115,7 +203,7 @@ public class TestDataGenerator {
             if (month == Calendar.MARCH || month == Calendar.JUNE || 
                 month == Calendar.SEPTEMBER) {
                 double investmentAmount = 500 + random.nextDouble() * 1000;
-                db.insertTransaction(testEmail, 1, investmentAmount,
+                add(rows, 1, investmentAmount,
                     getDateMillis(2025, month, 15),
                     "Investment", "Quarterly dividend", YEARLY);
             }
@@ -123,11 +211,11 @@ public class TestDataGenerator {
             // --- EXPENSE TRANSACTIONS
             
             // Monthly bills (rent, utilities - MONTHLY recurrence)
-            db.insertTransaction(testEmail, 2, 1100 + random.nextDouble() * 200,
+            add(rows, 2, 1100 + random.nextDouble() * 200,
                 getDateMillis(2025, month, 1),
                 "Bills", "Monthly rent", MONTHLY);
             
-            db.insertTransaction(testEmail, 2, 60 + random.nextDouble() * 40,
+            add(rows, 2, 60 + random.nextDouble() * 40,
                 getDateMillis(2025, month, 5),
                 "Bills", "Electricity bill", MONTHLY);
             
@@ -135,7 +223,7 @@ public class TestDataGenerator {
             for (int week = 0; week < 4; week++) {
                 int day = 1 + (week * 7) + random.nextInt(3);
                 if (day > 28) day = 28;
-                db.insertTransaction(testEmail, 2, 100 + random.nextDouble() * 80,
+                add(rows, 2, 100 + random.nextDouble() * 80,
                     getDateMillis(2025, month, day),
                     "Foods", "Weekly groceries", WEEKLY);
             }
@@ -146,19 +234,19 @@ public class TestDataGenerator {
                 double amount = 20 + random.nextDouble() * 200;
                 int day = 1 + random.nextInt(28);
                 String category = expenseCategories[random.nextInt(expenseCategories.length)];
-                db.insertTransaction(testEmail, 2, amount,
+                add(rows, 2, amount,
                     getDateMillis(2025, month, day),
                     category, "One-time " + category.toLowerCase() + " expense", ONCE);
             }
             
             // Monthly subscriptions
-            db.insertTransaction(testEmail, 2, 12.99 + random.nextDouble() * 5,
+            add(rows, 2, 12.99 + random.nextDouble() * 5,
                 getDateMillis(2025, month, 10),
                 "Entertainment", "Streaming subscription", MONTHLY);
             
             // Weekly entertainment
             if (random.nextDouble() > 0.3) {
-                db.insertTransaction(testEmail, 2, 30 + random.nextDouble() * 50,
+                add(rows, 2, 30 + random.nextDouble() * 50,
                     getDateMillis(2025, month, random.nextInt(28) + 1),
                     "Entertainment", "Weekly movie/activity", WEEKLY);
             }
@@ -166,28 +254,124 @@ public class TestDataGenerator {
 
         // YEARLY EXPENSES (added at specific months)
         // Car insurance in January
-        db.insertTransaction(testEmail, 2, 800.00,
+        add(rows, 2, 800.00,
             getDateMillis(2025, Calendar.JANUARY, 15),
             "Transportation", "Annual car insurance", YEARLY);
         
         // Health insurance in March
-        db.insertTransaction(testEmail, 2, 1500.00,
+        add(rows, 2, 1500.00,
             getDateMillis(2025, Calendar.MARCH, 1),
             "Healthcare", "Annual health insurance premium", YEARLY);
         
         // Tax payment in April
-        db.insertTransaction(testEmail, 2, 2500.00,
+        add(rows, 2, 2500.00,
             getDateMillis(2025, Calendar.APRIL, 15),
             "Bills", "Annual tax payment", YEARLY);
 
+        int inserted = db.insertTransactions(testEmail, rows);
+
         // BUDGETS
-        db.insertBudget(testEmail, "Foods", 800.00, "monthly", 75);
-        db.insertBudget(testEmail, "Bills", 1500.00, "monthly", 80);
-        db.insertBudget(testEmail, "Entertainment", 300.00, "monthly", 70);
-        db.insertBudget(testEmail, "Transportation", 400.00, "monthly", 85);
-        db.insertBudget(testEmail, "Shopping", 500.00, "monthly", 60);
-        db.insertBudget(testEmail, "Dining", 400.00, "monthly", 50);
-        db.insertBudget(testEmail, "Healthcare", 200.00, "monthly", 90);
+        db.insertBudget(testEmail, "Foods", 800_00, "monthly", 75);
+        db.insertBudget(testEmail, "Bills", 1500_00, "monthly", 80);
+        db.insertBudget(testEmail, "Entertainment", 300_00, "monthly", 70);
+        db.insertBudget(testEmail, "Transportation", 400_00, "monthly", 85);
+        db.insertBudget(testEmail, "Shopping", 500_00, "monthly", 60);
+        db.insertBudget(testEmail, "Dining", 400_00, "monthly", 50);
+        db.insertBudget(testEmail, "Healthcare", 200_00, "monthly", 90);
+        return inserted;
+    }
+
+    /**
+     * Creates the config's users with their history up to endMillis and their
+     * budgets. The same config and end date always give the same rows. Users
+     * that already have transactions are left as they are, budgets included,
+     * so running it again adds nothing.
+     *
+     * @return number of rows inserted, 0 if every user already had some
+     */
+    public static long generate(DBHelper db, Config config, long endMillis, @Nullable Progress progress) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate end = Instant.ofEpochMilli(endMillis).atZone(zone).toLocalDate();
+        LocalDate start = end.minusYears(config.years);
+
+        boolean[] skip = new boolean[config.users];
+        int fresh = 0;
+        for (int user = 0; user < config.users; user++) {
+            skip[user] = db.getFirstTransactionDate(emailOf(user)) >= 0;
+            if (!skip[user]) fresh++;
+        }
+        long expected = config.users == 0 ? 0 : config.expectedRows() * fresh / config.users;
+        long inserted = 0;
+        List<Transaction> batch = new ArrayList<>(BATCH_ROWS);
+
+        for (int user = 0; user < config.users; user++) {
+            if (skip[user]) continue;
+            String email = emailOf(user);
+            if (!db.emailExists(email)) db.registerUser(email, "Test", "User " + user, PASSWORD);
+            // each user draws from their own stream, so adding users doesn't change the others
+            Random random = new Random(config.seed * 31 + user);
+
+            for (LocalDate day = start; day.isBefore(end); day = day.plusDays(1)) {
+                long dayStart = day.atStartOfDay(zone).toInstant().toEpochMilli();
+                int count = (int) config.transactionsPerDay;
+                if (random.nextDouble() < config.transactionsPerDay - count) count++;
+                for (int i = 0; i < count; i++) {
+                    batch.add(row(config, random, dayStart, endMillis));
+                    if (batch.size() == BATCH_ROWS) {
+                        inserted += db.insertTransactions(email, batch);
+                        batch.clear();
+                        if (progress != null) progress.onBatchCommitted(inserted, expected);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                inserted += db.insertTransactions(email, batch);
+                batch.clear();
+                if (progress != null) progress.onBatchCommitted(inserted, expected);
+            }
+
+            int budgets = Math.min(config.budgetsPerUser, config.categories);
+            for (int b = 0; b < budgets; b++) {
+                db.insertBudget(email, expenseCategory(b), 100_00 + random.nextInt(1_900_00),
+                        BUDGET_PERIODS[b % BUDGET_PERIODS.length], 50 + random.nextInt(41));
+            }
+        }
+        return inserted;
+    }
+
+    public static String emailOf(int user) {
+        return "load" + user + "@finance.com";
+    }
+
+    private static Transaction row(Config config, Random random, long dayStart, long endMillis) {
+        // between 7:00 and 23:00
+        long date = dayStart + (7 * 60 + random.nextInt(16 * 60)) * 60_000L;
+        boolean income = random.nextInt(10) == 0;
+        String category = income
+                ? INCOME_CATEGORIES[random.nextInt(INCOME_CATEGORIES.length)]
+                : expenseCategory(random.nextInt(Math.max(1, config.categories)));
+        long amount = income ? 50_00 + random.nextInt(2_950_00) : 1_00 + random.nextInt(249_00);
+        String desc = category.toLowerCase() + " " + PLACES[random.nextInt(PLACES.length)];
+
+        if (random.nextInt(100) >= config.recurringPercent) {
+            return new Transaction(0, amount, date, category, desc,
+                    income ? Transaction.INCOME : Transaction.EXPENSE, ONCE);
+        }
+        // half the recurring rows were stopped again before the end date
+        String recurrence = RECURRENCES[random.nextInt(RECURRENCES.length)];
+        boolean stopped = random.nextBoolean() && date < endMillis;
+        long stoppedAt = stopped ? date + (long) (random.nextDouble() * (endMillis - date)) : Transaction.NO_END_DATE;
+        return new Transaction(0, amount, date, category, desc,
+                income ? Transaction.INCOME : Transaction.EXPENSE, recurrence, !stopped, stoppedAt);
+    }
+
+    private static String expenseCategory(int index) {
+        return index < EXPENSE_CATEGORIES.length ? EXPENSE_CATEGORIES[index] : "Category " + (index + 1);
+    }
+
+    private static void add(List<Transaction> rows, int type, double amount, long dateMillis,
+                            String category, String desc, String recurrence) {
+        rows.add(new Transaction(0, Money.fromDouble(amount), dateMillis, category, desc, type, recurrence));
     }
 
     private static long getDateMillis(int year, int month, int day) {
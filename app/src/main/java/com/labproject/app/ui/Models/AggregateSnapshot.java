@@ -0,0 +1,259 @@
+package com.labproject.app.ui.Models;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every aggregate the screens read from one published transaction list.
+ *
+ * {@link MainViewModel} builds one per list it publishes, so the screens share
+ * the work instead of each summing the same rows again. Whatever is derived
+ * from the rows (the columns, the per-type views, the per-category totals,
+ * the interval index, the search indexes) is computed on first use and kept,
+ * and range totals are memoized per range. Amounts are cents.
+ *
+ * The snapshot never changes once built. Range totals come from the view
+ * model's day trees while they still hold exactly these rows; after a later
+ * edit has moved them on, a snapshot still being read falls back to a pass
+ * over its own columns. Callers must not modify anything it returns.
+ */
+public final class AggregateSnapshot {
+
+    // distinct ranges remembered per snapshot; the period chips only ever ask for a few
+    private static final int MAX_MEMOIZED_RANGES = 32;
+
+    /** Counts lookups answered from memory (hits) and those that had to compute (misses). */
+    public static final class Counters {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+
+        public long hits() {
+            return hits.get();
+        }
+
+        public long misses() {
+            return misses.get();
+        }
+    }
+
+    public final long version;
+    public final List<Transaction> rows;
+
+    // face value of every row of the type, active or not
+    public final long income;
+    public final long expenses;
+
+    private final DailyTotalsTree dayTotals;
+    private final long dayTotalsVersion;
+    private final ZoneId zone;
+    private final Counters counters;
+
+    private final Map<Range, PeriodTotals> rangeTotals =
+            new LinkedHashMap<Range, PeriodTotals>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Range, PeriodTotals> eldest) {
+                    return size() > MAX_MEMOIZED_RANGES;
+                }
+            };
+
+    // derived on first use; guarded by this
+    private TransactionColumns columns;
+    private List<Transaction> incomeRows, expenseRows;
+    private long[] incomeByCategory, expensesByCategory;
+    private TransactionIntervalIndex intervals;
+    private TransactionSearchIndex incomeSearch, expenseSearch;
+
+    /**
+     * dayTotals must hold exactly these rows when the snapshot is built.
+     */
+    AggregateSnapshot(long version, List<Transaction> rows, DailyTotalsTree dayTotals, Counters counters) {
+        this(version, rows, dayTotals, counters, ZoneId.systemDefault());
+    }
+
+    AggregateSnapshot(long version, List<Transaction> rows, DailyTotalsTree dayTotals,
+                      Counters counters, ZoneId zone) {
+        this(version, rows, sum(rows, Transaction.INCOME), sum(rows, Transaction.EXPENSE),
+                dayTotals, counters, zone);
+    }
+
+    /**
+     * For a caller that already keeps the totals of the rows, so building the
+     * snapshot costs nothing until something is read from it.
+     */
+    AggregateSnapshot(long version, List<Transaction> rows, long income, long expenses,
+                      DailyTotalsTree dayTotals, Counters counters) {
+        this(version, rows, income, expenses, dayTotals, counters, ZoneId.systemDefault());
+    }
+
+    private AggregateSnapshot(long version, List<Transaction> rows, long income, long expenses,
+                              DailyTotalsTree dayTotals, Counters counters, ZoneId zone) {
+        this.version = version;
+        this.rows = Collections.unmodifiableList(rows);
+        this.income = income;
+        this.expenses = expenses;
+        this.dayTotals = dayTotals;
+        this.dayTotalsVersion = dayTotals.version();
+        this.zone = zone;
+        this.counters = counters;
+    }
+
+    public long getBalance() {
+        return income - expenses;
+    }
+
+    /**
+     * The rows as columns, built by the first caller.
+     */
+    public synchronized TransactionColumns columns() {
+        if (columns == null) columns = new TransactionColumns(rows);
+        return columns;
+    }
+
+    /**
+     * The rows of the type, in list order.
+     */
+    public synchronized List<Transaction> rowsOf(int type) {
+        List<Transaction> cached = type == Transaction.INCOME ? incomeRows : expenseRows;
+        if (cached != null) {
+            counters.hits.incrementAndGet();
+            return cached;
+        }
+        counters.misses.incrementAndGet();
+
+        int[] positions = columns().rowsOfType(type);
+        List<Transaction> list = new ArrayList<>(positions.length);
+        for (int i : positions) list.add(rows.get(i));
+        list = Collections.unmodifiableList(list);
+        if (type == Transaction.INCOME) incomeRows = list;
+        else if (type == Transaction.EXPENSE) expenseRows = list;
+        return list;
+    }
+
+    /**
+     * Face value of the rows of the type, indexed by category id in
+     * {@link TransactionColumns#categories()}.
+     */
+    public synchronized long[] categoryTotals(int type) {
+        long[] cached = type == Transaction.INCOME ? incomeByCategory : expensesByCategory;
+        if (cached != null) {
+            counters.hits.incrementAndGet();
+            return cached;
+        }
+        counters.misses.incrementAndGet();
+
+        long[] sums = columns().sumByCategory(type);
+        if (type == Transaction.INCOME) incomeByCategory = sums;
+        else if (type == Transaction.EXPENSE) expensesByCategory = sums;
+        return sums;
+    }
+
+    /**
+     * The search index over {@link #rowsOf} the type; built by the first
+     * caller, so call it off the main thread.
+     */
+    public synchronized TransactionSearchIndex searchIndex(int type) {
+        TransactionSearchIndex cached = type == Transaction.INCOME ? incomeSearch : expenseSearch;
+        if (cached != null) {
+            counters.hits.incrementAndGet();
+            return cached;
+        }
+        counters.misses.incrementAndGet();
+
+        TransactionSearchIndex index = new TransactionSearchIndex(rowsOf(type));
+        if (type == Transaction.INCOME) incomeSearch = index;
+        else if (type == Transaction.EXPENSE) expenseSearch = index;
+        return index;
+    }
+
+    /**
+     * Income and expenses from the day of startMillis through the day of
+     * endMillis, every recurring occurrence included. The same range is only
+     * worked out once per snapshot.
+     */
+    public PeriodTotals totals(long startMillis, long endMillis) {
+        Range key = new Range(startMillis, endMillis);
+        synchronized (this) {
+            PeriodTotals cached = rangeTotals.get(key);
+            if (cached != null) {
+                counters.hits.incrementAndGet();
+                return cached;
+            }
+        }
+        counters.misses.incrementAndGet();
+
+        PeriodTotals totals = dayTotals.totalsAsOf(dayTotalsVersion, startMillis, endMillis);
+        if (totals == null) {
+            // the trees have moved on to a newer list; whole days, like the trees count them
+            long start = startOfDay(localDay(startMillis));
+            long end = startOfDay(localDay(endMillis).plusDays(1)) - 1;
+            totals = columns().totals(new Recurrence.Window(start, end, zone));
+        }
+        synchronized (this) {
+            rangeTotals.put(key, totals);
+        }
+        return totals;
+    }
+
+    /**
+     * The rows whose active interval overlaps the range, oldest first.
+     */
+    public List<Transaction> overlapping(long startMillis, long endMillis) {
+        TransactionIntervalIndex index;
+        synchronized (this) {
+            if (intervals != null) {
+                counters.hits.incrementAndGet();
+            } else {
+                counters.misses.incrementAndGet();
+                intervals = new TransactionIntervalIndex(rows);
+            }
+            index = intervals;
+        }
+        return index.overlapping(startMillis, endMillis);
+    }
+
+    // face value of every row of the type, as the view model keeps it
+    static long sum(List<Transaction> rows, int type) {
+        long sum = 0;
+        for (Transaction t : rows) {
+            if (t.type == type) sum += t.amountCents;
+        }
+        return sum;
+    }
+
+    private LocalDate localDay(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+    }
+
+    private long startOfDay(LocalDate day) {
+        return day.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private static final class Range {
+        final long start;
+        final long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Range)) return false;
+            Range other = (Range) o;
+            return start == other.start && end == other.end;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(start) * 31 + Long.hashCode(end);
+        }
+    }
+}
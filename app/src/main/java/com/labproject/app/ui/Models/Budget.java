@@ -4,34 +4,41 @@ public class Budget {
 
     public int id;
     public String category;
-    public double limitAmount;
+    public long limitCents;
     public String period;          // "monthly", "weekly", "daily"
     public int alertThreshold;     // percentage
 
     // runtime data
-    public double spent;           // calculated from transactions
+    public long spentCents;        // calculated from transactions
     public boolean alertTriggered; // true if spent >= limit * (alertThreshold / 100)
 
-    public Budget(int id, String category, double limitAmount, String period, int alertThreshold) {
+    public Budget(int id, String category, long limitCents, String period, int alertThreshold) {
         this.id = id;
         this.category = category;
-        this.limitAmount = limitAmount;
+        this.limitCents = limitCents;
         this.period = period;
         this.alertThreshold = alertThreshold;
-        this.spent = 0.0;
+        this.spentCents = 0;
         this.alertTriggered = false;
     }
 
-    public double getRemaining() {
-        return limitAmount - spent;
+    public long getRemainingCents() {
+        return limitCents - spentCents;
     }
 
     public int getPercentageUsed() {
-        if (limitAmount == 0) return 0;
-        return (int) ((spent * 100.0) / limitAmount);
+        if (limitCents == 0) return 0;
+        return (int) (spentCents * 100 / limitCents);
+    }
+
+    /**
+     * Sets alertTriggered from what was spent so far against the alert threshold.
+     */
+    public void evaluateAlert() {
+        if (limitCents > 0) alertTriggered = getPercentageUsed() >= alertThreshold;
     }
 
     public boolean isOverBudget() {
-        return spent > limitAmount;
+        return spentCents > limitCents;
     }
 }
@@ -0,0 +1,55 @@
+package com.labproject.app.ui.Models;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Budget rows are the same item when they have the same id. When only the
+ * spending moved, which is what a transaction edit does to a budget, the
+ * change carries the {@link #SPENT} payload and adapters rebind just the
+ * spent, progress and alert views.
+ */
+public final class BudgetDiff extends DiffUtil.ItemCallback<Budget> {
+
+    public static final BudgetDiff ITEMS = new BudgetDiff();
+
+    public static final Integer SPENT = 1;
+
+    private BudgetDiff() {
+    }
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Budget a, @NonNull Budget b) {
+        return a.id == b.id;
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Budget a, @NonNull Budget b) {
+        return sameSetup(a, b) && a.spentCents == b.spentCents && a.alertTriggered == b.alertTriggered;
+    }
+
+    @Override
+    public Object getChangePayload(@NonNull Budget a, @NonNull Budget b) {
+        // null asks for a full bind
+        return sameSetup(a, b) ? SPENT : null;
+    }
+
+    /**
+     * True when every payload of one bind is {@link #SPENT}; false for a full bind.
+     */
+    public static boolean onlySpent(List<Object> payloads) {
+        if (payloads.isEmpty()) return false;
+        for (int i = 0; i < payloads.size(); i++) {
+            if (!SPENT.equals(payloads.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameSetup(Budget a, Budget b) {
+        return a.limitCents == b.limitCents && a.alertThreshold == b.alertThreshold
+                && Objects.equals(a.category, b.category) && Objects.equals(a.period, b.period);
+    }
+}
@@ -0,0 +1,74 @@
+package com.labproject.app.ui.Models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A loaded list of budgets with each of the Budgets screen's sort orders kept
+ * as a permutation, built on first use. Showing the list in a sort mode walks
+ * that permutation and keeps the budgets the filter lets through, so
+ * switching the sort or the filter doesn't sort anything.
+ */
+public final class BudgetOrders {
+
+    public static final int SORT_CATEGORY = 0;
+    public static final int SORT_LIMIT_DESC = 1;
+    public static final int SORT_LIMIT_ASC = 2;
+    public static final int SORT_USAGE = 3;   // highest share of the limit spent first
+
+    private final List<Budget> budgets;
+    private final int[][] orders = new int[4][];
+
+    public BudgetOrders(List<Budget> budgets) {
+        this.budgets = budgets;
+    }
+
+    public int size() {
+        return budgets.size();
+    }
+
+    /**
+     * The budgets whose keep flag (indexed like the list) is set, in the order
+     * of the sort mode. Budgets that tie keep their list order.
+     */
+    public List<Budget> sorted(int sortMode, boolean[] keep) {
+        int[] kept = Permutations.select(order(sortMode), keep);
+        List<Budget> out = new ArrayList<>(kept.length);
+        for (int position : kept) out.add(budgets.get(position));
+        return out;
+    }
+
+    /**
+     * Every position of the list, in the order of the sort mode.
+     */
+    public int[] order(int sortMode) {
+        if (sortMode < 0 || sortMode >= orders.length) sortMode = SORT_CATEGORY;
+        int[] order = orders[sortMode];
+        if (order == null) {
+            order = Permutations.sort(budgets.size(), comparator(sortMode));
+            orders[sortMode] = order;
+        }
+        return order;
+    }
+
+    private Permutations.PositionComparator comparator(int sortMode) {
+        switch (sortMode) {
+            case SORT_LIMIT_DESC:
+                return (a, b) -> Long.compare(budgets.get(b).limitCents, budgets.get(a).limitCents);
+            case SORT_LIMIT_ASC:
+                return (a, b) -> Long.compare(budgets.get(a).limitCents, budgets.get(b).limitCents);
+            case SORT_USAGE:
+                return (a, b) -> Double.compare(usage(budgets.get(b)), usage(budgets.get(a)));
+            default:
+                return (a, b) -> category(budgets.get(a)).compareToIgnoreCase(category(budgets.get(b)));
+        }
+    }
+
+    private static double usage(Budget b) {
+        return b.limitCents > 0 ? (double) b.spentCents / b.limitCents : 0;
+    }
+
+    private static String category(Budget b) {
+        return b.category != null ? b.category : "";
+    }
+}
@@ -0,0 +1,64 @@
+package com.labproject.app.ui.Models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Two-way map between category ids and names.
+ *
+ * Names are interned, so every row of a category holds the same String. Ids
+ * are small and dense, so per-category totals go into a long[] indexed by id
+ * instead of a map keyed by name. Entries are only ever added.
+ */
+public final class CategoryDictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[16];
+    private int size;   // one past the highest id
+
+    /**
+     * Records a name under an id handed out elsewhere, e.g. a database row id.
+     */
+    public synchronized String put(int id, String name) {
+        if (id >= names.length) names = Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+        String interned = name.intern();
+        names[id] = interned;
+        ids.put(interned, id);
+        if (id >= size) size = id + 1;
+        return interned;
+    }
+
+    /**
+     * The id of the name, giving it the next free id if it is new.
+     */
+    public synchronized int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        int next = size;
+        put(next, name);
+        return next;
+    }
+
+    /**
+     * The id of the name, or -1 if it is not in the dictionary.
+     */
+    public synchronized int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * The interned name of the id, or null if there is none.
+     */
+    public synchronized String name(int id) {
+        return id >= 0 && id < size ? names[id] : null;
+    }
+
+    /**
+     * One past the highest id, the length an array indexed by id needs.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
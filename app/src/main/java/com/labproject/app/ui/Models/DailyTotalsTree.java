@@ -0,0 +1,268 @@
+package com.labproject.app.ui.Models;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Income and expense totals between any two days in O(log n), for one user's
+ * transactions.
+ *
+ * One-time rows are summed per local day into Fenwick (binary indexed) trees:
+ * one per type for the overall totals and one per type and category. A range
+ * total is two prefix sums, so a custom range costs the same however long it
+ * is and however many rows fall inside it. Recurring rows, usually a handful,
+ * are kept aside and counted with {@link Recurrence} on every query, like the
+ * daily_totals rollup does.
+ *
+ * Ranges are whole local days, from the day of startMillis through the day of
+ * endMillis. Build one per loaded list and keep it current with
+ * {@link #add} and {@link #remove}; each is O(log n) unless the row falls
+ * outside the days covered so far, which grows the trees once.
+ */
+public final class DailyTotalsTree {
+
+    private static final int INCOME = 0, EXPENSE = 1;
+
+    private final ZoneId zone;
+    private final CategoryDictionary categories = new CategoryDictionary();
+    private final List<Transaction> recurring = new ArrayList<>();
+
+    private long firstDay;   // epoch day of slot 0
+    private int days;        // slots in every tree
+    private long[][] totals = new long[2][];
+    private long[][][] byCategory = new long[2][][];
+    private long version;    // bumped by every add and remove
+
+    public DailyTotalsTree(List<Transaction> rows) {
+        this(rows, ZoneId.systemDefault());
+    }
+
+    public DailyTotalsTree(List<Transaction> rows, ZoneId zone) {
+        this.zone = zone;
+
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        for (Transaction t : rows) {
+            if (isRecurring(t)) continue;
+            long day = epochDay(t.dateMillis);
+            min = Math.min(min, day);
+            max = Math.max(max, day);
+        }
+        firstDay = min == Long.MAX_VALUE ? 0 : min;
+        days = min == Long.MAX_VALUE ? 0 : (int) (max - min + 1);
+
+        // per-day amounts first, then every tree is built in one linear pass
+        for (int type = 0; type < 2; type++) {
+            totals[type] = new long[days + 1];
+            byCategory[type] = new long[0][];
+        }
+        for (Transaction t : rows) {
+            if (isRecurring(t)) {
+                recurring.add(t);
+                continue;
+            }
+            int type = typeIndex(t.type);
+            if (type < 0 || !happened(t)) continue;
+            int slot = (int) (epochDay(t.dateMillis) - firstDay) + 1;
+            totals[type][slot] += t.amountCents;
+            categoryTree(type, categories.intern(categoryOf(t)))[slot] += t.amountCents;
+        }
+        for (int type = 0; type < 2; type++) {
+            heapify(totals[type]);
+            for (long[] tree : byCategory[type]) {
+                if (tree != null) heapify(tree);
+            }
+        }
+    }
+
+    public synchronized void add(Transaction t) {
+        apply(t, +1);
+    }
+
+    public synchronized void remove(Transaction t) {
+        apply(t, -1);
+    }
+
+    /**
+     * Income and expenses from the day of startMillis through the day of
+     * endMillis, overall and per category, every recurring occurrence included.
+     */
+    public synchronized PeriodTotals totals(long startMillis, long endMillis) {
+        PeriodTotals out = new PeriodTotals(categories);
+        long from = Math.max(epochDay(startMillis) - firstDay, 0);
+        long to = Math.min(epochDay(endMillis) - firstDay, days - 1L);
+
+        if (from <= to) {
+            for (int type = 0; type < 2; type++) {
+                int kind = type == INCOME ? Transaction.INCOME : Transaction.EXPENSE;
+                long[][] trees = byCategory[type];
+                for (int id = 0; id < trees.length; id++) {
+                    if (trees[id] != null) out.add(kind, id, rangeSum(trees[id], (int) from, (int) to));
+                }
+            }
+        }
+
+        Recurrence.Window window = new Recurrence.Window(startMillis, endMillis, zone);
+        for (Transaction t : recurring) {
+            out.add(t.type, categories.intern(categoryOf(t)), window.amountOf(t));
+        }
+        return out;
+    }
+
+    /**
+     * Same as {@link #totals(long, long)}, or null if any row has been added or
+     * removed since {@link #version()} returned expectedVersion.
+     */
+    public synchronized PeriodTotals totalsAsOf(long expectedVersion, long startMillis, long endMillis) {
+        return version == expectedVersion ? totals(startMillis, endMillis) : null;
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Income or expenses over the days only, without the per-category split.
+     */
+    public synchronized long sum(int type, long startMillis, long endMillis) {
+        int index = typeIndex(type);
+        if (index < 0) return 0;
+
+        long sum = 0;
+        long from = Math.max(epochDay(startMillis) - firstDay, 0);
+        long to = Math.min(epochDay(endMillis) - firstDay, days - 1L);
+        if (from <= to) sum = rangeSum(totals[index], (int) from, (int) to);
+
+        Recurrence.Window window = new Recurrence.Window(startMillis, endMillis, zone);
+        for (Transaction t : recurring) {
+            if (t.type == type) sum += window.amountOf(t);
+        }
+        return sum;
+    }
+
+    private void apply(Transaction t, int sign) {
+        version++;
+        if (isRecurring(t)) {
+            if (sign > 0) recurring.add(t);
+            else removeRecurring(t);
+            return;
+        }
+        int type = typeIndex(t.type);
+        if (type < 0 || !happened(t)) return;
+
+        long day = epochDay(t.dateMillis);
+        if (day < firstDay || day >= firstDay + days) cover(day);
+        int slot = (int) (day - firstDay) + 1;
+        long delta = sign * t.amountCents;
+        update(totals[type], slot, delta);
+        update(categoryTree(type, categories.intern(categoryOf(t))), slot, delta);
+    }
+
+    // the same instance if it is still there, else the row with its id
+    private void removeRecurring(Transaction t) {
+        for (int i = 0; i < recurring.size(); i++) {
+            if (recurring.get(i) == t) {
+                recurring.remove(i);
+                return;
+            }
+        }
+        for (int i = 0; i < recurring.size(); i++) {
+            if (recurring.get(i).id == t.id) {
+                recurring.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds every tree over a day range that also covers day, with a year
+     * of slack on the side it grows so a run of new rows doesn't grow it each time.
+     */
+    private void cover(long day) {
+        long oldFirst = firstDay;
+        int oldDays = days;
+        long oldLast = firstDay + days - 1;
+        if (days == 0) {
+            firstDay = day;
+            days = 1;
+        } else {
+            firstDay = day < oldFirst ? day - 365 : oldFirst;
+            days = (int) ((day > oldLast ? day + 365 : oldLast) - firstDay + 1);
+        }
+
+        int shift = (int) (oldFirst - firstDay);
+        for (int type = 0; type < 2; type++) {
+            totals[type] = regrow(totals[type], oldDays, shift);
+            long[][] trees = byCategory[type];
+            for (int id = 0; id < trees.length; id++) {
+                if (trees[id] != null) trees[id] = regrow(trees[id], oldDays, shift);
+            }
+        }
+    }
+
+    // back to per-day amounts, moved by shift slots, then rebuilt at the new size
+    private long[] regrow(long[] tree, int oldDays, int shift) {
+        long[] grown = new long[days + 1];
+        for (int i = 0; i < oldDays; i++) grown[i + 1 + shift] = rangeSum(tree, i, i);
+        heapify(grown);
+        return grown;
+    }
+
+    private long[] categoryTree(int type, int id) {
+        long[][] trees = byCategory[type];
+        if (id >= trees.length) {
+            trees = byCategory[type] = Arrays.copyOf(trees, Math.max(id + 1, categories.size()));
+        }
+        if (trees[id] == null) trees[id] = new long[days + 1];
+        return trees[id];
+    }
+
+    // in-place O(n) build from per-day amounts at slots 1..n
+    private static void heapify(long[] tree) {
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) tree[parent] += tree[i];
+        }
+    }
+
+    private static void update(long[] tree, int slot, long delta) {
+        for (int i = slot; i < tree.length; i += i & -i) tree[i] += delta;
+    }
+
+    // sum of slots 1..count
+    private static long prefix(long[] tree, int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    // days from..to, both inclusive, counted from firstDay
+    private static long rangeSum(long[] tree, int from, int to) {
+        return prefix(tree, to + 1) - prefix(tree, from);
+    }
+
+    private long epochDay(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(zone).toLocalDate().toEpochDay();
+    }
+
+    private static boolean isRecurring(Transaction t) {
+        return TransactionColumns.recurrenceCode(t.recurrence) != TransactionColumns.ONCE;
+    }
+
+    // a one-time row counts unless it was stopped before its own date (see Recurrence)
+    private static boolean happened(Transaction t) {
+        return t.endDateMillis == Transaction.NO_END_DATE ? t.isActive : t.endDateMillis >= t.dateMillis;
+    }
+
+    private static int typeIndex(int type) {
+        if (type == Transaction.INCOME) return INCOME;
+        if (type == Transaction.EXPENSE) return EXPENSE;
+        return -1;
+    }
+
+    private static String categoryOf(Transaction t) {
+        return (t.category == null || t.category.trim().isEmpty()) ? "Other" : t.category;
+    }
+}
@@ -0,0 +1,55 @@
+package com.labproject.app.ui.Models;
+
+import com.labproject.app.data.db.DBHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The home screen's figures that come from the database rather than from the
+ * loaded rows: the all-time totals and every budget with what it has spent in
+ * its current period. Read off the main thread. Amounts are cents.
+ */
+public final class HomeSnapshot {
+
+    public final String email;
+
+    // face value of every active row, recurring rows counted once
+    public final long allTimeIncome;
+    public final long allTimeExpenses;
+
+    // alerts already evaluated; alerts holds the ones triggered or over budget
+    public final List<Budget> budgets;
+    public final List<Budget> alerts;
+
+    private HomeSnapshot(String email, PeriodTotals allTime, List<Budget> budgets, List<Budget> alerts) {
+        this.email = email;
+        this.allTimeIncome = allTime.income;
+        this.allTimeExpenses = allTime.expenses;
+        this.budgets = Collections.unmodifiableList(budgets);
+        this.alerts = Collections.unmodifiableList(alerts);
+    }
+
+    public long getAllTimeBalance() {
+        return allTimeIncome - allTimeExpenses;
+    }
+
+    /**
+     * Reads the all-time rollup and the budgets as of nowMillis. Call it off
+     * the main thread.
+     */
+    public static HomeSnapshot compute(DBHelper db, String email, long nowMillis) {
+        PeriodTotals allTime = db.getAllTimeTotals(email);
+
+        List<Budget> budgets = new ArrayList<>();
+        List<Budget> alerts = new ArrayList<>();
+        // spent per budget covers every occurrence of recurring expenses in its period
+        for (Budget b : db.getBudgetsWithSpent(email, nowMillis)) {
+            b.evaluateAlert();
+            budgets.add(b);
+            if (b.alertTriggered || b.isOverBudget()) alerts.add(b);
+        }
+        return new HomeSnapshot(email, allTime, budgets, alerts);
+    }
+}
@@ -0,0 +1,50 @@
+package com.labproject.app.ui.Models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parts of the Home screen worked out from the shared snapshot for the
+ * selected range: the latest rows dated in it and the categories ranked by
+ * their totals.
+ */
+public final class HomeSummary {
+
+    public static final int RECENT_LIMIT = 5;
+
+    private HomeSummary() {
+    }
+
+    /**
+     * Up to limit rows dated in [startMillis, endMillis] that were active at
+     * the start of the range, newest first.
+     */
+    public static List<Transaction> recent(AggregateSnapshot aggregates, long startMillis, long endMillis, int limit) {
+        List<Transaction> dated = new ArrayList<>();
+        for (Transaction t : aggregates.overlapping(startMillis, endMillis)) {
+            if (t.dateMillis >= startMillis && t.dateMillis <= endMillis
+                    && (t.isActive || t.wasActiveAt(startMillis))) {
+                dated.add(t);
+            }
+        }
+        Collections.sort(dated, (a, b) -> Long.compare(b.dateMillis, a.dateMillis));
+        return dated.size() > limit ? new ArrayList<>(dated.subList(0, limit)) : dated;
+    }
+
+    /**
+     * The category ids with a nonzero total, largest total first. Ties keep
+     * id order.
+     */
+    public static int[] largestFirst(long[] byCategory) {
+        int[] ids = new int[byCategory.length];
+        int n = 0;
+        for (int id = 0; id < byCategory.length; id++) {
+            if (byCategory[id] != 0) ids[n++] = id;
+        }
+        int[] order = Permutations.sort(n, (a, b) -> Long.compare(byCategory[ids[b]], byCategory[ids[a]]));
+        int[] ranked = new int[n];
+        for (int i = 0; i < n; i++) ranked[i] = ids[order[i]];
+        return ranked;
+    }
+}
@@ -1,8 +1,6 @@
 package com.labproject.app.ui.Models;
 
 import android.database.Cursor;
-import android.os.Handler;
-import android.os.Looper;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
@@ -12,7 +10,17 @@ import androidx.lifecycle.ViewModel;
 import com.labproject.app.data.db.DBHelper;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MainViewModel extends ViewModel {
 
@@ -20,31 +28,116 @@ public class MainViewModel extends ViewModel {
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     public LiveData<Boolean> isLoading() { return loading; }
 
-    // Totals
-    private final MutableLiveData<Double> income = new MutableLiveData<>(0.0);
-    private final MutableLiveData<Double> expenses = new MutableLiveData<>(0.0);
+    // Totals, in cents
+    private final MutableLiveData<Long> income = new MutableLiveData<>(0L);
+    private final MutableLiveData<Long> expenses = new MutableLiveData<>(0L);
 
     // Transactions
     private final MutableLiveData<List<Transaction>> transactions =
             new MutableLiveData<>(new ArrayList<>());
 
     public LiveData<List<Transaction>> getTransactions() { return transactions; }
-    public LiveData<Double> getIncome() { return income; }
-    public LiveData<Double> getExpenses() { return expenses; }
+
+    // Day-bucketed totals of the same rows, rebuilt on every load and
+    // updated in place by every edit
+    private volatile DailyTotalsTree dayTotals = new DailyTotalsTree(new ArrayList<>());
+
+    // Every aggregate of the same rows, one snapshot per published list, so
+    // the screens share the sums instead of each redoing them
+    private final AggregateSnapshot.Counters aggregateCounters = new AggregateSnapshot.Counters();
+    private long aggregateVersion = 0;   // guarded by this
+    private volatile AggregateSnapshot aggregate =
+            new AggregateSnapshot(0, new ArrayList<>(), dayTotals, aggregateCounters);
+    private final MutableLiveData<AggregateSnapshot> aggregates = new MutableLiveData<>(aggregate);
+
+    public LiveData<AggregateSnapshot> getAggregates() { return aggregates; }
+    public AggregateSnapshot.Counters getAggregateCounters() { return aggregateCounters; }
+
+    // List rows of the same transactions, formatted on the loader thread
+    private final TransactionRows rows = new TransactionRows();
+    public TransactionRows getTransactionRows() { return rows; }
+
+    public LiveData<Long> getIncome() { return income; }
+    public LiveData<Long> getExpenses() { return expenses; }
 
     // Balance = income - expenses
-    private final MediatorLiveData<Double> totalBalance = new MediatorLiveData<>();
-    public LiveData<Double> getTotalBalance() { return totalBalance; }
+    private final MediatorLiveData<Long> totalBalance = new MediatorLiveData<>();
+    public LiveData<Long> getTotalBalance() { return totalBalance; }
+
+    // Fires after every committed write and every reload, for screens that
+    // read the database directly rather than through the list above.
+    private final MutableLiveData<Long> dataChanges = new MutableLiveData<>(0L);
+    private final AtomicLong dataChangeCount = new AtomicLong();
+    public LiveData<Long> getDataChanges() { return dataChanges; }
+
+    // Statistics screen, computed on its own worker and kept until the data moves on
+    private final MutableLiveData<StatisticsSnapshot> statistics = new MutableLiveData<>();
+    public LiveData<StatisticsSnapshot> getStatistics() { return statistics; }
+
+    // Home screen's all-time totals and budgets, read on the same worker
+    private final MutableLiveData<HomeSnapshot> home = new MutableLiveData<>();
+    public LiveData<HomeSnapshot> getHome() { return home; }
+
+    // Background loading
+    // Single worker with a short queue: a newer load supersedes anything older,
+    // so there is never a reason to queue more than a couple of them.
+    private final ExecutorService loader;
+    private final AtomicLong loadGeneration = new AtomicLong();
+    private Future<?> pendingLoad;
+
+    // Writes
+    // Mutators change the published list right away and write to the database on
+    // this thread, in order. A write that fails is undone in memory.
+    private final ExecutorService writer;
+
+    // Statistics and home reads
+    // One worker for both kinds. Each kind keeps its own generation and a superseded
+    // request returns as soon as it starts, so nothing has to be dropped from the
+    // queue, where one kind could push out the other's only request.
+    private final ExecutorService aggregator;
+    private final AtomicLong statisticsGeneration = new AtomicLong();
+    private final AtomicLong homeGeneration = new AtomicLong();
+    private StatisticsSnapshot statisticsCache;   // guarded by this
+
+    // The published list and its totals; guarded by this.
+    private List<Transaction> current = new ArrayList<>();
+    private long incomeTotal = 0, expenseTotal = 0;
+    private String loadedEmail;
+    private long loadedVersion = -1;   // db data version the list matches, -1 = unknown
+
+    // Rows added in memory get a negative id, kept until the next load, and
+    // committedIds maps it to the database id once their insert commits.
+    private int nextTempId = -1;
+    private final Map<Integer, Integer> committedIds = new HashMap<>();
 
     public MainViewModel() {
+        this(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(2), new ThreadPoolExecutor.DiscardOldestPolicy()),
+                Executors.newSingleThreadExecutor(),
+                Executors.newSingleThreadExecutor());
+    }
+
+    MainViewModel(ExecutorService loader) {
+        this(loader, loader);
+    }
+
+    MainViewModel(ExecutorService loader, ExecutorService writer) {
+        this(loader, writer, loader);
+    }
+
+    MainViewModel(ExecutorService loader, ExecutorService writer, ExecutorService aggregator) {
+        this.loader = loader;
+        this.writer = writer;
+        this.aggregator = aggregator;
+
         totalBalance.addSource(income, i ->
                 totalBalance.setValue(
-                        (i == null ? 0 : i) - (expenses.getValue() == null ? 0 : expenses.getValue())
+                        (i == null ? 0L : i) - (expenses.getValue() == null ? 0L : expenses.getValue())
                 )
         );
         totalBalance.addSource(expenses, e ->
                 totalBalance.setValue(
-                        (income.getValue() == null ? 0 : income.getValue()) - (e == null ? 0 : e)
+                        (income.getValue() == null ? 0L : income.getValue()) - (e == null ? 0L : e)
                 )
         );
     }
@@ -52,143 +145,452 @@ public class MainViewModel extends ViewModel {
     // DB Actions
 
     /**
-     * Load all transactions for user, then calculate totals.
-     * Uses small delay so you can SEE the loading progress bar.
+     * Make sure the user's transactions are loaded. Does nothing when the list
+     * already matches the database; use {@link #refreshTransactions} to force a reload.
      */
     public void loadTransactions(DBHelper db, String email) {
         if (email == null || email.trim().isEmpty()) return;
+        synchronized (this) {
+            if (email.equals(loadedEmail) && loadedVersion == db.getDataVersion()) return;
+        }
+        refreshTransactions(db, email);
+    }
 
-        loading.setValue(true);
-
-        // demo delay
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
-
-            List<Transaction> list = new ArrayList<>();
-            Cursor c = db.getTransactionsForUser(email);
-
-            if (c != null && c.moveToFirst()) {
-                do {
-                    int id = c.getInt(c.getColumnIndexOrThrow("id"));
-                    double amount = c.getDouble(c.getColumnIndexOrThrow("amount"));
-                    long dateMillis = c.getLong(c.getColumnIndexOrThrow("date_millis"));
-                    String category = c.getString(c.getColumnIndexOrThrow("category"));
-                    String desc = c.getString(c.getColumnIndexOrThrow("description"));
-                    int type = c.getInt(c.getColumnIndexOrThrow("type"));
-                    
-                    // Get recurrence, default to "once" if not found
-                    String recurrence = Transaction.RECURRENCE_ONCE;
-                    int recurrenceIndex = c.getColumnIndex("recurrence");
-                    if (recurrenceIndex >= 0) {
-                        String rec = c.getString(recurrenceIndex);
-                        if (rec != null && !rec.isEmpty()) {
-                            recurrence = rec;
-                        }
-                    }
+    /**
+     * Load all transactions for user on the worker thread, then calculate totals.
+     * Starting a new load cancels the previous one; only the newest result is published.
+     */
+    public void refreshTransactions(DBHelper db, String email) {
+        if (email == null || email.trim().isEmpty()) return;
+        submitLoad(() -> readTransactions(db, email), db, email);
+    }
 
-                    // Get isActive, default to true
-                    boolean isActive = true;
-                    int isActiveIndex = c.getColumnIndex("is_active");
-                    if (isActiveIndex >= 0) {
-                        isActive = c.getInt(isActiveIndex) == 1;
-                    }
+    void submitLoad(Callable<List<Transaction>> query) {
+        submitLoad(query, null, null);
+    }
 
-                    // Get endDateMillis, default to -1 (no end date)
-                    long endDateMillis = Transaction.NO_END_DATE;
-                    int endDateIndex = c.getColumnIndex("end_date_millis");
-                    if (endDateIndex >= 0) {
-                        endDateMillis = c.getLong(endDateIndex);
-                    }
+    private void submitLoad(Callable<List<Transaction>> query, DBHelper db, String email) {
+        final long generation = loadGeneration.incrementAndGet();
+        loading.postValue(true);
+
+        synchronized (this) {
+            if (pendingLoad != null) pendingLoad.cancel(true);
+            pendingLoad = loader.submit(() -> {
+                if (generation != loadGeneration.get()) return;
+
+                // read the version first: a write landing mid-query leaves it stale, not wrong
+                long version = (db == null) ? -1 : db.getDataVersion();
+                List<Transaction> list;
+                try {
+                    list = query.call();
+                } catch (Exception e) {
+                    if (generation == loadGeneration.get()) loading.postValue(false);
+                    return;
+                }
+                // format the list rows here rather than on the main thread at bind time
+                if (generation == loadGeneration.get()) rows.update(list);
+
+                publish(generation, list, email, version);
+            });
+        }
+    }
 
-                    list.add(new Transaction(id, amount, dateMillis, category, desc, type, recurrence, isActive, endDateMillis));
-                } while (c.moveToNext());
+    private void publish(long generation, List<Transaction> list, String email, long version) {
+        // a newer load started while this one was running -> drop the stale result
+        if (generation != loadGeneration.get()) return;
+
+        // the tree and the sums take a pass over every row, so they are worked
+        // out here rather than under the lock the main thread's edits wait on
+        DailyTotalsTree tree = new DailyTotalsTree(list);
+        long in = AggregateSnapshot.sum(list, Transaction.INCOME);
+        long ex = AggregateSnapshot.sum(list, Transaction.EXPENSE);
+
+        synchronized (this) {
+            if (generation != loadGeneration.get()) return;
+
+            loadedEmail = email;
+            loadedVersion = version;
+            committedIds.clear();
+            dayTotals = tree;
+            incomeTotal = in;
+            expenseTotal = ex;
+            publishEdit(list);
+            loading.postValue(false);
+            signalDataChange();
+        }
+    }
+
+    /**
+     * Make sure {@link #getStatistics} holds the user's statistics as of now. A
+     * snapshot for the same data version and day is reused as it is; otherwise
+     * a new one is computed in the background and posted when it is done.
+     */
+    public void loadStatistics(DBHelper db, String email) {
+        if (email == null || email.trim().isEmpty()) return;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (statisticsCache != null && statisticsCache.isCurrent(email, db.getDataVersion(), now)) {
+                if (statistics.getValue() != statisticsCache) statistics.postValue(statisticsCache);
+                return;
+            }
+        }
 
-                c.close();
+        final long generation = statisticsGeneration.incrementAndGet();
+        aggregator.execute(() -> {
+            if (generation != statisticsGeneration.get()) return;
+            StatisticsSnapshot snapshot = StatisticsSnapshot.compute(db, email, now);
+            synchronized (this) {
+                if (generation != statisticsGeneration.get()) return;
+                statisticsCache = snapshot;
             }
+            statistics.postValue(snapshot);
+        });
+    }
 
-            transactions.setValue(list);
-            recalcTotals(list);
+    /**
+     * Read the user's all-time totals and budgets in the background and post
+     * them to {@link #getHome}. Budgets carry no data version, so this always
+     * reads; call it when the data may have changed.
+     */
+    public void loadHome(DBHelper db, String email) {
+        if (email == null || email.trim().isEmpty()) return;
+        long now = System.currentTimeMillis();
 
-            loading.setValue(false);
+        final long generation = homeGeneration.incrementAndGet();
+        aggregator.execute(() -> {
+            if (generation != homeGeneration.get()) return;
+            HomeSnapshot snapshot = HomeSnapshot.compute(db, email, now);
+            if (generation == homeGeneration.get()) home.postValue(snapshot);
+        });
+    }
 
-        }, 500);
+    /**
+     * Income and expenses of the loaded rows from the day of startMillis through
+     * the day of endMillis, in O(log n) whatever the range and memoized in the
+     * current {@link AggregateSnapshot}.
+     */
+    public PeriodTotals getPeriodTotals(long startMillis, long endMillis) {
+        return aggregate.totals(startMillis, endMillis);
+    }
 
+    private static List<Transaction> readTransactions(DBHelper db, String email) {
+        return readTransactions(db, db.getTransactionsForUser(email));
     }
 
-    private void recalcTotals(List<Transaction> list) {
-        double in = 0.0, ex = 0.0;
-        for (Transaction t : list) {
-            if (t.type == Transaction.INCOME) in += t.amount;
-            else if (t.type == Transaction.EXPENSE) ex += t.amount;
+    /**
+     * Maps every row of a transactions cursor and closes it. Category ids are
+     * turned into names through the helper's dictionary, so rows of a category
+     * share one String. Stops early when the calling thread is interrupted.
+     */
+    public static List<Transaction> readTransactions(DBHelper db, Cursor c) {
+        List<Transaction> list = new ArrayList<>();
+        if (c == null) return list;
+
+        try {
+            int idIndex = c.getColumnIndexOrThrow("id");
+            int amountIndex = c.getColumnIndexOrThrow(DBHelper.TX_AMOUNT);
+            int dateIndex = c.getColumnIndexOrThrow("date_millis");
+            int categoryIndex = c.getColumnIndexOrThrow(DBHelper.TX_CATEGORY_ID);
+            int descIndex = c.getColumnIndexOrThrow("description");
+            int typeIndex = c.getColumnIndexOrThrow("type");
+            int recurrenceIndex = c.getColumnIndex("recurrence");
+            int isActiveIndex = c.getColumnIndex("is_active");
+            int endDateIndex = c.getColumnIndex("end_date_millis");
+
+            while (c.moveToNext()) {
+                // superseded by a newer load, stop reading
+                if (Thread.currentThread().isInterrupted()) break;
+
+                // Get recurrence, default to "once" if not found
+                String recurrence = Transaction.RECURRENCE_ONCE;
+                if (recurrenceIndex >= 0) {
+                    String rec = c.getString(recurrenceIndex);
+                    if (rec != null && !rec.isEmpty()) {
+                        recurrence = rec;
+                    }
+                }
+
+                // Get isActive, default to true
+                boolean isActive = isActiveIndex < 0 || c.getInt(isActiveIndex) == 1;
+
+                // Get endDateMillis, default to -1 (no end date)
+                long endDateMillis = endDateIndex >= 0 ? c.getLong(endDateIndex) : Transaction.NO_END_DATE;
+
+                list.add(new Transaction(
+                        c.getInt(idIndex),
+                        c.getLong(amountIndex),
+                        c.getLong(dateIndex),
+                        db.getCategoryName(c.getInt(categoryIndex)),
+                        c.getString(descIndex),
+                        c.getInt(typeIndex),
+                        recurrence, isActive, endDateMillis));
+            }
+        } finally {
+            c.close();
         }
-        income.setValue(in);
-        expenses.setValue(ex);
+        return list;
     }
 
     // Add income (legacy, no recurrence)
-    public void addIncome(DBHelper db, String email, double amount, long dateMillis, String category, String desc) {
-        addIncome(db, email, amount, dateMillis, category, desc, Transaction.RECURRENCE_ONCE, true, Transaction.NO_END_DATE);
+    public void addIncome(DBHelper db, String email, long amountCents, long dateMillis, String category, String desc) {
+        addIncome(db, email, amountCents, dateMillis, category, desc, Transaction.RECURRENCE_ONCE, true, Transaction.NO_END_DATE);
     }
 
     // Add income with recurrence
-    public void addIncome(DBHelper db, String email, double amount, long dateMillis, String category, String desc, String recurrence) {
-        addIncome(db, email, amount, dateMillis, category, desc, recurrence, true, Transaction.NO_END_DATE);
+    public void addIncome(DBHelper db, String email, long amountCents, long dateMillis, String category, String desc, String recurrence) {
+        addIncome(db, email, amountCents, dateMillis, category, desc, recurrence, true, Transaction.NO_END_DATE);
     }
 
     // Add income with all fields
-    public void addIncome(DBHelper db, String email, double amount, long dateMillis, String category, 
+    public void addIncome(DBHelper db, String email, long amountCents, long dateMillis, String category, 
                           String desc, String recurrence, boolean isActive, long endDateMillis) {
         if (email == null) return;
-        db.insertTransaction(email, Transaction.INCOME, amount, dateMillis, category, desc, recurrence, isActive, endDateMillis);
-        loadTransactions(db, email);
+        insert(db, email, Transaction.INCOME, amountCents, dateMillis, category, desc, recurrence, isActive, endDateMillis);
     }
 
     //  Add expense (legacy, no recurrence)
-    public void addExpense(DBHelper db, String email, double amount, long dateMillis, String category, String desc) {
-        addExpense(db, email, amount, dateMillis, category, desc, Transaction.RECURRENCE_ONCE, true, Transaction.NO_END_DATE);
+    public void addExpense(DBHelper db, String email, long amountCents, long dateMillis, String category, String desc) {
+        addExpense(db, email, amountCents, dateMillis, category, desc, Transaction.RECURRENCE_ONCE, true, Transaction.NO_END_DATE);
     }
 
     //  Add expense with recurrence
-    public void addExpense(DBHelper db, String email, double amount, long dateMillis, String category, String desc, String recurrence) {
-        addExpense(db, email, amount, dateMillis, category, desc, recurrence, true, Transaction.NO_END_DATE);
+    public void addExpense(DBHelper db, String email, long amountCents, long dateMillis, String category, String desc, String recurrence) {
+        addExpense(db, email, amountCents, dateMillis, category, desc, recurrence, true, Transaction.NO_END_DATE);
     }
 
     //  Add expense with all fields
-    public void addExpense(DBHelper db, String email, double amount, long dateMillis, String category, 
+    public void addExpense(DBHelper db, String email, long amountCents, long dateMillis, String category, 
                            String desc, String recurrence, boolean isActive, long endDateMillis) {
         if (email == null) return;
-        db.insertTransaction(email, Transaction.EXPENSE, amount, dateMillis, category, desc, recurrence, isActive, endDateMillis);
-        loadTransactions(db, email);
+        insert(db, email, Transaction.EXPENSE, amountCents, dateMillis, category, desc, recurrence, isActive, endDateMillis);
+    }
+
+    private void insert(DBHelper db, String email, int type, long amountCents, long dateMillis, String category,
+                        String desc, String recurrence, boolean isActive, long endDateMillis) {
+        final Transaction row;
+        synchronized (this) {
+            row = new Transaction(nextTempId--, amountCents, dateMillis, category, desc, type,
+                    recurrence, isActive, endDateMillis);
+            addRow(row);
+        }
+        final int tempId = row.id;
+
+        write(db, email, () -> {
+            long id = db.insertTransaction(email, type, amountCents, dateMillis, category, desc,
+                    row.recurrence, isActive, endDateMillis);
+            if (id == -1) return false;
+            // the published row keeps its temp id, so the adapters' stable ids hold;
+            // writes and lookups go through committedIds until the next load
+            synchronized (this) {
+                committedIds.put(tempId, (int) id);
+            }
+            return true;
+        }, () -> removeRow(tempId));
     }
 
     //  Update
     public void updateTransaction(DBHelper db, String email, Transaction t) {
         if (email == null || t == null) return;
-        String recurrence = (t.recurrence == null) ? Transaction.RECURRENCE_ONCE : t.recurrence;
-        db.updateTransaction(email, t.id, t.type, t.amount, t.dateMillis, t.category, t.description, 
-                            recurrence, t.isActive, t.endDateMillis);
-        loadTransactions(db, email);
+        // keep our own copy; callers tend to edit the row they were shown in place
+        final Transaction edited = t.copy();
+        final Transaction before;
+        synchronized (this) {
+            before = replaceRow(edited);
+        }
+
+        write(db, email, () -> db.updateTransaction(email, committedId(edited.id), edited.type, edited.amountCents,
+                edited.dateMillis, edited.category, edited.description,
+                edited.recurrence, edited.isActive, edited.endDateMillis), () -> {
+            if (before != null) replaceRow(before);
+        });
     }
 
     //  Deactivate (marks as inactive with end date set to current time)
     public void deactivateTransaction(DBHelper db, String email, int txId) {
         if (email == null) return;
         long now = System.currentTimeMillis();
-        db.deactivateTransaction(email, txId, now);
-        loadTransactions(db, email);
+        final Transaction before = setActive(txId, false, now);
+        write(db, email, () -> db.deactivateTransaction(email, committedId(txId), now), () -> {
+            if (before != null) replaceRow(before);
+        });
     }
 
     //  Reactivate (marks as active, removes end date)
     public void reactivateTransaction(DBHelper db, String email, int txId) {
         if (email == null) return;
-        db.reactivateTransaction(email, txId);
-        loadTransactions(db, email);
+        final Transaction before = setActive(txId, true, Transaction.NO_END_DATE);
+        write(db, email, () -> db.reactivateTransaction(email, committedId(txId)), () -> {
+            if (before != null) replaceRow(before);
+        });
     }
 
     //  Delete
     public void deleteTransaction(DBHelper db, String email, int txId) {
         if (email == null) return;
-        db.deleteTransaction(email, txId);
-        loadTransactions(db, email);
+        final Transaction removed;
+        synchronized (this) {
+            removed = removeRow(txId);
+        }
+        write(db, email, () -> db.deleteTransaction(email, committedId(txId)), () -> {
+            if (removed != null) addRow(removed);
+        });
     }
-}
 
+    // In-memory edits. Each one publishes a fresh list and moves the totals
+    // by the difference, instead of re-reading and re-summing everything.
+
+    private synchronized Transaction setActive(int id, boolean active, long endDateMillis) {
+        int index = indexOf(id);
+        if (index < 0) return null;
+        Transaction edited = current.get(index).copy();
+        edited.isActive = active;
+        edited.endDateMillis = endDateMillis;
+        return replaceRow(edited);
+    }
+
+    private synchronized void addRow(Transaction row) {
+        List<Transaction> list = new ArrayList<>(current);
+        list.add(insertionPoint(list, row.dateMillis), row);
+        adjustTotals(row, +1);
+        dayTotals.add(row);
+        publishEdit(list);
+    }
+
+    private synchronized Transaction removeRow(int id) {
+        int index = indexOf(id);
+        if (index < 0) return null;
+        List<Transaction> list = new ArrayList<>(current);
+        Transaction removed = list.remove(index);
+        adjustTotals(removed, -1);
+        dayTotals.remove(removed);
+        publishEdit(list);
+        return removed;
+    }
+
+    /**
+     * Swap in {@code row} for the row with the same id, keeping date order.
+     * Returns the row it replaced, or null if it was not in the list.
+     */
+    private synchronized Transaction replaceRow(Transaction row) {
+        int index = indexOf(row.id);
+        if (index < 0) return null;
+        List<Transaction> list = new ArrayList<>(current);
+        Transaction old = list.remove(index);
+        list.add(insertionPoint(list, row.dateMillis), row);
+        adjustTotals(old, -1);
+        adjustTotals(row, +1);
+        dayTotals.remove(old);
+        dayTotals.add(row);
+        publishEdit(list);
+        return old;
+    }
+
+    // id may be a row's temp id or, once its insert has committed, its database id
+    private int indexOf(int id) {
+        int resolved = committedId(id);
+        int temp = tempId(id);
+        for (int i = 0; i < current.size(); i++) {
+            int rowId = current.get(i).id;
+            if (rowId == id || rowId == resolved || rowId == temp) return i;
+        }
+        return -1;
+    }
+
+    // the list is newest first; new rows go before any older row
+    private static int insertionPoint(List<Transaction> list, long dateMillis) {
+        int lo = 0, hi = list.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (list.get(mid).dateMillis >= dateMillis) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void adjustTotals(Transaction t, int sign) {
+        if (t.type == Transaction.INCOME) incomeTotal += sign * t.amountCents;
+        else if (t.type == Transaction.EXPENSE) expenseTotal += sign * t.amountCents;
+    }
+
+    private void publishEdit(List<Transaction> list) {
+        current = list;
+        transactions.postValue(list);
+        publishAggregates(list);
+        income.postValue(incomeTotal);
+        expenses.postValue(expenseTotal);
+    }
+
+    // call with dayTotals and the totals already matching exactly these rows; the
+    // snapshot derives everything else on first use, so this is cheap under the lock
+    private void publishAggregates(List<Transaction> list) {
+        AggregateSnapshot snapshot = new AggregateSnapshot(++aggregateVersion, list,
+                incomeTotal, expenseTotal, dayTotals, aggregateCounters);
+        aggregate = snapshot;
+        aggregates.postValue(snapshot);
+    }
+
+    private synchronized int committedId(int id) {
+        Integer real = committedIds.get(id);
+        return real == null ? id : real;
+    }
+
+    // the temp id a committed row is still published under, or id itself
+    private synchronized int tempId(int id) {
+        for (Map.Entry<Integer, Integer> e : committedIds.entrySet()) {
+            if (e.getValue() == id) return e.getKey();
+        }
+        return id;
+    }
+
+    /**
+     * Run {@code write} on the writer thread after the in-memory edit has been
+     * published; if it fails, {@code undo} puts the list back.
+     */
+    private void write(DBHelper db, String email, Callable<Boolean> write, Runnable undo) {
+        final boolean loadInFlight;
+        synchronized (this) {
+            // a load that started before this edit would publish a list without it
+            loadInFlight = pendingLoad != null && !pendingLoad.isDone();
+            if (loadInFlight) loadGeneration.incrementAndGet();
+        }
+
+        writer.execute(() -> {
+            long before = db.getDataVersion();
+            boolean ok;
+            try {
+                ok = write.call();
+            } catch (Exception e) {
+                ok = false;
+            }
+
+            synchronized (this) {
+                if (!ok) {
+                    undo.run();
+                } else if (before == loadedVersion && db.getDataVersion() == before + 1) {
+                    // nobody else wrote in between, so the list still matches the database
+                    loadedVersion = before + 1;
+                } else {
+                    loadedVersion = -1;
+                }
+            }
+            signalDataChange();
+
+            if (loadInFlight) refreshTransactions(db, email);
+        });
+    }
+
+    private void signalDataChange() {
+        dataChanges.postValue(dataChangeCount.incrementAndGet());
+    }
+
+    @Override
+    protected void onCleared() {
+        loadGeneration.incrementAndGet();
+        loader.shutdownNow();
+        statisticsGeneration.incrementAndGet();
+        homeGeneration.incrementAndGet();
+        aggregator.shutdownNow();
+        // let queued writes finish; they only touch the database and this object
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,56 @@
+package com.labproject.app.ui.Models;
+
+import java.util.Arrays;
+
+/**
+ * Income and expenses over a period in cents, overall and per category.
+ * The per-category totals are indexed by category id in {@link #categories}.
+ */
+public class PeriodTotals {
+
+    public final CategoryDictionary categories;
+
+    public long income;
+    public long expenses;
+
+    public long[] incomeByCategory;
+    public long[] expensesByCategory;
+
+    public PeriodTotals() {
+        this(new CategoryDictionary());
+    }
+
+    public PeriodTotals(CategoryDictionary categories) {
+        this.categories = categories;
+        int n = categories.size();
+        incomeByCategory = new long[n];
+        expensesByCategory = new long[n];
+    }
+
+    public void add(int type, int categoryId, long amount) {
+        if (amount == 0) return;
+
+        if (type == Transaction.INCOME) {
+            income += amount;
+            if (categoryId >= incomeByCategory.length) incomeByCategory = grow(incomeByCategory, categoryId);
+            incomeByCategory[categoryId] += amount;
+        } else if (type == Transaction.EXPENSE) {
+            expenses += amount;
+            if (categoryId >= expensesByCategory.length) expensesByCategory = grow(expensesByCategory, categoryId);
+            expensesByCategory[categoryId] += amount;
+        }
+    }
+
+    public String categoryName(int categoryId) {
+        return categories.name(categoryId);
+    }
+
+    public long getBalance() {
+        return income - expenses;
+    }
+
+    // a category created after this object was sized
+    private long[] grow(long[] totals, int categoryId) {
+        return Arrays.copyOf(totals, Math.max(categoryId + 1, categories.size()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.labproject.app.ui.Models;
+
+/**
+ * Sort orders kept as permutations of list positions, so a list can be shown
+ * in any order it was sorted in once, and filtered by walking that order.
+ */
+public final class Permutations {
+
+    /** Compares the rows at two list positions. */
+    public interface PositionComparator {
+        int compare(int a, int b);
+    }
+
+    private Permutations() {
+    }
+
+    /**
+     * Positions 0 to n - 1 in the order the comparator puts their rows in.
+     * The sort is stable: rows that compare equal keep their list order, as
+     * with {@link java.util.Collections#sort}.
+     */
+    public static int[] sort(int n, PositionComparator comparator) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        int[] buffer = new int[n];
+        // bottom-up merge sort; merges take from the left run on ties, which keeps it stable
+        for (int width = 1; width < n; width <<= 1) {
+            for (int lo = 0; lo < n - width; lo += width << 1) {
+                int mid = lo + width;
+                int hi = Math.min(lo + (width << 1), n);
+                if (comparator.compare(order[mid - 1], order[mid]) <= 0) continue;   // already in order
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    buffer[k++] = comparator.compare(order[j], order[i]) < 0 ? order[j++] : order[i++];
+                }
+                while (i < mid) buffer[k++] = order[i++];
+                while (j < hi) buffer[k++] = order[j++];
+                System.arraycopy(buffer, lo, order, lo, hi - lo);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * The positions of order whose keep flag is set, in the same order.
+     */
+    public static int[] select(int[] order, boolean[] keep) {
+        int[] kept = new int[order.length];
+        int size = 0;
+        for (int position : order) {
+            if (keep[position]) kept[size++] = position;
+        }
+        if (size == kept.length) return kept;
+        int[] trimmed = new int[size];
+        System.arraycopy(kept, 0, trimmed, 0, size);
+        return trimmed;
+    }
+}
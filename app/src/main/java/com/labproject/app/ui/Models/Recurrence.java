@@ -0,0 +1,134 @@
+package com.labproject.app.ui.Models;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Exact occurrence counting for recurring transactions.
+ *
+ * A recurring transaction first occurs at its own date and then repeats at the
+ * same local time every week, month or year. Monthly and yearly repeats keep the
+ * original day and clamp it to shorter months: a row on Jan 31 occurs on Feb 28
+ * (or 29), Mar 31, Apr 30 and so on, and a Feb 29 row occurs on Feb 28 in other
+ * years. Nothing occurs after the end date, and an inactive row without an end
+ * date does not occur at all.
+ *
+ * Counting is O(1) per transaction: the first and last occurrence index inside
+ * the window are computed directly instead of stepping through the dates.
+ */
+public final class Recurrence {
+
+    private static final long WEEK_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    private Recurrence() {}
+
+    /**
+     * A window [startMillis, endMillis], both inclusive, in the device time zone.
+     */
+    public static Window window(long startMillis, long endMillis) {
+        return new Window(startMillis, endMillis, ZoneId.systemDefault());
+    }
+
+    public static final class Window {
+        public final long startMillis;
+        public final long endMillis;
+
+        private final ZoneId zone;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        public Window(long startMillis, long endMillis, ZoneId zone) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.zone = zone;
+            this.start = local(startMillis);
+            this.end = local(endMillis);
+        }
+
+        /**
+         * What the transaction adds up to inside the window, in cents.
+         */
+        public long amountOf(Transaction t) {
+            return t.amountCents * count(t);
+        }
+
+        public long count(Transaction t) {
+            return count(t.recurrence, t.dateMillis, t.isActive, t.endDateMillis);
+        }
+
+        /**
+         * How many times a transaction with these fields occurs inside the window.
+         */
+        public long count(String recurrence, long dateMillis, boolean isActive, long endDateMillis) {
+            long lastMillis = endMillis;
+            if (endDateMillis != Transaction.NO_END_DATE) {
+                lastMillis = Math.min(lastMillis, endDateMillis);
+            } else if (!isActive) {
+                return 0;
+            }
+            if (dateMillis > lastMillis) return 0;
+
+            if (recurrence == null) return dateMillis >= startMillis ? 1 : 0;
+            switch (recurrence) {
+                case Transaction.RECURRENCE_WEEKLY:
+                    return countWeekly(dateMillis, lastMillis);
+                case Transaction.RECURRENCE_MONTHLY:
+                    return countCalendar(dateMillis, lastMillis, false);
+                case Transaction.RECURRENCE_YEARLY:
+                    return countCalendar(dateMillis, lastMillis, true);
+                default:
+                    return dateMillis >= startMillis ? 1 : 0;
+            }
+        }
+
+        // Weekly repeats keep the local wall-clock time, so step in local time, not UTC
+        private long countWeekly(long dateMillis, long lastMillis) {
+            long base = wallMillis(local(dateMillis));
+            long lo = wallMillis(start);
+            long hi = wallMillis(lastMillis == endMillis ? end : local(lastMillis));
+
+            long first = lo <= base ? 0 : ceilDiv(lo - base, WEEK_MILLIS);
+            long last = Math.floorDiv(hi - base, WEEK_MILLIS);
+            return Math.max(0, last - first + 1);
+        }
+
+        private long countCalendar(long dateMillis, long lastMillis, boolean yearly) {
+            LocalDateTime base = local(dateMillis);
+            LocalDateTime hi = lastMillis == endMillis ? end : local(lastMillis);
+
+            // candidate index from the calendar fields, corrected by one if the
+            // clamped occurrence in that month falls on the wrong side of the bound
+            long last = steps(base, hi, yearly);
+            if (occurrence(base, last, yearly).isAfter(hi)) last--;
+
+            long first = Math.max(0, steps(base, start, yearly));
+            if (occurrence(base, first, yearly).isBefore(start)) first++;
+
+            return Math.max(0, last - first + 1);
+        }
+
+        private LocalDateTime local(long millis) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+        }
+    }
+
+    private static long steps(LocalDateTime from, LocalDateTime to, boolean yearly) {
+        if (yearly) return (long) to.getYear() - from.getYear();
+        return ((long) to.getYear() * 12 + to.getMonthValue()) - ((long) from.getYear() * 12 + from.getMonthValue());
+    }
+
+    // plusMonths/plusYears clamp to the end of a shorter month, always from the original day
+    private static LocalDateTime occurrence(LocalDateTime base, long index, boolean yearly) {
+        return yearly ? base.plusYears(index) : base.plusMonths(index);
+    }
+
+    private static long wallMillis(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1000 + t.getNano() / 1_000_000;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
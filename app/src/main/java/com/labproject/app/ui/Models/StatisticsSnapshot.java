@@ -0,0 +1,167 @@
+package com.labproject.app.ui.Models;
+
+import com.labproject.app.data.db.DBHelper;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Everything the statistics screen shows, computed once off the main thread.
+ *
+ * A snapshot belongs to one user, one database data version and one local day
+ * (month boundaries and the daily average move with the date), so the screen
+ * can be reopened by binding the one it already has. Amounts are cents.
+ */
+public final class StatisticsSnapshot {
+
+    public static final int TREND_MONTHS = 6;
+
+    public final String email;
+    public final long dataVersion;
+    public final long epochDay;
+
+    public final boolean hasData;
+
+    public final long totalIncome;
+    public final long totalExpense;
+
+    public final long currentMonthIncome;
+    public final long currentMonthExpense;
+    public final long lastMonthIncome;
+    public final long lastMonthExpense;
+
+    // percent change from last month, NaN when last month had nothing
+    public final double incomeChange;
+    public final double expenseChange;
+
+    // percent of income kept, NaN without income
+    public final double savingsRate;
+
+    public final String topCategory;       // null without expenses
+    public final long topCategoryAmount;
+    public final double avgDailyExpense;   // cents per day since the oldest row
+
+    // oldest month first
+    public final String[] trendMonths;
+    public final long[] trendIncome;
+    public final long[] trendExpense;
+
+    // expenses per category with anything spent, in category id order
+    public final List<String> categoryNames;
+    public final long[] categoryTotals;
+
+    private StatisticsSnapshot(String email, long dataVersion, long epochDay, boolean hasData,
+                               PeriodTotals allTime, PeriodTotals currentMonth, PeriodTotals lastMonth,
+                               long days, String[] trendMonths, long[] trendIncome, long[] trendExpense) {
+        this.email = email;
+        this.dataVersion = dataVersion;
+        this.epochDay = epochDay;
+        this.hasData = hasData;
+
+        totalIncome = allTime.income;
+        totalExpense = allTime.expenses;
+        currentMonthIncome = currentMonth.income;
+        currentMonthExpense = currentMonth.expenses;
+        lastMonthIncome = lastMonth.income;
+        lastMonthExpense = lastMonth.expenses;
+
+        incomeChange = change(currentMonthIncome, lastMonthIncome);
+        expenseChange = change(currentMonthExpense, lastMonthExpense);
+        savingsRate = totalIncome > 0 ? (totalIncome - totalExpense) / (double) totalIncome * 100 : Double.NaN;
+        avgDailyExpense = totalExpense / (double) days;
+
+        String top = null;
+        long topAmount = 0;
+        List<String> names = new ArrayList<>();
+        long[] byCategory = allTime.expensesByCategory;
+        int n = 0;
+        for (long total : byCategory) if (total != 0) n++;
+        categoryTotals = new long[n];
+        for (int id = 0, i = 0; id < byCategory.length; id++) {
+            if (byCategory[id] == 0) continue;
+            names.add(allTime.categoryName(id));
+            categoryTotals[i++] = byCategory[id];
+            if (byCategory[id] > topAmount) {
+                topAmount = byCategory[id];
+                top = allTime.categoryName(id);
+            }
+        }
+        categoryNames = names;
+        topCategory = top;
+        topCategoryAmount = topAmount;
+
+        this.trendMonths = trendMonths;
+        this.trendIncome = trendIncome;
+        this.trendExpense = trendExpense;
+    }
+
+    /**
+     * True if this snapshot still describes the user's data as of nowMillis.
+     */
+    public boolean isCurrent(String email, long dataVersion, long nowMillis) {
+        return this.email.equals(email) && this.dataVersion == dataVersion && epochDay == epochDay(nowMillis);
+    }
+
+    /**
+     * Reads the rollup for all time, this month, last month and the trend
+     * months. Call it off the main thread.
+     */
+    public static StatisticsSnapshot compute(DBHelper db, String email, long nowMillis) {
+        // read the version first: a write landing mid-way leaves it stale, not wrong
+        long version = db.getDataVersion();
+
+        // recurring rows count once per occurrence: all time runs from the oldest row up to now
+        long first = db.getFirstTransactionDate(email);
+        long oldest = first < 0 ? nowMillis : Math.min(first, nowMillis);
+        PeriodTotals allTime = db.getPeriodTotals(email, oldest, nowMillis);
+
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(nowMillis);
+        cal.set(Calendar.DAY_OF_MONTH, 1);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        long currentMonthStart = cal.getTimeInMillis();
+        cal.add(Calendar.MONTH, 1);
+        long nextMonthStart = cal.getTimeInMillis();
+        cal.add(Calendar.MONTH, -2);
+        long lastMonthStart = cal.getTimeInMillis();
+
+        PeriodTotals currentMonth = db.getPeriodTotals(email, currentMonthStart, nextMonthStart - 1);
+        PeriodTotals lastMonth = db.getPeriodTotals(email, lastMonthStart, currentMonthStart - 1);
+
+        // each trend month is its own window so recurring rows land in every month they occur
+        SimpleDateFormat monthFormat = new SimpleDateFormat("MMM yy", Locale.US);
+        String[] months = new String[TREND_MONTHS];
+        long[] income = new long[TREND_MONTHS];
+        long[] expense = new long[TREND_MONTHS];
+        cal.setTimeInMillis(currentMonthStart);
+        cal.add(Calendar.MONTH, -(TREND_MONTHS - 1));
+        for (int i = 0; i < TREND_MONTHS; i++) {
+            months[i] = monthFormat.format(cal.getTime());
+            long monthStart = cal.getTimeInMillis();
+            cal.add(Calendar.MONTH, 1);
+            PeriodTotals month = db.getPeriodTotals(email, monthStart, cal.getTimeInMillis() - 1);
+            income[i] = month.income;
+            expense[i] = month.expenses;
+        }
+
+        long days = (nowMillis - oldest) / (1000 * 60 * 60 * 24) + 1;
+        return new StatisticsSnapshot(email, version, epochDay(nowMillis), first >= 0,
+                allTime, currentMonth, lastMonth, days, months, income, expense);
+    }
+
+    private static double change(long current, long last) {
+        return last > 0 ? (current - last) / (double) last * 100 : Double.NaN;
+    }
+
+    private static long epochDay(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+}
@@ -13,7 +13,7 @@ public class Transaction {
     public static final long NO_END_DATE = -1;  // End date constant for "infinite" (no end date)
 
     public int id;
-    public double amount;
+    public long amountCents;
     public long dateMillis;
     public String category;
     public String description;
@@ -22,9 +22,9 @@ public class Transaction {
     public boolean isActive;  // Whether the transaction is active
     public long endDateMillis; // End date for recurring transactions (-1 means no end/infinite)
 
-    public Transaction(int id, double amount, long dateMillis, String category, String description, int type) {
+    public Transaction(int id, long amountCents, long dateMillis, String category, String description, int type) {
         this.id = id;
-        this.amount = amount;
+        this.amountCents = amountCents;
         this.dateMillis = dateMillis;
         this.category = category;
         this.description = description;
@@ -34,9 +34,9 @@ public class Transaction {
         this.endDateMillis = NO_END_DATE; // Default to no end date
     }
 
-    public Transaction(int id, double amount, long dateMillis, String category, String description, int type, String recurrence) {
+    public Transaction(int id, long amountCents, long dateMillis, String category, String description, int type, String recurrence) {
         this.id = id;
-        this.amount = amount;
+        this.amountCents = amountCents;
         this.dateMillis = dateMillis;
         this.category = category;
         this.description = description;
@@ -46,10 +46,10 @@ public class Transaction {
         this.endDateMillis = NO_END_DATE; // Default to no end date
     }
 
-    public Transaction(int id, double amount, long dateMillis, String category, String description, 
+    public Transaction(int id, long amountCents, long dateMillis, String category, String description, 
                        int type, String recurrence, boolean isActive, long endDateMillis) {
         this.id = id;
-        this.amount = amount;
+        this.amountCents = amountCents;
         this.dateMillis = dateMillis;
         this.category = category;
         this.description = description;
@@ -59,6 +59,13 @@ public class Transaction {
         this.endDateMillis = endDateMillis;
     }
 
+    /**
+     * A detached copy, for editing without touching a row other screens may be showing.
+     */
+    public Transaction copy() {
+        return new Transaction(id, amountCents, dateMillis, category, description, type, recurrence, isActive, endDateMillis);
+    }
+
     /**
      * Check if the transaction is currently active (considering both isActive flag and end date)
      * @param currentTimeMillis the current time in milliseconds
@@ -92,107 +99,6 @@ public class Transaction {
         return endDateMillis != NO_END_DATE;
     }
 
-    /**
-     * Calculate the effective amount for a given period based on recurrence.
-     * Works for both income and expenses.
-     * @param periodType "day", "week", "month", "year"
-     * @return The effective amount for that period
-     */
-    public double getEffectiveAmountForPeriod(String periodType) {
-        if (recurrence == null) {
-            return amount;
-        }
-
-        switch (periodType) {
-            case "day":
-                return getDailyAmount();
-            case "week":
-                return getWeeklyAmount();
-            case "month":
-                return getMonthlyAmount();
-            case "year":
-                return getYearlyAmount();
-            default:
-                return amount;
-        }
-    }
-
-    /**
-     * Get the daily equivalent of the income.
-     */
-    public double getDailyAmount() {
-        if (recurrence == null) return amount;
-        switch (recurrence) {
-            case RECURRENCE_ONCE:
-                return amount; // One-time income, counted fully on that day
-            case RECURRENCE_WEEKLY:
-                return amount / 7.0;
-            case RECURRENCE_MONTHLY:
-                return amount / 30.0;
-            case RECURRENCE_YEARLY:
-                return amount / 365.0;
-            default:
-                return amount;
-        }
-    }
-
-    /**
-     * Get the weekly equivalent of the income.
-     */
-    public double getWeeklyAmount() {
-        if (recurrence == null) return amount;
-        switch (recurrence) {
-            case RECURRENCE_ONCE:
-                return amount; // One-time income, counted fully in that week
-            case RECURRENCE_WEEKLY:
-                return amount;
-            case RECURRENCE_MONTHLY:
-                return amount / 4.33; // Average weeks per month
-            case RECURRENCE_YEARLY:
-                return amount / 52.0;
-            default:
-                return amount;
-        }
-    }
-
-    /**
-     * Get the monthly equivalent of the income.
-     */
-    public double getMonthlyAmount() {
-        if (recurrence == null) return amount;
-        switch (recurrence) {
-            case RECURRENCE_ONCE:
-                return amount; // One-time income, counted fully in that month
-            case RECURRENCE_WEEKLY:
-                return amount * 4.33;
-            case RECURRENCE_MONTHLY:
-                return amount;
-            case RECURRENCE_YEARLY:
-                return amount / 12.0;
-            default:
-                return amount;
-        }
-    }
-
-    /**
-     * Get the yearly equivalent of the income.
-     */
-    public double getYearlyAmount() {
-        if (recurrence == null) return amount;
-        switch (recurrence) {
-            case RECURRENCE_ONCE:
-                return amount; // One-time income, counted fully in that year
-            case RECURRENCE_WEEKLY:
-                return amount * 52.0;
-            case RECURRENCE_MONTHLY:
-                return amount * 12.0;
-            case RECURRENCE_YEARLY:
-                return amount;
-            default:
-                return amount;
-        }
-    }
-
     /**
      * Get a display label for the recurrence type.
      */
@@ -0,0 +1,169 @@
+package com.labproject.app.ui.Models;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An immutable, column-per-field snapshot of a transaction list for aggregation.
+ *
+ * Every field lives in its own primitive array, the category and recurrence
+ * strings become small integer codes, and the active flags are a BitSet, so a
+ * full pass reads a few contiguous arrays instead of chasing one object and
+ * two strings per row. Amounts are cents, and sums by category go into a
+ * long[] indexed by category id rather than a HashMap keyed by name.
+ *
+ * Row i of the snapshot is row i of the list it was built from. The snapshot
+ * keeps no reference to that list: callers that need the row objects look the
+ * positions it returns up in their own copy, so the columns cost only their
+ * arrays on top of the objects the screens already hold.
+ */
+public final class TransactionColumns {
+
+    public static final byte ONCE = 0;
+    public static final byte WEEKLY = 1;
+    public static final byte MONTHLY = 2;
+    public static final byte YEARLY = 3;
+
+    private static final String[] RECURRENCES = {
+            Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_WEEKLY,
+            Transaction.RECURRENCE_MONTHLY, Transaction.RECURRENCE_YEARLY
+    };
+
+    public static final TransactionColumns EMPTY = new TransactionColumns(new ArrayList<>());
+
+    private final int size;
+
+    private final long[] dates;
+    private final long[] amounts;
+    private final int[] categories;
+    private final byte[] types;
+    private final byte[] recurrences;
+    private final long[] endDates;
+    private final BitSet active;
+
+    // ids are handed out in order of first appearance
+    private final CategoryDictionary categoryNames = new CategoryDictionary();
+
+    public TransactionColumns(List<Transaction> rows) {
+        size = rows.size();
+        dates = new long[size];
+        amounts = new long[size];
+        categories = new int[size];
+        types = new byte[size];
+        recurrences = new byte[size];
+        endDates = new long[size];
+        active = new BitSet(size);
+
+        for (int i = 0; i < size; i++) {
+            Transaction t = rows.get(i);
+            dates[i] = t.dateMillis;
+            amounts[i] = t.amountCents;
+            types[i] = (byte) t.type;
+            recurrences[i] = recurrenceCode(t.recurrence);
+            endDates[i] = t.endDateMillis;
+            if (t.isActive) active.set(i);
+
+            String name = (t.category == null || t.category.trim().isEmpty()) ? "Other" : t.category;
+            categories[i] = categoryNames.intern(name);
+        }
+    }
+
+    public static byte recurrenceCode(String recurrence) {
+        if (recurrence == null) return ONCE;
+        switch (recurrence) {
+            case Transaction.RECURRENCE_WEEKLY: return WEEKLY;
+            case Transaction.RECURRENCE_MONTHLY: return MONTHLY;
+            case Transaction.RECURRENCE_YEARLY: return YEARLY;
+            default: return ONCE;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int categoryCount() {
+        return categoryNames.size();
+    }
+
+    public String categoryName(int id) {
+        return categoryNames.name(id);
+    }
+
+    public CategoryDictionary categories() {
+        return categoryNames;
+    }
+
+    /**
+     * Face value in cents of every row of the type, active or not.
+     */
+    public long sum(int type) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            // multiply by the match instead of branching, so the loop stays branch-free
+            sum += amounts[i] * (types[i] == type ? 1 : 0);
+        }
+        return sum;
+    }
+
+    /**
+     * Face value in cents of every row of the type, indexed by category id.
+     */
+    public long[] sumByCategory(int type) {
+        long[] sums = new long[categoryNames.size()];
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type) sums[categories[i]] += amounts[i];
+        }
+        return sums;
+    }
+
+    /**
+     * What the rows of the type add up to inside the window, every occurrence of
+     * a recurring row included, indexed by category id.
+     */
+    public long[] sumByCategory(int type, Recurrence.Window window) {
+        long[] sums = new long[categoryNames.size()];
+        for (int i = 0; i < size; i++) {
+            if (types[i] != type) continue;
+
+            long count;
+            if (recurrences[i] == ONCE) {
+                // the common case, without going through the recurrence engine
+                boolean happened = endDates[i] == Transaction.NO_END_DATE ? active.get(i) : endDates[i] >= dates[i];
+                count = happened && dates[i] >= window.startMillis && dates[i] <= window.endMillis ? 1 : 0;
+            } else {
+                count = window.count(RECURRENCES[recurrences[i]], dates[i], active.get(i), endDates[i]);
+            }
+            sums[categories[i]] += count * amounts[i];
+        }
+        return sums;
+    }
+
+    /**
+     * Income and expenses inside the window, overall and per category.
+     */
+    public PeriodTotals totals(Recurrence.Window window) {
+        PeriodTotals totals = new PeriodTotals(categoryNames);
+        for (int type : new int[]{Transaction.INCOME, Transaction.EXPENSE}) {
+            long[] sums = sumByCategory(type, window);
+            for (int id = 0; id < sums.length; id++) totals.add(type, id, sums[id]);
+        }
+        return totals;
+    }
+
+    /**
+     * Positions of the rows of the type, in list order.
+     */
+    public int[] rowsOfType(int type) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type) n++;
+        }
+        int[] rows = new int[n];
+        for (int i = 0, j = 0; i < size; i++) {
+            if (types[i] == type) rows[j++] = i;
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,96 @@
+package com.labproject.app.ui.Models;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Tells the transaction lists which rows changed between two submissions, and
+ * how, so an edit rebinds one row instead of every row on screen.
+ *
+ * Rows are the same item when they have the same id. A row whose contents
+ * changed carries an Integer payload with the {@code AMOUNT}, {@code TEXT} and
+ * {@code STATUS} bits of what differs; adapters rebind only those views.
+ */
+public final class TransactionDiff extends DiffUtil.ItemCallback<Transaction> {
+
+    public static final TransactionDiff ITEMS = new TransactionDiff();
+
+    public static final int AMOUNT = 1;   // amount and sign
+    public static final int TEXT = 2;     // description, category and date
+    public static final int STATUS = 4;   // recurrence, active flag and end date
+
+    private TransactionDiff() {
+    }
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Transaction a, @NonNull Transaction b) {
+        return a.id == b.id;
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Transaction a, @NonNull Transaction b) {
+        return changes(a, b) == 0;
+    }
+
+    @Override
+    public Object getChangePayload(@NonNull Transaction a, @NonNull Transaction b) {
+        return changes(a, b);
+    }
+
+    /**
+     * The payload bits of what differs between two versions of a row.
+     */
+    public static int changes(Transaction a, Transaction b) {
+        if (a == b) return 0;
+        int changes = 0;
+        if (a.amountCents != b.amountCents || a.type != b.type) changes |= AMOUNT;
+        if (a.dateMillis != b.dateMillis || !Objects.equals(a.description, b.description)
+                || !Objects.equals(a.category, b.category)) changes |= TEXT;
+        if (a.isActive != b.isActive || a.endDateMillis != b.endDateMillis
+                || !Objects.equals(a.recurrence, b.recurrence)) changes |= STATUS;
+        return changes;
+    }
+
+    /**
+     * Everything the payloads of one bind ask for; all of it when there are none,
+     * which is a full bind.
+     */
+    public static int merge(List<Object> payloads) {
+        if (payloads.isEmpty()) return AMOUNT | TEXT | STATUS;
+        int changes = 0;
+        // indexed rather than for-each: this runs on every bind and shouldn't allocate an iterator
+        for (int i = 0; i < payloads.size(); i++) {
+            Object payload = payloads.get(i);
+            changes |= payload instanceof Integer ? (Integer) payload : AMOUNT | TEXT | STATUS;
+        }
+        return changes;
+    }
+
+    /**
+     * The updates that turn before into after, worked out on the calling thread.
+     */
+    public static DiffUtil.DiffResult between(List<Transaction> before, List<Transaction> after) {
+        return DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override public int getOldListSize() { return before.size(); }
+            @Override public int getNewListSize() { return after.size(); }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return ITEMS.areItemsTheSame(before.get(oldPosition), after.get(newPosition));
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return ITEMS.areContentsTheSame(before.get(oldPosition), after.get(newPosition));
+            }
+
+            @Override
+            public Object getChangePayload(int oldPosition, int newPosition) {
+                return ITEMS.getChangePayload(before.get(oldPosition), after.get(newPosition));
+            }
+        }, false);
+    }
+}
@@ -0,0 +1,86 @@
+package com.labproject.app.ui.Models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the transactions that can contribute to a date window without scanning
+ * all of them.
+ *
+ * Each transaction covers [dateMillis, activeUntil]: just its own date for a
+ * one-time row, up to the end date (or forever) for a recurring one. Rows are
+ * kept sorted by start as an implicit balanced tree, with the latest end of
+ * every subtree alongside. A query skips any subtree that ends before the
+ * window or starts after it, so it costs O(log n + k) for the k rows it
+ * reports instead of a pass over the whole list.
+ *
+ * The index is immutable; build a new one when the list changes.
+ */
+public class TransactionIntervalIndex {
+
+    private final Transaction[] rows;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnd;
+
+    public TransactionIntervalIndex(List<Transaction> transactions) {
+        rows = transactions.toArray(new Transaction[0]);
+        Arrays.sort(rows, (a, b) -> Long.compare(a.dateMillis, b.dateMillis));
+
+        int n = rows.length;
+        starts = new long[n];
+        ends = new long[n];
+        maxEnd = new long[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = rows[i].dateMillis;
+            ends[i] = activeUntil(rows[i]);
+        }
+        buildMaxEnd(0, n);
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Every transaction whose interval overlaps [startMillis, endMillis], oldest first.
+     */
+    public List<Transaction> overlapping(long startMillis, long endMillis) {
+        List<Transaction> out = new ArrayList<>();
+        collect(0, rows.length, startMillis, endMillis, out);
+        return out;
+    }
+
+    /**
+     * The last moment a transaction can occur: its own date for one-time rows,
+     * the end date or forever for recurring ones.
+     */
+    static long activeUntil(Transaction t) {
+        if (t.recurrence == null || Transaction.RECURRENCE_ONCE.equals(t.recurrence)) return t.dateMillis;
+        if (t.endDateMillis != Transaction.NO_END_DATE) return Math.max(t.dateMillis, t.endDateMillis);
+        return t.isActive ? Long.MAX_VALUE : t.dateMillis;
+    }
+
+    // the node of [lo, hi) is its middle element; returns the subtree's latest end
+    private long buildMaxEnd(int lo, int hi) {
+        if (lo >= hi) return Long.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    private void collect(int lo, int hi, long start, long end, List<Transaction> out) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        // nothing under here is still running when the window opens
+        if (maxEnd[mid] < start) return;
+
+        collect(lo, mid, start, end, out);
+        // this row and everything to its right start after the window
+        if (starts[mid] > end) return;
+        if (ends[mid] >= start) out.add(rows[mid]);
+        collect(mid + 1, hi, start, end, out);
+    }
+}
@@ -0,0 +1,37 @@
+package com.labproject.app.ui.Models;
+
+/**
+ * What a transaction list row shows, formatted ahead of time so binding a row
+ * only hands prebuilt text to its views. Built by {@link TransactionRows}.
+ */
+public final class TransactionRow {
+
+    public static final int COLOR_NONE = 0;
+    public static final int COLOR_INACTIVE = 0xFFFF9800;   // orange
+    public static final int COLOR_HAS_END = 0xFF2196F3;    // blue
+
+    public final CharSequence amount;       // signed, "+ $12.50" / "- $12.50"
+    public final CharSequence description;  // "—" when blank
+    public final CharSequence meta;         // "category • yyyy-MM-dd"
+    public final CharSequence recurrence;   // badge text, null for one-time rows
+    public final CharSequence endDate;      // "Ends: yyyy-MM-dd", null without an end date
+    public final int statusColor;           // COLOR_NONE hides the indicator
+    public final boolean inactive;
+    public final float alpha;
+
+    // the row this was formatted from, to tell when it is out of date
+    final Transaction source;
+
+    TransactionRow(Transaction source, CharSequence amount, CharSequence description, CharSequence meta,
+                   CharSequence recurrence, CharSequence endDate, int statusColor) {
+        this.source = source;
+        this.amount = amount;
+        this.description = description;
+        this.meta = meta;
+        this.recurrence = recurrence;
+        this.endDate = endDate;
+        this.statusColor = statusColor;
+        this.inactive = !source.isActive;
+        this.alpha = source.isActive ? 1.0f : 0.5f;
+    }
+}
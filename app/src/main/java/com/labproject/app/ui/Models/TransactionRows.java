@@ -0,0 +1,154 @@
+package com.labproject.app.ui.Models;
+
+import com.labproject.app.utils.Money;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Formatted rows for the transaction lists, cached by transaction id.
+ *
+ * Rows are formatted off the main thread with {@link #update} or {@link #add}
+ * as each list arrives, reusing the text of any row that has not changed, so
+ * an adapter's bind is a lookup. {@link #get} formats on the spot only for a
+ * row it has not seen in that form yet.
+ *
+ * Ids live in an open-addressing table of ints, so a lookup doesn't box the id.
+ */
+public final class TransactionRows {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd", Locale.US);
+
+    private final ZoneId zone;
+
+    // guarded by this; values[i] == null marks an empty slot
+    private int[] keys = new int[16];
+    private TransactionRow[] values = new TransactionRow[16];
+    private int size;
+
+    public TransactionRows() {
+        this(ZoneId.systemDefault());
+    }
+
+    public TransactionRows(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * The formatted row for t, formatting it now if the cache has no entry
+     * for it or the entry was made from an older version of the row.
+     */
+    public synchronized TransactionRow get(Transaction t) {
+        TransactionRow row = find(t.id);
+        if (row != null && (row.source == t || TransactionDiff.changes(row.source, t) == 0)) return row;
+        row = format(t);
+        put(row);
+        return row;
+    }
+
+    /**
+     * Formats every row of the list and forgets rows that are no longer in it.
+     * Call it off the main thread, once per list.
+     */
+    public void update(List<Transaction> rows) {
+        TransactionRow[] formatted = formatAll(rows);
+        synchronized (this) {
+            int capacity = 16;
+            while (capacity < rows.size() * 2) capacity <<= 1;
+            keys = new int[capacity];
+            values = new TransactionRow[capacity];
+            size = 0;
+            for (TransactionRow row : formatted) put(row);
+        }
+    }
+
+    /**
+     * Formats every row of the list, keeping the rows already cached. Call it
+     * off the main thread.
+     */
+    public void add(List<Transaction> rows) {
+        TransactionRow[] formatted = formatAll(rows);
+        synchronized (this) {
+            for (TransactionRow row : formatted) put(row);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // the cached text is reused for rows that have not changed since they were last formatted
+    private TransactionRow[] formatAll(List<Transaction> rows) {
+        TransactionRow[] formatted = new TransactionRow[rows.size()];
+        for (int i = 0; i < formatted.length; i++) {
+            Transaction t = rows.get(i);
+            TransactionRow cached;
+            synchronized (this) {
+                cached = find(t.id);
+            }
+            formatted[i] = cached != null && (cached.source == t || TransactionDiff.changes(cached.source, t) == 0)
+                    ? cached
+                    : format(t);
+        }
+        return formatted;
+    }
+
+    TransactionRow format(Transaction t) {
+        String sign = t.type == Transaction.INCOME ? "+ " : "- ";
+        String description = (t.description == null || t.description.trim().isEmpty()) ? "—" : t.description;
+        String category = (t.category == null || t.category.trim().isEmpty()) ? "Other" : t.category;
+
+        String recurrence = Transaction.RECURRENCE_ONCE.equals(t.recurrence) ? null : t.getRecurrenceLabel();
+        String endDate = t.hasEndDate() ? "Ends: " + date(t.endDateMillis) : null;
+
+        int statusColor;
+        if (!t.isActive) statusColor = TransactionRow.COLOR_INACTIVE;
+        else if (t.hasEndDate()) statusColor = TransactionRow.COLOR_HAS_END;
+        else statusColor = TransactionRow.COLOR_NONE;
+
+        return new TransactionRow(t, sign + Money.format(t.amountCents), description,
+                category + " • " + date(t.dateMillis), recurrence, endDate, statusColor);
+    }
+
+    private String date(long millis) {
+        return DATE.format(Instant.ofEpochMilli(millis).atZone(zone));
+    }
+
+    private TransactionRow find(int id) {
+        int mask = keys.length - 1;
+        for (int i = hash(id) & mask; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == id) return values[i];
+        }
+        return null;
+    }
+
+    private void put(TransactionRow row) {
+        if ((size + 1) * 2 > keys.length) grow();
+        int id = row.source.id;
+        int mask = keys.length - 1;
+        int i = hash(id) & mask;
+        while (values[i] != null && keys[i] != id) i = (i + 1) & mask;
+        if (values[i] == null) size++;
+        keys[i] = id;
+        values[i] = row;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        TransactionRow[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new TransactionRow[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) put(oldValues[i]);
+        }
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
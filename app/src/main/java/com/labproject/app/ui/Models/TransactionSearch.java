@@ -0,0 +1,137 @@
+package com.labproject.app.ui.Models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the Expenses and Income search off the main thread.
+ *
+ * Typing is debounced: a query runs once the user has paused for
+ * {@link #DEBOUNCE_MS}, and only the latest one is delivered. Queries are
+ * answered from the snapshot's {@link TransactionSearchIndex}, and a query
+ * that contains the previous one (the usual next keystroke) only re-checks the
+ * previous matches. Matches are put in order by walking the index's
+ * permutation for the sort mode, dropping rows outside the date range, so
+ * switching the sort doesn't sort anything.
+ *
+ * Call everything but the callback from the main thread; the callback is run
+ * on the main executor.
+ */
+public final class TransactionSearch {
+
+    public static final long DEBOUNCE_MS = 150;
+
+    public static final int SORT_DATE_DESC = 0;
+    public static final int SORT_DATE_ASC = 1;
+    public static final int SORT_AMOUNT_DESC = 2;
+    public static final int SORT_AMOUNT_ASC = 3;
+
+    /** What the list is filtered by. Dates are inclusive; null leaves that end open. */
+    public static final class Filter {
+        public final String query;
+        public final Long dateFrom;
+        public final Long dateTo;
+        public final int sortMode;
+
+        public Filter(String query, Long dateFrom, Long dateTo, int sortMode) {
+            this.query = TransactionSearchIndex.normalize(query);
+            this.dateFrom = dateFrom;
+            this.dateTo = dateTo;
+            this.sortMode = sortMode;
+        }
+    }
+
+    public interface Callback {
+        /** rows are the matches in sort order; total is how many rows were searched. */
+        void onResults(List<Transaction> rows, int total);
+    }
+
+    private final int type;
+    private final ScheduledExecutorService io;
+    private final Executor main;
+    private final Callback callback;
+
+    // main thread
+    private AggregateSnapshot snapshot;
+    private Filter filter = new Filter("", null, null, SORT_DATE_DESC);
+    private ScheduledFuture<?> pending;
+    private int generation = 0;
+
+    // io thread: the last query answered, to refine from
+    private TransactionSearchIndex lastIndex;
+    private String lastQuery;
+    private int[] lastMatches;
+
+    public TransactionSearch(int type, ScheduledExecutorService io, Executor main, Callback callback) {
+        this.type = type;
+        this.io = io;
+        this.main = main;
+        this.callback = callback;
+    }
+
+    /**
+     * Searches a newly published list, right away.
+     */
+    public void setSnapshot(AggregateSnapshot snapshot) {
+        this.snapshot = snapshot;
+        schedule(0);
+    }
+
+    /**
+     * Searches with a new filter: after a pause when debounce is set, as for
+     * typing, otherwise right away.
+     */
+    public void setFilter(Filter filter, boolean debounce) {
+        this.filter = filter;
+        schedule(debounce ? DEBOUNCE_MS : 0);
+    }
+
+    private void schedule(long delayMs) {
+        if (snapshot == null) return;
+        if (pending != null) pending.cancel(false);
+
+        int run = ++generation;
+        AggregateSnapshot snapshot = this.snapshot;
+        Filter filter = this.filter;
+        pending = io.schedule(() -> {
+            TransactionSearchIndex index = snapshot.searchIndex(type);
+            List<Transaction> rows = search(index, filter);
+            main.execute(() -> {
+                if (run == generation) callback.onResults(rows, index.size());
+            });
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private List<Transaction> search(TransactionSearchIndex index, Filter filter) {
+        int[] matches = index == lastIndex && filter.query.contains(lastQuery)
+                ? index.refine(lastMatches, filter.query)
+                : index.match(filter.query);
+        lastIndex = index;
+        lastQuery = filter.query;
+        lastMatches = matches;
+        return inOrder(index, matches, filter);
+    }
+
+    /**
+     * The matching rows in the filter's date range, in its sort order.
+     */
+    static List<Transaction> inOrder(TransactionSearchIndex index, int[] matches, Filter filter) {
+        // the matches in the date range, as a mask over the sort mode's permutation
+        boolean[] keep = new boolean[index.size()];
+        for (int position : matches) {
+            Transaction t = index.row(position);
+            if (filter.dateFrom != null && t.dateMillis < filter.dateFrom) continue;
+            if (filter.dateTo != null && t.dateMillis > filter.dateTo) continue;
+            keep[position] = true;
+        }
+        int[] sorted = Permutations.select(index.order(filter.sortMode), keep);
+
+        List<Transaction> rows = new ArrayList<>(sorted.length);
+        for (int position : sorted) rows.add(index.row(position));
+        return rows;
+    }
+}
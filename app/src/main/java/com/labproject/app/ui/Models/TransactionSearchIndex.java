@@ -0,0 +1,265 @@
+package com.labproject.app.ui.Models;
+
+import com.labproject.app.utils.Money;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Substring search over the description, category and amount of a list of
+ * transactions, built once per list.
+ *
+ * A row matches a query when any of the three, lowercased, contains it; the
+ * amount is matched as its plain text ("12.50"), like the search box always
+ * has. Every three-character run of the lowercased text is indexed with the
+ * rows it occurs in, so a query of three or more characters only checks the
+ * rows of its rarest run instead of every row. Shorter queries check every
+ * row against the lowercased text kept here, without lowercasing anything.
+ *
+ * Results are positions into the list, ascending. The list is also kept
+ * sorted in each of the {@link TransactionSearch} sort modes, as permutations
+ * of positions built on first use, so a result is put in order by walking a
+ * permutation rather than sorting. The index never changes once built and may
+ * be read from any thread.
+ */
+public final class TransactionSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final List<Transaction> rows;
+
+    // lowercased once, per row
+    private final String[] descriptions;
+    private final String[] categories;
+    private final String[] amounts;
+
+    // gram -> id in an open-addressing table; gramKeys[i] == 0 marks an empty slot
+    private final long[] gramKeys;
+    private final int[] gramIds;
+
+    // rows of gram id g, ascending: postings[offsets[g] .. offsets[g + 1])
+    private final int[] offsets;
+    private final int[] postings;
+
+    // by sort mode, built on first use; guarded by this
+    private final int[][] orders = new int[4][];
+
+    public TransactionSearchIndex(List<Transaction> rows) {
+        this.rows = rows;
+        int n = rows.size();
+        descriptions = new String[n];
+        categories = new String[n];
+        amounts = new String[n];
+        for (int i = 0; i < n; i++) {
+            Transaction t = rows.get(i);
+            descriptions[i] = t.description == null ? "" : t.description.toLowerCase(Locale.ROOT);
+            categories[i] = t.category == null ? "" : t.category.toLowerCase(Locale.ROOT);
+            amounts[i] = Money.plain(t.amountCents);
+        }
+
+        // first pass: give every gram an id and count the rows it occurs in
+        long[] keys = new long[1024];
+        int[] ids = new int[1024];
+        int[] counts = new int[256];
+        int[] lastRow = new int[256];
+        int grams = 0;
+        for (int i = 0; i < n; i++) {
+            for (int f = 0; f < 3; f++) {
+                String text = field(f, i);
+                for (int c = 0; c + GRAM <= text.length(); c++) {
+                    long key = key(text, c);
+                    int mask = keys.length - 1;
+                    int slot = slot(key, mask);
+                    while (keys[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+                    int id;
+                    if (keys[slot] == 0) {
+                        if (grams == counts.length) {
+                            counts = grow(counts);
+                            lastRow = grow(lastRow);
+                        }
+                        id = grams++;
+                        keys[slot] = key;
+                        ids[slot] = id;
+                        lastRow[id] = -1;
+                        if (grams * 2 > keys.length) {
+                            long[] oldKeys = keys;
+                            int[] oldIds = ids;
+                            keys = new long[oldKeys.length * 2];
+                            ids = new int[oldKeys.length * 2];
+                            rehash(oldKeys, oldIds, keys, ids);
+                        }
+                    } else {
+                        id = ids[slot];
+                    }
+                    if (lastRow[id] != i) {
+                        lastRow[id] = i;
+                        counts[id]++;
+                    }
+                }
+            }
+        }
+        gramKeys = keys;
+        gramIds = ids;
+
+        // second pass: lay the rows of each gram out end to end
+        offsets = new int[grams + 1];
+        for (int g = 0; g < grams; g++) offsets[g + 1] = offsets[g] + counts[g];
+        postings = new int[offsets[grams]];
+        int[] next = new int[grams];
+        System.arraycopy(offsets, 0, next, 0, grams);
+        for (int g = 0; g < grams; g++) lastRow[g] = -1;
+        for (int i = 0; i < n; i++) {
+            for (int f = 0; f < 3; f++) {
+                String text = field(f, i);
+                for (int c = 0; c + GRAM <= text.length(); c++) {
+                    int id = gramId(key(text, c));
+                    if (lastRow[id] != i) {
+                        lastRow[id] = i;
+                        postings[next[id]++] = i;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The query as the index matches it: trimmed and lowercased.
+     */
+    public static String normalize(String query) {
+        return query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public Transaction row(int position) {
+        return rows.get(position);
+    }
+
+    /**
+     * Positions of the rows matching the normalized query, ascending. An
+     * empty query matches every row.
+     */
+    public int[] match(String query) {
+        int n = rows.size();
+        if (query.isEmpty()) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            return all;
+        }
+        if (query.length() < GRAM) return filter(null, n, query);
+
+        // the rows holding the query's rarest run are the only ones that can hold all of it
+        int rarest = -1;
+        for (int c = 0; c + GRAM <= query.length(); c++) {
+            int id = gramId(key(query, c));
+            if (id < 0) return new int[0];
+            if (rarest < 0 || offsets[id + 1] - offsets[id] < offsets[rarest + 1] - offsets[rarest]) {
+                rarest = id;
+            }
+        }
+        int count = offsets[rarest + 1] - offsets[rarest];
+        int[] candidates = new int[count];
+        System.arraycopy(postings, offsets[rarest], candidates, 0, count);
+        return filter(candidates, count, query);
+    }
+
+    /**
+     * Positions of the rows matching the normalized query, checking only the
+     * given rows: the result of {@link #match} for any query this one
+     * contains, such as the query before the last keystroke.
+     */
+    public int[] refine(int[] matches, String query) {
+        return filter(matches, matches.length, query);
+    }
+
+    /**
+     * Every position, in the order of the {@link TransactionSearch} sort mode.
+     * Rows that tie keep their list order.
+     */
+    public synchronized int[] order(int sortMode) {
+        if (sortMode < 0 || sortMode >= orders.length) sortMode = TransactionSearch.SORT_DATE_DESC;
+        int[] order = orders[sortMode];
+        if (order == null) {
+            order = Permutations.sort(rows.size(), comparator(sortMode));
+            orders[sortMode] = order;
+        }
+        return order;
+    }
+
+    private Permutations.PositionComparator comparator(int sortMode) {
+        switch (sortMode) {
+            case TransactionSearch.SORT_DATE_ASC:
+                return (a, b) -> Long.compare(rows.get(a).dateMillis, rows.get(b).dateMillis);
+            case TransactionSearch.SORT_AMOUNT_DESC:
+                return (a, b) -> Long.compare(rows.get(b).amountCents, rows.get(a).amountCents);
+            case TransactionSearch.SORT_AMOUNT_ASC:
+                return (a, b) -> Long.compare(rows.get(a).amountCents, rows.get(b).amountCents);
+            default:
+                return (a, b) -> Long.compare(rows.get(b).dateMillis, rows.get(a).dateMillis);
+        }
+    }
+
+    public boolean matches(int position, String query) {
+        return descriptions[position].contains(query)
+                || categories[position].contains(query)
+                || amounts[position].contains(query);
+    }
+
+    // candidates null means every row
+    private int[] filter(int[] candidates, int count, String query) {
+        int[] out = new int[count];
+        int size = 0;
+        for (int k = 0; k < count; k++) {
+            int i = candidates == null ? k : candidates[k];
+            if (matches(i, query)) out[size++] = i;
+        }
+        if (size == count) return out;
+        int[] trimmed = new int[size];
+        System.arraycopy(out, 0, trimmed, 0, size);
+        return trimmed;
+    }
+
+    private String field(int f, int row) {
+        return f == 0 ? descriptions[row] : f == 1 ? categories[row] : amounts[row];
+    }
+
+    private int gramId(long key) {
+        int mask = gramKeys.length - 1;
+        for (int slot = slot(key, mask); gramKeys[slot] != 0; slot = (slot + 1) & mask) {
+            if (gramKeys[slot] == key) return gramIds[slot];
+        }
+        return -1;
+    }
+
+    // three UTF-16 units, never 0: the top bit is always set
+    private static long key(String text, int start) {
+        return (1L << 63)
+                | ((long) text.charAt(start) << 32)
+                | ((long) text.charAt(start + 1) << 16)
+                | text.charAt(start + 2);
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static void rehash(long[] oldKeys, int[] oldIds, long[] keys, int[] ids) {
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = slot(oldKeys[i], mask);
+            while (keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            ids[slot] = oldIds[i];
+        }
+    }
+
+    private static int[] grow(int[] array) {
+        int[] grown = new int[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+}
@@ -1,12 +1,16 @@
 package com.labproject.app.ui.auth;
 
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
 import android.util.Patterns;
 import android.view.View;
 
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.labproject.app.FinanceApp;
 import com.labproject.app.MainActivity;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.data.db.TestDataGenerator;
@@ -14,8 +18,13 @@ import com.labproject.app.data.session.SessionManager;
 import com.labproject.app.databinding.ActivityLoginBinding;
 import com.labproject.app.utils.ToastHelper;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class LoginActivity extends AppCompatActivity {
 
+    // one generator run at a time in the process, whichever activity started it
+    private static final AtomicBoolean generating = new AtomicBoolean();
+
     private ActivityLoginBinding binding;
     private DBHelper db;
     private SessionManager session;
@@ -27,7 +36,7 @@ public class LoginActivity extends AppCompatActivity {
         binding = ActivityLoginBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        db = new DBHelper(this);
+        db = FinanceApp.getDatabase(this);
         session = new SessionManager(this);
 
         // If already logged in -> go main
@@ -96,12 +105,65 @@ public class LoginActivity extends AppCompatActivity {
         binding.tvError.setVisibility(View.VISIBLE);
     }
     private void generateTestData() {
+        boolean debuggable = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        if (!debuggable) {
+            generate(null);
+            return;
+        }
+
+        // debug builds can also load the large presets
+        String[] choices = {"Sample data (2025)", "Heavy user (10 years, ~500k rows)", "Multi-tenant (1,000 users)"};
+        new AlertDialog.Builder(this)
+                .setTitle("Generate test data")
+                .setItems(choices, (dialog, which) -> generate(which == 0 ? null
+                        : which == 1 ? TestDataGenerator.Config.HEAVY_USER : TestDataGenerator.Config.MULTI_TENANT))
+                .show();
+    }
+
+    /**
+     * Runs the generator off the main thread; a null config is the small sample.
+     */
+    private void generate(@Nullable TestDataGenerator.Config config) {
+        if (!generating.compareAndSet(false, true)) {
+            ToastHelper.showInfo(this, "Test data is already being generated");
+            return;
+        }
         ToastHelper.showInfo(this, "Generating test data...");
-        TestDataGenerator.generateTestData(this);
-        ToastHelper.showSuccess(this, "Test data created!\nEmail: test@finance.com\nPassword: Test123");
-        // Pre fill login with test credentials
-        binding.etEmail.setText("test@finance.com");
-        binding.etPassword.setText("Test123");
+        new Thread(() -> {
+            long rows;
+            try {
+                if (config == null) {
+                    rows = TestDataGenerator.generateTestData(db);
+                } else {
+                    int[] shown = {0};
+                    rows = TestDataGenerator.generate(db, config, System.currentTimeMillis(), (inserted, expected) -> {
+                        // a toast every tenth of the way
+                        int tenth = (int) Math.min(9, inserted * 10 / Math.max(1, expected));
+                        if (tenth == shown[0]) return;
+                        shown[0] = tenth;
+                        runOnUiThread(() -> {
+                            if (isFinishing() || isDestroyed()) return;
+                            ToastHelper.showInfo(this, "Generating test data... " + tenth * 10 + "%");
+                        });
+                    });
+                }
+            } finally {
+                generating.set(false);
+            }
+            String email = config == null ? TestDataGenerator.SAMPLE_EMAIL : TestDataGenerator.emailOf(0);
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed()) return;
+                if (rows == 0) {
+                    ToastHelper.showError(this, "No test data added: " + email + " already has transactions");
+                } else {
+                    ToastHelper.showSuccess(this, "Test data created! " + rows + " rows\nEmail: " + email
+                            + "\nPassword: " + TestDataGenerator.PASSWORD);
+                }
+                // Pre fill login with test credentials
+                binding.etEmail.setText(email);
+                binding.etPassword.setText(TestDataGenerator.PASSWORD);
+            });
+        }, "test-data").start();
     }
     private void goMain() {
         Intent i = new Intent(this, MainActivity.class);
@@ -10,6 +10,7 @@ import android.text.TextWatcher;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.labproject.app.FinanceApp;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.databinding.ActivityRegisterBinding;
 
@@ -25,7 +26,7 @@ public class RegisterActivity extends AppCompatActivity {
         binding = ActivityRegisterBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        db = new DBHelper(this);
+        db = FinanceApp.getDatabase(this);
 
         binding.btnRegister.setOnClickListener(v -> register());
         binding.tvBackToLogin.setOnClickListener(v -> finish());
@@ -7,18 +7,18 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.labproject.app.R;
 import com.labproject.app.ui.Models.Budget;
+import com.labproject.app.ui.Models.BudgetDiff;
+import com.labproject.app.utils.Money;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
-public class BudgetAdapter extends RecyclerView.Adapter<BudgetAdapter.BudgetViewHolder> {
+public class BudgetAdapter extends ListAdapter<Budget, BudgetAdapter.BudgetViewHolder> {
 
-    private List<Budget> budgets = new ArrayList<>();
     private final Listener listener;
 
     public interface Listener {
@@ -26,13 +26,16 @@ public class BudgetAdapter extends RecyclerView.Adapter<BudgetAdapter.BudgetView
         void onLongClick(Budget budget);
     }
 
+    // lists are diffed in the background; new spending rebinds only the progress of a row
     public BudgetAdapter(Listener listener) {
+        super(BudgetDiff.ITEMS);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
-    public void submitList(List<Budget> list) {
-        budgets = (list == null) ? new ArrayList<>() : new ArrayList<>(list);
-        notifyDataSetChanged();
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
     }
 
     @NonNull
@@ -40,18 +43,40 @@ public class BudgetAdapter extends RecyclerView.Adapter<BudgetAdapter.BudgetView
     public BudgetViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_budget, parent, false);
-        return new BudgetViewHolder(v);
+        BudgetViewHolder h = new BudgetViewHolder(v);
+
+        // set once per holder; they look the budget up when clicked
+        h.itemView.setOnClickListener(view -> {
+            Budget b = budgetAt(h);
+            if (b != null && listener != null) listener.onClick(b);
+        });
+
+        h.itemView.setOnLongClickListener(view -> {
+            Budget b = budgetAt(h);
+            if (b != null && listener != null) listener.onLongClick(b);
+            return true;
+        });
+        return h;
     }
 
     @Override
     public void onBindViewHolder(@NonNull BudgetViewHolder h, int position) {
-        Budget b = budgets.get(position);
+        bind(h, getItem(position), false);
+    }
 
-        h.tvCategory.setText(b.category);
-        h.tvPeriod.setText(b.period);
-        h.tvLimit.setText(String.format(Locale.US, "Budget: $%.2f", b.limitAmount));
-        h.tvSpent.setText(String.format(Locale.US, "Spent: $%.2f", b.spent));
-        h.tvRemaining.setText(String.format(Locale.US, "Remaining: $%.2f", b.getRemaining()));
+    @Override
+    public void onBindViewHolder(@NonNull BudgetViewHolder h, int position, @NonNull List<Object> payloads) {
+        bind(h, getItem(position), BudgetDiff.onlySpent(payloads));
+    }
+
+    private void bind(BudgetViewHolder h, Budget b, boolean onlySpent) {
+        if (!onlySpent) {
+            h.tvCategory.setText(b.category);
+            h.tvPeriod.setText(b.period);
+            h.tvLimit.setText("Budget: " + Money.format(b.limitCents));
+        }
+        h.tvSpent.setText("Spent: " + Money.format(b.spentCents));
+        h.tvRemaining.setText("Remaining: " + Money.format(b.getRemainingCents()));
 
         int percentage = b.getPercentageUsed();
         h.progressBar.setProgress(Math.min(percentage, 100));
@@ -78,20 +103,11 @@ public class BudgetAdapter extends RecyclerView.Adapter<BudgetAdapter.BudgetView
         } else {
             h.tvAlert.setVisibility(View.GONE);
         }
-
-        h.itemView.setOnClickListener(v -> {
-            if (listener != null) listener.onClick(b);
-        });
-
-        h.itemView.setOnLongClickListener(v -> {
-            if (listener != null) listener.onLongClick(b);
-            return true;
-        });
     }
 
-    @Override
-    public int getItemCount() {
-        return budgets.size();
+    private Budget budgetAt(BudgetViewHolder h) {
+        int position = h.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : getItem(position);
     }
 
     static class BudgetViewHolder extends RecyclerView.ViewHolder {
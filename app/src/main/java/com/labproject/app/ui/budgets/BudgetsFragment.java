@@ -1,6 +1,5 @@
 package com.labproject.app.ui.budgets;
 
-import android.database.Cursor;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
@@ -12,6 +11,7 @@ import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
+import com.labproject.app.utils.Money;
 import com.labproject.app.utils.ToastHelper;
 
 import androidx.annotation.NonNull;
@@ -24,20 +24,18 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.textfield.TextInputEditText;
+import com.labproject.app.FinanceApp;
 import com.labproject.app.R;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.data.prefs.SettingsManager;
 import com.labproject.app.data.session.SessionManager;
 import com.labproject.app.ui.Models.Budget;
+import com.labproject.app.ui.Models.BudgetOrders;
 import android.widget.Spinner;
 import android.widget.TextView;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Locale;
 import java.util.List;
 
 public class BudgetsFragment extends Fragment {
@@ -79,6 +77,8 @@ public class BudgetsFragment extends Fragment {
 
     // All budgets list (unfiltered)
     private List<Budget> allBudgetsList = new ArrayList<>();
+    // the loaded budgets in each sort order
+    private BudgetOrders budgetOrders = new BudgetOrders(allBudgetsList);
 
     @Nullable
     @Override
@@ -89,7 +89,7 @@ public class BudgetsFragment extends Fragment {
 
         View root = inflater.inflate(R.layout.fragment_budget, container, false);
 
-        db = new DBHelper(requireContext());
+        db = FinanceApp.getDatabase(requireContext());
         session = new SessionManager(requireContext());
         settings = new SettingsManager(requireContext());
         email = session.getUserEmail();
@@ -236,13 +236,15 @@ public class BudgetsFragment extends Fragment {
     }
 
     private void applyFiltersAndSort() {
-        List<Budget> filtered = new ArrayList<>();
+        boolean[] keep = new boolean[allBudgetsList.size()];
+
+        for (int i = 0; i < keep.length; i++) {
+            Budget b = allBudgetsList.get(i);
 
-        for (Budget b : allBudgetsList) {
             // Search filter
             if (!searchQuery.isEmpty()) {
                 String category = b.category != null ? b.category.toLowerCase() : "";
-                String limit = String.valueOf(b.limitAmount);
+                String limit = Money.plain(b.limitCents);
                 
                 if (!category.contains(searchQuery) && !limit.contains(searchQuery)) {
                     continue;
@@ -258,34 +260,11 @@ public class BudgetsFragment extends Fragment {
                 continue;
             }
 
-            filtered.add(b);
+            keep[i] = true;
         }
 
-        // sort
-        Comparator<Budget> comparator;
-        switch (sortMode) {
-            case 1: // Limit descending
-                comparator = (a, b) -> Double.compare(b.limitAmount, a.limitAmount);
-                break;
-            case 2: // Limit ascending
-                comparator = (a, b) -> Double.compare(a.limitAmount, b.limitAmount);
-                break;
-            case 3: // Usage percentage
-                comparator = (a, b) -> {
-                    double usageA = a.limitAmount > 0 ? (a.spent / a.limitAmount) : 0;
-                    double usageB = b.limitAmount > 0 ? (b.spent / b.limitAmount) : 0;
-                    return Double.compare(usageB, usageA); // Highest usage first
-                };
-                break;
-            default: // Category alphabet
-                comparator = (a, b) -> {
-                    String catA = a.category != null ? a.category : "";
-                    String catB = b.category != null ? b.category : "";
-                    return catA.compareToIgnoreCase(catB);
-                };
-                break;
-        }
-        Collections.sort(filtered, comparator);
+        // sort: walk the sort mode's order, keeping the budgets that passed
+        List<Budget> filtered = budgetOrders.sorted(sortMode, keep);
 
         adapter.submitList(filtered);
 
@@ -332,11 +311,11 @@ public class BudgetsFragment extends Fragment {
             return;
         }
 
-        double limit;
+        long limit;
         int threshold;
 
         try {
-            limit = Double.parseDouble(limitStr);
+            limit = Money.parse(limitStr);
             threshold = thresholdStr.isEmpty() ? 50 : Integer.parseInt(thresholdStr);
         } catch (Exception e) {
             ToastHelper.showError(requireContext(), "Invalid input format");
@@ -348,7 +327,7 @@ public class BudgetsFragment extends Fragment {
             return;
         }
 
-        if (limit > 1000000) {
+        if (limit > 1000000 * 100L) {
             ToastHelper.showError(requireContext(), "Budget limit too large (max $1,000,000)");
             return;
         }
@@ -390,7 +369,7 @@ public class BudgetsFragment extends Fragment {
         tvBudgetFormTitle.setText("Edit Budget");
         btnAddBudget.setText("Update Budget");
 
-        etBudgetLimit.setText(String.format(Locale.US, "%.2f", b.limitAmount));
+        etBudgetLimit.setText(Money.plain(b.limitCents));
         etAlertThreshold.setText(String.valueOf(b.alertThreshold));
 
         // Set category
@@ -444,64 +423,18 @@ public class BudgetsFragment extends Fragment {
     private void loadBudgets() {
         allBudgetsList.clear();
 
-        Cursor c = db.getBudgetsForUser(email);
-        if (c != null && c.moveToFirst()) {
-            do {
-                int id = c.getInt(0);
-                String category = c.getString(1);
-                double limit = c.getDouble(2);
-                String period = c.getString(3);
-                int threshold = c.getInt(4);
-
-                Budget b = new Budget(id, category, limit, period, threshold);
-
-                // Calculate spent amount for this period
-                long[] range = getPeriodRange(period);
-                double spent = db.getSpentAmountForCategoryAndPeriod(email, category, range[0], range[1]);
-                b.spent = spent;
-
-                // Check if alert should trigger
-                if (limit > 0) {
-                    int percentUsed = (int) ((spent * 100.0) / limit);
-                    b.alertTriggered = (percentUsed >= threshold);
-                }
-
-                allBudgetsList.add(b);
+        // Spent per budget covers every occurrence of recurring expenses in its period
+        for (Budget b : db.getBudgetsWithSpent(email, System.currentTimeMillis())) {
+            // Check if alert should trigger
+            b.evaluateAlert();
 
-            } while (c.moveToNext());
-            c.close();
+            allBudgetsList.add(b);
         }
+        budgetOrders = new BudgetOrders(allBudgetsList);
 
         applyFiltersAndSort();
     }
 
-    private long[] getPeriodRange(String period) {
-        Calendar cal = Calendar.getInstance();
-        long end = cal.getTimeInMillis();
-
-        if (period.equals("daily")) {
-            cal.set(Calendar.HOUR_OF_DAY, 0);
-            cal.set(Calendar.MINUTE, 0);
-            cal.set(Calendar.SECOND, 0);
-            cal.set(Calendar.MILLISECOND, 0);
-        } else if (period.equals("weekly")) {
-            cal.set(Calendar.DAY_OF_WEEK, cal.getFirstDayOfWeek());
-            cal.set(Calendar.HOUR_OF_DAY, 0);
-            cal.set(Calendar.MINUTE, 0);
-            cal.set(Calendar.SECOND, 0);
-            cal.set(Calendar.MILLISECOND, 0);
-        } else { // monthly
-            cal.set(Calendar.DAY_OF_MONTH, 1);
-            cal.set(Calendar.HOUR_OF_DAY, 0);
-            cal.set(Calendar.MINUTE, 0);
-            cal.set(Calendar.SECOND, 0);
-            cal.set(Calendar.MILLISECOND, 0);
-        }
-
-        long start = cal.getTimeInMillis();
-        return new long[]{start, end};
-    }
-
     @Override
     public void onResume() {
         super.onResume();
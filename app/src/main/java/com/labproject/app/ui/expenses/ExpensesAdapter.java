@@ -1,6 +1,5 @@
 package com.labproject.app.ui.expenses;
 
-import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,34 +7,40 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.labproject.app.R;
 import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.TransactionDiff;
+import com.labproject.app.ui.Models.TransactionRow;
+import com.labproject.app.ui.Models.TransactionRows;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 
-public class ExpensesAdapter extends RecyclerView.Adapter<ExpensesAdapter.ViewHolder> {
+public class ExpensesAdapter extends ListAdapter<Transaction, ExpensesAdapter.ViewHolder> {
 
     public interface Listener {
         void onClick(Transaction t);
         void onLongClick(Transaction t);
     }
 
+    private final TransactionRows rows;
     private final Listener listener;
-    private List<Transaction> list = new ArrayList<>();
 
-    public ExpensesAdapter(Listener listener) {
+    // lists are diffed in the background; an edit rebinds only the row it touched,
+    // from text the view model formatted ahead of time
+    public ExpensesAdapter(TransactionRows rows, Listener listener) {
+        super(TransactionDiff.ITEMS);
+        this.rows = rows;
         this.listener = listener;
+        setHasStableIds(true);
     }
 
-    public void submitList(List<Transaction> newList) {
-        list = (newList == null) ? new ArrayList<>() : newList;
-        notifyDataSetChanged();
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
     }
 
     @NonNull
@@ -43,89 +48,97 @@ public class ExpensesAdapter extends RecyclerView.Adapter<ExpensesAdapter.ViewHo
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_expense, parent, false);
-        return new ViewHolder(v);
+        ViewHolder h = new ViewHolder(v);
+
+        // set once per holder; they look the row up when clicked
+        h.itemView.setOnClickListener(view -> {
+            Transaction t = rowAt(h);
+            if (t != null && listener != null) listener.onClick(t);
+        });
+
+        h.itemView.setOnLongClickListener(view -> {
+            Transaction t = rowAt(h);
+            if (t != null && listener != null) listener.onLongClick(t);
+            return true;
+        });
+
+        // Overflow menu click - same as long click
+        if (h.overflowMenu != null) {
+            h.overflowMenu.setOnClickListener(view -> {
+                Transaction t = rowAt(h);
+                if (t != null && listener != null) listener.onLongClick(t);
+            });
+        }
+        return h;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder h, int position) {
-        Transaction t = list.get(position);
+        bind(h, getItem(position), TransactionDiff.merge(Collections.emptyList()));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder h, int position, @NonNull List<Object> payloads) {
+        bind(h, getItem(position), TransactionDiff.merge(payloads));
+    }
 
-        h.amount.setText(String.format(Locale.US, "- $%.2f", t.amount));
-        
-        String desc = (t.description == null || t.description.trim().isEmpty())
-                ? "—"
-                : t.description;
-        h.desc.setText(desc);
+    private void bind(ViewHolder h, Transaction t, int changes) {
+        TransactionRow row = rows.get(t);
 
-        String date = new SimpleDateFormat("yyyy-MM-dd", Locale.US)
-                .format(new Date(t.dateMillis));
-        h.meta.setText((t.category == null ? "Other" : t.category) + " • " + date);
+        if ((changes & TransactionDiff.AMOUNT) != 0) {
+            h.amount.setText(row.amount);
+        }
+
+        if ((changes & TransactionDiff.TEXT) != 0) {
+            h.desc.setText(row.description);
+            h.meta.setText(row.meta);
+        }
 
-        // Display recurrence info
-        String recurrenceLabel = t.getRecurrenceLabel();
+        if ((changes & TransactionDiff.STATUS) == 0) return;
+
+        // Recurrence badge, only for recurring transactions
         if (h.recurrence != null) {
-            h.recurrence.setText(recurrenceLabel);
-            // Set visibility based on recurrence type
-            if (Transaction.RECURRENCE_ONCE.equals(t.recurrence)) {
+            if (row.recurrence == null) {
                 h.recurrence.setVisibility(View.GONE);
             } else {
+                h.recurrence.setText(row.recurrence);
                 h.recurrence.setVisibility(View.VISIBLE);
             }
         }
 
-        // Handle inactive status
+        // Orange when inactive, blue when it has an end date
         if (h.statusIndicator != null) {
-            if (!t.isActive) {
-                h.statusIndicator.setVisibility(View.VISIBLE);
-                h.statusIndicator.setColorFilter(Color.parseColor("#FF9800")); // Orange for inactive
-            } else if (t.hasEndDate()) {
-                h.statusIndicator.setVisibility(View.VISIBLE);
-                h.statusIndicator.setColorFilter(Color.parseColor("#2196F3")); // Blue for has end date
-            } else {
+            if (row.statusColor == TransactionRow.COLOR_NONE) {
                 h.statusIndicator.setVisibility(View.GONE);
+            } else {
+                h.statusIndicator.setVisibility(View.VISIBLE);
+                h.statusIndicator.setColorFilter(row.statusColor);
             }
         }
 
         // Gray out inactive items
-        float alpha = t.isActive ? 1.0f : 0.5f;
-        h.itemView.setAlpha(alpha);
+        h.itemView.setAlpha(row.alpha);
 
         // Show end date if set
         if (h.endDateText != null) {
-            if (t.hasEndDate()) {
-                String endDate = new SimpleDateFormat("yyyy-MM-dd", Locale.US)
-                        .format(new Date(t.endDateMillis));
-                h.endDateText.setText("Ends: " + endDate);
-                h.endDateText.setVisibility(View.VISIBLE);
-            } else {
+            if (row.endDate == null) {
                 h.endDateText.setVisibility(View.GONE);
+            } else {
+                h.endDateText.setText(row.endDate);
+                h.endDateText.setVisibility(View.VISIBLE);
             }
         }
 
         // Show inactive badge
         if (h.inactiveBadge != null) {
-            h.inactiveBadge.setVisibility(t.isActive ? View.GONE : View.VISIBLE);
-        }
-
-        h.itemView.setOnClickListener(v -> {
-            if (listener != null) listener.onClick(t);
-        });
-
-        h.itemView.setOnLongClickListener(v -> {
-            if (listener != null) listener.onLongClick(t);
-            return true;
-        });
-
-        // Overflow menu click - same as long click
-        if (h.overflowMenu != null) {
-            h.overflowMenu.setOnClickListener(v -> {
-                if (listener != null) listener.onLongClick(t);
-            });
+            h.inactiveBadge.setVisibility(row.inactive ? View.VISIBLE : View.GONE);
         }
     }
 
-    @Override
-    public int getItemCount() { return list.size(); }
+    private Transaction rowAt(ViewHolder h) {
+        int position = h.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : getItem(position);
+    }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView amount, desc, meta, recurrence, endDateText, inactiveBadge;
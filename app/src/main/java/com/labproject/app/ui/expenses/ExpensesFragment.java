@@ -11,10 +11,12 @@ import android.widget.ArrayAdapter;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
+import com.labproject.app.FinanceApp;
 import com.labproject.app.R;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.data.prefs.SettingsManager;
@@ -22,17 +24,18 @@ import com.labproject.app.data.session.SessionManager;
 import com.labproject.app.databinding.FragmentExpensesBinding;
 import com.labproject.app.ui.Models.MainViewModel;
 import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.TransactionSearch;
+import com.labproject.app.utils.Money;
 import com.labproject.app.utils.ToastHelper;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 public class ExpensesFragment extends Fragment {
 
@@ -58,8 +61,9 @@ public class ExpensesFragment extends Fragment {
     private Long filterDateTo = null;
     private int sortMode = 0; // 0=date desc, 1=date asc, 2=amount desc, 3=amount asc
 
-    // All expenses list (unfiltered)
-    private List<Transaction> allExpensesList = new ArrayList<>();
+    // searches the list off the main thread; see applyFiltersAndSort
+    private ScheduledExecutorService searchThread;
+    private TransactionSearch search;
     private ExpensesAdapter adapter;
 
     // Recurrence options
@@ -79,7 +83,7 @@ public class ExpensesFragment extends Fragment {
     ) {
         binding = FragmentExpensesBinding.inflate(inflater, container, false);
 
-        db = new DBHelper(requireContext());
+        db = FinanceApp.getDatabase(requireContext());
         settings = new SettingsManager(requireContext());
         email = new SessionManager(requireContext()).getUserEmail();
 
@@ -90,6 +94,10 @@ public class ExpensesFragment extends Fragment {
 
         vm = new ViewModelProvider(requireActivity()).get(MainViewModel.class);
 
+        searchThread = Executors.newSingleThreadScheduledExecutor();
+        search = new TransactionSearch(Transaction.EXPENSE, searchThread,
+                ContextCompat.getMainExecutor(requireContext()), this::showResults);
+
         updateDateText();
         binding.etExpenseDate.setOnClickListener(v -> openDatePicker());
 
@@ -102,7 +110,7 @@ public class ExpensesFragment extends Fragment {
         // Setup filters
         setupFilters();
 
-        adapter = new ExpensesAdapter(new ExpensesAdapter.Listener() {
+        adapter = new ExpensesAdapter(vm.getTransactionRows(), new ExpensesAdapter.Listener() {
             @Override public void onClick(Transaction t) { enterEditMode(t); }
             @Override public void onLongClick(Transaction t) { showTransactionOptions(t); }
         });
@@ -110,14 +118,8 @@ public class ExpensesFragment extends Fragment {
         binding.rvExpenses.setLayoutManager(new LinearLayoutManager(getContext()));
         binding.rvExpenses.setAdapter(adapter);
 
-        vm.getTransactions().observe(getViewLifecycleOwner(), list -> {
-            allExpensesList.clear();
-            if (list != null) {
-                for (Transaction t : list) {
-                    if (t.type == Transaction.EXPENSE) allExpensesList.add(t);
-                }
-            }
-            applyFiltersAndSort();
+        vm.getAggregates().observe(getViewLifecycleOwner(), aggregates -> {
+            search.setSnapshot(aggregates);
         });
 
         vm.loadTransactions(db, email);
@@ -150,8 +152,8 @@ public class ExpensesFragment extends Fragment {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
             @Override public void onTextChanged(CharSequence s, int start, int before, int count) {}
             @Override public void afterTextChanged(Editable s) {
-                searchQuery = s.toString().trim().toLowerCase();
-                applyFiltersAndSort();
+                searchQuery = s.toString();
+                search.setFilter(currentFilter(), true);
             }
         });
 
@@ -301,50 +303,15 @@ public class ExpensesFragment extends Fragment {
     }
 
     private void applyFiltersAndSort() {
-        List<Transaction> filtered = new ArrayList<>();
-
-        for (Transaction t : allExpensesList) {
-            // Search filter
-            if (!searchQuery.isEmpty()) {
-                String desc = t.description != null ? t.description.toLowerCase() : "";
-                String amount = String.valueOf(t.amount);
-                String category = t.category != null ? t.category.toLowerCase() : "";
-                
-                if (!desc.contains(searchQuery) && !amount.contains(searchQuery) && !category.contains(searchQuery)) {
-                    continue;
-                }
-            }
-
-            // Date from filter
-            if (filterDateFrom != null && t.dateMillis < filterDateFrom) {
-                continue;
-            }
-
-            // Date to filter
-            if (filterDateTo != null && t.dateMillis > filterDateTo) {
-                continue;
-            }
+        search.setFilter(currentFilter(), false);
+    }
 
-            filtered.add(t);
-        }
+    private TransactionSearch.Filter currentFilter() {
+        return new TransactionSearch.Filter(searchQuery, filterDateFrom, filterDateTo, sortMode);
+    }
 
-        // Sort
-        Comparator<Transaction> comparator;
-        switch (sortMode) {
-            case 1: // Date ascending
-                comparator = (a, b) -> Long.compare(a.dateMillis, b.dateMillis);
-                break;
-            case 2: // Amount descending
-                comparator = (a, b) -> Double.compare(b.amount, a.amount);
-                break;
-            case 3: // Amount ascending
-                comparator = (a, b) -> Double.compare(a.amount, b.amount);
-                break;
-            default: // Date descending
-                comparator = (a, b) -> Long.compare(b.dateMillis, a.dateMillis);
-                break;
-        }
-        Collections.sort(filtered, comparator);
+    private void showResults(List<Transaction> filtered, int total) {
+        if (binding == null) return;
 
         adapter.submitList(filtered);
 
@@ -353,10 +320,10 @@ public class ExpensesFragment extends Fragment {
         binding.rvExpenses.setVisibility(filtered.isEmpty() ? View.GONE : View.VISIBLE);
 
         // Update results count
-        if (filtered.size() == allExpensesList.size()) {
+        if (filtered.size() == total) {
             binding.tvResultsCount.setText("All expenses (" + filtered.size() + ")");
         } else {
-            binding.tvResultsCount.setText("Showing " + filtered.size() + " of " + allExpensesList.size());
+            binding.tvResultsCount.setText("Showing " + filtered.size() + " of " + total);
         }
     }
 
@@ -423,9 +390,9 @@ public class ExpensesFragment extends Fragment {
             return;
         }
 
-        double amount;
+        long amount;
         try {
-            amount = Double.parseDouble(amountStr);
+            amount = Money.parse(amountStr);
         } catch (Exception e) {
             ToastHelper.showError(requireContext(), "Invalid amount format");
             return;
@@ -436,7 +403,7 @@ public class ExpensesFragment extends Fragment {
             return;
         }
 
-        if (amount > 1_000_000) {
+        if (amount > 1_000_000 * 100L) {
             ToastHelper.showError(requireContext(), "Amount too large");
             return;
         }
@@ -447,13 +414,15 @@ public class ExpensesFragment extends Fragment {
             vm.addExpense(db, email, amount, selectedDateMillis, category, desc, recurrence);
             ToastHelper.showSuccess(requireContext(), "Expense added successfully");
         } else {
-            editingTx.amount = amount;
-            editingTx.dateMillis = selectedDateMillis;
-            editingTx.category = category;
-            editingTx.description = desc;
-            editingTx.recurrence = recurrence;
-
-            vm.updateTransaction(db, email, editingTx);
+            // edit a copy: editingTx is the row the list is showing
+            Transaction edited = editingTx.copy();
+            edited.amountCents = amount;
+            edited.dateMillis = selectedDateMillis;
+            edited.category = category;
+            edited.description = desc;
+            edited.recurrence = recurrence;
+
+            vm.updateTransaction(db, email, edited);
             ToastHelper.showSuccess(requireContext(), "Expense updated successfully");
             exitEditMode();
         }
@@ -467,7 +436,7 @@ public class ExpensesFragment extends Fragment {
         binding.tvExpenseFormTitle.setText("Edit Expense");
         binding.btnAddExpense.setText("UPDATE EXPENSE");
 
-        binding.etExpenseAmount.setText(String.valueOf(t.amount));
+        binding.etExpenseAmount.setText(Money.plain(t.amountCents));
         binding.etExpenseDescription.setText(t.description == null ? "" : t.description);
 
         selectedDateMillis = t.dateMillis;
@@ -605,6 +574,7 @@ public class ExpensesFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (searchThread != null) searchThread.shutdownNow();
         binding = null;
     }
 }
\ No newline at end of file
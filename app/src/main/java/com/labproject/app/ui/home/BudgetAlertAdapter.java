@@ -11,22 +11,26 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.drawable.DrawableCompat;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.labproject.app.R;
 import com.labproject.app.ui.Models.Budget;
+import com.labproject.app.ui.Models.BudgetDiff;
+import com.labproject.app.utils.Money;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Locale;
 
-public class BudgetAlertAdapter extends RecyclerView.Adapter<BudgetAlertAdapter.VH> {
+public class BudgetAlertAdapter extends ListAdapter<Budget, BudgetAlertAdapter.VH> {
 
-    private List<Budget> alerts = new ArrayList<>();
+    public BudgetAlertAdapter() {
+        super(BudgetDiff.ITEMS);
+        setHasStableIds(true);
+    }
 
-    public void submitList(List<Budget> list) {
-        alerts = (list == null) ? new ArrayList<>() : new ArrayList<>(list);
-        notifyDataSetChanged();
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
     }
 
     @NonNull
@@ -39,7 +43,7 @@ public class BudgetAlertAdapter extends RecyclerView.Adapter<BudgetAlertAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull VH h, int position) {
-        Budget b = alerts.get(position);
+        Budget b = getItem(position);
         int percent = b.getPercentageUsed();
         
         // Set category name
@@ -55,19 +59,19 @@ public class BudgetAlertAdapter extends RecyclerView.Adapter<BudgetAlertAdapter.
         
         if (b.isOverBudget()) {
             // Over budget - critical
-            h.tvMessage.setText(String.format(Locale.US, "Over budget! $%.0f / $%.0f", b.spent, b.limitAmount));
+            h.tvMessage.setText(String.format(Locale.US, "Over budget! $%.0f / $%.0f", Money.toDouble(b.spentCents), Money.toDouble(b.limitCents)));
             badgeColor = ContextCompat.getColor(h.itemView.getContext(), R.color.budget_danger);
             iconTint = ContextCompat.getColor(h.itemView.getContext(), R.color.budget_danger);
             bgResource = R.drawable.bg_budget_alert_item;
         } else if (percent >= 90) {
             // Critical threshold
-            h.tvMessage.setText(String.format(Locale.US, "Critical! $%.0f / $%.0f", b.spent, b.limitAmount));
+            h.tvMessage.setText(String.format(Locale.US, "Critical! $%.0f / $%.0f", Money.toDouble(b.spentCents), Money.toDouble(b.limitCents)));
             badgeColor = ContextCompat.getColor(h.itemView.getContext(), R.color.budget_danger);
             iconTint = ContextCompat.getColor(h.itemView.getContext(), R.color.budget_danger);
             bgResource = R.drawable.bg_budget_alert_item;
         } else {
             // Warning threshold
-            h.tvMessage.setText(String.format(Locale.US, "%d%% used • $%.0f / $%.0f", percent, b.spent, b.limitAmount));
+            h.tvMessage.setText(String.format(Locale.US, "%d%% used • $%.0f / $%.0f", percent, Money.toDouble(b.spentCents), Money.toDouble(b.limitCents)));
             badgeColor = ContextCompat.getColor(h.itemView.getContext(), android.R.color.holo_orange_dark);
             iconTint = ContextCompat.getColor(h.itemView.getContext(), android.R.color.holo_orange_dark);
             bgResource = R.drawable.bg_budget_alert_item;
@@ -85,11 +89,6 @@ public class BudgetAlertAdapter extends RecyclerView.Adapter<BudgetAlertAdapter.
         h.ivIcon.setColorFilter(iconTint);
     }
 
-    @Override
-    public int getItemCount() {
-        return alerts.size();
-    }
-
     static class VH extends RecyclerView.ViewHolder {
         TextView tvCategory;
         TextView tvMessage;
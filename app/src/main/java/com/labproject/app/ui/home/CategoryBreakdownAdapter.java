@@ -6,24 +6,42 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.labproject.app.R;
+import com.labproject.app.utils.Money;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
-public class CategoryBreakdownAdapter extends RecyclerView.Adapter<CategoryBreakdownAdapter.VH> {
+public class CategoryBreakdownAdapter extends ListAdapter<CategoryStat, CategoryBreakdownAdapter.VH> {
 
-    private List<CategoryStat> list = new ArrayList<>();
-    private double grandTotal = 0.0;
+    private static final DiffUtil.ItemCallback<CategoryStat> DIFF = new DiffUtil.ItemCallback<CategoryStat>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull CategoryStat a, @NonNull CategoryStat b) {
+            return a.category.equals(b.category);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull CategoryStat a, @NonNull CategoryStat b) {
+            return a.total == b.total && a.percent == b.percent;
+        }
+    };
 
-    public void submit(List<CategoryStat> newList, double total) {
-        list = newList;
-        grandTotal = Math.max(0.0, total);
-        notifyDataSetChanged();
+    public CategoryBreakdownAdapter() {
+        super(DIFF);
+    }
+
+    public void submit(List<CategoryStat> newList, long total) {
+        long grandTotal = Math.max(0, total);
+        // the share goes into the row so a new total only rebinds the rows it moved
+        for (CategoryStat s : newList) {
+            s.percent = grandTotal > 0 ? (int) Math.round((s.total * 100.0) / grandTotal) : 0;
+        }
+        submitList(newList);
     }
 
     @NonNull
@@ -36,22 +54,12 @@ public class CategoryBreakdownAdapter extends RecyclerView.Adapter<CategoryBreak
 
     @Override
     public void onBindViewHolder(@NonNull VH h, int position) {
-        CategoryStat s = list.get(position);
+        CategoryStat s = getItem(position);
 
         h.tvCategory.setText(s.category);
-        h.tvAmount.setText(String.format(Locale.US, "$%.2f", s.total));
-
-        int pct = 0;
-        if (grandTotal > 0) {
-            pct = (int) Math.round((s.total * 100.0) / grandTotal);
-        }
-        h.tvPercent.setText(String.format(Locale.US, "%d%%", pct));
-        h.progress.setProgress(pct);
-    }
-
-    @Override
-    public int getItemCount() {
-        return list.size();
+        h.tvAmount.setText(Money.format(s.total));
+        h.tvPercent.setText(String.format(Locale.US, "%d%%", s.percent));
+        h.progress.setProgress(s.percent);
     }
 
     static class VH extends RecyclerView.ViewHolder {
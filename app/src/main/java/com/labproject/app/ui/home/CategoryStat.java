@@ -2,9 +2,10 @@ package com.labproject.app.ui.home;
 
 public class CategoryStat {
     public String category;
-    public double total;
+    public long total;       // cents
+    public int percent;      // share of the list's total, set by CategoryBreakdownAdapter
 
-    public CategoryStat(String category, double total) {
+    public CategoryStat(String category, long total) {
         this.category = category;
         this.total = total;
     }
@@ -1,11 +1,11 @@
 package com.labproject.app.ui.home;
 
 import android.app.DatePickerDialog;
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import com.labproject.app.utils.Money;
 import com.labproject.app.utils.ToastHelper;
 
 import androidx.annotation.NonNull;
@@ -15,13 +15,18 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.google.android.material.datepicker.MaterialDatePicker;
+import com.labproject.app.FinanceApp;
 import com.labproject.app.R;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.data.prefs.SettingsManager;
 import com.labproject.app.data.session.SessionManager;
 import com.labproject.app.databinding.FragmentHomeBinding;
+import com.labproject.app.ui.Models.AggregateSnapshot;
 import com.labproject.app.ui.Models.Budget;
+import com.labproject.app.ui.Models.HomeSnapshot;
+import com.labproject.app.ui.Models.HomeSummary;
 import com.labproject.app.ui.Models.MainViewModel;
+import com.labproject.app.ui.Models.PeriodTotals;
 import com.labproject.app.ui.Models.Transaction;
 
 import com.github.mikephil.charting.charts.PieChart;
@@ -38,13 +43,10 @@ import com.github.mikephil.charting.utils.ColorTemplate;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 public class HomeFragment extends Fragment {
 
@@ -72,12 +74,12 @@ public class HomeFragment extends Fragment {
         binding = FragmentHomeBinding.inflate(inflater, container, false);
 
         vm = new ViewModelProvider(requireActivity()).get(MainViewModel.class);
-        db = new DBHelper(requireContext());
+        db = FinanceApp.getDatabase(requireContext());
         session = new SessionManager(requireContext());
 
         // adapters
         incAdapter = new CategoryBreakdownAdapter();
-        recentAdapter = new RecentTransactionsAdapter();
+        recentAdapter = new RecentTransactionsAdapter(vm.getTransactionRows());
         budgetAlertAdapter = new BudgetAlertAdapter();
         budgetSummaryAdapter = new com.labproject.app.ui.budgets.BudgetAdapter(
                 new com.labproject.app.ui.budgets.BudgetAdapter.Listener() {
@@ -136,7 +138,7 @@ public class HomeFragment extends Fragment {
         binding.swipeRefresh.setOnRefreshListener(() -> {
             String email = session.getUserEmail();
             if (email != null)
-                vm.loadTransactions(db, email);
+                vm.refreshTransactions(db, email);
             else
                 binding.swipeRefresh.setRefreshing(false);
         });
@@ -149,7 +151,11 @@ public class HomeFragment extends Fragment {
         });
 
         // when transactions change -> re-render for selected period
-        vm.getTransactions().observe(getViewLifecycleOwner(), list -> render(list));
+        vm.getAggregates().observe(getViewLifecycleOwner(), aggregates -> render(aggregates));
+        // all-time totals and budgets are read from the database in the view model,
+        // once a write has reached the rollup they come from
+        vm.getHome().observe(getViewLifecycleOwner(), this::renderHome);
+        vm.getDataChanges().observe(getViewLifecycleOwner(), version -> loadHome());
 
         // ensure data loaded once (if MainActivity already loads, this is safe)
         String email = session.getUserEmail();
@@ -280,15 +286,15 @@ public class HomeFragment extends Fragment {
                     return;
                 }
 
-                double amount;
+                long amount;
                 try {
-                    amount = Double.parseDouble(amountStr);
+                    amount = Money.parse(amountStr);
                 } catch (Exception e) {
                     ToastHelper.showError(requireContext(), "Invalid amount");
                     return;
                 }
 
-                if (amount <= 0 || amount > 1000000) {
+                if (amount <= 0 || amount > 1000000 * 100L) {
                     ToastHelper.showError(requireContext(), "Amount must be between $0 and $1,000,000");
                     return;
                 }
@@ -333,17 +339,17 @@ public class HomeFragment extends Fragment {
                     return;
                 }
 
-                double limit;
+                long limit;
                 int threshold;
                 try {
-                    limit = Double.parseDouble(limitStr);
+                    limit = Money.parse(limitStr);
                     threshold = thresholdStr.isEmpty() ? 50 : Integer.parseInt(thresholdStr);
                 } catch (Exception e) {
                     ToastHelper.showError(requireContext(), "Invalid input");
                     return;
                 }
 
-                if (limit <= 0 || limit > 1000000) {
+                if (limit <= 0 || limit > 1000000 * 100L) {
                     ToastHelper.showError(requireContext(), "Budget limit must be between $0 and $1,000,000");
                     return;
                 }
@@ -359,6 +365,7 @@ public class HomeFragment extends Fragment {
                 long id = db.insertBudget(email, category, limit, period, threshold);
                 if (id > 0) {
                     ToastHelper.showSuccess(requireContext(), "Budget added");
+                    loadHome();
                 } else {
                     ToastHelper.showError(requireContext(), "Failed to add budget");
                 }
@@ -373,9 +380,9 @@ public class HomeFragment extends Fragment {
     }
 
     private void renderFromVm() {
-        List<Transaction> list = vm.getTransactions().getValue();
-        if (list != null)
-            render(list);
+        AggregateSnapshot aggregates = vm.getAggregates().getValue();
+        if (aggregates != null)
+            render(aggregates);
         renderRangeText();
     }
 
@@ -384,163 +391,66 @@ public class HomeFragment extends Fragment {
                 rangeFmt.format(new Date(startMillis)) + "  →  " + rangeFmt.format(new Date(endMillis)));
     }
 
-    private void render(List<Transaction> all) {
-        // Determine the current period type based on the date range
-        String periodType = getCurrentPeriodType();
-        
-        // filter by period and only include active transactions (or those that were active during this period)
-        List<Transaction> filtered = new ArrayList<>();
-        for (Transaction t : all) {
-            if (t.dateMillis >= startMillis && t.dateMillis <= endMillis) {
-                // Include if active or if it was active during this period
-                if (t.isActive || t.wasActiveAt(startMillis)) {
-                    filtered.add(t);
-                }
-            }
-        }
-
-        // Also include recurring income that should apply to this period
-        // even if the transaction date is outside the period
-        List<Transaction> recurringIncomes = new ArrayList<>();
-        for (Transaction t : all) {
-            if (t.type == Transaction.INCOME && 
-                t.recurrence != null && 
-                !Transaction.RECURRENCE_ONCE.equals(t.recurrence)) {
-                // Check if this recurring income is active and should be counted in this period
-                if (t.isActive && shouldIncludeRecurringIncome(t, startMillis, endMillis)) {
-                    if (!filtered.contains(t)) {
-                        recurringIncomes.add(t);
-                    }
-                }
-            }
-        }
-
-        // totals - calculate income and expenses considering recurrence
-        double income = 0.0;
-        double expenses = 0.0;
-        
-        for (Transaction t : filtered) {
-            if (t.type == Transaction.INCOME) {
-                // For recurring income, calculate the effective amount for this period
-                income += calculateEffectiveAmountForPeriod(t, periodType);
-            } else if (t.type == Transaction.EXPENSE) {
-                // For recurring expenses, calculate the effective amount for this period
-                expenses += calculateEffectiveAmountForPeriod(t, periodType);
-            }
-        }
-        
-        // Add recurring incomes that weren't in the filtered list but apply to this period
-        for (Transaction t : recurringIncomes) {
-            income += calculateEffectiveAmountForPeriod(t, periodType);
-        }
-        
-        double balance = income - expenses;
+    private void render(AggregateSnapshot aggregates) {
+        // totals come from the shared snapshot, memoized per range; recurring rows count once per occurrence
+        String email = session.getUserEmail();
+        PeriodTotals totals = email == null ? new PeriodTotals() : aggregates.totals(startMillis, endMillis);
+        long income = totals.income;
+        long expenses = totals.expenses;
+        long balance = totals.getBalance();
 
-        binding.tvIncomeValue.setText(String.format(Locale.US, "$%.2f", income));
-        binding.tvExpensesValue.setText(String.format(Locale.US, "$%.2f", expenses));
-        binding.tvBalanceValue.setText(String.format(Locale.US, "$%.2f", balance));
+        binding.tvIncomeValue.setText(Money.format(income));
+        binding.tvExpensesValue.setText(Money.format(expenses));
+        binding.tvBalanceValue.setText(Money.format(balance));
 
         int color = balance < 0
                 ? getResources().getColor(R.color.red_negative)
                 : getResources().getColor(R.color.colorPrimaryDark);
         binding.tvBalanceValue.setTextColor(color);
 
-        // Calculate and display all-time totals (raw amounts, not adjusted for recurrence)
-        calculateAndDisplayAllTimeTotals(all);
-
-        // breakdown maps - use effective amounts for income
-        List<CategoryStat> incStats = buildCategoryStatsWithRecurrence(filtered, recurringIncomes, periodType);
+        // income breakdown by category
+        List<CategoryStat> incStats = buildCategoryStats(totals, totals.incomeByCategory);
 
         binding.tvEmptyIncomeBreakdown.setVisibility(incStats.isEmpty() ? View.VISIBLE : View.GONE);
         binding.rvIncomeBreakdown.setVisibility(incStats.isEmpty() ? View.GONE : View.VISIBLE);
         incAdapter.submit(incStats, income);
 
-        // Build expense category stats with recurrence
-        List<CategoryStat> expStats = buildExpenseCategoryStatsWithRecurrence(filtered, periodType);
-
         // recent (sorted by date desc, limit 5)
-        Collections.sort(filtered, (a, b) -> Long.compare(b.dateMillis, a.dateMillis));
-        List<Transaction> recent = filtered.size() > 5 ? filtered.subList(0, 5) : filtered;
+        List<Transaction> recent = HomeSummary.recent(aggregates, startMillis, endMillis, HomeSummary.RECENT_LIMIT);
 
         binding.tvEmptyRecent.setVisibility(recent.isEmpty() ? View.VISIBLE : View.GONE);
         binding.rvRecent.setVisibility(recent.isEmpty() ? View.GONE : View.VISIBLE);
-        recentAdapter.submit(new ArrayList<>(recent));
-
-        // Load and display budgets
-        loadBudgets();
+        recentAdapter.submitList(new ArrayList<>(recent));
 
         // Update charts with effective amounts
-        updateCharts(filtered, income, expenses, periodType);
-    }
-
-    /**
-     * Determine the current period type based on the date range.
-     */
-    private String getCurrentPeriodType() {
-        long diff = endMillis - startMillis;
-        long dayMillis = 24L * 60 * 60 * 1000;
-        long days = diff / dayMillis;
-        
-        if (days <= 1) {
-            return "day";
-        } else if (days <= 7) {
-            return "week";
-        } else if (days <= 31) {
-            return "month";
-        } else {
-            return "year";
-        }
+        updateCharts(totals);
     }
 
-    /**
-     * Check if a recurring income should be included in the given period.
-     */
-    private boolean shouldIncludeRecurringIncome(Transaction t, long periodStart, long periodEnd) {
-        if (t.recurrence == null || Transaction.RECURRENCE_ONCE.equals(t.recurrence)) {
-            return false; // One-time income only counted once
-        }
-        
-        // For recurring income, check if the income started before or during this period
-        // and would recur into this period
-        return t.dateMillis <= periodEnd;
+    private void loadHome() {
+        String email = session.getUserEmail();
+        if (email != null)
+            vm.loadHome(db, email);
     }
 
-    /**
-     * Calculate the effective amount for a transaction based on period (works for both income and expenses).
-     */
-    private double calculateEffectiveAmountForPeriod(Transaction t, String periodType) {
-        if (t.recurrence == null || Transaction.RECURRENCE_ONCE.equals(t.recurrence)) {
-            return t.amount; // One-time transaction
-        }
-        
-        // Use the Transaction's built-in calculation methods
-        return t.getEffectiveAmountForPeriod(periodType);
+    private void renderHome(HomeSnapshot home) {
+        if (!home.email.equals(session.getUserEmail()))
+            return;
+        displayAllTimeTotals(home);
+        displayBudgets(home);
     }
 
     /**
-     * Calculate and display all-time totals (raw amounts from the beginning).
+     * Display all-time totals (raw amounts from the beginning).
      * Only counts active transactions.
      */
-    private void calculateAndDisplayAllTimeTotals(List<Transaction> all) {
-        double totalIncome = 0.0;
-        double totalExpenses = 0.0;
-        
-        for (Transaction t : all) {
-            // Only count active transactions for all-time totals
-            if (!t.isActive) continue;
-            
-            if (t.type == Transaction.INCOME) {
-                totalIncome += t.amount;
-            } else if (t.type == Transaction.EXPENSE) {
-                totalExpenses += t.amount;
-            }
-        }
+    private void displayAllTimeTotals(HomeSnapshot home) {
+        long totalIncome = home.allTimeIncome;
+        long totalExpenses = home.allTimeExpenses;
+        long totalBalance = home.getAllTimeBalance();
         
-        double totalBalance = totalIncome - totalExpenses;
-        
-        binding.tvAllTimeIncome.setText(String.format(Locale.US, "$%.2f", totalIncome));
-        binding.tvAllTimeExpenses.setText(String.format(Locale.US, "$%.2f", totalExpenses));
-        binding.tvAllTimeBalance.setText(String.format(Locale.US, "$%.2f", totalBalance));
+        binding.tvAllTimeIncome.setText(Money.format(totalIncome));
+        binding.tvAllTimeExpenses.setText(Money.format(totalExpenses));
+        binding.tvAllTimeBalance.setText(Money.format(totalBalance));
         
         // Set color for all-time balance
         int balanceColor = totalBalance < 0
@@ -550,104 +460,19 @@ public class HomeFragment extends Fragment {
     }
 
     /**
-     * Build category stats considering recurrence for income.
-     */
-    private List<CategoryStat> buildCategoryStatsWithRecurrence(List<Transaction> filtered, 
-                                                                 List<Transaction> recurringIncomes,
-                                                                 String periodType) {
-        Map<String, Double> map = new HashMap<>();
-        
-        // Process filtered transactions
-        for (Transaction t : filtered) {
-            if (t.type != Transaction.INCOME)
-                continue;
-            String cat = (t.category == null || t.category.trim().isEmpty()) ? "Other" : t.category;
-            double old = map.containsKey(cat) ? map.get(cat) : 0.0;
-            double effectiveAmount = calculateEffectiveAmountForPeriod(t, periodType);
-            map.put(cat, old + effectiveAmount);
-        }
-        
-        // Process recurring incomes not in filtered list
-        for (Transaction t : recurringIncomes) {
-            String cat = (t.category == null || t.category.trim().isEmpty()) ? "Other" : t.category;
-            double old = map.containsKey(cat) ? map.get(cat) : 0.0;
-            double effectiveAmount = calculateEffectiveAmountForPeriod(t, periodType);
-            map.put(cat, old + effectiveAmount);
-        }
-
-        List<CategoryStat> stats = new ArrayList<>();
-        for (String k : map.keySet())
-            stats.add(new CategoryStat(k, map.get(k)));
-
-        // sort desc
-        stats.sort((a, b) -> Double.compare(b.total, a.total));
-        return stats;
-    }
-
-    /**
-     *   Build category stats considering recurrence for expenses.
+     * Per-category totals over the range, largest first.
      */
-    private List<CategoryStat> buildExpenseCategoryStatsWithRecurrence(List<Transaction> filtered, 
-                                                                        String periodType) {
-        Map<String, Double> map = new HashMap<>();
-        
-        for (Transaction t : filtered) {
-            if (t.type != Transaction.EXPENSE)
-                continue;
-            String cat = (t.category == null || t.category.trim().isEmpty()) ? "Other" : t.category;
-            double old = map.containsKey(cat) ? map.get(cat) : 0.0;
-            double effectiveAmount = calculateEffectiveAmountForPeriod(t, periodType);
-            map.put(cat, old + effectiveAmount);
-        }
-
+    private List<CategoryStat> buildCategoryStats(PeriodTotals totals, long[] byCategory) {
         List<CategoryStat> stats = new ArrayList<>();
-        for (String k : map.keySet())
-            stats.add(new CategoryStat(k, map.get(k)));
-
-        stats.sort((a, b) -> Double.compare(b.total, a.total));
+        for (int id : HomeSummary.largestFirst(byCategory))
+            stats.add(new CategoryStat(totals.categoryName(id), byCategory[id]));
         return stats;
     }
 
-    private void loadBudgets() {
-        String email = session.getUserEmail();
-        if (email == null)
-            return;
-
-        List<Budget> allBudgets = new ArrayList<>();
-        List<Budget> alertBudgets = new ArrayList<>();
-
-        Cursor c = db.getBudgetsForUser(email);
-        if (c != null && c.moveToFirst()) {
-            do {
-                int id = c.getInt(0);
-                String category = c.getString(1);
-                double limit = c.getDouble(2);
-                String period = c.getString(3);
-                int threshold = c.getInt(4);
-
-                Budget b = new Budget(id, category, limit, period, threshold);
-
-                // Calculate spent amount for current period
-                long[] range = getPeriodRange(period);
-                double spent = db.getSpentAmountForCategoryAndPeriod(email, category, range[0], range[1]);
-                b.spent = spent;
-
-                // Check if alert should trigger
-                if (limit > 0) {
-                    int percentUsed = (int) ((spent * 100.0) / limit);
-                    b.alertTriggered = (percentUsed >= threshold);
-                }
-
-                allBudgets.add(b);
-
-                // Add to alerts if triggered or over budget
-                if (b.alertTriggered || b.isOverBudget()) {
-                    alertBudgets.add(b);
-                }
-
-            } while (c.moveToNext());
-            c.close();
-        }
+    private void displayBudgets(HomeSnapshot home) {
+        // alerts are evaluated already; the adapters take lists they may keep
+        List<Budget> allBudgets = new ArrayList<>(home.budgets);
+        List<Budget> alertBudgets = new ArrayList<>(home.alerts);
 
         // Display budget alerts
         if (!alertBudgets.isEmpty()) {
@@ -670,34 +495,10 @@ public class HomeFragment extends Fragment {
         }
     }
 
-    private long[] getPeriodRange(String period) {
-        Calendar cal = Calendar.getInstance();
-        long end = cal.getTimeInMillis();
-
-        if (period.equals("daily")) {
-            cal.set(Calendar.HOUR_OF_DAY, 0);
-            cal.set(Calendar.MINUTE, 0);
-            cal.set(Calendar.SECOND, 0);
-            cal.set(Calendar.MILLISECOND, 0);
-        } else if (period.equals("weekly")) {
-            cal.set(Calendar.DAY_OF_WEEK, cal.getFirstDayOfWeek());
-            cal.set(Calendar.HOUR_OF_DAY, 0);
-            cal.set(Calendar.MINUTE, 0);
-            cal.set(Calendar.SECOND, 0);
-            cal.set(Calendar.MILLISECOND, 0);
-        } else { // monthly
-            cal.set(Calendar.DAY_OF_MONTH, 1);
-            cal.set(Calendar.HOUR_OF_DAY, 0);
-            cal.set(Calendar.MINUTE, 0);
-            cal.set(Calendar.SECOND, 0);
-            cal.set(Calendar.MILLISECOND, 0);
-        }
+    private void updateCharts(PeriodTotals totals) {
+        long totalIncome = totals.income;
+        long totalExpenses = totals.expenses;
 
-        long start = cal.getTimeInMillis();
-        return new long[] { start, end };
-    }
-
-    private void updateCharts(List<Transaction> transactions, double totalIncome, double totalExpenses, String periodType) {
         // Pie Chart - Income vs Expenses
         PieChart pieChart = binding.pieChart;
 
@@ -709,9 +510,9 @@ public class HomeFragment extends Fragment {
         } else {
             ArrayList<PieEntry> pieEntries = new ArrayList<>();
             if (totalIncome > 0)
-                pieEntries.add(new PieEntry((float)totalIncome, "Income"));
+                pieEntries.add(new PieEntry((float) Money.toDouble(totalIncome), "Income"));
             if (totalExpenses > 0)
-                pieEntries.add(new PieEntry((float)totalExpenses, "Expenses"));
+                pieEntries.add(new PieEntry((float) Money.toDouble(totalExpenses), "Expenses"));
 
             PieDataSet pieDataSet = new PieDataSet(pieEntries, "");
 
@@ -734,21 +535,12 @@ public class HomeFragment extends Fragment {
             pieChart.invalidate();
         }
 
-        // Bar Chart - Expenses by Category (using effective amounts)
+        // Bar Chart - Expenses by Category (every occurrence in the range)
         BarChart barChart = binding.barChart;
 
-        // Build category totals for expenses using effective amounts
-        Map<String, Double> categoryTotals = new HashMap<>();
-        for (Transaction t : transactions) {
-            if (t.type == Transaction.EXPENSE) {
-                String cat = (t.category == null || t.category.trim().isEmpty()) ? "Other" : t.category;
-                double current = categoryTotals.containsKey(cat) ? categoryTotals.get(cat) : 0.0;
-                double effectiveAmount = calculateEffectiveAmountForPeriod(t, periodType);
-                categoryTotals.put(cat, current + effectiveAmount);
-            }
-        }
+        long[] categoryTotals = totals.expensesByCategory;
 
-        if (categoryTotals.isEmpty()) {
+        if (totals.expenses == 0) {
             barChart.clear();
             barChart.setNoDataText("No expense data");
             barChart.setNoDataTextColor(getResources().getColor(R.color.textSecondary));            barChart.invalidate();
@@ -757,9 +549,10 @@ public class HomeFragment extends Fragment {
             ArrayList<String> labels = new ArrayList<>();
 
             int index = 0;
-            for (Map.Entry<String, Double> entry : categoryTotals.entrySet()) {
-                barEntries.add(new BarEntry(index, entry.getValue().floatValue()));
-                labels.add(entry.getKey());
+            for (int id = 0; id < categoryTotals.length; id++) {
+                if (categoryTotals[id] == 0) continue;
+                barEntries.add(new BarEntry(index, (float) Money.toDouble(categoryTotals[id])));
+                labels.add(totals.categoryName(id));
                 index++;
             }
 
@@ -1,6 +1,5 @@
 package com.labproject.app.ui.home;
 
-import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,25 +7,31 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.labproject.app.R;
 import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.TransactionDiff;
+import com.labproject.app.ui.Models.TransactionRow;
+import com.labproject.app.ui.Models.TransactionRows;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 
-public class RecentTransactionsAdapter extends RecyclerView.Adapter<RecentTransactionsAdapter.VH> {
+public class RecentTransactionsAdapter extends ListAdapter<Transaction, RecentTransactionsAdapter.VH> {
 
-    private List<Transaction> list = new ArrayList<>();
-    private final SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+    private final TransactionRows rows;
 
-    public void submit(List<Transaction> newList) {
-        list = newList;
-        notifyDataSetChanged();
+    public RecentTransactionsAdapter(TransactionRows rows) {
+        super(TransactionDiff.ITEMS);
+        this.rows = rows;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
     }
 
     @NonNull
@@ -39,52 +44,57 @@ public class RecentTransactionsAdapter extends RecyclerView.Adapter<RecentTransa
 
     @Override
     public void onBindViewHolder(@NonNull VH h, int position) {
-        Transaction t = list.get(position);
+        bind(h, getItem(position), TransactionDiff.merge(Collections.emptyList()));
+    }
 
-        String sign = (t.type == Transaction.INCOME) ? "+ " : "- ";
-        h.tvAmount.setText(String.format(Locale.US, "%s$%.2f", sign, t.amount));
+    @Override
+    public void onBindViewHolder(@NonNull VH h, int position, @NonNull List<Object> payloads) {
+        bind(h, getItem(position), TransactionDiff.merge(payloads));
+    }
 
-        h.tvDesc.setText(t.description == null ? "" : t.description);
+    private void bind(VH h, Transaction t, int changes) {
+        TransactionRow row = rows.get(t);
 
-        String date = fmt.format(new Date(t.dateMillis));
-        String cat = (t.category == null ? "-" : t.category);
-        h.tvMeta.setText(cat + " • " + date);
+        if ((changes & TransactionDiff.AMOUNT) != 0) {
+            h.tvAmount.setText(row.amount);
+        }
+
+        if ((changes & TransactionDiff.TEXT) != 0) {
+            h.tvDesc.setText(row.description);
+            h.tvMeta.setText(row.meta);
+        }
 
-        // Show recurrence badge for recurring transactions
+        if ((changes & TransactionDiff.STATUS) == 0) return;
+
+        // Recurrence badge, only for recurring transactions
         if (h.tvRecurrence != null) {
-            if (t.recurrence != null && !Transaction.RECURRENCE_ONCE.equals(t.recurrence)) {
-                h.tvRecurrence.setText(t.getRecurrenceLabel());
-                h.tvRecurrence.setVisibility(View.VISIBLE);
-            } else {
+            if (row.recurrence == null) {
                 h.tvRecurrence.setVisibility(View.GONE);
+            } else {
+                h.tvRecurrence.setText(row.recurrence);
+                h.tvRecurrence.setVisibility(View.VISIBLE);
             }
         }
 
-        // Handle inactive status
+        // Orange when inactive, blue when it has an end date
         if (h.statusIndicator != null) {
-            if (!t.isActive) {
-                h.statusIndicator.setVisibility(View.VISIBLE);
-                h.statusIndicator.setColorFilter(Color.parseColor("#FF9800")); // Orange for inactive
-            } else {
+            if (row.statusColor == TransactionRow.COLOR_NONE) {
                 h.statusIndicator.setVisibility(View.GONE);
+            } else {
+                h.statusIndicator.setVisibility(View.VISIBLE);
+                h.statusIndicator.setColorFilter(row.statusColor);
             }
         }
 
         // Gray out inactive items
-        float alpha = t.isActive ? 1.0f : 0.5f;
-        h.itemView.setAlpha(alpha);
+        h.itemView.setAlpha(row.alpha);
 
         // Show inactive badge
         if (h.tvInactiveBadge != null) {
-            h.tvInactiveBadge.setVisibility(t.isActive ? View.GONE : View.VISIBLE);
+            h.tvInactiveBadge.setVisibility(row.inactive ? View.VISIBLE : View.GONE);
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return list.size();
-    }
-
     static class VH extends RecyclerView.ViewHolder {
         TextView tvAmount, tvDesc, tvMeta, tvRecurrence, tvInactiveBadge;
         ImageView statusIndicator;
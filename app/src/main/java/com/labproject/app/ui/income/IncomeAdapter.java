@@ -1,7 +1,5 @@
 package com.labproject.app.ui.income;
 
-import android.graphics.Color;
-import android.text.format.DateFormat;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,32 +7,40 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.labproject.app.R;
 import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.TransactionDiff;
+import com.labproject.app.ui.Models.TransactionRow;
+import com.labproject.app.ui.Models.TransactionRows;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 
-public class IncomeAdapter extends RecyclerView.Adapter<IncomeAdapter.ViewHolder> {
+public class IncomeAdapter extends ListAdapter<Transaction, IncomeAdapter.ViewHolder> {
 
     public interface Listener {
         void onClick(Transaction t);     // edit
         void onLongClick(Transaction t); // show options (delete/deactivate)
     }
 
+    private final TransactionRows rows;
     private final Listener listener;
-    private List<Transaction> list = new ArrayList<>();
 
-    public IncomeAdapter(Listener listener) {
+    // lists are diffed in the background; an edit rebinds only the row it touched,
+    // from text the view model formatted ahead of time
+    public IncomeAdapter(TransactionRows rows, Listener listener) {
+        super(TransactionDiff.ITEMS);
+        this.rows = rows;
         this.listener = listener;
+        setHasStableIds(true);
     }
 
-    public void submitList(List<Transaction> newList) {
-        list = (newList == null) ? new ArrayList<>() : newList;
-        notifyDataSetChanged();
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
     }
 
     @NonNull
@@ -42,92 +48,96 @@ public class IncomeAdapter extends RecyclerView.Adapter<IncomeAdapter.ViewHolder
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_income, parent, false);
-        return new ViewHolder(v);
+        ViewHolder holder = new ViewHolder(v);
+
+        // set once per holder; they look the row up when clicked
+        holder.itemView.setOnClickListener(view -> {
+            Transaction t = rowAt(holder);
+            if (t != null && listener != null) listener.onClick(t);
+        });
+
+        holder.itemView.setOnLongClickListener(view -> {
+            Transaction t = rowAt(holder);
+            if (t != null && listener != null) listener.onLongClick(t);
+            return true;
+        });
+
+        // Overflow menu click - same as long click
+        if (holder.overflowMenu != null) {
+            holder.overflowMenu.setOnClickListener(view -> {
+                Transaction t = rowAt(holder);
+                if (t != null && listener != null) listener.onLongClick(t);
+            });
+        }
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Transaction t = list.get(position);
+        bind(holder, getItem(position), TransactionDiff.merge(Collections.emptyList()));
+    }
 
-        holder.amount.setText(String.format(Locale.US, "+ $%.2f", t.amount));
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        bind(holder, getItem(position), TransactionDiff.merge(payloads));
+    }
 
-        String desc = (t.description == null || t.description.trim().isEmpty())
-                ? "—"
-                : t.description;
-        holder.desc.setText(desc);
+    private void bind(ViewHolder holder, Transaction t, int changes) {
+        TransactionRow row = rows.get(t);
 
-        String date = DateFormat.format("yyyy-MM-dd", t.dateMillis).toString();
-        String cat = (t.category == null || t.category.trim().isEmpty())
-                ? "Other"
-                : t.category;
+        if ((changes & TransactionDiff.AMOUNT) != 0) {
+            holder.amount.setText(row.amount);
+        }
 
-        holder.meta.setText(cat + " • " + date);
+        if ((changes & TransactionDiff.TEXT) != 0) {
+            holder.desc.setText(row.description);
+            holder.meta.setText(row.meta);
+        }
+
+        if ((changes & TransactionDiff.STATUS) == 0) return;
 
-        // Display recurrence info
-        String recurrenceLabel = t.getRecurrenceLabel();
+        // Recurrence badge, only for recurring transactions
         if (holder.recurrence != null) {
-            holder.recurrence.setText(recurrenceLabel);
-            // Set visibility and color based on recurrence type
-            if (Transaction.RECURRENCE_ONCE.equals(t.recurrence)) {
+            if (row.recurrence == null) {
                 holder.recurrence.setVisibility(View.GONE);
             } else {
+                holder.recurrence.setText(row.recurrence);
                 holder.recurrence.setVisibility(View.VISIBLE);
             }
         }
 
-        // Handle inactive status
+        // Orange when inactive, blue when it has an end date
         if (holder.statusIndicator != null) {
-            if (!t.isActive) {
-                holder.statusIndicator.setVisibility(View.VISIBLE);
-                holder.statusIndicator.setColorFilter(Color.parseColor("#FF9800")); // Orange for inactive
-            } else if (t.hasEndDate()) {
-                holder.statusIndicator.setVisibility(View.VISIBLE);
-                holder.statusIndicator.setColorFilter(Color.parseColor("#2196F3")); // Blue for has end date
-            } else {
+            if (row.statusColor == TransactionRow.COLOR_NONE) {
                 holder.statusIndicator.setVisibility(View.GONE);
+            } else {
+                holder.statusIndicator.setVisibility(View.VISIBLE);
+                holder.statusIndicator.setColorFilter(row.statusColor);
             }
         }
 
         // Gray out inactive items
-        float alpha = t.isActive ? 1.0f : 0.5f;
-        holder.itemView.setAlpha(alpha);
+        holder.itemView.setAlpha(row.alpha);
 
         // Show end date if set
         if (holder.endDateText != null) {
-            if (t.hasEndDate()) {
-                String endDate = DateFormat.format("yyyy-MM-dd", t.endDateMillis).toString();
-                holder.endDateText.setText("Ends: " + endDate);
-                holder.endDateText.setVisibility(View.VISIBLE);
-            } else {
+            if (row.endDate == null) {
                 holder.endDateText.setVisibility(View.GONE);
+            } else {
+                holder.endDateText.setText(row.endDate);
+                holder.endDateText.setVisibility(View.VISIBLE);
             }
         }
 
         // Show inactive badge
         if (holder.inactiveBadge != null) {
-            holder.inactiveBadge.setVisibility(t.isActive ? View.GONE : View.VISIBLE);
-        }
-
-        holder.itemView.setOnClickListener(v -> {
-            if (listener != null) listener.onClick(t);
-        });
-
-        holder.itemView.setOnLongClickListener(v -> {
-            if (listener != null) listener.onLongClick(t);
-            return true;
-        });
-
-        // Overflow menu click - same as long click
-        if (holder.overflowMenu != null) {
-            holder.overflowMenu.setOnClickListener(v -> {
-                if (listener != null) listener.onLongClick(t);
-            });
+            holder.inactiveBadge.setVisibility(row.inactive ? View.VISIBLE : View.GONE);
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return list.size();
+    private Transaction rowAt(ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : getItem(position);
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -12,14 +12,17 @@ import android.view.animation.AnimationUtils;
 import android.widget.ArrayAdapter;
 
 import com.google.android.material.datepicker.MaterialDatePicker;
+import com.labproject.app.utils.Money;
 import com.labproject.app.utils.ToastHelper;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
+import com.labproject.app.FinanceApp;
 import com.labproject.app.R;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.data.prefs.SettingsManager;
@@ -27,16 +30,16 @@ import com.labproject.app.data.session.SessionManager;
 import com.labproject.app.databinding.FragmentIncomeBinding;
 import com.labproject.app.ui.Models.MainViewModel;
 import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.TransactionSearch;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 public class IncomeFragment extends Fragment {
 
@@ -62,8 +65,9 @@ public class IncomeFragment extends Fragment {
     private Long filterDateTo = null;
     private int sortMode = 0; // 0=date desc, 1=date asc, 2=amount desc, 3=amount asc
 
-    // All income list (unfiltered)
-    private List<Transaction> allIncomeList = new ArrayList<>();
+    // searches the list off the main thread; see applyFiltersAndSort
+    private ScheduledExecutorService searchThread;
+    private TransactionSearch search;
     private IncomeAdapter adapter;
 
     // Recurrence options
@@ -82,7 +86,7 @@ public class IncomeFragment extends Fragment {
 
         binding = FragmentIncomeBinding.inflate(inflater, container, false);
 
-        db = new DBHelper(requireContext());
+        db = FinanceApp.getDatabase(requireContext());
         settings = new SettingsManager(requireContext());
         email = new SessionManager(requireContext()).getUserEmail();
 
@@ -93,6 +97,10 @@ public class IncomeFragment extends Fragment {
 
         vm = new ViewModelProvider(requireActivity()).get(MainViewModel.class);
 
+        searchThread = Executors.newSingleThreadScheduledExecutor();
+        search = new TransactionSearch(Transaction.INCOME, searchThread,
+                ContextCompat.getMainExecutor(requireContext()), this::showResults);
+
         // Date init
         updateDateText();
         binding.etIncomeDate.setOnClickListener(v -> openDatePicker());
@@ -106,7 +114,7 @@ public class IncomeFragment extends Fragment {
         setupFilters();
 
         // Recycler
-        adapter = new IncomeAdapter(new IncomeAdapter.Listener() {
+        adapter = new IncomeAdapter(vm.getTransactionRows(), new IncomeAdapter.Listener() {
             @Override public void onClick(Transaction t) { enterEditMode(t); }
             @Override public void onLongClick(Transaction t) { showTransactionOptions(t); }
         });
@@ -115,14 +123,8 @@ public class IncomeFragment extends Fragment {
         binding.rvIncome.setAdapter(adapter);
 
         // Observe list (filter income)
-        vm.getTransactions().observe(getViewLifecycleOwner(), list -> {
-            allIncomeList.clear();
-            if (list != null) {
-                for (Transaction t : list) {
-                    if (t.type == Transaction.INCOME) allIncomeList.add(t);
-                }
-            }
-            applyFiltersAndSort();
+        vm.getAggregates().observe(getViewLifecycleOwner(), aggregates -> {
+            search.setSnapshot(aggregates);
         });
 
         // Load
@@ -157,8 +159,8 @@ public class IncomeFragment extends Fragment {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
             @Override public void onTextChanged(CharSequence s, int start, int before, int count) {}
             @Override public void afterTextChanged(Editable s) {
-                searchQuery = s.toString().trim().toLowerCase();
-                applyFiltersAndSort();
+                searchQuery = s.toString();
+                search.setFilter(currentFilter(), true);
             }
         });
 
@@ -297,50 +299,15 @@ public class IncomeFragment extends Fragment {
     }
 
     private void applyFiltersAndSort() {
-        List<Transaction> filtered = new ArrayList<>();
-
-        for (Transaction t : allIncomeList) {
-            // Search filter
-            if (!searchQuery.isEmpty()) {
-                String desc = t.description != null ? t.description.toLowerCase() : "";
-                String amount = String.valueOf(t.amount);
-                String category = t.category != null ? t.category.toLowerCase() : "";
-                
-                if (!desc.contains(searchQuery) && !amount.contains(searchQuery) && !category.contains(searchQuery)) {
-                    continue;
-                }
-            }
-
-            // Date from filter
-            if (filterDateFrom != null && t.dateMillis < filterDateFrom) {
-                continue;
-            }
-
-            // Date to filter
-            if (filterDateTo != null && t.dateMillis > filterDateTo) {
-                continue;
-            }
+        search.setFilter(currentFilter(), false);
+    }
 
-            filtered.add(t);
-        }
+    private TransactionSearch.Filter currentFilter() {
+        return new TransactionSearch.Filter(searchQuery, filterDateFrom, filterDateTo, sortMode);
+    }
 
-        // Sort
-        Comparator<Transaction> comparator;
-        switch (sortMode) {
-            case 1: // Date ascending
-                comparator = (a, b) -> Long.compare(a.dateMillis, b.dateMillis);
-                break;
-            case 2: // Amount descending
-                comparator = (a, b) -> Double.compare(b.amount, a.amount);
-                break;
-            case 3: // Amount ascending
-                comparator = (a, b) -> Double.compare(a.amount, b.amount);
-                break;
-            default: // Date descending
-                comparator = (a, b) -> Long.compare(b.dateMillis, a.dateMillis);
-                break;
-        }
-        Collections.sort(filtered, comparator);
+    private void showResults(List<Transaction> filtered, int total) {
+        if (binding == null) return;
 
         adapter.submitList(filtered);
 
@@ -349,10 +316,10 @@ public class IncomeFragment extends Fragment {
         binding.rvIncome.setVisibility(filtered.isEmpty() ? View.GONE : View.VISIBLE);
 
         // Update results count
-        if (filtered.size() == allIncomeList.size()) {
+        if (filtered.size() == total) {
             binding.tvResultsCount.setText("All income (" + filtered.size() + ")");
         } else {
-            binding.tvResultsCount.setText("Showing " + filtered.size() + " of " + allIncomeList.size());
+            binding.tvResultsCount.setText("Showing " + filtered.size() + " of " + total);
         }
     }
 
@@ -419,9 +386,9 @@ public class IncomeFragment extends Fragment {
             return;
         }
 
-        double amount;
+        long amount;
         try {
-            amount = Double.parseDouble(amountStr);
+            amount = Money.parse(amountStr);
         } catch (Exception e) {
             ToastHelper.showError(requireContext(), "Invalid amount format");
             return;
@@ -432,7 +399,7 @@ public class IncomeFragment extends Fragment {
             return;
         }
 
-        if (amount > 1000000) {
+        if (amount > 1000000 * 100L) {
             ToastHelper.showError(requireContext(), "Amount too large (max $1,000,000)");
             return;
         }
@@ -445,13 +412,15 @@ public class IncomeFragment extends Fragment {
             ToastHelper.showSuccess(requireContext(), "Income added successfully");
         } else {
             // UPDATE
-            editingTx.amount = amount;
-            editingTx.dateMillis = selectedDateMillis;
-            editingTx.category = category;
-            editingTx.description = desc;
-            editingTx.recurrence = recurrence;
-
-            vm.updateTransaction(db, email, editingTx);
+            // edit a copy: editingTx is the row the list is showing
+            Transaction edited = editingTx.copy();
+            edited.amountCents = amount;
+            edited.dateMillis = selectedDateMillis;
+            edited.category = category;
+            edited.description = desc;
+            edited.recurrence = recurrence;
+
+            vm.updateTransaction(db, email, edited);
             ToastHelper.showSuccess(requireContext(), "Income updated successfully");
 
             exitEditMode();
@@ -466,7 +435,7 @@ public class IncomeFragment extends Fragment {
         binding.tvIncomeFormTitle.setText("Edit Income");
         binding.btnAddIncome.setText("Update Income");
 
-        binding.etIncomeAmount.setText(String.valueOf(t.amount));
+        binding.etIncomeAmount.setText(Money.plain(t.amountCents));
         binding.etIncomeDescription.setText(t.description == null ? "" : t.description);
 
         selectedDateMillis = t.dateMillis;
@@ -612,6 +581,7 @@ public class IncomeFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (searchThread != null) searchThread.shutdownNow();
         binding = null;
     }
 }
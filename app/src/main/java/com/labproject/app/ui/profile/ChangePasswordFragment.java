@@ -10,6 +10,7 @@ import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.Navigation;
 
+import com.labproject.app.FinanceApp;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.data.session.SessionManager;
 import com.labproject.app.databinding.FragmentChangePasswordBinding;
@@ -30,7 +31,7 @@ public class ChangePasswordFragment extends Fragment {
 
         binding = FragmentChangePasswordBinding.inflate(inflater, container, false);
 
-        db = new DBHelper(requireContext());
+        db = FinanceApp.getDatabase(requireContext());
         session = new SessionManager(requireContext());
 
         binding.btnUpdatePassword.setOnClickListener(v -> {
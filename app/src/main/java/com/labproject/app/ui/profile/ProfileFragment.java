@@ -13,6 +13,7 @@ import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.Navigation;
 
+import com.labproject.app.FinanceApp;
 import com.labproject.app.R;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.data.session.SessionManager;
@@ -32,7 +33,7 @@ public class ProfileFragment extends Fragment {
 
         binding = FragmentProfileBinding.inflate(inflater, container, false);
 
-        db = new DBHelper(requireContext());
+        db = FinanceApp.getDatabase(requireContext());
         session = new SessionManager(requireContext());
 
         String email = session.getUserEmail();
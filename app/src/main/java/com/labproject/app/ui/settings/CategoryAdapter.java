@@ -6,49 +6,53 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.labproject.app.R;
 
-import java.util.ArrayList;
-import java.util.List;
-
-public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.VH> {
+public class CategoryAdapter extends ListAdapter<String, CategoryAdapter.VH> {
 
     public interface Listener {
         void onDelete(String name);
     }
 
+    private static final DiffUtil.ItemCallback<String> DIFF = new DiffUtil.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull String a, @NonNull String b) {
+            return a.equals(b);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull String a, @NonNull String b) {
+            return a.equals(b);
+        }
+    };
+
     private final Listener listener;
-    private List<String> list = new ArrayList<>();
 
     public CategoryAdapter(Listener l) {
+        super(DIFF);
         listener = l;
     }
 
-    public void submitList(List<String> newList) {
-        list = newList;
-        notifyDataSetChanged();
-    }
-
     @NonNull
     @Override
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_setting_category, parent, false);
-        return new VH(v);
+        VH h = new VH(v);
+        h.btnDelete.setOnClickListener(view -> {
+            int position = h.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) listener.onDelete(getItem(position));
+        });
+        return h;
     }
 
     @Override
     public void onBindViewHolder(@NonNull VH h, int position) {
-        String name = list.get(position);
-        h.tvName.setText(name);
-        h.btnDelete.setOnClickListener(v -> listener.onDelete(name));
-    }
-
-    @Override
-    public int getItemCount() {
-        return list.size();
+        h.tvName.setText(getItem(position));
     }
 
     static class VH extends RecyclerView.ViewHolder {
@@ -1,6 +1,5 @@
 package com.labproject.app.ui.statistics;
 
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -24,21 +23,18 @@ import com.github.mikephil.charting.data.PieDataSet;
 import com.github.mikephil.charting.data.PieEntry;
 import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
 import com.github.mikephil.charting.utils.ColorTemplate;
+import com.labproject.app.FinanceApp;
 import com.labproject.app.R;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.data.session.SessionManager;
 import com.labproject.app.databinding.FragmentStatisticsBinding;
 import com.labproject.app.ui.Models.MainViewModel;
-import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.StatisticsSnapshot;
+import com.labproject.app.utils.Money;
 
 import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 public class StatisticsFragment extends Fragment {
 
@@ -56,101 +52,65 @@ public class StatisticsFragment extends Fragment {
         binding = FragmentStatisticsBinding.inflate(inflater, container, false);
 
         vm = new ViewModelProvider(requireActivity()).get(MainViewModel.class);
-        db = new DBHelper(requireContext());
+        db = FinanceApp.getDatabase(requireContext());
         session = new SessionManager(requireContext());
 
-        String email = session.getUserEmail();
-        if (email != null) {
-            vm.loadTransactions(db, email);
-        }
-
-        vm.getTransactions().observe(getViewLifecycleOwner(), list -> {
-            if (list != null && !list.isEmpty()) {
-                calculateStatistics(list);
-                setupCharts(list);
-                binding.tvEmptyStats.setVisibility(View.GONE);
-                binding.scrollView.setVisibility(View.VISIBLE);
-            } else {
-                binding.tvEmptyStats.setVisibility(View.VISIBLE);
-                binding.scrollView.setVisibility(View.GONE);
-            }
+        // the snapshot is computed off the main thread and reused until the data
+        // changes, so reopening the screen only binds the one already there
+        vm.getStatistics().observe(getViewLifecycleOwner(), this::bind);
+        vm.getDataChanges().observe(getViewLifecycleOwner(), version -> {
+            String user = session.getUserEmail();
+            if (user != null) vm.loadStatistics(db, user);
         });
 
         return binding.getRoot();
     }
 
-    private void calculateStatistics(List<Transaction> transactions) {
-        Calendar cal = Calendar.getInstance();
-        int currentMonth = cal.get(Calendar.MONTH);
-        int currentYear = cal.get(Calendar.YEAR);
-
-        cal.add(Calendar.MONTH, -1);
-        int lastMonth = cal.get(Calendar.MONTH);
-        int lastMonthYear = cal.get(Calendar.YEAR);
-
-        double currentMonthIncome = 0.0, currentMonthExpense = 0.0;
-        double lastMonthIncome = 0.0, lastMonthExpense = 0.0;
-        double totalIncome = 0.0, totalExpense = 0.0;
-
-        Map<String, Double> topExpenseCategories = new HashMap<>();
-
-        for (Transaction t : transactions) {
-            Calendar txCal = Calendar.getInstance();
-            txCal.setTimeInMillis(t.dateMillis);
-            int txMonth = txCal.get(Calendar.MONTH);
-            int txYear = txCal.get(Calendar.YEAR);
-
-            if (t.type == Transaction.INCOME) {
-                totalIncome += t.amount;
-                if (txMonth == currentMonth && txYear == currentYear) {
-                    currentMonthIncome += t.amount;
-                } else if (txMonth == lastMonth && txYear == lastMonthYear) {
-                    lastMonthIncome += t.amount;
-                }
-            } else if (t.type == Transaction.EXPENSE) {
-                totalExpense += t.amount;
-                if (txMonth == currentMonth && txYear == currentYear) {
-                    currentMonthExpense += t.amount;
-                } else if (txMonth == lastMonth && txYear == lastMonthYear) {
-                    lastMonthExpense += t.amount;
-                }
-
-                // Track top categories
-                String cat = t.category == null || t.category.isEmpty() ? "Other" : t.category;
-                topExpenseCategories.put(cat, topExpenseCategories.getOrDefault(cat, 0.0) + t.amount);
-            }
+    private void bind(StatisticsSnapshot s) {
+        if (s == null || !s.email.equals(session.getUserEmail())) return;
+
+        if (!s.hasData) {
+            binding.tvEmptyStats.setVisibility(View.VISIBLE);
+            binding.scrollView.setVisibility(View.GONE);
+            return;
         }
+        binding.tvEmptyStats.setVisibility(View.GONE);
+        binding.scrollView.setVisibility(View.VISIBLE);
+
+        bindTotals(s);
+        setupMonthlyTrendChart(s);
+        setupCategoryBreakdownChart(s);
+    }
 
+    private void bindTotals(StatisticsSnapshot s) {
         // Display totals
-        binding.tvTotalIncome.setText(currencyFormat.format(totalIncome));
-        binding.tvTotalExpense.setText(currencyFormat.format(totalExpense));
-        binding.tvTotalBalance.setText(currencyFormat.format(totalIncome - totalExpense));
+        binding.tvTotalIncome.setText(currencyFormat.format(Money.toDouble(s.totalIncome)));
+        binding.tvTotalExpense.setText(currencyFormat.format(Money.toDouble(s.totalExpense)));
+        binding.tvTotalBalance.setText(currencyFormat.format(Money.toDouble(s.totalIncome - s.totalExpense)));
 
-        int balanceColor = (totalIncome - totalExpense) >= 0
+        int balanceColor = (s.totalIncome - s.totalExpense) >= 0
                 ? getResources().getColor(R.color.colorPrimaryDark)
                 : getResources().getColor(R.color.red_negative);
         binding.tvTotalBalance.setTextColor(balanceColor);
 
         // Current month
-        binding.tvCurrentMonthIncome.setText(currencyFormat.format(currentMonthIncome));
-        binding.tvCurrentMonthExpense.setText(currencyFormat.format(currentMonthExpense));
-        binding.tvCurrentMonthBalance.setText(currencyFormat.format(currentMonthIncome - currentMonthExpense));
+        binding.tvCurrentMonthIncome.setText(currencyFormat.format(Money.toDouble(s.currentMonthIncome)));
+        binding.tvCurrentMonthExpense.setText(currencyFormat.format(Money.toDouble(s.currentMonthExpense)));
+        binding.tvCurrentMonthBalance.setText(currencyFormat.format(Money.toDouble(s.currentMonthIncome - s.currentMonthExpense)));
 
         // Month- over-month comparison
-        if (lastMonthIncome > 0) {
-            double incomeChange = ((currentMonthIncome - lastMonthIncome) / (double) lastMonthIncome) * 100;
-            binding.tvIncomeChange.setText(String.format(Locale.US, "%+.1f%%", incomeChange));
-            binding.tvIncomeChange.setTextColor(incomeChange >= 0
+        if (!Double.isNaN(s.incomeChange)) {
+            binding.tvIncomeChange.setText(String.format(Locale.US, "%+.1f%%", s.incomeChange));
+            binding.tvIncomeChange.setTextColor(s.incomeChange >= 0
                     ? getResources().getColor(R.color.colorPrimaryDark)
                     : getResources().getColor(R.color.red_negative));
         } else {
             binding.tvIncomeChange.setText("N/A");
         }
 
-        if (lastMonthExpense > 0) {
-            double expenseChange = ((currentMonthExpense - lastMonthExpense) / (double) lastMonthExpense) * 100;
-            binding.tvExpenseChange.setText(String.format(Locale.US, "%+.1f%%", expenseChange));
-            binding.tvExpenseChange.setTextColor(expenseChange <= 0
+        if (!Double.isNaN(s.expenseChange)) {
+            binding.tvExpenseChange.setText(String.format(Locale.US, "%+.1f%%", s.expenseChange));
+            binding.tvExpenseChange.setTextColor(s.expenseChange <= 0
                     ? getResources().getColor(R.color.colorPrimaryDark)
                     : getResources().getColor(R.color.red_negative));
         } else {
@@ -158,73 +118,27 @@ public class StatisticsFragment extends Fragment {
         }
 
         // Savings rate
-        if (totalIncome > 0) {
-            double savingsRate = ((totalIncome - totalExpense) / (double) totalIncome) * 100;
-            binding.tvSavingsRate.setText(String.format(Locale.US, "%.1f%%", savingsRate));
+        if (!Double.isNaN(s.savingsRate)) {
+            binding.tvSavingsRate.setText(String.format(Locale.US, "%.1f%%", s.savingsRate));
         } else {
             binding.tvSavingsRate.setText("0%");
         }
 
         // Top spending category
-        String topCategory = "N/A";
-        double topAmount = 0.0;
-        for (Map.Entry<String, Double> entry : topExpenseCategories.entrySet()) {
-            if (entry.getValue() > topAmount) {
-                topAmount = entry.getValue();
-                topCategory = entry.getKey();
-            }
-        }
-        binding.tvTopCategory.setText(topCategory);
-        binding.tvTopCategoryAmount.setText(currencyFormat.format(topAmount));
+        binding.tvTopCategory.setText(s.topCategory == null ? "N/A" : s.topCategory);
+        binding.tvTopCategoryAmount.setText(currencyFormat.format(Money.toDouble(s.topCategoryAmount)));
 
         // Average daily spending
-        if (!transactions.isEmpty()) {
-            long firstDate = transactions.get(transactions.size() - 1).dateMillis;
-            long lastDate = transactions.get(0).dateMillis;
-            long daysDiff = (lastDate - firstDate) / (1000 * 60 * 60 * 24) + 1;
-            if (daysDiff > 0) {
-                double avgDaily = totalExpense / (double) daysDiff;
-                binding.tvAvgDailySpending.setText(currencyFormat.format(avgDaily));
-            }
-        }
+        binding.tvAvgDailySpending.setText(currencyFormat.format(s.avgDailyExpense / 100));
     }
 
-    private void setupCharts(List<Transaction> transactions) {
-        setupMonthlyTrendChart(transactions);
-        setupCategoryBreakdownChart(transactions);
-    }
-
-    private void setupMonthlyTrendChart(List<Transaction> transactions) {
-        Map<String, Double> monthlyIncome = new HashMap<>();
-        Map<String, Double> monthlyExpense = new HashMap<>();
-
-        SimpleDateFormat monthFormat = new SimpleDateFormat("MMM yy", Locale.US);
-
-        for (Transaction t : transactions) {
-            String monthKey = monthFormat.format(t.dateMillis);
-
-            if (t.type == Transaction.INCOME) {
-                monthlyIncome.put(monthKey, monthlyIncome.getOrDefault(monthKey, 0.0) + t.amount);
-            } else {
-                monthlyExpense.put(monthKey, monthlyExpense.getOrDefault(monthKey, 0.0) + t.amount);
-            }
-        }
-
-        // Get last 6 months
-        List<String> months = new ArrayList<>();
-        Calendar cal = Calendar.getInstance();
-        for (int i = 5; i >= 0; i--) {
-            cal.add(Calendar.MONTH, i == 5 ? -5 : 1);
-            months.add(monthFormat.format(cal.getTime()));
-        }
-
+    private void setupMonthlyTrendChart(StatisticsSnapshot s) {
         ArrayList<BarEntry> incomeEntries = new ArrayList<>();
         ArrayList<BarEntry> expenseEntries = new ArrayList<>();
 
-        for (int i = 0; i < months.size(); i++) {
-            String month = months.get(i);
-            incomeEntries.add(new BarEntry(i, monthlyIncome.getOrDefault(month, 0.0).floatValue()));
-            expenseEntries.add(new BarEntry(i, monthlyExpense.getOrDefault(month, 0.0).floatValue()));
+        for (int i = 0; i < s.trendMonths.length; i++) {
+            incomeEntries.add(new BarEntry(i, (float) Money.toDouble(s.trendIncome[i])));
+            expenseEntries.add(new BarEntry(i, (float) Money.toDouble(s.trendExpense[i])));
         }
 
         BarDataSet incomeSet = new BarDataSet(incomeEntries, "Income");
@@ -240,7 +154,7 @@ public class StatisticsFragment extends Fragment {
 
         BarChart chart = binding.chartMonthlyTrend;
         chart.setData(barData);
-        chart.getXAxis().setValueFormatter(new IndexAxisValueFormatter(months));
+        chart.getXAxis().setValueFormatter(new IndexAxisValueFormatter(s.trendMonths));
         chart.getXAxis().setGranularity(1f);
         chart.getXAxis().setTextColor(getResources().getColor(R.color.textPrimary));
         chart.getAxisLeft().setTextColor(getResources().getColor(R.color.textPrimary));
@@ -252,19 +166,10 @@ public class StatisticsFragment extends Fragment {
         chart.invalidate();
     }
 
-    private void setupCategoryBreakdownChart(List<Transaction> transactions) {
-        Map<String, Double> categoryTotals = new HashMap<>();
-
-        for (Transaction t : transactions) {
-            if (t.type == Transaction.EXPENSE) {
-                String cat = t.category == null || t.category.isEmpty() ? "Other" : t.category;
-                categoryTotals.put(cat, categoryTotals.getOrDefault(cat, 0.0) + t.amount);
-            }
-        }
-
+    private void setupCategoryBreakdownChart(StatisticsSnapshot s) {
         ArrayList<PieEntry> entries = new ArrayList<>();
-        for (Map.Entry<String, Double> entry : categoryTotals.entrySet()) {
-            entries.add(new PieEntry(entry.getValue().floatValue(), entry.getKey()));
+        for (int i = 0; i < s.categoryTotals.length; i++) {
+            entries.add(new PieEntry((float) Money.toDouble(s.categoryTotals[i]), s.categoryNames.get(i)));
         }
 
         PieDataSet dataSet = new PieDataSet(entries, "");
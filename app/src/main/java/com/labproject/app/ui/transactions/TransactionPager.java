@@ -0,0 +1,249 @@
+package com.labproject.app.ui.transactions;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.TransactionDiff;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A sliding window of transaction pages for the history list.
+ *
+ * Pages are fetched by key (date, id) rather than by offset, so loading a page
+ * costs the same near the top of the history as a million rows down. Only
+ * {@link #MAX_PAGES} pages are held at once: scrolling down drops pages from
+ * the top and scrolling back up drops them from the bottom.
+ *
+ * All state is touched on the main executor; queries run on the io executor.
+ */
+public class TransactionPager {
+
+    public static final int PAGE_SIZE = 50;
+    public static final int MAX_PAGES = 5;
+
+    // start loading the next page when the user gets this close to an edge
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+
+    public interface Source {
+        List<Transaction> firstPage(int limit);
+
+        /** Rows after {@code last}, newest first. */
+        List<Transaction> olderThan(Transaction last, int limit);
+
+        /** Rows before {@code first}, oldest first. */
+        List<Transaction> newerThan(Transaction first, int limit);
+    }
+
+    public interface Callback {
+        void onInserted(int position, int count);
+        void onRemoved(int position, int count);
+        /** payload is a {@link TransactionDiff} bit set of what changed. */
+        void onChanged(int position, int count, Object payload);
+        void onReset();
+    }
+
+    private final Source source;
+    private final Executor io;
+    private final Executor main;
+    private Callback callback;
+
+    private final ArrayDeque<List<Transaction>> pages = new ArrayDeque<>();
+    private int size = 0;
+    private boolean reachedStart = true;
+    private boolean reachedEnd = false;
+    private boolean loaded = false;
+
+    // bumped on refresh/invalidate so loads started before it are thrown away
+    private int generation = 0;
+    private boolean loading = false;
+
+    public TransactionPager(Source source, Executor io, Executor main) {
+        this.source = source;
+        this.io = io;
+        this.main = main;
+    }
+
+    public void setCallback(@Nullable Callback callback) {
+        this.callback = callback;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Transaction get(int position) {
+        for (List<Transaction> page : pages) {
+            if (position < page.size()) return page.get(position);
+            position -= page.size();
+        }
+        throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Drop everything and load the newest page.
+     */
+    public void refresh() {
+        final int gen = ++generation;
+        loading = true;
+        io.execute(() -> {
+            List<Transaction> rows = source.firstPage(PAGE_SIZE);
+            main.execute(() -> {
+                if (gen != generation) return;
+                loading = false;
+                pages.clear();
+                size = 0;
+                reachedStart = true;
+                reachedEnd = rows.size() < PAGE_SIZE;
+                loaded = true;
+                if (!rows.isEmpty()) {
+                    pages.add(rows);
+                    size = rows.size();
+                }
+                if (callback != null) callback.onReset();
+            });
+        });
+    }
+
+    /**
+     * Re-read the rows currently in the window after an edit, keeping the
+     * user where they are instead of jumping back to the newest page. The
+     * callback hears about the rows that actually changed, worked out on the
+     * io executor.
+     */
+    public void invalidate() {
+        if (!loaded || size == 0) {
+            refresh();
+            return;
+        }
+
+        final int gen = ++generation;
+        final boolean atStart = reachedStart;
+        final Transaction first = pages.getFirst().get(0);
+        final int limit = Math.max(size, PAGE_SIZE);
+        final List<Transaction> before = window();
+        loading = true;
+        io.execute(() -> {
+            // the row just above the window anchors the re-read; none means we are at the top
+            List<Transaction> above = atStart
+                    ? Collections.emptyList()
+                    : source.newerThan(first, 1);
+            List<Transaction> rows = above.isEmpty()
+                    ? source.firstPage(limit)
+                    : source.olderThan(above.get(0), limit);
+            DiffUtil.DiffResult diff = TransactionDiff.between(before, rows);
+            main.execute(() -> {
+                if (gen != generation) return;
+                loading = false;
+                pages.clear();
+                size = rows.size();
+                reachedStart = above.isEmpty();
+                reachedEnd = rows.size() < limit;
+                for (int from = 0; from < rows.size(); from += PAGE_SIZE) {
+                    pages.add(rows.subList(from, Math.min(from + PAGE_SIZE, rows.size())));
+                }
+                if (callback != null) diff.dispatchUpdatesTo(updates(callback));
+            });
+        });
+    }
+
+    /**
+     * Called with the visible range after every scroll; loads and evicts pages as needed.
+     */
+    public void onVisibleRange(int first, int last) {
+        if (loading || !loaded || size == 0) return;
+
+        if (!reachedEnd && last >= size - PREFETCH_DISTANCE) {
+            loadOlder();
+        } else if (!reachedStart && first < PREFETCH_DISTANCE) {
+            loadNewer();
+        }
+    }
+
+    /**
+     * A copy of the rows in the window, newest first.
+     */
+    public List<Transaction> window() {
+        List<Transaction> rows = new ArrayList<>(size);
+        for (List<Transaction> page : pages) rows.addAll(page);
+        return rows;
+    }
+
+    private static ListUpdateCallback updates(Callback callback) {
+        return new ListUpdateCallback() {
+            @Override public void onInserted(int position, int count) { callback.onInserted(position, count); }
+            @Override public void onRemoved(int position, int count) { callback.onRemoved(position, count); }
+            @Override public void onChanged(int position, int count, Object payload) { callback.onChanged(position, count, payload); }
+
+            @Override
+            public void onMoved(int from, int to) {
+                callback.onRemoved(from, 1);
+                callback.onInserted(to, 1);
+            }
+        };
+    }
+
+    private void loadOlder() {
+        final int gen = generation;
+        final Transaction anchor = pages.getLast().get(pages.getLast().size() - 1);
+        loading = true;
+        io.execute(() -> {
+            List<Transaction> rows = source.olderThan(anchor, PAGE_SIZE);
+            main.execute(() -> {
+                if (gen != generation) return;
+                loading = false;
+                if (rows.size() < PAGE_SIZE) reachedEnd = true;
+                if (rows.isEmpty()) return;
+
+                int at = size;
+                pages.addLast(rows);
+                size += rows.size();
+                if (callback != null) callback.onInserted(at, rows.size());
+
+                if (pages.size() > MAX_PAGES) {
+                    List<Transaction> dropped = pages.removeFirst();
+                    size -= dropped.size();
+                    reachedStart = false;
+                    if (callback != null) callback.onRemoved(0, dropped.size());
+                }
+            });
+        });
+    }
+
+    private void loadNewer() {
+        final int gen = generation;
+        final Transaction anchor = pages.getFirst().get(0);
+        loading = true;
+        io.execute(() -> {
+            List<Transaction> rows = new ArrayList<>(source.newerThan(anchor, PAGE_SIZE));
+            Collections.reverse(rows);
+            main.execute(() -> {
+                if (gen != generation) return;
+                loading = false;
+                if (rows.size() < PAGE_SIZE) reachedStart = true;
+                if (rows.isEmpty()) return;
+
+                pages.addFirst(rows);
+                size += rows.size();
+                if (callback != null) callback.onInserted(0, rows.size());
+
+                if (pages.size() > MAX_PAGES) {
+                    List<Transaction> dropped = pages.removeLast();
+                    size -= dropped.size();
+                    reachedEnd = false;
+                    if (callback != null) callback.onRemoved(size, dropped.size());
+                }
+            });
+        });
+    }
+}
@@ -1,7 +1,5 @@
 package com.labproject.app.ui.transactions;
 
-import android.graphics.Color;
-import android.text.format.DateFormat;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,11 +11,12 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.labproject.app.R;
 import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.TransactionDiff;
+import com.labproject.app.ui.Models.TransactionRow;
+import com.labproject.app.ui.Models.TransactionRows;
 
-import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 
 public class TransactionsAdapter extends RecyclerView.Adapter<TransactionsAdapter.VH> {
 
@@ -27,15 +26,21 @@ public class TransactionsAdapter extends RecyclerView.Adapter<TransactionsAdapte
     }
 
     private final Listener listener;
-    private List<Transaction> list = new ArrayList<>();
-
-    public TransactionsAdapter(Listener listener) {
+    private final TransactionPager pager;
+    private final TransactionRows rows;
+
+    // rows come straight from the pager's window, formatted as each page
+    // loads; the fragment forwards its callbacks as range notifications
+    public TransactionsAdapter(TransactionPager pager, TransactionRows rows, Listener listener) {
+        this.pager = pager;
+        this.rows = rows;
         this.listener = listener;
+        setHasStableIds(true);
     }
 
-    public void submitList(List<Transaction> newList) {
-        list = (newList == null) ? new ArrayList<>() : newList;
-        notifyDataSetChanged();
+    @Override
+    public long getItemId(int position) {
+        return pager.get(position).id;
     }
 
     @NonNull
@@ -43,80 +48,100 @@ public class TransactionsAdapter extends RecyclerView.Adapter<TransactionsAdapte
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_transaction, parent, false);
-        return new VH(v);
+        VH h = new VH(v);
+
+        // set once per holder; they look the row up when clicked
+        h.itemView.setOnClickListener(view -> {
+            Transaction t = rowAt(h);
+            if (t != null) listener.onClick(t);
+        });
+        h.itemView.setOnLongClickListener(view -> {
+            Transaction t = rowAt(h);
+            if (t != null) listener.onLongClick(t);
+            return true;
+        });
+
+        // Overflow menu click - same as long click
+        if (h.overflowMenu != null) {
+            h.overflowMenu.setOnClickListener(view -> {
+                Transaction t = rowAt(h);
+                if (t != null) listener.onLongClick(t);
+            });
+        }
+        return h;
     }
 
     @Override
     public void onBindViewHolder(@NonNull VH h, int position) {
-        Transaction t = list.get(position);
+        bind(h, pager.get(position), TransactionDiff.merge(Collections.emptyList()));
+    }
 
-        boolean isIncome = (t.type == Transaction.INCOME);
-        String sign = isIncome ? "+ " : "- ";
+    @Override
+    public void onBindViewHolder(@NonNull VH h, int position, @NonNull List<Object> payloads) {
+        bind(h, pager.get(position), TransactionDiff.merge(payloads));
+    }
+
+    private void bind(VH h, Transaction t, int changes) {
+        TransactionRow row = rows.get(t);
 
-        h.tvAmount.setText(String.format(Locale.US, "%s$%.2f", sign, t.amount));
-        h.tvDesc.setText(t.description == null ? "" : t.description);
+        if ((changes & TransactionDiff.AMOUNT) != 0) {
+            h.tvAmount.setText(row.amount);
+        }
+
+        if ((changes & TransactionDiff.TEXT) != 0) {
+            h.tvDesc.setText(row.description);
+            h.tvMeta.setText(row.meta);
+        }
 
-        String date = DateFormat.format("yyyy-MM-dd", new Date(t.dateMillis)).toString();
-        h.tvMeta.setText(t.category + " • " + date);
+        if ((changes & TransactionDiff.STATUS) == 0) return;
 
-        // Show recurrence badge for recurring transactions
+        // Recurrence badge, only for recurring transactions
         if (h.tvRecurrence != null) {
-            if (t.recurrence != null && !Transaction.RECURRENCE_ONCE.equals(t.recurrence)) {
-                h.tvRecurrence.setText(t.getRecurrenceLabel());
-                h.tvRecurrence.setVisibility(View.VISIBLE);
-            } else {
+            if (row.recurrence == null) {
                 h.tvRecurrence.setVisibility(View.GONE);
+            } else {
+                h.tvRecurrence.setText(row.recurrence);
+                h.tvRecurrence.setVisibility(View.VISIBLE);
             }
         }
 
-        // Handle inactive status
+        // Orange when inactive, blue when it has an end date
         if (h.statusIndicator != null) {
-            if (!t.isActive) {
-                h.statusIndicator.setVisibility(View.VISIBLE);
-                h.statusIndicator.setColorFilter(Color.parseColor("#FF9800")); // Orange for inactive
-            } else if (t.hasEndDate()) {
-                h.statusIndicator.setVisibility(View.VISIBLE);
-                h.statusIndicator.setColorFilter(Color.parseColor("#2196F3")); // Blue for has end date
-            } else {
+            if (row.statusColor == TransactionRow.COLOR_NONE) {
                 h.statusIndicator.setVisibility(View.GONE);
+            } else {
+                h.statusIndicator.setVisibility(View.VISIBLE);
+                h.statusIndicator.setColorFilter(row.statusColor);
             }
         }
 
         // Gray out inactive items
-        float alpha = t.isActive ? 1.0f : 0.5f;
-        h.itemView.setAlpha(alpha);
+        h.itemView.setAlpha(row.alpha);
 
-        // Show inactive badge
-        if (h.tvInactiveBadge != null) {
-            h.tvInactiveBadge.setVisibility(t.isActive ? View.GONE : View.VISIBLE);
-        }
-
-        // Show end date
+        // Show end date if set
         if (h.tvEndDate != null) {
-            if (t.hasEndDate()) {
-                String endDate = DateFormat.format("yyyy-MM-dd", new Date(t.endDateMillis)).toString();
-                h.tvEndDate.setText("Ends: " + endDate);
-                h.tvEndDate.setVisibility(View.VISIBLE);
-            } else {
+            if (row.endDate == null) {
                 h.tvEndDate.setVisibility(View.GONE);
+            } else {
+                h.tvEndDate.setText(row.endDate);
+                h.tvEndDate.setVisibility(View.VISIBLE);
             }
         }
 
-        h.itemView.setOnClickListener(v -> listener.onClick(t));
-        h.itemView.setOnLongClickListener(v -> {
-            listener.onLongClick(t);
-            return true;
-        });
-
-        // Overflow menu click - same as long click
-        if (h.overflowMenu != null) {
-            h.overflowMenu.setOnClickListener(v -> listener.onLongClick(t));
+        // Show inactive badge
+        if (h.tvInactiveBadge != null) {
+            h.tvInactiveBadge.setVisibility(row.inactive ? View.VISIBLE : View.GONE);
         }
     }
 
+    private Transaction rowAt(VH h) {
+        int position = h.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION || position >= pager.size() ? null : pager.get(position);
+    }
+
     @Override
     public int getItemCount() {
-        return list.size();
+        return pager.size();
     }
 
     static class VH extends RecyclerView.ViewHolder {
@@ -10,10 +10,13 @@ import android.widget.ArrayAdapter;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.labproject.app.FinanceApp;
 import com.labproject.app.R;
 import com.labproject.app.data.db.DBHelper;
 import com.labproject.app.data.session.SessionManager;
@@ -21,14 +24,20 @@ import com.labproject.app.databinding.DialogEditTransactionBinding;
 import com.labproject.app.databinding.FragmentTransactionsBinding;
 import com.labproject.app.ui.Models.MainViewModel;
 import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.TransactionRows;
+import com.labproject.app.utils.Money;
 import com.labproject.app.utils.ToastHelper;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TransactionsFragment extends Fragment {
 
@@ -36,6 +45,14 @@ public class TransactionsFragment extends Fragment {
     private MainViewModel vm;
     private DBHelper db;
     private String email;
+    private TransactionPager pager;
+    private ExecutorService pageLoader;
+
+    // list rows of the pages, formatted on the page loader as they arrive
+    private final TransactionRows rows = new TransactionRows();
+    // the pager's rows, copied on the main thread after every change so the
+    // page loader can keep them when it trims the cache
+    private volatile List<Transaction> window = Collections.emptyList();
 
     // Recurrence options
     private static final String[] RECURRENCE_LABELS = {"One-time", "Weekly", "Monthly", "Yearly"};
@@ -54,33 +71,102 @@ public class TransactionsFragment extends Fragment {
     ) {
         binding = FragmentTransactionsBinding.inflate(inflater, container, false);
 
-        db = new DBHelper(requireContext());
+        db = FinanceApp.getDatabase(requireContext());
         email = new SessionManager(requireContext()).getUserEmail();
 
         vm = new ViewModelProvider(requireActivity()).get(MainViewModel.class);
 
-        TransactionsAdapter adapter = new TransactionsAdapter(new TransactionsAdapter.Listener() {
+        // History is paged straight from the database instead of rendering the
+        // view model's whole list, so only a bounded window is held in memory.
+        pageLoader = Executors.newSingleThreadExecutor();
+        pager = new TransactionPager(new TransactionPager.Source() {
+            @Override
+            public List<Transaction> firstPage(int limit) {
+                return formatted(MainViewModel.readTransactions(db, db.getTransactionsFirstPage(email, limit)));
+            }
+
+            @Override
+            public List<Transaction> olderThan(Transaction last, int limit) {
+                return formatted(MainViewModel.readTransactions(db,
+                        db.getTransactionsOlderThan(email, last.dateMillis, last.id, limit)));
+            }
+
+            @Override
+            public List<Transaction> newerThan(Transaction first, int limit) {
+                return formatted(MainViewModel.readTransactions(db,
+                        db.getTransactionsNewerThan(email, first.dateMillis, first.id, limit)));
+            }
+        }, pageLoader, ContextCompat.getMainExecutor(requireContext()));
+
+        TransactionsAdapter adapter = new TransactionsAdapter(pager, rows, new TransactionsAdapter.Listener() {
             @Override public void onClick(Transaction t) { openEditDialog(t); }
             @Override public void onLongClick(Transaction t) { showTransactionOptions(t); }
         });
 
-        binding.rvTransactions.setLayoutManager(new LinearLayoutManager(getContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        binding.rvTransactions.setLayoutManager(layoutManager);
         binding.rvTransactions.setAdapter(adapter);
 
-        vm.getTransactions().observe(getViewLifecycleOwner(), list -> {
-            adapter.submitList(list);
+        pager.setCallback(new TransactionPager.Callback() {
+            @Override public void onInserted(int position, int count) {
+                window = pager.window();
+                adapter.notifyItemRangeInserted(position, count);
+                showEmptyState(pager.size() == 0);
+            }
+            @Override public void onRemoved(int position, int count) {
+                window = pager.window();
+                adapter.notifyItemRangeRemoved(position, count);
+                showEmptyState(pager.size() == 0);
+            }
+            @Override public void onChanged(int position, int count, Object payload) {
+                window = pager.window();
+                adapter.notifyItemRangeChanged(position, count, payload);
+            }
+            @Override public void onReset() {
+                window = pager.window();
+                adapter.notifyDataSetChanged();
+                showEmptyState(pager.size() == 0);
+            }
+        });
 
-            boolean empty = (list == null || list.isEmpty());
-            binding.tvEmptyTransactions.setVisibility(empty ? View.VISIBLE : View.GONE);
-            binding.rvTransactions.setVisibility(empty ? View.GONE : View.VISIBLE);
+        binding.rvTransactions.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                pager.onVisibleRange(
+                        layoutManager.findFirstVisibleItemPosition(),
+                        layoutManager.findLastVisibleItemPosition());
+            }
         });
 
-        // Ensure list is loaded when opening this screen
-        vm.loadTransactions(db, email);
+        // re-read the visible window once a write has reached the database
+        vm.getDataChanges().observe(getViewLifecycleOwner(), n -> {
+            if (pager.isLoaded()) pager.invalidate();
+        });
+
+        pager.refresh();
 
         return binding.getRoot();
     }
 
+    // runs on the page loader; the cache is kept to a few windows' worth of rows,
+    // and a trim keeps every row still in the window so none is formatted at bind
+    private List<Transaction> formatted(List<Transaction> page) {
+        if (rows.size() > 4 * TransactionPager.PAGE_SIZE * TransactionPager.MAX_PAGES) {
+            List<Transaction> keep = new ArrayList<>(window);
+            keep.addAll(page);
+            rows.update(keep);
+        } else {
+            rows.add(page);
+        }
+        return page;
+    }
+
+    private void showEmptyState(boolean empty) {
+        if (binding == null) return;
+        binding.tvEmptyTransactions.setVisibility(empty ? View.VISIBLE : View.GONE);
+        binding.rvTransactions.setVisibility(empty ? View.GONE : View.VISIBLE);
+    }
+
     private void showTransactionOptions(Transaction t) {
         String typeLabel = (t.type == Transaction.INCOME) ? "Income" : "Expense";
         String[] options;
@@ -169,7 +255,7 @@ public class TransactionsFragment extends Fragment {
                 DialogEditTransactionBinding.inflate(LayoutInflater.from(requireContext()));
 
         // fill current values
-        b.etAmount.setText(String.valueOf(t.amount));
+        b.etAmount.setText(Money.plain(t.amountCents));
         b.etDesc.setText(t.description == null ? "" : t.description);
 
         final long[] selectedDate = { t.dateMillis };
@@ -240,19 +326,20 @@ public class TransactionsFragment extends Fragment {
                     String aStr = b.etAmount.getText().toString().trim();
                     if (TextUtils.isEmpty(aStr)) return;
 
-                    double amount = Double.parseDouble(aStr);
+                    long amountCents = Money.parse(aStr);
                     String desc = b.etDesc.getText().toString().trim();
                     String cat = b.spCategory.getSelectedItem().toString();
                     int recIdx = b.spRecurrence.getSelectedItemPosition();
                     String recurrence = RECURRENCE_VALUES[recIdx];
 
-                    t.amount = amount;
-                    t.dateMillis = selectedDate[0];
-                    t.category = cat;
-                    t.description = desc;
-                    t.recurrence = recurrence;
+                    Transaction edited = t.copy();
+                    edited.amountCents = amountCents;
+                    edited.dateMillis = selectedDate[0];
+                    edited.category = cat;
+                    edited.description = desc;
+                    edited.recurrence = recurrence;
 
-                    vm.updateTransaction(db, email, t);
+                    vm.updateTransaction(db, email, edited);
                     ToastHelper.showSuccess(requireContext(), "Transaction updated");
                 })
                 .setNegativeButton("Cancel", null)
@@ -266,6 +353,8 @@ public class TransactionsFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        pager.setCallback(null);
+        pageLoader.shutdownNow();
         binding = null;
     }
 }
@@ -0,0 +1,53 @@
+package com.labproject.app.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money is kept as a whole number of cents everywhere: in the database, in the
+ * models and in every total. Only input parsing, display and charts leave cents.
+ */
+public final class Money {
+
+    private Money() {}
+
+    /**
+     * Cents from user input such as "12", "12.5" or "12.345" (rounded half up).
+     *
+     * @throws NumberFormatException if the text is not a number
+     */
+    public static long parse(String text) {
+        return new BigDecimal(text.trim())
+                .setScale(2, RoundingMode.HALF_UP)
+                .movePointRight(2)
+                .longValueExact();
+    }
+
+    /**
+     * Nearest cent of a floating-point amount, for data that still comes as double.
+     */
+    public static long fromDouble(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * "$12.50", "-$3.05"
+     */
+    public static String format(long cents) {
+        return (cents < 0 ? "-$" : "$") + plain(cents < 0 ? -cents : cents);
+    }
+
+    /**
+     * "12.50", for edit fields; no currency sign.
+     */
+    public static String plain(long cents) {
+        String sign = cents < 0 ? "-" : "";
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return sign + (abs / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -0,0 +1,31 @@
+package com.labproject.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.labproject.app.data.db.DBHelper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class FinanceAppTest {
+
+    @Test
+    public void everyCallerSharesOneOpenDatabase() {
+        FinanceApp app = (FinanceApp) RuntimeEnvironment.getApplication();
+
+        DBHelper first = FinanceApp.getDatabase(app);
+        DBHelper second = FinanceApp.getDatabase(app.getApplicationContext());
+        assertSame(first, second);
+
+        // the count is process-wide, so compare against itself rather than 1
+        first.getReadableDatabase();
+        int opened = DBHelper.getOpenHelperCount();
+        second.getWritableDatabase();
+        second.getReadableDatabase();
+        assertEquals(opened, DBHelper.getOpenHelperCount());
+    }
+}
@@ -0,0 +1,13 @@
+package com.labproject.app;
+
+/**
+ * The application Robolectric starts for every test. It skips the startup
+ * open, which would otherwise race the tests that delete and reopen the
+ * database file themselves.
+ */
+public class TestFinanceApp extends FinanceApp {
+
+    @Override
+    protected void openInBackground() {
+    }
+}
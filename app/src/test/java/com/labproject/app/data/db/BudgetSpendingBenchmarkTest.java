@@ -0,0 +1,137 @@
+package com.labproject.app.data.db;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import com.labproject.app.ui.Models.Budget;
+import com.labproject.app.ui.Models.Recurrence;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the old per-budget SUM loop with the single grouped
+ * {@link DBHelper#getBudgetsWithSpentForUser} query at 10, 50 and 200 budgets.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BudgetSpendingBenchmarkTest {
+
+    private static final String EMAIL = "bench@finance.com";
+    private static final String[] PERIODS = {"daily", "weekly", "monthly"};
+    private static final int ROUNDS = 20;
+
+    private Context context;
+    private DBHelper helper;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DBHelper.DB_NAME);
+        helper = new DBHelper(context);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+    }
+
+    @Test
+    public void groupedQuery_matchesPerBudgetLoop() {
+        long now = System.currentTimeMillis();
+        int seeded = 0;
+
+        for (int budgets : new int[]{10, 50, 200}) {
+            seed(seeded, budgets, now);
+            seeded = budgets;
+
+            // warm up both paths once
+            Map<Integer, Long> loop = perBudgetLoop(now);
+            Map<Integer, Long> grouped = groupedQuery(now);
+            assertEquals(budgets, grouped.size());
+            assertEquals(loop, grouped);
+
+            long loopNanos = 0, groupedNanos = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long t0 = System.nanoTime();
+                perBudgetLoop(now);
+                long t1 = System.nanoTime();
+                groupedQuery(now);
+                long t2 = System.nanoTime();
+                loopNanos += t1 - t0;
+                groupedNanos += t2 - t1;
+            }
+
+            System.out.println(String.format(Locale.US,
+                    "budgets=%d  per-budget loop=%.2f ms  grouped query=%.2f ms",
+                    budgets, loopNanos / 1e6 / ROUNDS, groupedNanos / 1e6 / ROUNDS));
+        }
+    }
+
+    @Test
+    public void recurringExpenses_countEveryOccurrenceInThePeriod() {
+        long now = System.currentTimeMillis();
+        long day = 24L * 60 * 60 * 1000;
+        helper.insertBudget(EMAIL, "Subscriptions", 100_00, "monthly", 80);
+
+        // started well before this month: only its repeats fall inside the period
+        helper.insertTransaction(EMAIL, 2, 10_00, now - 400 * day, "Subscriptions", "weekly box", "weekly");
+        // a one-off inside the period is still summed by the query
+        helper.insertTransaction(EMAIL, 2, 5_00, now, "Subscriptions", "one-off");
+
+        long monthStart = DBHelper.getPeriodStart("monthly", now);
+        long weeklyHits = Recurrence.window(monthStart, now)
+                .count("weekly", now - 400 * day, true, -1);
+
+        List<Budget> budgets = helper.getBudgetsWithSpent(EMAIL, now);
+        assertEquals(1, budgets.size());
+        assertEquals(5_00 + 10_00 * weeklyHits, budgets.get(0).spentCents);
+    }
+
+    /** Adds budgets [from, to) with their own category and ~40 expenses each over the last 60 days. */
+    private void seed(int from, int to, long now) {
+        Random random = new Random(42 + from);
+        long day = 24L * 60 * 60 * 1000;
+        for (int i = from; i < to; i++) {
+            String category = "Category " + i;
+            helper.insertBudget(EMAIL, category, 500_00, PERIODS[i % PERIODS.length], 80);
+            for (int j = 0; j < 40; j++) {
+                long date = now - (long) (random.nextDouble() * 60 * day);
+                helper.insertTransaction(EMAIL, 2, 1 + random.nextInt(100_00), date, category, "bench");
+            }
+        }
+    }
+
+    private Map<Integer, Long> perBudgetLoop(long now) {
+        Map<Integer, Long> out = new HashMap<>();
+        Cursor c = helper.getBudgetsForUser(EMAIL);
+        while (c.moveToNext()) {
+            long start = DBHelper.getPeriodStart(c.getString(3), now);
+            out.put(c.getInt(0), helper.getSpentAmountForCategoryAndPeriod(EMAIL, helper.getCategoryName(c.getInt(1)), start, now));
+        }
+        c.close();
+        return out;
+    }
+
+    private Map<Integer, Long> groupedQuery(long now) {
+        Map<Integer, Long> out = new HashMap<>();
+        Cursor c = helper.getBudgetsWithSpentForUser(EMAIL, now);
+        while (c.moveToNext()) {
+            out.put(c.getInt(0), c.getLong(5));
+        }
+        c.close();
+        return out;
+    }
+}
@@ -0,0 +1,79 @@
+package com.labproject.app.data.db;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import com.labproject.app.ui.Models.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link DBHelper#insertTransactions}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BulkInsertTest {
+
+    private static final String EMAIL = "bulk@finance.com";
+    private static final int ROWS = 100_000;
+
+    private Context context;
+    private DBHelper helper;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DBHelper.DB_NAME);
+        helper = new DBHelper(context);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+    }
+
+    @Test
+    public void inserts100kRowsInChunksWithinAFewSeconds() {
+        List<Transaction> rows = new ArrayList<>(ROWS);
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < ROWS; i++) {
+            int type = (i % 5 == 0) ? Transaction.INCOME : Transaction.EXPENSE;
+            rows.add(new Transaction(0, 1 + (i % 500), start + i * 60_000L, "Category " + (i % 12),
+                    (i % 3 == 0) ? null : "row " + i, type));
+        }
+
+        List<Integer> progress = new ArrayList<>();
+        long t0 = System.nanoTime();
+        int inserted = helper.insertTransactions(EMAIL, rows, 10_000, (done, total) -> {
+            assertEquals(ROWS, total);
+            progress.add(done);
+        });
+        long millis = (System.nanoTime() - t0) / 1_000_000;
+        System.out.println(String.format(Locale.US, "bulk insert: %d rows in %d ms", inserted, millis));
+
+        assertEquals(ROWS, inserted);
+        assertEquals(10, progress.size());
+        assertEquals(Integer.valueOf(ROWS), progress.get(progress.size() - 1));
+        assertTrue("bulk insert took " + millis + " ms", millis < 10_000);
+
+        Cursor c = helper.getTransactionsForUser(EMAIL);
+        assertEquals(ROWS, c.getCount());
+        c.close();
+    }
+
+    @Test
+    public void emptyInput_insertsNothing() {
+        assertEquals(0, helper.insertTransactions(EMAIL, new ArrayList<>()));
+    }
+}
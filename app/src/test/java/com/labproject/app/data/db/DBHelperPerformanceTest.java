@@ -0,0 +1,228 @@
+package com.labproject.app.data.db;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import com.labproject.app.ui.Models.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Latency of DBHelper's everyday operations against the real SQLite engine,
+ * with several users seeded. Each operation is timed over many samples, its
+ * p50 and p99 are printed, and the test fails when either is over the
+ * operation's budget.
+ *
+ * Scale and budgets are system properties, which Gradle passes through:
+ * <pre>
+ *   -Dperf.users=20 -Dperf.rowsPerUser=20000   seed size (default 5 users with 5,000 rows each)
+ *   -Dperf.samples=500                         samples per operation (default 200; a tenth for full scans)
+ *   -Dperf.budget.insertTransaction=3,30       p50,p99 budget in ms for one operation
+ *   -Dperf.budgetScale=2                       every budget times this, e.g. on a slow CI machine
+ * </pre>
+ * The default budgets are for the default scale; raise the full-scan one with
+ * the rows per user.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DBHelperPerformanceTest {
+
+    private static final int USERS = Integer.getInteger("perf.users", 5);
+    private static final int ROWS_PER_USER = Integer.getInteger("perf.rowsPerUser", 5_000);
+    private static final int SAMPLES = Integer.getInteger("perf.samples", 200);
+    private static final int SCAN_SAMPLES = Math.max(20, SAMPLES / 10);
+    private static final double BUDGET_SCALE = Double.parseDouble(System.getProperty("perf.budgetScale", "1"));
+
+    private static final String[] CATEGORIES = {"Food", "Rent", "Transport", "Bills", "Health", "Entertainment",
+            "Shopping", "Education", "Travel", "Gifts", "Insurance", "Salary"};
+    private static final String[] PERIODS = {"daily", "weekly", "monthly"};
+    private static final int BUDGETS_PER_USER = 8;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private Context context;
+    private DBHelper helper;
+    private Random random;
+    private long now;
+    private int[] ids;
+    private String[] owners;
+
+    private interface Operation {
+        void run();
+    }
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DBHelper.DB_NAME);
+        helper = new DBHelper(context);
+        random = new Random(42);
+        now = System.currentTimeMillis();
+        seed();
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+    }
+
+    @Test
+    public void insertTransaction() {
+        measure("insertTransaction", 5, 50, SAMPLES, () ->
+                helper.insertTransaction(user(random.nextInt(USERS)), Transaction.EXPENSE, 1 + random.nextInt(100_00),
+                        now - random.nextInt(365) * DAY, pick(CATEGORIES), "sample"));
+    }
+
+    @Test
+    public void updateTransaction() {
+        measure("updateTransaction", 5, 50, SAMPLES, () -> {
+            int row = random.nextInt(ids.length);
+            assertTrue(helper.updateTransaction(owners[row], ids[row], Transaction.EXPENSE, 1 + random.nextInt(100_00),
+                    now - random.nextInt(365) * DAY, pick(CATEGORIES), "updated"));
+        });
+    }
+
+    @Test
+    public void getTransactionsForUser_fullIteration() {
+        measure("getTransactionsForUser", 200, 600, SCAN_SAMPLES, () -> {
+            Cursor c = helper.getTransactionsForUser(user(random.nextInt(USERS)));
+            int id = c.getColumnIndexOrThrow(DBHelper.TX_ID);
+            int amount = c.getColumnIndexOrThrow(DBHelper.TX_AMOUNT);
+            int date = c.getColumnIndexOrThrow(DBHelper.TX_DATE);
+            int desc = c.getColumnIndexOrThrow(DBHelper.TX_DESC);
+            int rows = 0;
+            long sum = 0;
+            while (c.moveToNext()) {
+                String description = c.getString(desc);
+                sum += c.getInt(id) + c.getLong(amount) + c.getLong(date);
+                if (description != null) sum += description.length();
+                rows++;
+            }
+            c.close();
+            assertEquals(ROWS_PER_USER, rows);
+            assertTrue(sum > 0);
+        });
+    }
+
+    @Test
+    public void getBudgetsForUser() {
+        measure("getBudgetsForUser", 5, 30, SAMPLES, () -> {
+            Cursor c = helper.getBudgetsForUser(user(random.nextInt(USERS)));
+            int rows = 0;
+            while (c.moveToNext()) {
+                assertTrue(c.getLong(2) > 0);
+                rows++;
+            }
+            c.close();
+            assertEquals(BUDGETS_PER_USER, rows);
+        });
+    }
+
+    @Test
+    public void getSpentAmountForCategoryAndPeriod() {
+        long monthStart = DBHelper.getPeriodStart("monthly", now);
+        measure("getSpentAmountForCategoryAndPeriod", 5, 30, SAMPLES, () -> {
+            String category = CATEGORIES[random.nextInt(BUDGETS_PER_USER)];
+            long spent = helper.getSpentAmountForCategoryAndPeriod(user(random.nextInt(USERS)), category, monthStart, now);
+            assertTrue(spent >= 0);
+        });
+    }
+
+    /**
+     * Each user gets ROWS_PER_USER rows over the last year, mostly expenses,
+     * and a budget for each of the first BUDGETS_PER_USER categories.
+     */
+    private void seed() {
+        long t0 = System.nanoTime();
+        for (int u = 0; u < USERS; u++) {
+            String email = user(u);
+            assertTrue(helper.registerUser(email, "Perf", "User " + u, "Password1"));
+
+            List<Transaction> rows = new ArrayList<>(ROWS_PER_USER);
+            for (int i = 0; i < ROWS_PER_USER; i++) {
+                boolean income = random.nextInt(10) == 0;
+                rows.add(new Transaction(0, 1 + random.nextInt(income ? 3_000_00 : 100_00),
+                        now - (long) (random.nextDouble() * 365 * DAY),
+                        income ? "Salary" : CATEGORIES[random.nextInt(CATEGORIES.length - 1)],
+                        "row " + i, income ? Transaction.INCOME : Transaction.EXPENSE));
+            }
+            assertEquals(ROWS_PER_USER, helper.insertTransactions(email, rows, 10_000, null));
+
+            for (int b = 0; b < BUDGETS_PER_USER; b++) {
+                helper.insertBudget(email, CATEGORIES[b], 500_00, PERIODS[b % PERIODS.length], 80);
+            }
+        }
+
+        Cursor c = helper.getReadableDatabase().rawQuery(
+                "SELECT " + DBHelper.TX_ID + ", " + DBHelper.TX_EMAIL + " FROM " + DBHelper.T_TX, null);
+        ids = new int[c.getCount()];
+        owners = new String[c.getCount()];
+        for (int i = 0; c.moveToNext(); i++) {
+            ids[i] = c.getInt(0);
+            owners[i] = c.getString(1);
+        }
+        c.close();
+
+        System.out.println(String.format(Locale.US, "seeded %d users x %d rows in %d ms",
+                USERS, ROWS_PER_USER, (System.nanoTime() - t0) / 1_000_000));
+    }
+
+    /**
+     * Runs the operation a tenth of the samples to warm up, then times each of
+     * the samples and checks p50 and p99 against the budget. The defaults give
+     * way to -Dperf.budget.&lt;name&gt;=p50,p99.
+     */
+    private void measure(String name, double p50Ms, double p99Ms, int samples, Operation op) {
+        String override = System.getProperty("perf.budget." + name);
+        if (override != null) {
+            String[] parts = override.split(",");
+            p50Ms = Double.parseDouble(parts[0].trim());
+            p99Ms = Double.parseDouble(parts[1].trim());
+        }
+        p50Ms *= BUDGET_SCALE;
+        p99Ms *= BUDGET_SCALE;
+
+        for (int i = 0; i < Math.max(1, samples / 10); i++) op.run();
+        long[] nanos = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long t0 = System.nanoTime();
+            op.run();
+            nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+        double p50 = percentile(nanos, 50) / 1e6;
+        double p99 = percentile(nanos, 99) / 1e6;
+
+        System.out.println(String.format(Locale.US,
+                "%-36s n=%-5d p50=%8.3f ms (budget %.1f)  p99=%8.3f ms (budget %.1f)  max=%8.3f ms",
+                name, samples, p50, p50Ms, p99, p99Ms, nanos[samples - 1] / 1e6));
+        assertTrue(name + " p50 " + p50 + " ms is over its budget of " + p50Ms + " ms", p50 <= p50Ms);
+        assertTrue(name + " p99 " + p99 + " ms is over its budget of " + p99Ms + " ms", p99 <= p99Ms);
+    }
+
+    /** Nearest-rank percentile of sorted samples. */
+    static long percentile(long[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static String user(int u) {
+        return "perf" + u + "@finance.com";
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
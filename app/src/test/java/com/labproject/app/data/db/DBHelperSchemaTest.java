@@ -0,0 +1,250 @@
+package com.labproject.app.data.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.labproject.app.ui.Models.Budget;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Schema tests for {@link DBHelper}: every query must be served by an index,
+ * and upgrading from the previous schema version must keep the user's rows.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DBHelperSchemaTest {
+
+    private Context context;
+    private DBHelper helper;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DBHelper.DB_NAME);
+        helper = new DBHelper(context);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+    }
+
+    @Test
+    public void everyQuery_usesAnIndex() {
+        assertNoScan(DBHelper.SQL_USER_EXISTS, "a@b.com");
+        assertNoScan(DBHelper.SQL_LOGIN, "a@b.com", "secret");
+        assertNoScan(DBHelper.SQL_USER_BY_EMAIL, "a@b.com");
+        assertNoScan(DBHelper.SQL_TRANSACTIONS_FOR_USER, "a@b.com");
+        assertNoScan(DBHelper.SQL_TRANSACTIONS_FIRST_PAGE, "a@b.com", "50");
+        assertNoScan(DBHelper.SQL_TRANSACTIONS_OLDER_PAGE, "a@b.com", "1000", "1000", "7", "50");
+        assertNoScan(DBHelper.SQL_TRANSACTIONS_NEWER_PAGE, "a@b.com", "1000", "1000", "7", "50");
+        assertNoScan(DBHelper.SQL_BUDGETS_FOR_USER, "a@b.com");
+        assertNoScan(DBHelper.SQL_SPENT_FOR_CATEGORY_AND_PERIOD, "a@b.com", "2", "1", "0", "1");
+        assertNoScan(DBHelper.SQL_BUDGETS_WITH_SPENT, "0", "0", "0", "1", "a@b.com");
+        assertNoScan(DBHelper.SQL_RECURRING_EXPENSES_FOR_USER, "a@b.com", "1");
+        assertNoScan(DBHelper.SQL_RECURRING_FOR_USER, "a@b.com", "1");
+        assertNoScan(DBHelper.SQL_FIRST_TRANSACTION_DATE, "a@b.com");
+        assertNoScan(DBHelper.SQL_DAILY_TOTALS_BY_CATEGORY, "a@b.com", "19000", "19030");
+        assertNoScan(DBHelper.SQL_ALL_TIME_TOTALS, "a@b.com");
+        assertNoScan(DBHelper.SQL_CATEGORY_ID, "Foods");
+
+        assertNoScan("UPDATE " + DBHelper.T_USERS + " SET " + DBHelper.C_FIRST + " = 'x' WHERE " + DBHelper.WHERE_USER,
+                "a@b.com");
+        assertNoScan("UPDATE " + DBHelper.T_TX + " SET " + DBHelper.TX_IS_ACTIVE + " = 0 WHERE " + DBHelper.WHERE_TX_ID_AND_EMAIL,
+                "1", "a@b.com");
+        assertNoScan("DELETE FROM " + DBHelper.T_TX + " WHERE " + DBHelper.WHERE_TX_ID_AND_EMAIL,
+                "1", "a@b.com");
+        assertNoScan("UPDATE " + DBHelper.T_BUDGETS + " SET " + DBHelper.B_LIMIT + " = 1 WHERE " + DBHelper.WHERE_BUDGET_ID_AND_EMAIL,
+                "1", "a@b.com");
+        assertNoScan("DELETE FROM " + DBHelper.T_BUDGETS + " WHERE " + DBHelper.WHERE_BUDGET_ID_AND_EMAIL,
+                "1", "a@b.com");
+    }
+
+    @Test
+    public void upgradeFromVersion7_keepsDataInCentsWithCategoryIdsAndAddsIndexesAndRollup() {
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+
+        // the v7 schema, as shipped before indexes were added
+        SQLiteDatabase old = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(DBHelper.DB_NAME), null);
+        old.execSQL("CREATE TABLE users (email TEXT PRIMARY KEY, first_name TEXT NOT NULL, " +
+                "last_name TEXT NOT NULL, password TEXT NOT NULL)");
+        old.execSQL("CREATE TABLE transactions (id INTEGER PRIMARY KEY AUTOINCREMENT, email TEXT NOT NULL, " +
+                "type INTEGER NOT NULL, amount REAL NOT NULL, date_millis INTEGER NOT NULL, category TEXT NOT NULL, " +
+                "description TEXT, recurrence TEXT DEFAULT 'once', is_active INTEGER DEFAULT 1, " +
+                "end_date_millis INTEGER DEFAULT -1)");
+        old.execSQL("CREATE TABLE budgets (id INTEGER PRIMARY KEY AUTOINCREMENT, email TEXT NOT NULL, " +
+                "category TEXT NOT NULL, limit_amount REAL NOT NULL, period TEXT NOT NULL, alert_threshold INTEGER DEFAULT 50)");
+        old.execSQL("INSERT INTO users VALUES ('a@b.com', 'Ann', 'Bee', 'secret')");
+        old.execSQL("INSERT INTO transactions (email, type, amount, date_millis, category, description) " +
+                "VALUES ('a@b.com', 2, 12.5, 1000, 'Foods', 'lunch'), ('a@b.com', 2, 19.99, 1000, 'Foods', 'dinner')," +
+                " ('a@b.com', 1, 3, 1000, '', 'found')");
+        old.execSQL("INSERT INTO budgets (email, category, limit_amount, period) VALUES ('a@b.com', 'Foods', 100, 'monthly')");
+        old.setVersion(7);
+        old.close();
+
+        helper = new DBHelper(context);
+
+        assertTrue(helper.loginValid("a@b.com", "secret"));
+        Cursor tx = helper.getTransactionsForUser("a@b.com");
+        assertEquals(3, tx.getCount());
+        List<Long> cents = new ArrayList<>();
+        while (tx.moveToNext()) cents.add(tx.getLong(tx.getColumnIndexOrThrow(DBHelper.TX_AMOUNT)));
+        tx.close();
+        // 19.99 is 1998.999... as a double; it must still come out as 1999
+        assertTrue(cents.contains(12_50L));
+        assertTrue(cents.contains(19_99L));
+        List<Budget> budgets = helper.getBudgetsWithSpent("a@b.com", 1000);
+        assertEquals(1, budgets.size());
+        assertEquals(100_00, budgets.get(0).limitCents);
+        assertEquals("Foods", budgets.get(0).category);
+
+        // one categories row per name, the blank one filed under Other
+        assertEquals(2, scalar("SELECT COUNT(*) FROM " + DBHelper.T_CATEGORIES));
+        int foods = helper.getCategories().idOf("Foods");
+        assertEquals(2, scalar("SELECT COUNT(*) FROM " + DBHelper.T_TX + " WHERE " + DBHelper.TX_CATEGORY_ID + " = " + foods));
+        assertEquals(3_00, helper.getPeriodTotals("a@b.com", 0, 1000)
+                .incomeByCategory[helper.getCategories().idOf("Other")]);
+
+        List<String> indexes = new ArrayList<>();
+        Cursor c = helper.getReadableDatabase().rawQuery(
+                "SELECT name FROM sqlite_master WHERE type = 'index'", null);
+        while (c.moveToNext()) indexes.add(c.getString(0));
+        c.close();
+
+        assertTrue(indexes.contains(DBHelper.IDX_TX_EMAIL_DATE));
+        assertTrue(indexes.contains(DBHelper.IDX_TX_EMAIL_TYPE_CAT_DATE));
+        assertTrue(indexes.contains(DBHelper.IDX_BUDGETS_EMAIL));
+        assertTrue(indexes.contains(DBHelper.IDX_TX_RECURRING));
+        assertTrue(indexes.contains(DBHelper.IDX_DAILY_EMAIL_DAY));
+
+        // the existing row was rolled up, and new rows reach the rollup through the triggers
+        assertEquals(32_49, helper.getPeriodTotals("a@b.com", 0, 1000).expenses);
+        helper.insertTransaction("a@b.com", 2, 7_50, 2000, "Foods", "snack");
+        assertEquals(39_99, helper.getPeriodTotals("a@b.com", 0, 2000).expenses);
+        assertEquals(39_99, helper.getAllTimeTotals("a@b.com").expenses);
+    }
+
+    @Test
+    public void categories_areStoredOnceAndSharedBetweenHelpers() {
+        helper.insertTransaction("a@b.com", 2, 1_00, 1000, "Foods", "lunch");
+        helper.insertTransaction("a@b.com", 2, 2_00, 1000, "Foods", "dinner");
+        helper.insertTransaction("a@b.com", 2, 4_00, 1000, " ", "misc");
+        helper.insertBudget("a@b.com", "Foods", 100_00, "monthly", 80);
+        assertEquals(2, scalar("SELECT COUNT(*) FROM " + DBHelper.T_CATEGORIES));
+
+        DBHelper other = new DBHelper(context);
+        try {
+            int foods = other.getCategories().idOf("Foods");
+            assertEquals(foods, helper.getCategories().idOf("Foods"));
+
+            // a category added through one helper is found by the other
+            helper.insertTransaction("a@b.com", 2, 8_00, 1000, "Travel", "train");
+            int travel = helper.getCategories().idOf("Travel");
+            assertEquals(-1, other.getCategories().idOf("Travel"));
+            assertEquals("Travel", other.getCategoryName(travel));
+            assertEquals(8_00, other.getSpentAmountForCategoryAndPeriod("a@b.com", "Travel", 0, 1000));
+        } finally {
+            other.close();
+        }
+
+        assertEquals(3_00, helper.getSpentAmountForCategoryAndPeriod("a@b.com", "Foods", 0, 1000));
+        assertEquals(4_00, helper.getSpentAmountForCategoryAndPeriod("a@b.com", "Other", 0, 1000));
+        assertEquals(0, helper.getSpentAmountForCategoryAndPeriod("a@b.com", "Rent", 0, 1000));
+        assertEquals(3_00, helper.getBudgetsWithSpent("a@b.com", 1000).get(0).spentCents);
+    }
+
+    @Test
+    public void transactionPages_areIndexOrderedAndContiguous() {
+        // the keyset pages must come straight off the index, never through a sort
+        assertNoSort(DBHelper.SQL_TRANSACTIONS_FIRST_PAGE, "a@b.com", "50");
+        assertNoSort(DBHelper.SQL_TRANSACTIONS_OLDER_PAGE, "a@b.com", "1000", "1000", "7", "50");
+        assertNoSort(DBHelper.SQL_TRANSACTIONS_NEWER_PAGE, "a@b.com", "1000", "1000", "7", "50");
+
+        // three rows share each timestamp, so pages have to break ties on id
+        for (int i = 0; i < 30; i++) {
+            helper.insertTransaction("a@b.com", 2, 1_00, 1000 + i / 3, "Foods", "row " + i);
+        }
+
+        List<Integer> all = ids(helper.getTransactionsFirstPage("a@b.com", 100));
+        assertEquals(30, all.size());
+
+        List<Integer> paged = new ArrayList<>();
+        Cursor page = helper.getTransactionsFirstPage("a@b.com", 7);
+        while (true) {
+            long lastDate = 0;
+            int lastId = 0;
+            int count = 0;
+            while (page.moveToNext()) {
+                lastId = page.getInt(page.getColumnIndexOrThrow(DBHelper.TX_ID));
+                lastDate = page.getLong(page.getColumnIndexOrThrow(DBHelper.TX_DATE));
+                paged.add(lastId);
+                count++;
+            }
+            page.close();
+            if (count < 7) break;
+            page = helper.getTransactionsOlderThan("a@b.com", lastDate, lastId, 7);
+        }
+        assertEquals(all, paged);
+
+        // walking back up from the oldest row gives the same rows, reversed
+        List<Integer> newer = ids(helper.getTransactionsNewerThan("a@b.com", 1000, all.get(29), 100));
+        assertEquals(29, newer.size());
+        for (int i = 0; i < newer.size(); i++) {
+            assertEquals(all.get(28 - i), newer.get(i));
+        }
+    }
+
+    private long scalar(String sql) {
+        Cursor c = helper.getReadableDatabase().rawQuery(sql, null);
+        try {
+            c.moveToFirst();
+            return c.getLong(0);
+        } finally {
+            c.close();
+        }
+    }
+
+    private static List<Integer> ids(Cursor c) {
+        List<Integer> ids = new ArrayList<>();
+        while (c.moveToNext()) ids.add(c.getInt(c.getColumnIndexOrThrow(DBHelper.TX_ID)));
+        c.close();
+        return ids;
+    }
+
+    private void assertNoSort(String sql, String... args) {
+        Cursor c = helper.getReadableDatabase().rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        int detailIndex = c.getColumnIndexOrThrow("detail");
+        while (c.moveToNext()) {
+            String detail = c.getString(detailIndex);
+            assertFalse("Sort in plan for:\n" + sql + "\n" + detail, detail.contains("TEMP B-TREE"));
+        }
+        c.close();
+    }
+
+    private void assertNoScan(String sql, String... args) {
+        Cursor c = helper.getReadableDatabase().rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        int detailIndex = c.getColumnIndexOrThrow("detail");
+        StringBuilder plan = new StringBuilder();
+        boolean scans = false;
+        while (c.moveToNext()) {
+            String detail = c.getString(detailIndex);
+            plan.append(detail).append('\n');
+            if (detail.startsWith("SCAN")) scans = true;
+        }
+        c.close();
+        assertFalse("Full scan in plan for:\n" + sql + "\n" + plan, scans);
+    }
+}
@@ -0,0 +1,161 @@
+package com.labproject.app.data.db;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import com.labproject.app.ui.Models.CategoryDictionary;
+import com.labproject.app.ui.Models.MainViewModel;
+import com.labproject.app.ui.Models.PeriodTotals;
+import com.labproject.app.ui.Models.Recurrence;
+import com.labproject.app.ui.Models.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The daily_totals rollup must give the same period totals as adding up the
+ * transactions themselves, whatever was inserted, edited or deleted before.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DailyTotalsTest {
+
+    private static final String EMAIL = "a@b.com";
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String[] CATEGORIES = {"Foods", "Transport", "Salary", ""};
+    private static final String[] RECURRENCES = {
+            Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_ONCE,
+            Transaction.RECURRENCE_WEEKLY, Transaction.RECURRENCE_MONTHLY
+    };
+
+    private Context context;
+    private DBHelper helper;
+    private final Random random = new Random(17);
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DBHelper.DB_NAME);
+        helper = new DBHelper(context);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+    }
+
+    @Test
+    public void periodTotals_matchTheRowsAfterEveryKindOfWrite() {
+        for (int i = 0; i < 300; i++) insertRandom();
+        assertMatchesRows();
+
+        for (int round = 0; round < 3; round++) {
+            List<Transaction> rows = rows();
+            for (int i = 0; i < 60; i++) {
+                Transaction t = rows.get(random.nextInt(rows.size()));
+                switch (random.nextInt(4)) {
+                    case 0:
+                        helper.deleteTransaction(EMAIL, t.id);
+                        break;
+                    case 1:
+                        helper.deactivateTransaction(EMAIL, t.id, t.dateMillis + random.nextInt(90) * DAY);
+                        break;
+                    case 2:
+                        helper.reactivateTransaction(EMAIL, t.id);
+                        break;
+                    default:
+                        helper.updateTransaction(EMAIL, t.id, t.type, 1 + random.nextInt(500_00), noon(random.nextInt(365)),
+                                CATEGORIES[random.nextInt(CATEGORIES.length)], "edited",
+                                t.recurrence, t.isActive, t.endDateMillis);
+                }
+            }
+            insertRandom();
+            assertMatchesRows();
+        }
+    }
+
+    @Test
+    public void emptyDays_areDroppedFromTheRollup() {
+        long id = helper.insertTransaction(EMAIL, Transaction.EXPENSE, 10_00, noon(3), "Foods", "lunch");
+        helper.updateTransaction(EMAIL, (int) id, Transaction.EXPENSE, 10_00, noon(5), "Foods", "lunch");
+        assertEquals(1, rollupRows());
+
+        helper.deleteTransaction(EMAIL, (int) id);
+        assertEquals(0, rollupRows());
+    }
+
+    @Test
+    public void allTimeTotals_countActiveRowsAtFaceValue() {
+        helper.insertTransaction(EMAIL, Transaction.INCOME, 100_00, noon(1), "Salary", "pay", Transaction.RECURRENCE_MONTHLY);
+        helper.insertTransaction(EMAIL, Transaction.EXPENSE, 40_00, noon(2), "Foods", "lunch");
+        long stopped = helper.insertTransaction(EMAIL, Transaction.EXPENSE, 15_00, noon(2), "Transport", "bus");
+        helper.deactivateTransaction(EMAIL, (int) stopped, noon(3));
+
+        PeriodTotals totals = helper.getAllTimeTotals(EMAIL);
+        assertEquals(100_00, totals.income);
+        assertEquals(40_00, totals.expenses);
+    }
+
+    private void assertMatchesRows() {
+        List<Transaction> rows = rows();
+        for (int[] days : new int[][]{{0, 0}, {10, 16}, {30, 60}, {0, 364}, {200, 400}}) {
+            long start = startOfDay(days[0]);
+            long end = startOfDay(days[1] + 1) - 1;
+
+            CategoryDictionary categories = helper.getCategories();
+            PeriodTotals expected = new PeriodTotals(categories);
+            Recurrence.Window window = Recurrence.window(start, end);
+            for (Transaction t : rows) expected.add(t.type, categories.idOf(t.category), window.amountOf(t));
+
+            PeriodTotals actual = helper.getPeriodTotals(EMAIL, start, end);
+            String range = "days " + days[0] + ".." + days[1];
+            // whole cents on both sides, so they must agree to the cent
+            assertEquals(range, expected.income, actual.income);
+            assertEquals(range, expected.expenses, actual.expenses);
+            assertArrayEquals(range, expected.incomeByCategory, actual.incomeByCategory);
+            assertArrayEquals(range, expected.expensesByCategory, actual.expensesByCategory);
+        }
+    }
+
+    private void insertRandom() {
+        int type = random.nextBoolean() ? Transaction.INCOME : Transaction.EXPENSE;
+        helper.insertTransaction(EMAIL, type, 1 + random.nextInt(1000) * 25L, noon(random.nextInt(365)),
+                CATEGORIES[random.nextInt(CATEGORIES.length)], "row",
+                RECURRENCES[random.nextInt(RECURRENCES.length)]);
+    }
+
+    private List<Transaction> rows() {
+        return MainViewModel.readTransactions(helper, helper.getTransactionsForUser(EMAIL));
+    }
+
+    private int rollupRows() {
+        Cursor c = helper.getReadableDatabase().rawQuery("SELECT COUNT(*) FROM " + DBHelper.T_DAILY, null);
+        c.moveToFirst();
+        int n = c.getInt(0);
+        c.close();
+        return n;
+    }
+
+    private static long startOfDay(int day) {
+        Calendar c = Calendar.getInstance();
+        c.clear();
+        c.set(2024, Calendar.JANUARY, 1);
+        c.add(Calendar.DAY_OF_YEAR, day);
+        return c.getTimeInMillis();
+    }
+
+    // midday keeps every row well inside its local day
+    private static long noon(int day) {
+        return startOfDay(day) + DAY / 2;
+    }
+}
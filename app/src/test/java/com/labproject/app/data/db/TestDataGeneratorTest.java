@@ -0,0 +1,159 @@
+package com.labproject.app.data.db;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link TestDataGenerator#generate}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TestDataGeneratorTest {
+
+    private static final long END = 1_750_000_000_000L;   // June 2025
+
+    private Context context;
+    private DBHelper helper;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DBHelper.DB_NAME);
+        helper = new DBHelper(context);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+    }
+
+    @Test
+    public void sameConfig_givesTheSameRows() {
+        TestDataGenerator.Config config = new TestDataGenerator.Config(3, 1, 1.5, 10, 12, 4, 7);
+
+        long inserted = TestDataGenerator.generate(helper, config, END, null);
+        assertEquals(scalar("SELECT COUNT(*) FROM " + DBHelper.T_TX), inserted);
+        assertEquals(config.expectedRows(), inserted, config.expectedRows() * 0.1);
+        List<String> first = dump();
+
+        for (int user = 0; user < config.users; user++) {
+            String email = TestDataGenerator.emailOf(user);
+            assertTrue(helper.loginValid(email, TestDataGenerator.PASSWORD));
+            Cursor budgets = helper.getBudgetsForUser(email);
+            assertEquals(config.budgetsPerUser, budgets.getCount());
+            budgets.close();
+        }
+        // categories past the named ones, and a recurring share near the config's
+        assertTrue(scalar("SELECT COUNT(*) FROM " + DBHelper.T_CATEGORIES +
+                " WHERE " + DBHelper.CAT_NAME + " = 'Category 12'") > 0);
+        long recurring = scalar("SELECT COUNT(*) FROM " + DBHelper.T_TX +
+                " WHERE " + DBHelper.TX_RECURRENCE + " <> 'once'");
+        assertEquals(inserted * 0.10, recurring, inserted * 0.03);
+
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+        helper = new DBHelper(context);
+        assertEquals(inserted, TestDataGenerator.generate(helper, config, END, null));
+        assertEquals(first, dump());
+    }
+
+    @Test
+    public void rowsAreCommittedInBatches() {
+        TestDataGenerator.Config config = new TestDataGenerator.Config(1, 1, 30, 2, 8, 0, 1);
+        List<Long> committed = new ArrayList<>();
+
+        long inserted = TestDataGenerator.generate(helper, config, END, (done, expected) -> {
+            assertEquals(config.expectedRows(), expected);
+            committed.add(done);
+        });
+
+        assertTrue(committed.size() > 1);
+        long previous = 0;
+        for (long done : committed) {
+            assertTrue(done - previous <= TestDataGenerator.BATCH_ROWS);
+            previous = done;
+        }
+        assertEquals(inserted, previous);
+        assertEquals(0, scalar("SELECT COUNT(*) FROM " + DBHelper.T_BUDGETS));
+    }
+
+    @Test
+    public void secondRun_onlyFillsUsersWithoutRows() {
+        TestDataGenerator.Config one = new TestDataGenerator.Config(1, 1, 1, 10, 8, 3, 7);
+        TestDataGenerator.Config two = new TestDataGenerator.Config(2, 1, 1, 10, 8, 3, 7);
+        long first = TestDataGenerator.generate(helper, one, END, null);
+
+        assertEquals(0, TestDataGenerator.generate(helper, one, END, null));
+        assertEquals(first, scalar("SELECT COUNT(*) FROM " + DBHelper.T_TX));
+        assertEquals(3, scalar("SELECT COUNT(*) FROM " + DBHelper.T_BUDGETS));
+
+        // the second user is new, so only they get rows and budgets
+        long second = TestDataGenerator.generate(helper, two, END, null);
+        assertEquals(first + second, scalar("SELECT COUNT(*) FROM " + DBHelper.T_TX));
+        assertEquals(6, scalar("SELECT COUNT(*) FROM " + DBHelper.T_BUDGETS));
+        assertEquals(second, scalar("SELECT COUNT(*) FROM " + DBHelper.T_TX +
+                " WHERE " + DBHelper.TX_EMAIL + " = '" + TestDataGenerator.emailOf(1) + "'"));
+    }
+
+    @Test
+    public void loadUsers_afterTheSample_stillGetTheirRows() {
+        int sample = TestDataGenerator.generateTestData(helper);
+        assertTrue(sample > 0);
+        assertEquals(0, TestDataGenerator.generateTestData(helper));
+
+        // HEAVY_USER's shape, scaled down: one user, years of history, a few budgets
+        TestDataGenerator.Config heavy = new TestDataGenerator.Config(1, 2, 5, 2, 20, 10, 12345);
+        long inserted = TestDataGenerator.generate(helper, heavy, END, null);
+        assertEquals(heavy.expectedRows(), inserted, heavy.expectedRows() * 0.1);
+        assertEquals(sample + inserted, scalar("SELECT COUNT(*) FROM " + DBHelper.T_TX));
+        assertEquals(inserted, scalar("SELECT COUNT(*) FROM " + DBHelper.T_TX +
+                " WHERE " + DBHelper.TX_EMAIL + " = '" + TestDataGenerator.emailOf(0) + "'"));
+        assertTrue(helper.loginValid(TestDataGenerator.emailOf(0), TestDataGenerator.PASSWORD));
+    }
+
+    @Test
+    public void presets_matchTheirDescriptions() {
+        assertEquals(500_000, TestDataGenerator.Config.HEAVY_USER.expectedRows(), 10_000);
+        assertEquals(10, TestDataGenerator.Config.HEAVY_USER.years);
+        assertEquals(1_000, TestDataGenerator.Config.MULTI_TENANT.users);
+        assertEquals("load0@finance.com", TestDataGenerator.emailOf(0));
+        assertEquals("load999@finance.com", TestDataGenerator.emailOf(999));
+    }
+
+    private List<String> dump() {
+        List<String> rows = new ArrayList<>();
+        Cursor c = helper.getReadableDatabase().rawQuery(
+                "SELECT " + DBHelper.TX_EMAIL + ", " + DBHelper.TX_DATE + ", " + DBHelper.TX_AMOUNT + ", " +
+                        DBHelper.TX_CATEGORY_ID + ", " + DBHelper.TX_DESC + ", " + DBHelper.TX_RECURRENCE + ", " +
+                        DBHelper.TX_END_DATE + " FROM " + DBHelper.T_TX + " ORDER BY " + DBHelper.TX_ID, null);
+        while (c.moveToNext()) {
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < c.getColumnCount(); i++) row.append(c.getString(i)).append('|');
+            rows.add(row.toString());
+        }
+        c.close();
+        return rows;
+    }
+
+    private long scalar(String sql) {
+        Cursor c = helper.getReadableDatabase().rawQuery(sql, null);
+        try {
+            c.moveToFirst();
+            return c.getLong(0);
+        } finally {
+            c.close();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.labproject.app.data.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.labproject.app.ui.Models.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link DBHelper#searchTransactions} and the full-text index behind it.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TransactionSearchTest {
+
+    private static final String EMAIL = "search@finance.com";
+    private static final long ALL_FROM = Long.MIN_VALUE;
+    private static final long ALL_TO = Long.MAX_VALUE;
+
+    private Context context;
+    private DBHelper helper;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DBHelper.DB_NAME);
+        helper = new DBHelper(context);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+    }
+
+    @Test
+    public void prefixesOfEveryWord_matchDescriptionOrCategory() {
+        long starbucks = helper.insertTransaction(EMAIL, 2, 5_00, 1000, "Foods", "Coffee at Starbucks");
+        long twice = helper.insertTransaction(EMAIL, 2, 7_00, 2000, "Foods", "coffee, more coffee");
+        long refund = helper.insertTransaction(EMAIL, 1, 9_00, 3000, "Other", "Café refund");
+        long bus = helper.insertTransaction(EMAIL, 2, 1_00, 4000, "Transport", "Bus");
+        helper.insertTransaction("someone@else.com", 2, 1_00, 5000, "Foods", "coffee");
+
+        // more hits rank first, then the newest
+        assertEquals(Arrays.asList(twice, starbucks), ids(search("cof", 0)));
+        assertEquals(Arrays.asList(starbucks), ids(search("COF sta", 0)));
+        // accents and case are ignored
+        assertEquals(Arrays.asList(refund), ids(search("cafe", 0)));
+        assertEquals(Arrays.asList(twice, starbucks), ids(search("food", Transaction.EXPENSE)));
+        assertEquals(Arrays.asList(), ids(search("food", Transaction.INCOME)));
+        assertEquals(Arrays.asList(bus), ids(search("trans", 0)));
+
+        Cursor dated = helper.searchTransactions(EMAIL, "coffee", 0, 1500, 2500, 50);
+        assertEquals(Arrays.asList(twice), ids(dated));
+
+        // operators and quotes are words like any other, and nothing searchable returns nothing
+        assertEquals(Arrays.asList(), ids(search("coffee OR bus", 0)));
+        assertEquals(Arrays.asList(starbucks), ids(search("\"coffee\" -at", 0)));
+        assertEquals(0, search("  -* ", 0).getCount());
+    }
+
+    @Test
+    public void edits_keepTheIndexInStep() {
+        int id = (int) helper.insertTransaction(EMAIL, 2, 5_00, 1000, "Foods", "Coffee");
+
+        helper.updateTransaction(EMAIL, id, 2, 5_00, 1000, "Transport", "Taxi home");
+        assertEquals(0, search("coffee", 0).getCount());
+        assertEquals(0, search("foods", 0).getCount());
+        assertEquals(1, search("taxi", 0).getCount());
+        assertEquals(1, search("transport", 0).getCount());
+
+        // edits that don't touch the text leave it searchable
+        helper.deactivateTransaction(EMAIL, id, 2000);
+        assertEquals(1, search("taxi", 0).getCount());
+
+        helper.deleteTransaction(EMAIL, id);
+        assertEquals(0, search("taxi", 0).getCount());
+        assertEquals(0, scalar("SELECT COUNT(*) FROM " + DBHelper.T_TX_SEARCH));
+    }
+
+    @Test
+    public void upgradeFromVersion11_indexesTheRowsAlreadyThere() {
+        helper.insertTransaction(EMAIL, 2, 5_00, 1000, "Foods", "Coffee");
+        helper.insertTransaction(EMAIL, 2, 6_00, 2000, "Bills", null);
+
+        // back to the v11 schema: no search table or triggers
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.execSQL("DROP TRIGGER trg_tx_search_insert");
+        db.execSQL("DROP TRIGGER trg_tx_search_delete");
+        db.execSQL("DROP TRIGGER trg_tx_search_update");
+        db.execSQL("DROP TABLE " + DBHelper.T_TX_SEARCH);
+        db.setVersion(11);
+        helper.close();
+
+        helper = new DBHelper(context);
+        assertEquals(1, search("coffee", 0).getCount());
+        assertEquals(1, search("bills", 0).getCount());
+        helper.insertTransaction(EMAIL, 2, 7_00, 3000, "Foods", "More coffee");
+        assertEquals(2, search("coffee", 0).getCount());
+    }
+
+    @Test
+    public void ftsQuery_turnsWordsIntoPrefixTerms() {
+        assertEquals("coffee* at*", DBHelper.ftsQuery("  Coffee   at"));
+        assertEquals("or* near* x*", DBHelper.ftsQuery("\"OR\" NEAR/x"));
+        assertEquals("café* 12* 50*", DBHelper.ftsQuery("café 12.50"));
+        assertNull(DBHelper.ftsQuery(" -*() "));
+        assertNull(DBHelper.ftsQuery(null));
+    }
+
+    @Test
+    public void firstPageOfACommonWord_doesNotReadTheWholeTable() {
+        int rows = 100_000;
+        List<Transaction> list = new ArrayList<>(rows);
+        String[] words = {"coffee", "groceries", "rent", "bus pass", "lunch", "gym", "books", "taxi"};
+        for (int i = 0; i < rows; i++) {
+            list.add(new Transaction(0, 1_00 + i % 1000, 1_700_000_000_000L + i * 60_000L, "Category " + (i % 12),
+                    words[i % words.length] + " " + (i % 97), Transaction.EXPENSE));
+        }
+        helper.insertTransactions(EMAIL, list, 10_000, null);
+
+        search("lunch", 0).close();   // warm up
+        long t0 = System.nanoTime();
+        Cursor c = search("lunch", 0);
+        int count = c.getCount();
+        c.close();
+        long nanos = System.nanoTime() - t0;
+
+        System.out.println(String.format(Locale.US, "rows=%d  matches=%d  first page=%d in %.1f ms",
+                rows, rows / words.length, count, nanos / 1e6));
+        assertEquals(50, count);
+        assertTrue("search took " + nanos / 1e6 + " ms", nanos < 500_000_000L);
+    }
+
+    private Cursor search(String query, int type) {
+        return helper.searchTransactions(EMAIL, query, type, ALL_FROM, ALL_TO, 50);
+    }
+
+    private long scalar(String sql) {
+        Cursor c = helper.getReadableDatabase().rawQuery(sql, null);
+        try {
+            c.moveToFirst();
+            return c.getLong(0);
+        } finally {
+            c.close();
+        }
+    }
+
+    private static List<Long> ids(Cursor c) {
+        List<Long> ids = new ArrayList<>();
+        while (c.moveToNext()) ids.add(c.getLong(c.getColumnIndexOrThrow(DBHelper.TX_ID)));
+        c.close();
+        return ids;
+    }
+}
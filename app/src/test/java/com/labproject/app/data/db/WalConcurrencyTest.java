@@ -0,0 +1,100 @@
+package com.labproject.app.data.db;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import com.labproject.app.ui.Models.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * With write-ahead logging, reads must keep completing while a long
+ * batch write holds the write transaction open.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class WalConcurrencyTest {
+
+    private static final String EMAIL = "wal@finance.com";
+
+    private Context context;
+    private DBHelper helper;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(DBHelper.DB_NAME);
+        helper = new DBHelper(context);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DBHelper.DB_NAME);
+    }
+
+    @Test
+    public void walIsEnabled() {
+        assertTrue(helper.getWritableDatabase().isWriteAheadLoggingEnabled());
+        Cursor c = helper.getReadableDatabase().rawQuery("PRAGMA journal_mode", null);
+        assertTrue(c.moveToFirst());
+        assertEquals("wal", c.getString(0).toLowerCase());
+        c.close();
+    }
+
+    @Test
+    public void readersProgressDuringLongBatchWrite() throws Exception {
+        helper.insertTransaction(EMAIL, Transaction.EXPENSE, 10_00, 1_000L, "Foods", "seed");
+
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            rows.add(new Transaction(0, i % 100_00, 2_000L + i, "Bills", "batch", Transaction.EXPENSE));
+        }
+
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            // warm up the writer connection, then hold one long write transaction
+            helper.insertTransactions(EMAIL, rows.subList(0, 1), 0, (done, total) -> writeStarted.countDown());
+            helper.insertTransactions(EMAIL, rows, 0, null);
+            writing.set(false);
+        });
+
+        AtomicInteger readsDuringWrite = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (writing.get()) {
+                Cursor c = helper.getBudgetsForUser(EMAIL);
+                c.getCount();
+                c.close();
+                Cursor tx = helper.getReadableDatabase().rawQuery(
+                        "SELECT COUNT(*) FROM " + DBHelper.T_TX + " WHERE " + DBHelper.TX_EMAIL + "=?",
+                        new String[]{EMAIL});
+                tx.moveToFirst();
+                tx.close();
+                if (writing.get()) readsDuringWrite.incrementAndGet();
+            }
+        });
+
+        writer.start();
+        assertTrue(writeStarted.await(10, TimeUnit.SECONDS));
+        reader.start();
+        writer.join(60_000);
+        reader.join(10_000);
+
+        assertFalse(writing.get());
+        assertTrue("no reads completed while the batch write was running", readsDuringWrite.get() > 0);
+    }
+}
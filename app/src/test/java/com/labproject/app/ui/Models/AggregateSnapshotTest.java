@@ -0,0 +1,81 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AggregateSnapshotTest {
+
+    private static final long DAY = 86_400_000L;
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private final AggregateSnapshot.Counters counters = new AggregateSnapshot.Counters();
+
+    private List<Transaction> rows() {
+        List<Transaction> rows = new ArrayList<>();
+        rows.add(new Transaction(1, 1000_00, 10 * DAY, "Salary", "", Transaction.INCOME, Transaction.RECURRENCE_MONTHLY));
+        rows.add(new Transaction(2, 40_00, 12 * DAY, "Foods", "", Transaction.EXPENSE));
+        rows.add(new Transaction(3, 25_00, 40 * DAY, "Foods", "", Transaction.EXPENSE));
+        rows.add(new Transaction(4, 300_00, 41 * DAY, "Rent", "", Transaction.EXPENSE));
+        return rows;
+    }
+
+    @Test
+    public void repeatedRanges_areAnsweredFromTheMemo() {
+        List<Transaction> rows = rows();
+        AggregateSnapshot snapshot = new AggregateSnapshot(1, rows, new DailyTotalsTree(rows, UTC), counters, UTC);
+
+        PeriodTotals first = snapshot.totals(0, 45 * DAY);
+        assertEquals(2000_00, first.income);
+        assertEquals(365_00, first.expenses);
+        assertEquals(0, counters.hits());
+        assertEquals(1, counters.misses());
+
+        assertSame(first, snapshot.totals(0, 45 * DAY));
+        assertEquals(1, counters.hits());
+
+        snapshot.totals(0, 20 * DAY);
+        assertEquals(2, counters.misses());
+    }
+
+    @Test
+    public void derivedViews_areBuiltOnce() {
+        List<Transaction> rows = rows();
+        AggregateSnapshot snapshot = new AggregateSnapshot(1, rows, new DailyTotalsTree(rows, UTC), counters, UTC);
+
+        List<Transaction> expenses = snapshot.rowsOf(Transaction.EXPENSE);
+        assertEquals(3, expenses.size());
+        assertSame(expenses, snapshot.rowsOf(Transaction.EXPENSE));
+        assertEquals(1, snapshot.rowsOf(Transaction.INCOME).size());
+
+        long[] byCategory = snapshot.categoryTotals(Transaction.EXPENSE);
+        assertEquals(65_00, byCategory[snapshot.columns().categories().idOf("Foods")]);
+        assertSame(byCategory, snapshot.categoryTotals(Transaction.EXPENSE));
+        assertSame(snapshot.columns(), snapshot.columns());
+
+        assertEquals(1000_00, snapshot.income);
+        assertEquals(365_00, snapshot.expenses);
+        assertEquals(2, counters.hits());
+        assertEquals(3, counters.misses());
+    }
+
+    @Test
+    public void olderSnapshot_keepsItsOwnTotalsAfterTheTreesMoveOn() {
+        List<Transaction> rows = rows();
+        DailyTotalsTree tree = new DailyTotalsTree(rows, UTC);
+        AggregateSnapshot before = new AggregateSnapshot(1, rows, tree, counters, UTC);
+
+        List<Transaction> edited = new ArrayList<>(rows);
+        Transaction added = new Transaction(5, 7_00, 12 * DAY + 5000, "Foods", "", Transaction.EXPENSE);
+        edited.add(added);
+        tree.add(added);
+        AggregateSnapshot after = new AggregateSnapshot(2, edited, tree, counters, UTC);
+
+        assertEquals(40_00, before.totals(12 * DAY + 1, 12 * DAY + 2).expenses);
+        assertEquals(47_00, after.totals(12 * DAY + 1, 12 * DAY + 2).expenses);
+    }
+}
@@ -0,0 +1,35 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CategoryDictionaryTest {
+
+    @Test
+    public void intern_givesEachNameOneIdAndOneString() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        assertEquals(0, dictionary.intern("Foods"));
+        assertEquals(1, dictionary.intern("Salary"));
+        assertEquals(0, dictionary.intern(new String("Foods")));
+
+        assertEquals(2, dictionary.size());
+        assertSame(dictionary.name(0), new String("Foods").intern());
+        assertEquals(-1, dictionary.idOf("Rent"));
+        assertNull(dictionary.name(2));
+        assertNull(dictionary.name(-1));
+    }
+
+    @Test
+    public void put_keepsDatabaseIdsAndLeavesGaps() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        dictionary.put(3, "Foods");
+        dictionary.put(40, "Travel");
+
+        assertEquals(41, dictionary.size());
+        assertEquals(40, dictionary.idOf("Travel"));
+        assertNull(dictionary.name(7));
+        // new names go after the highest id, never into a gap
+        assertEquals(41, dictionary.intern("Rent"));
+    }
+}
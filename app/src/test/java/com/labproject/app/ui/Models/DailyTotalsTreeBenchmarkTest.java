@@ -0,0 +1,81 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 10k random custom ranges over a 10-year history: a full pass over the
+ * columnar snapshot per range against two Fenwick prefix sums per tree.
+ *
+ * Both paths must agree; the timings are only printed. Pass
+ * -Dperf.assertTimings=true to also fail when the trees are not faster.
+ */
+public class DailyTotalsTreeBenchmarkTest {
+
+    private static final long DAY = 86_400_000L;
+    private static final int YEARS = 10;
+    private static final int ROWS = 100_000;
+    private static final int RANGES = 10_000;
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final boolean ASSERT_TIMINGS = Boolean.getBoolean("perf.assertTimings");
+
+    @Test
+    public void tenThousandRanges_overTenYears() {
+        Random random = new Random(42);
+        int historyDays = YEARS * 365;
+        List<Transaction> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Transaction(i, 1 + random.nextInt(50_000),
+                    (long) random.nextInt(historyDays) * DAY + random.nextInt((int) DAY),
+                    "Category " + random.nextInt(20), "", 1 + random.nextInt(2),
+                    i % 500 == 0 ? Transaction.RECURRENCE_MONTHLY : Transaction.RECURRENCE_ONCE));
+        }
+
+        long[][] ranges = new long[RANGES][];
+        for (int i = 0; i < RANGES; i++) {
+            long a = random.nextInt(historyDays), b = random.nextInt(historyDays);
+            ranges[i] = new long[]{Math.min(a, b) * DAY, (Math.max(a, b) + 1) * DAY - 1};
+        }
+
+        long t0 = System.nanoTime();
+        DailyTotalsTree tree = new DailyTotalsTree(rows, UTC);
+        long buildNanos = System.nanoTime() - t0;
+        TransactionColumns columns = new TransactionColumns(rows);
+
+        // both paths agree on a sample before anything is timed
+        for (int i = 0; i < 50; i++) {
+            PeriodTotals expected = columns.totals(new Recurrence.Window(ranges[i][0], ranges[i][1], UTC));
+            PeriodTotals actual = tree.totals(ranges[i][0], ranges[i][1]);
+            assertEquals(expected.income, actual.income);
+            assertEquals(expected.expenses, actual.expenses);
+        }
+
+        long sink = 0;
+        t0 = System.nanoTime();
+        for (long[] r : ranges) sink += tree.totals(r[0], r[1]).expenses;
+        long treeNanos = System.nanoTime() - t0;
+
+        // the linear pass is timed on a hundredth of the ranges and scaled up
+        t0 = System.nanoTime();
+        for (int i = 0; i < RANGES / 100; i++) {
+            sink += columns.totals(new Recurrence.Window(ranges[i][0], ranges[i][1], UTC)).expenses;
+        }
+        long scanNanos = (System.nanoTime() - t0) * 100;
+
+        System.out.println(String.format(Locale.US,
+                "rows=%d days=%d ranges=%d  build=%.1f ms  tree=%.1f ms (%.1f us/range)  scan=%.0f ms (%.0f us/range)  [%d]",
+                ROWS, historyDays, RANGES, buildNanos / 1e6, treeNanos / 1e6, treeNanos / 1e3 / RANGES,
+                scanNanos / 1e6, scanNanos / 1e3 / RANGES, sink % 10));
+        if (ASSERT_TIMINGS) {
+            assertTrue("trees took " + treeNanos / 1e6 + " ms, the scan " + scanNanos / 1e6 + " ms",
+                    treeNanos < scanNanos);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DailyTotalsTreeTest {
+
+    private static final long DAY = 86_400_000L;
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final String[] KINDS = {
+            Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_ONCE,
+            Transaction.RECURRENCE_WEEKLY, Transaction.RECURRENCE_MONTHLY
+    };
+
+    private final Random random = new Random(11);
+
+    @Test
+    public void rangeTotals_matchTheRowsAfterAddsEditsAndRemoves() {
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) rows.add(randomRow(i, 1000));
+        DailyTotalsTree tree = new DailyTotalsTree(rows, UTC);
+        assertMatchesRows(tree, rows);
+
+        for (int i = 0; i < 500; i++) {
+            int index = random.nextInt(rows.size());
+            switch (random.nextInt(3)) {
+                case 0:
+                    tree.remove(rows.remove(index));
+                    break;
+                case 1:
+                    Transaction edited = rows.get(index).copy();
+                    edited.amountCents = 1 + random.nextInt(10_000);
+                    edited.dateMillis += (random.nextInt(21) - 10) * DAY;
+                    edited.category = "Category " + random.nextInt(15);
+                    tree.remove(rows.set(index, edited));
+                    tree.add(edited);
+                    break;
+                default:
+                    Transaction added = randomRow(10_000 + i, 1000);
+                    rows.add(added);
+                    tree.add(added);
+            }
+        }
+        assertMatchesRows(tree, rows);
+    }
+
+    @Test
+    public void rowsOutsideTheCoveredDays_growTheTrees() {
+        List<Transaction> rows = new ArrayList<>();
+        DailyTotalsTree tree = new DailyTotalsTree(rows, UTC);
+        assertEquals(0, tree.totals(0, 10_000 * DAY).expenses);
+
+        long[] days = {500, 499, 2000, 10, 5000, 4999};
+        for (int i = 0; i < days.length; i++) {
+            Transaction t = new Transaction(i, 1_00 + i, days[i] * DAY + 3_600_000, "Foods", "", Transaction.EXPENSE);
+            rows.add(t);
+            tree.add(t);
+        }
+        assertMatchesRows(tree, rows);
+        assertEquals(1_00 + 1_01, tree.sum(Transaction.EXPENSE, 499 * DAY, 500 * DAY));
+        assertEquals(0, tree.sum(Transaction.INCOME, 0, 6000 * DAY));
+    }
+
+    @Test
+    public void rangesCountWholeDays() {
+        List<Transaction> rows = new ArrayList<>();
+        rows.add(new Transaction(1, 5_00, 10 * DAY + 1, "Foods", "", Transaction.EXPENSE));
+        rows.add(new Transaction(2, 7_00, 11 * DAY - 1, "Foods", "", Transaction.EXPENSE));
+        DailyTotalsTree tree = new DailyTotalsTree(rows, UTC);
+
+        // any instant of day 10 stands for the whole day
+        assertEquals(12_00, tree.totals(10 * DAY + 5000, 10 * DAY + 6000).expenses);
+        assertEquals(0, tree.totals(9 * DAY, 10 * DAY - 1).expenses);
+    }
+
+    private void assertMatchesRows(DailyTotalsTree tree, List<Transaction> rows) {
+        for (int q = 0; q < 200; q++) {
+            long startDay = random.nextInt(1200) - 100;
+            long endDay = startDay + random.nextInt(400);
+            long start = startDay * DAY, end = (endDay + 1) * DAY - 1;
+            Recurrence.Window window = new Recurrence.Window(start, end, UTC);
+
+            PeriodTotals actual = tree.totals(start, end);
+            CategoryDictionary categories = actual.categories;
+            PeriodTotals expected = new PeriodTotals(categories);
+            for (Transaction t : rows) expected.add(t.type, categories.idOf(t.category), window.amountOf(t));
+
+            String range = "days " + startDay + ".." + endDay;
+            assertEquals(range, expected.income, actual.income);
+            assertEquals(range, expected.expenses, actual.expenses);
+            assertEquals(range, expected.income, tree.sum(Transaction.INCOME, start, end));
+            assertEquals(range, expected.expenses, tree.sum(Transaction.EXPENSE, start, end));
+            for (int id = 0; id < categories.size(); id++) {
+                assertEquals(range, at(expected.incomeByCategory, id), at(actual.incomeByCategory, id));
+                assertEquals(range, at(expected.expensesByCategory, id), at(actual.expensesByCategory, id));
+            }
+        }
+    }
+
+    private static long at(long[] totals, int id) {
+        return id < totals.length ? totals[id] : 0;
+    }
+
+    private Transaction randomRow(int id, int days) {
+        Transaction t = new Transaction(id, 1 + random.nextInt(10_000),
+                (long) random.nextInt(days) * DAY + random.nextInt((int) DAY),
+                "Category " + random.nextInt(12), "", 1 + random.nextInt(2), KINDS[random.nextInt(KINDS.length)]);
+        if (random.nextInt(5) == 0) t.endDateMillis = t.dateMillis + (long) (random.nextInt(300) - 50) * DAY;
+        t.isActive = random.nextInt(6) != 0;
+        return t;
+    }
+}
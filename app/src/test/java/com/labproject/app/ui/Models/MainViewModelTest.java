@@ -0,0 +1,113 @@
+package com.labproject.app.ui.Models;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM tests for the background load path of {@link MainViewModel}.
+ */
+public class MainViewModelTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final ExecutorService worker = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+    }
+
+    @Test
+    public void overlappingLoads_onlyNewestResultIsPublished() throws Exception {
+        MainViewModel vm = new MainViewModel(worker);
+
+        List<List<Transaction>> published = Collections.synchronizedList(new ArrayList<>());
+        vm.getTransactions().observeForever(list -> {
+            if (!list.isEmpty()) published.add(list);
+        });
+
+        CountDownLatch oldStarted = new CountDownLatch(1);
+        CountDownLatch releaseOld = new CountDownLatch(1);
+        CountDownLatch oldFinished = new CountDownLatch(1);
+        CountDownLatch newFinished = new CountDownLatch(1);
+
+        // slow, older load that ignores interruption and finishes last
+        vm.submitLoad(() -> {
+            oldStarted.countDown();
+            awaitUninterruptibly(releaseOld);
+            oldFinished.countDown();
+            return listOf(tx(1, 10_00, Transaction.INCOME));
+        });
+        assertTrue(oldStarted.await(5, TimeUnit.SECONDS));
+
+        // newer load finishes first
+        vm.submitLoad(() -> {
+            newFinished.countDown();
+            return listOf(tx(2, 25_00, Transaction.EXPENSE));
+        });
+        assertTrue(newFinished.await(5, TimeUnit.SECONDS));
+
+        releaseOld.countDown();
+        assertTrue(oldFinished.await(5, TimeUnit.SECONDS));
+        worker.shutdown();
+        assertTrue(worker.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, published.size());
+        assertEquals(2, published.get(0).get(0).id);
+        assertEquals(2, vm.getTransactions().getValue().get(0).id);
+        assertEquals(0, (long) vm.getIncome().getValue());
+        assertEquals(25_00, (long) vm.getExpenses().getValue());
+        assertFalse(vm.isLoading().getValue());
+    }
+
+    @Test
+    public void failedLoad_clearsLoadingFlag() throws Exception {
+        MainViewModel vm = new MainViewModel(worker);
+
+        vm.submitLoad(() -> {
+            throw new IllegalStateException("db closed");
+        });
+        worker.shutdown();
+        assertTrue(worker.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertFalse(vm.isLoading().getValue());
+        assertTrue(vm.getTransactions().getValue().isEmpty());
+    }
+
+    private static Transaction tx(int id, long amountCents, int type) {
+        return new Transaction(id, amountCents, 0L, "Other", "", type);
+    }
+
+    private static List<Transaction> listOf(Transaction t) {
+        List<Transaction> list = new ArrayList<>();
+        list.add(t);
+        return list;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
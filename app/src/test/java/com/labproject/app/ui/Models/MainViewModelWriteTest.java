@@ -0,0 +1,181 @@
+package com.labproject.app.ui.Models;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.labproject.app.data.db.DBHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * The write path of {@link MainViewModel}: edits show up in memory straight away,
+ * failed writes are undone, and reloads only happen when the database moved on.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MainViewModelWriteTest {
+
+    private static final String EMAIL = "a@b.com";
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    private Context context;
+    private CountingHelper db;
+    private MainViewModel vm;
+
+    @Before
+    public void setUp() throws Exception {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase("labproject.db");
+        db = new CountingHelper(context);
+        db.insertTransaction(EMAIL, Transaction.INCOME, 100_00, 2000, "Salary", "pay");
+        db.insertTransaction(EMAIL, Transaction.EXPENSE, 40_00, 1000, "Foods", "lunch");
+
+        vm = new MainViewModel(loader, writer);
+        vm.loadTransactions(db, EMAIL);
+        drain(loader);
+    }
+
+    @After
+    public void tearDown() {
+        loader.shutdownNow();
+        writer.shutdownNow();
+        db.close();
+        context.deleteDatabase("labproject.db");
+    }
+
+    @Test
+    public void insert_showsBeforeTheWriteAndKeepsItsId() throws Exception {
+        CountDownLatch release = blockWriter();
+
+        vm.addExpense(db, EMAIL, 15_00, 3000, "Transport", "bus");
+
+        List<Transaction> shown = vm.getTransactions().getValue();
+        assertEquals(3, shown.size());
+        Transaction bus = shown.get(0);
+        assertEquals("bus", bus.description);
+        assertEquals(55_00, (long) vm.getExpenses().getValue());
+
+        release.countDown();
+        drain(writer);
+
+        // the published row is never touched; its temp id still reaches the database row
+        assertSame(bus, vm.getTransactions().getValue().get(0));
+        assertTrue(bus.id < 0);
+        assertEquals(3, count());
+
+        Transaction edited = bus.copy();
+        edited.amountCents = 20_00;
+        vm.updateTransaction(db, EMAIL, edited);
+        drain(writer);
+        assertEquals(60_00, (long) vm.getExpenses().getValue());
+        assertEquals(60_00, db.getAllTimeTotals(EMAIL).expenses);
+
+        vm.deleteTransaction(db, EMAIL, bus.id);
+        drain(writer);
+        assertEquals(2, vm.getTransactions().getValue().size());
+        assertEquals(2, count());
+    }
+
+    @Test
+    public void failedWrite_isRolledBack() throws Exception {
+        db.failUpdates.set(true);
+        Transaction lunch = vm.getTransactions().getValue().get(1).copy();
+        CountDownLatch release = blockWriter();
+
+        lunch.amountCents = 90_00;
+        vm.updateTransaction(db, EMAIL, lunch);
+        assertEquals(90_00, (long) vm.getExpenses().getValue());
+
+        release.countDown();
+        drain(writer);
+
+        assertEquals(40_00, (long) vm.getExpenses().getValue());
+        assertEquals(40_00, vm.getTransactions().getValue().get(1).amountCents);
+    }
+
+    @Test
+    public void ownWrites_doNotTriggerAReload_outsideWritesDo() throws Exception {
+        int loads = db.fullReads.get();
+        int lunchId = vm.getTransactions().getValue().get(1).id;
+
+        vm.deleteTransaction(db, EMAIL, lunchId);
+        drain(writer);
+        vm.loadTransactions(db, EMAIL);
+        drain(loader);
+        assertEquals(loads, db.fullReads.get());
+        assertEquals(0, (long) vm.getExpenses().getValue());
+
+        db.insertTransaction(EMAIL, Transaction.EXPENSE, 5_00, 500, "Foods", "snack");
+        vm.loadTransactions(db, EMAIL);
+        drain(loader);
+        assertEquals(loads + 1, db.fullReads.get());
+        assertEquals(5_00, (long) vm.getExpenses().getValue());
+    }
+
+    private CountDownLatch blockWriter() {
+        CountDownLatch release = new CountDownLatch(1);
+        writer.execute(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        return release;
+    }
+
+    private static void drain(ExecutorService executor) throws Exception {
+        executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    private int count() {
+        Cursor c = db.getTransactionsForUser(EMAIL);
+        int n = c.getCount();
+        c.close();
+        return n;
+    }
+
+    private static class CountingHelper extends DBHelper {
+        final AtomicInteger fullReads = new AtomicInteger();
+        final AtomicBoolean failUpdates = new AtomicBoolean();
+
+        CountingHelper(Context context) {
+            super(context);
+        }
+
+        @Override
+        public Cursor getTransactionsForUser(String email) {
+            fullReads.incrementAndGet();
+            return super.getTransactionsForUser(email);
+        }
+
+        @Override
+        public boolean updateTransaction(String email, int id, int type, long amountCents, long dateMillis,
+                                         String category, String desc, String recurrence,
+                                         boolean isActive, long endDateMillis) {
+            if (failUpdates.get()) return false;
+            return super.updateTransaction(email, id, type, amountCents, dateMillis, category, desc,
+                    recurrence, isActive, endDateMillis);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sorting by picking a permutation kept per snapshot, against filtering and
+ * then sorting with a fresh comparator on every chip tap, as the screens did.
+ */
+public class PermutationsTest {
+
+    private static final int ROWS = 100_000;
+
+    @Test
+    public void permutations_giveTheSameListAsAStableSort() {
+        List<Transaction> rows = expenses(5_000, 1);
+        TransactionSearchIndex index = new TransactionSearchIndex(rows);
+        for (int mode = 0; mode < 4; mode++) {
+            List<Transaction> expected = new ArrayList<>(rows);
+            Collections.sort(expected, comparator(mode));
+            assertEquals("mode " + mode, expected, rowsOf(index, index.order(mode)));
+        }
+
+        List<Budget> budgets = budgets(500, 2);
+        BudgetOrders orders = new BudgetOrders(budgets);
+        boolean[] keep = new boolean[budgets.size()];
+        for (int i = 0; i < keep.length; i++) keep[i] = i % 3 != 0;
+        for (int mode = 0; mode < 4; mode++) {
+            List<Budget> expected = new ArrayList<>();
+            for (int i = 0; i < keep.length; i++) if (keep[i]) expected.add(budgets.get(i));
+            Collections.sort(expected, budgetComparator(mode));
+            assertEquals("budget mode " + mode, expected, orders.sorted(mode, keep));
+        }
+    }
+
+    @Test
+    public void switchingSortOverAHundredThousandRows() {
+        List<Transaction> rows = expenses(ROWS, 3);
+        TransactionSearchIndex index = new TransactionSearchIndex(rows);
+        // a filter that keeps about half the rows
+        int[] matches = index.match("taxi");
+
+        long t0 = System.nanoTime();
+        for (int mode = 0; mode < 4; mode++) index.order(mode);
+        long buildNanos = System.nanoTime() - t0;
+
+        for (int round = 0; round < 3; round++) {   // warm up both
+            for (int mode = 0; mode < 4; mode++) {
+                sortWithComparator(index, matches, mode);
+                selectFromPermutation(index, matches, mode);
+            }
+        }
+
+        long comparatorNanos = 0, permutationNanos = 0;
+        for (int mode = 0; mode < 4; mode++) {
+            long start = System.nanoTime();
+            List<Transaction> sorted = sortWithComparator(index, matches, mode);
+            comparatorNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Transaction> picked = selectFromPermutation(index, matches, mode);
+            permutationNanos += System.nanoTime() - start;
+
+            assertEquals(sorted, picked);
+        }
+
+        System.out.println(String.format(Locale.US,
+                "rows=%d kept=%d  permutations built once: %.1f ms  per switch: comparator sort %.2f ms, "
+                        + "permutation %.2f ms",
+                ROWS, matches.length, buildNanos / 1e6, comparatorNanos / 4e6, permutationNanos / 4e6));
+        assertTrue("switch took " + permutationNanos / 4e6 + " ms", permutationNanos / 4 < 16_000_000L);
+    }
+
+    // what the fragments did on every filter or sort change
+    private static List<Transaction> sortWithComparator(TransactionSearchIndex index, int[] matches, int mode) {
+        List<Transaction> filtered = new ArrayList<>(matches.length);
+        for (int position : matches) filtered.add(index.row(position));
+        Collections.sort(filtered, comparator(mode));
+        return filtered;
+    }
+
+    private static List<Transaction> selectFromPermutation(TransactionSearchIndex index, int[] matches, int mode) {
+        boolean[] keep = new boolean[index.size()];
+        for (int position : matches) keep[position] = true;
+        return rowsOf(index, Permutations.select(index.order(mode), keep));
+    }
+
+    private static List<Transaction> rowsOf(TransactionSearchIndex index, int[] positions) {
+        List<Transaction> out = new ArrayList<>(positions.length);
+        for (int position : positions) out.add(index.row(position));
+        return out;
+    }
+
+    private static Comparator<Transaction> comparator(int mode) {
+        switch (mode) {
+            case TransactionSearch.SORT_DATE_ASC:
+                return (a, b) -> Long.compare(a.dateMillis, b.dateMillis);
+            case TransactionSearch.SORT_AMOUNT_DESC:
+                return (a, b) -> Long.compare(b.amountCents, a.amountCents);
+            case TransactionSearch.SORT_AMOUNT_ASC:
+                return (a, b) -> Long.compare(a.amountCents, b.amountCents);
+            default:
+                return (a, b) -> Long.compare(b.dateMillis, a.dateMillis);
+        }
+    }
+
+    private static Comparator<Budget> budgetComparator(int mode) {
+        switch (mode) {
+            case BudgetOrders.SORT_LIMIT_DESC:
+                return (a, b) -> Long.compare(b.limitCents, a.limitCents);
+            case BudgetOrders.SORT_LIMIT_ASC:
+                return (a, b) -> Long.compare(a.limitCents, b.limitCents);
+            case BudgetOrders.SORT_USAGE:
+                return (a, b) -> Double.compare((double) b.spentCents / b.limitCents,
+                        (double) a.spentCents / a.limitCents);
+            default:
+                return (a, b) -> a.category.compareToIgnoreCase(b.category);
+        }
+    }
+
+    private static List<Transaction> expenses(int count, long seed) {
+        Random random = new Random(seed);
+        List<Transaction> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // coarse dates and amounts, so ties are common and stability matters
+            rows.add(new Transaction(i + 1, 100 * (1 + random.nextInt(500)),
+                    1_700_000_000_000L - random.nextInt(3_000) * 86_400_000L,
+                    "Category " + random.nextInt(20), random.nextBoolean() ? "taxi" : "bus", Transaction.EXPENSE));
+        }
+        return rows;
+    }
+
+    private static List<Budget> budgets(int count, long seed) {
+        Random random = new Random(seed);
+        List<Budget> budgets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Budget b = new Budget(i + 1, (random.nextBoolean() ? "food " : "Food ") + random.nextInt(30),
+                    100 * (1 + random.nextInt(50)), "monthly", 80);
+            b.spentCents = 100 * random.nextInt(60);
+            budgets.add(b);
+        }
+        return budgets;
+    }
+}
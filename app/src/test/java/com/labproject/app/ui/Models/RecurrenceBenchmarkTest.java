@@ -0,0 +1,63 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Evaluates 100k recurring transactions against a custom 400-day range.
+ */
+public class RecurrenceBenchmarkTest {
+
+    private static final int ITEMS = 100_000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void hundredThousandRecurringRows_evaluateInMilliseconds() {
+        Random random = new Random(42);
+        long day = 24L * 60 * 60 * 1000;
+        long now = 1_730_000_000_000L;
+        String[] kinds = {
+                Transaction.RECURRENCE_WEEKLY, Transaction.RECURRENCE_MONTHLY, Transaction.RECURRENCE_YEARLY
+        };
+
+        List<Transaction> rows = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            Transaction t = new Transaction(i, 1 + random.nextInt(50_000), now - (long) (random.nextDouble() * 3000 * day),
+                    "Category " + (i % 20), "bench", 1 + random.nextInt(2), kinds[i % kinds.length]);
+            if (i % 5 == 0) t.endDateMillis = t.dateMillis + (long) (random.nextDouble() * 1500 * day);
+            rows.add(t);
+        }
+
+        Recurrence.Window window = new Recurrence.Window(now - 400 * day, now, ZoneId.of("Europe/Berlin"));
+
+        // warm up
+        long expected = total(rows, window);
+        assertTrue(expected > 0);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long t0 = System.nanoTime();
+            long sum = total(rows, window);
+            best = Math.min(best, System.nanoTime() - t0);
+            assertEquals(expected, sum);
+        }
+
+        System.out.println(String.format(Locale.US,
+                "recurring rows=%d  400-day range  best of %d=%.2f ms", ITEMS, ROUNDS, best / 1e6));
+        // generous so a slow CI machine does not flake; typically well under 100 ms
+        assertTrue("took " + best / 1e6 + " ms", best < 1_000_000_000L);
+    }
+
+    private static long total(List<Transaction> rows, Recurrence.Window window) {
+        long sum = 0;
+        for (Transaction t : rows) sum += window.amountOf(t);
+        return sum;
+    }
+}
@@ -0,0 +1,122 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RecurrenceTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    // has DST switches, so weekly steps are not a fixed number of millis
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Test
+    public void monthly_clampsToMonthEndAndKeepsTheOriginalDay() {
+        long jan31 = millis(2024, 1, 31, UTC);
+
+        // Jan 31, Feb 29, Mar 31, Apr 30
+        assertEquals(4, window(2024, 1, 1, 2024, 4, 30, UTC).count(monthly(jan31)));
+        // a February window catches the clamped occurrence
+        assertEquals(1, window(2024, 2, 29, 2024, 2, 29, UTC).count(monthly(jan31)));
+        // back on the 31st in March, not stuck on the 29th
+        assertEquals(0, window(2024, 3, 29, 2024, 3, 30, UTC).count(monthly(jan31)));
+        assertEquals(1, window(2024, 3, 31, 2024, 3, 31, UTC).count(monthly(jan31)));
+    }
+
+    @Test
+    public void yearly_leapDayFallsBackToFebruary28() {
+        Transaction t = tx(Transaction.RECURRENCE_YEARLY, millis(2024, 2, 29, UTC));
+
+        assertEquals(1, window(2025, 2, 28, 2025, 2, 28, UTC).count(t));
+        assertEquals(1, window(2028, 2, 29, 2028, 2, 29, UTC).count(t));
+        assertEquals(5, window(2024, 1, 1, 2028, 12, 31, UTC).count(t));
+    }
+
+    @Test
+    public void endDateAndInactiveFlagStopOccurrences() {
+        Transaction t = monthly(millis(2024, 1, 15, UTC));
+        t.endDateMillis = millis(2024, 3, 20, UTC);
+        assertEquals(3, window(2024, 1, 1, 2024, 12, 31, UTC).count(t));
+
+        // deactivated rows keep counting up to the day they were deactivated
+        t.isActive = false;
+        assertEquals(3, window(2024, 1, 1, 2024, 12, 31, UTC).count(t));
+
+        t.endDateMillis = Transaction.NO_END_DATE;
+        assertEquals(0, window(2024, 1, 1, 2024, 12, 31, UTC).count(t));
+    }
+
+    @Test
+    public void oneTimeRows_countOnlyInsideTheWindow() {
+        Transaction t = tx(Transaction.RECURRENCE_ONCE, millis(2024, 5, 10, UTC));
+        assertEquals(1, window(2024, 5, 1, 2024, 5, 31, UTC).count(t));
+        assertEquals(0, window(2024, 6, 1, 2024, 6, 30, UTC).count(t));
+        assertEquals(0, window(2024, 4, 1, 2024, 4, 30, UTC).count(t));
+    }
+
+    @Test
+    public void matchesStepByStepCountingOnRandomRows() {
+        Random random = new Random(42);
+        String[] kinds = {
+                Transaction.RECURRENCE_WEEKLY, Transaction.RECURRENCE_MONTHLY, Transaction.RECURRENCE_YEARLY
+        };
+        for (ZoneId zone : new ZoneId[]{UTC, NEW_YORK}) {
+            for (int i = 0; i < 2000; i++) {
+                LocalDateTime date = LocalDateTime.of(2015 + random.nextInt(10), 1 + random.nextInt(12),
+                        1 + random.nextInt(28), random.nextInt(24), random.nextInt(60));
+                if (random.nextInt(4) == 0) date = date.withDayOfMonth(date.toLocalDate().lengthOfMonth());
+
+                Transaction t = tx(kinds[random.nextInt(kinds.length)], date.atZone(zone).toInstant().toEpochMilli());
+                if (random.nextBoolean()) t.endDateMillis = t.dateMillis + (long) random.nextInt(2000) * 86_400_000L;
+
+                long start = t.dateMillis + (long) (random.nextInt(3000) - 1000) * 86_400_000L + random.nextInt(86_400_000);
+                long end = start + (long) random.nextInt(800) * 86_400_000L + random.nextInt(86_400_000);
+                Recurrence.Window w = new Recurrence.Window(start, end, zone);
+
+                assertEquals(t.recurrence + " " + date + " in " + zone, bruteForce(t, start, end, zone), w.count(t));
+            }
+        }
+    }
+
+    // walk every occurrence from the first one
+    private static long bruteForce(Transaction t, long start, long end, ZoneId zone) {
+        LocalDateTime base = LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(t.dateMillis), zone);
+        long last = t.endDateMillis == Transaction.NO_END_DATE ? end : Math.min(end, t.endDateMillis);
+        long n = 0;
+        for (int k = 0; ; k++) {
+            LocalDateTime at;
+            switch (t.recurrence) {
+                case Transaction.RECURRENCE_WEEKLY: at = base.plusWeeks(k); break;
+                case Transaction.RECURRENCE_MONTHLY: at = base.plusMonths(k); break;
+                default: at = base.plusYears(k); break;
+            }
+            long millis = at.atZone(zone).toInstant().toEpochMilli();
+            if (millis > last) return n;
+            if (millis >= start) n++;
+        }
+    }
+
+    private static Transaction monthly(long dateMillis) {
+        return tx(Transaction.RECURRENCE_MONTHLY, dateMillis);
+    }
+
+    private static Transaction tx(String recurrence, long dateMillis) {
+        return new Transaction(1, 10_00, dateMillis, "Rent", "", Transaction.EXPENSE, recurrence);
+    }
+
+    private static long millis(int y, int m, int d, ZoneId zone) {
+        return LocalDate.of(y, m, d).atTime(12, 0).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static Recurrence.Window window(int y1, int m1, int d1, int y2, int m2, int d2, ZoneId zone) {
+        return new Recurrence.Window(
+                LocalDate.of(y1, m1, d1).atStartOfDay(zone).toInstant().toEpochMilli(),
+                LocalDate.of(y2, m2, d2).atTime(23, 59, 59).atZone(zone).toInstant().toEpochMilli(),
+                zone);
+    }
+}
@@ -0,0 +1,146 @@
+package com.labproject.app.ui.Models;
+
+import android.content.Context;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.labproject.app.data.db.DBHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Calendar;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * The statistics snapshot and its reuse by {@link MainViewModel}: computed once
+ * per data version, recomputed after a write. Also the home screen's snapshot,
+ * read on the same worker.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StatisticsSnapshotTest {
+
+    private static final String EMAIL = "a@b.com";
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private Context context;
+    private DBHelper db;
+    private long now;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase("labproject.db");
+        db = new DBHelper(context);
+
+        Calendar cal = Calendar.getInstance();
+        cal.set(Calendar.DAY_OF_MONTH, 15);
+        cal.set(Calendar.HOUR_OF_DAY, 12);
+        now = cal.getTimeInMillis();
+        cal.add(Calendar.MONTH, -1);
+        long lastMonth = cal.getTimeInMillis();
+        cal.add(Calendar.MONTH, -9);
+        long longAgo = cal.getTimeInMillis();
+
+        db.insertTransaction(EMAIL, Transaction.INCOME, 1000_00, lastMonth, "Salary", "pay", Transaction.RECURRENCE_MONTHLY);
+        db.insertTransaction(EMAIL, Transaction.EXPENSE, 200_00, lastMonth, "Rent", "rent");
+        db.insertTransaction(EMAIL, Transaction.EXPENSE, 300_00, now, "Rent", "rent");
+        db.insertTransaction(EMAIL, Transaction.EXPENSE, 50_00, now, "Foods", "lunch");
+        db.insertTransaction(EMAIL, Transaction.EXPENSE, 10_00, longAgo, "Foods", "old");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        db.close();
+        context.deleteDatabase("labproject.db");
+    }
+
+    @Test
+    public void compute_fillsEveryFigure() {
+        StatisticsSnapshot s = StatisticsSnapshot.compute(db, EMAIL, now);
+
+        assertTrue(s.hasData);
+        assertEquals(2000_00, s.totalIncome);
+        assertEquals(560_00, s.totalExpense);
+        assertEquals(1000_00, s.currentMonthIncome);
+        assertEquals(350_00, s.currentMonthExpense);
+        assertEquals(1000_00, s.lastMonthIncome);
+        assertEquals(200_00, s.lastMonthExpense);
+        assertEquals(0.0, s.incomeChange, 1e-9);
+        assertEquals(75.0, s.expenseChange, 1e-9);
+        assertEquals(72.0, s.savingsRate, 1e-9);
+        assertEquals("Rent", s.topCategory);
+        assertEquals(500_00, s.topCategoryAmount);
+
+        assertEquals(StatisticsSnapshot.TREND_MONTHS, s.trendMonths.length);
+        assertArrayEquals(new long[]{0, 0, 0, 0, 1000_00, 1000_00}, s.trendIncome);
+        assertArrayEquals(new long[]{0, 0, 0, 0, 200_00, 350_00}, s.trendExpense);
+        assertEquals(2, s.categoryNames.size());
+    }
+
+    @Test
+    public void compute_withoutRows_hasNoData() {
+        StatisticsSnapshot s = StatisticsSnapshot.compute(db, "nobody@b.com", now);
+        assertFalse(s.hasData);
+        assertNull(s.topCategory);
+        assertTrue(Double.isNaN(s.savingsRate));
+    }
+
+    @Test
+    public void viewModel_reusesTheSnapshotUntilTheDataChanges() throws Exception {
+        MainViewModel vm = new MainViewModel(executor, executor);
+
+        vm.loadStatistics(db, EMAIL);
+        drain();
+        StatisticsSnapshot first = vm.getStatistics().getValue();
+        assertNotNull(first);
+
+        vm.loadStatistics(db, EMAIL);
+        drain();
+        assertSame(first, vm.getStatistics().getValue());
+
+        db.insertTransaction(EMAIL, Transaction.EXPENSE, 1_00, now, "Foods", "snack");
+        vm.loadStatistics(db, EMAIL);
+        drain();
+        assertNotSame(first, vm.getStatistics().getValue());
+        assertEquals(first.totalExpense + 1_00, vm.getStatistics().getValue().totalExpense);
+    }
+
+    @Test
+    public void home_hasAllTimeTotalsAndEvaluatedBudgets() throws Exception {
+        db.insertBudget(EMAIL, "Rent", 400_00, "monthly", 80);
+        db.insertBudget(EMAIL, "Foods", 40_00, "monthly", 80);
+
+        HomeSnapshot home = HomeSnapshot.compute(db, EMAIL, now);
+        // face value: the monthly salary counts once
+        assertEquals(1000_00, home.allTimeIncome);
+        assertEquals(560_00, home.allTimeExpenses);
+        assertEquals(2, home.budgets.size());
+        assertEquals(1, home.alerts.size());
+        assertEquals("Foods", home.alerts.get(0).category);
+        assertTrue(home.alerts.get(0).isOverBudget());
+
+        MainViewModel vm = new MainViewModel(executor, executor);
+        vm.loadHome(db, EMAIL);
+        drain();
+        assertEquals(560_00, vm.getHome().getValue().allTimeExpenses);
+        assertEquals(2, vm.getHome().getValue().budgets.size());
+    }
+
+    private void drain() throws Exception {
+        executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,134 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Full-aggregation time of 1M transactions as objects versus as columns, the
+ * heap the columns add on top of the objects (the screens keep both), and the
+ * cost of summing cents as long against dollars as double.
+ */
+public class TransactionColumnsBenchmarkTest {
+
+    private static final int ITEMS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void millionRows_columnsAreFaster_andAddLessThanTheObjects() {
+        Random random = new Random(42);
+        long day = 24L * 60 * 60 * 1000;
+        long now = 1_730_000_000_000L;
+        String[] categories = new String[20];
+        for (int i = 0; i < categories.length; i++) categories[i] = "Category " + i;
+
+        long before = usedHeap();
+        List<Transaction> rows = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            Transaction t = new Transaction(i, 1 + random.nextInt(50_000),
+                    now - (long) (random.nextDouble() * 3000 * day), categories[random.nextInt(categories.length)],
+                    "row " + i, 1 + random.nextInt(2),
+                    i % 50 == 0 ? Transaction.RECURRENCE_MONTHLY : Transaction.RECURRENCE_ONCE);
+            rows.add(t);
+        }
+        long objectBytes = usedHeap() - before;
+
+        before = usedHeap();
+        TransactionColumns columns = new TransactionColumns(rows);
+        long columnBytes = usedHeap() - before;
+
+        Recurrence.Window window = new Recurrence.Window(now - 3000 * day, now, ZoneId.of("UTC"));
+
+        // warm up, and both paths must agree
+        Map<String, Long> expected = byCategory(rows, window);
+        PeriodTotals actual = columns.totals(window);
+        assertEquals(expected.size(), columns.categoryCount());
+        for (Map.Entry<String, Long> e : expected.entrySet()) {
+            assertEquals((long) e.getValue(), actual.expensesByCategory[columns.categories().idOf(e.getKey())]);
+        }
+
+        long objectsBest = Long.MAX_VALUE, columnsBest = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long t0 = System.nanoTime();
+            byCategory(rows, window);
+            long t1 = System.nanoTime();
+            columns.sumByCategory(Transaction.EXPENSE, window);
+            long t2 = System.nanoTime();
+            objectsBest = Math.min(objectsBest, t1 - t0);
+            columnsBest = Math.min(columnsBest, t2 - t1);
+        }
+
+        System.out.println(String.format(Locale.US,
+                "rows=%d  heap: objects=%.1f MB, columns add %.1f MB (%.0f%% more)"
+                        + "  expenses by category: objects=%.2f ms columns=%.2f ms",
+                ITEMS, objectBytes / 1e6, columnBytes / 1e6, 100.0 * columnBytes / objectBytes,
+                objectsBest / 1e6, columnsBest / 1e6));
+        // the columns are held alongside the rows, never instead of them
+        assertTrue(columnBytes < objectBytes);
+    }
+
+    @Test
+    public void millionRows_centsSumIsExact() {
+        Random random = new Random(7);
+        List<Transaction> rows = new ArrayList<>(ITEMS);
+        double[] dollars = new double[ITEMS];
+        long exact = 0;
+        for (int i = 0; i < ITEMS; i++) {
+            long cents = 1 + random.nextInt(50_000);
+            rows.add(new Transaction(i, cents, 0, "Category", "", Transaction.EXPENSE));
+            dollars[i] = cents / 100.0;
+            exact += cents;
+        }
+        TransactionColumns columns = new TransactionColumns(rows);
+
+        assertEquals(exact, columns.sum(Transaction.EXPENSE));
+
+        long centsBest = Long.MAX_VALUE, doublesBest = Long.MAX_VALUE;
+        double doubleSum = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long t0 = System.nanoTime();
+            columns.sum(Transaction.EXPENSE);
+            long t1 = System.nanoTime();
+            doubleSum = sum(dollars);
+            long t2 = System.nanoTime();
+            centsBest = Math.min(centsBest, t1 - t0);
+            doublesBest = Math.min(doublesBest, t2 - t1);
+        }
+
+        System.out.println(String.format(Locale.US,
+                "rows=%d  sum: long cents=%.2f ms double dollars=%.2f ms  double drift=%.6f",
+                ITEMS, centsBest / 1e6, doublesBest / 1e6, doubleSum - exact / 100.0));
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double v : values) sum += v;
+        return sum;
+    }
+
+    // the per-object path the screens used: a boxed HashMap update per row
+    private static Map<String, Long> byCategory(List<Transaction> rows, Recurrence.Window window) {
+        Map<String, Long> map = new HashMap<>();
+        for (Transaction t : rows) {
+            if (t.type != Transaction.EXPENSE) continue;
+            long amount = window.amountOf(t);
+            if (amount == 0) continue;
+            map.put(t.category, map.getOrDefault(t.category, 0L) + amount);
+        }
+        return map;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
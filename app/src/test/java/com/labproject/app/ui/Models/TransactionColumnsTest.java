@@ -0,0 +1,71 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TransactionColumnsTest {
+
+    private static final long DAY = 86_400_000L;
+
+    @Test
+    public void categoriesGetOneIdEach_blankOnesBecomeOther() {
+        List<Transaction> rows = Arrays.asList(
+                tx(1, Transaction.EXPENSE, "Foods"),
+                tx(2, Transaction.INCOME, "Salary"),
+                tx(3, Transaction.EXPENSE, new String("Foods")),
+                tx(4, Transaction.EXPENSE, " "),
+                tx(5, Transaction.EXPENSE, null));
+        TransactionColumns columns = new TransactionColumns(rows);
+
+        assertEquals(3, columns.categoryCount());
+        assertEquals("Foods", columns.categoryName(0));
+        assertEquals("Other", columns.categoryName(2));
+        assertArrayEquals(new int[]{0, 2, 3, 4}, columns.rowsOfType(Transaction.EXPENSE));
+        assertEquals(3, rows.get(columns.rowsOfType(Transaction.EXPENSE)[1]).id);
+    }
+
+    @Test
+    public void totals_matchTheRecurrenceEngineRowByRow() {
+        Random random = new Random(3);
+        String[] kinds = {
+                Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_WEEKLY,
+                Transaction.RECURRENCE_MONTHLY, Transaction.RECURRENCE_YEARLY
+        };
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Transaction t = new Transaction(i, 1 + random.nextInt(10_000), (long) random.nextInt(2000) * DAY,
+                    "Category " + random.nextInt(12), "", 1 + random.nextInt(2), kinds[random.nextInt(kinds.length)]);
+            if (random.nextInt(4) == 0) t.endDateMillis = t.dateMillis + (long) (random.nextInt(600) - 100) * DAY;
+            t.isActive = random.nextInt(5) != 0;
+            rows.add(t);
+        }
+        TransactionColumns columns = new TransactionColumns(rows);
+
+        for (int q = 0; q < 20; q++) {
+            long start = (long) random.nextInt(2200) * DAY;
+            Recurrence.Window window = new Recurrence.Window(start, start + random.nextInt(400) * DAY, ZoneId.of("UTC"));
+
+            CategoryDictionary categories = columns.categories();
+            PeriodTotals expected = new PeriodTotals(categories);
+            for (Transaction t : rows) expected.add(t.type, categories.idOf(t.category), window.amountOf(t));
+            PeriodTotals actual = columns.totals(window);
+
+            // whole cents, so the two paths agree exactly
+            assertEquals(expected.income, actual.income);
+            assertEquals(expected.expenses, actual.expenses);
+            assertArrayEquals(expected.expensesByCategory, actual.expensesByCategory);
+            assertArrayEquals(expected.incomeByCategory, actual.incomeByCategory);
+        }
+    }
+
+    private static Transaction tx(int id, int type, String category) {
+        return new Transaction(id, 10_00, 0, category, "", type);
+    }
+}
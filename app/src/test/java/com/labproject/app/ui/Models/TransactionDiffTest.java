@@ -0,0 +1,101 @@
+package com.labproject.app.ui.Models;
+
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * How many rows a list rebinds after one edit: every visible row and then some
+ * with notifyDataSetChanged, one row with a payload of what moved once diffed.
+ */
+public class TransactionDiffTest {
+
+    private static final int ROWS = 10_000;
+    private static final long DAY = 86_400_000L;
+
+    @Test
+    public void singleEditInTenThousandRows_rebindsOneRow() {
+        List<Transaction> before = history();
+        List<Transaction> after = new ArrayList<>(before);
+        Transaction edited = after.get(4321).copy();
+        edited.amountCents += 1_00;
+        after.set(4321, edited);
+
+        long t0 = System.nanoTime();
+        Counting counting = new Counting();
+        TransactionDiff.between(before, after).dispatchUpdatesTo(counting);
+        long diffNanos = System.nanoTime() - t0;
+
+        System.out.println(String.format(Locale.US,
+                "rows=%d  notifyDataSetChanged invalidates %d  diffed rebinds %d (payload %s)  diff=%.1f ms",
+                ROWS, ROWS, counting.changed, counting.lastPayload, diffNanos / 1e6));
+        assertEquals(1, counting.changed);
+        assertEquals(0, counting.inserted + counting.removed);
+        assertEquals(TransactionDiff.AMOUNT, counting.lastPayload);
+    }
+
+    @Test
+    public void deleteAndInsert_touchOnlyThoseRows() {
+        List<Transaction> before = history();
+        List<Transaction> after = new ArrayList<>(before);
+        after.remove(100);
+        after.add(0, new Transaction(ROWS + 1, 5_00, ROWS * DAY, "Foods", "new", Transaction.EXPENSE));
+
+        Counting counting = new Counting();
+        TransactionDiff.between(before, after).dispatchUpdatesTo(counting);
+
+        assertEquals(0, counting.changed);
+        assertEquals(1, counting.removed);
+        assertEquals(1, counting.inserted);
+    }
+
+    @Test
+    public void payloads_nameWhatChanged() {
+        Transaction a = new Transaction(1, 10_00, DAY, "Foods", "lunch", Transaction.EXPENSE);
+
+        Transaction b = a.copy();
+        assertEquals(0, TransactionDiff.changes(a, b));
+
+        b.description = "dinner";
+        b.isActive = false;
+        assertEquals(TransactionDiff.TEXT | TransactionDiff.STATUS, TransactionDiff.changes(a, b));
+
+        List<Object> payloads = new ArrayList<>();
+        payloads.add(TransactionDiff.AMOUNT);
+        payloads.add(TransactionDiff.TEXT);
+        assertEquals(TransactionDiff.AMOUNT | TransactionDiff.TEXT, TransactionDiff.merge(payloads));
+        assertEquals(TransactionDiff.AMOUNT | TransactionDiff.TEXT | TransactionDiff.STATUS,
+                TransactionDiff.merge(Collections.emptyList()));
+    }
+
+    private static List<Transaction> history() {
+        List<Transaction> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Transaction(ROWS - i, 1_00 + i, (ROWS - i) * DAY, "Category " + (i % 20),
+                    "row " + i, 1 + i % 2));
+        }
+        return rows;
+    }
+
+    private static class Counting implements ListUpdateCallback {
+        int inserted, removed, changed;
+        Object lastPayload;
+
+        @Override public void onInserted(int position, int count) { inserted += count; }
+        @Override public void onRemoved(int position, int count) { removed += count; }
+        @Override public void onMoved(int from, int to) { removed++; inserted++; }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            changed += count;
+            lastPayload = payload;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TransactionIntervalIndexTest {
+
+    private static final long DAY = 86_400_000L;
+
+    @Test
+    public void recurringRowsStartedBeforeTheWindowAreFound() {
+        Transaction rent = tx(1, Transaction.RECURRENCE_MONTHLY, 0);
+        Transaction lunch = tx(2, Transaction.RECURRENCE_ONCE, 40 * DAY);
+        Transaction gym = tx(3, Transaction.RECURRENCE_WEEKLY, 5 * DAY);
+        gym.endDateMillis = 20 * DAY;
+        Transaction old = tx(4, Transaction.RECURRENCE_ONCE, 2 * DAY);
+
+        TransactionIntervalIndex index = new TransactionIntervalIndex(Arrays.asList(rent, lunch, gym, old));
+
+        assertEquals(Arrays.asList(rent, lunch), index.overlapping(30 * DAY, 60 * DAY));
+        assertEquals(Arrays.asList(rent, old, gym), index.overlapping(DAY, 10 * DAY));
+        assertEquals(Collections.singletonList(rent), index.overlapping(100 * DAY, 200 * DAY));
+    }
+
+    @Test
+    public void inactiveRowsWithoutAnEndOnlyCoverTheirOwnDate() {
+        Transaction paused = tx(1, Transaction.RECURRENCE_MONTHLY, 10 * DAY);
+        paused.isActive = false;
+
+        TransactionIntervalIndex index = new TransactionIntervalIndex(Collections.singletonList(paused));
+
+        assertEquals(1, index.overlapping(0, 10 * DAY).size());
+        assertTrue(index.overlapping(11 * DAY, 100 * DAY).isEmpty());
+    }
+
+    @Test
+    public void matchesAFullScanOnRandomRows() {
+        Random random = new Random(7);
+        String[] kinds = {
+                Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_WEEKLY,
+                Transaction.RECURRENCE_MONTHLY, Transaction.RECURRENCE_YEARLY
+        };
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Transaction t = tx(i, kinds[random.nextInt(kinds.length)], (long) random.nextInt(3650) * DAY);
+            if (random.nextInt(3) == 0) t.endDateMillis = t.dateMillis + (long) random.nextInt(400) * DAY;
+            if (random.nextInt(5) == 0) t.isActive = false;
+            rows.add(t);
+        }
+        TransactionIntervalIndex index = new TransactionIntervalIndex(rows);
+
+        for (int q = 0; q < 500; q++) {
+            long start = (long) random.nextInt(4000) * DAY - 100 * DAY;
+            long end = start + (long) random.nextInt(120) * DAY;
+
+            List<Transaction> expected = new ArrayList<>();
+            for (Transaction t : rows) {
+                if (t.dateMillis <= end && TransactionIntervalIndex.activeUntil(t) >= start) expected.add(t);
+            }
+            List<Transaction> actual = new ArrayList<>(index.overlapping(start, end));
+
+            expected.sort((a, b) -> Integer.compare(a.id, b.id));
+            actual.sort((a, b) -> Integer.compare(a.id, b.id));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void coversEveryRowThatCountsInTheWindow() {
+        Random random = new Random(11);
+        String[] kinds = {
+                Transaction.RECURRENCE_ONCE, Transaction.RECURRENCE_WEEKLY,
+                Transaction.RECURRENCE_MONTHLY, Transaction.RECURRENCE_YEARLY
+        };
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Transaction t = tx(i, kinds[random.nextInt(kinds.length)], (long) random.nextInt(2000) * DAY);
+            if (random.nextBoolean()) t.endDateMillis = t.dateMillis + (long) random.nextInt(400) * DAY;
+            t.isActive = random.nextInt(4) != 0;
+            rows.add(t);
+        }
+        TransactionIntervalIndex index = new TransactionIntervalIndex(rows);
+
+        for (int q = 0; q < 200; q++) {
+            long start = (long) random.nextInt(2400) * DAY;
+            Recurrence.Window window = Recurrence.window(start, start + 31 * DAY - 1);
+            List<Transaction> found = index.overlapping(window.startMillis, window.endMillis);
+            for (Transaction t : rows) {
+                if (window.count(t) > 0) assertTrue(found.contains(t));
+            }
+        }
+    }
+
+    private static Transaction tx(int id, String recurrence, long dateMillis) {
+        return new Transaction(id, 10_00, dateMillis, "Rent", "", Transaction.EXPENSE, recurrence);
+    }
+}
@@ -0,0 +1,120 @@
+package com.labproject.app.ui.Models;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * What binding a row costs once its text is formatted ahead of time: a lookup
+ * that allocates nothing, against formatting the amount and date on every bind.
+ */
+public class TransactionRowsTest {
+
+    private static final int ROWS = 10_000;
+    private static final long DAY = 86_400_000L;
+
+    @Test
+    public void bindingPreformattedRows_allocatesNothing() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        List<Transaction> list = history();
+        TransactionRows rows = new TransactionRows(ZoneOffset.UTC);
+        rows.update(list);
+
+        // warm up so class loading and compilation aren't counted
+        for (int round = 0; round < 3; round++) bindAll(rows, list);
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        long t0 = System.nanoTime();
+        int sink = bindAll(rows, list);
+        long lookupNanos = System.nanoTime() - t0;
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        long before2 = threads.getThreadAllocatedBytes(thread);
+        t0 = System.nanoTime();
+        for (int i = 0; i < list.size(); i++) sink += rows.format(list.get(i)).meta.length();
+        long formatNanos = System.nanoTime() - t0;
+        long formatAllocated = threads.getThreadAllocatedBytes(thread) - before2;
+
+        System.out.println(String.format(Locale.US,
+                "rows=%d  preformatted bind: %d bytes, %.2f ms  format at bind: %d bytes, %.2f ms  (%d)",
+                ROWS, allocated, lookupNanos / 1e6, formatAllocated, formatNanos / 1e6, sink));
+        // a little slack for the allocation counter itself
+        assertTrue("bind allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    @Test
+    public void unchangedRowsAreReused_editedRowsAreReformatted() {
+        List<Transaction> list = history();
+        TransactionRows rows = new TransactionRows(ZoneOffset.UTC);
+        rows.update(list);
+        TransactionRow first = rows.get(list.get(0));
+        TransactionRow second = rows.get(list.get(1));
+
+        // a reload hands back equal copies of the rows and one edited row
+        List<Transaction> reloaded = new ArrayList<>();
+        for (Transaction t : list) reloaded.add(t.copy());
+        reloaded.get(1).amountCents = 99_00;
+        rows.update(reloaded);
+
+        assertSame(first, rows.get(reloaded.get(0)));
+        TransactionRow edited = rows.get(reloaded.get(1));
+        assertNotSame(second, edited);
+        assertEquals("- $99.00", edited.amount.toString());
+        assertEquals(ROWS, rows.size());
+    }
+
+    @Test
+    public void format_fillsTheBlanksAndFlagsStatus() {
+        TransactionRows rows = new TransactionRows(ZoneOffset.UTC);
+        Transaction t = new Transaction(1, 12_50, 0, "", " ", Transaction.INCOME);
+        TransactionRow row = rows.get(t);
+        assertEquals("+ $12.50", row.amount.toString());
+        assertEquals("—", row.description.toString());
+        assertEquals("Other • 1970-01-01", row.meta.toString());
+        assertNull(row.recurrence);
+        assertNull(row.endDate);
+        assertEquals(TransactionRow.COLOR_NONE, row.statusColor);
+
+        Transaction paused = t.copy();
+        paused.isActive = false;
+        TransactionRow pausedRow = rows.get(paused);
+        assertTrue(pausedRow.inactive);
+        assertEquals(0.5f, pausedRow.alpha, 0f);
+        assertEquals(TransactionRow.COLOR_INACTIVE, pausedRow.statusColor);
+    }
+
+    private static int bindAll(TransactionRows rows, List<Transaction> list) {
+        int sink = 0;
+        for (int i = 0; i < list.size(); i++) {
+            TransactionRow row = rows.get(list.get(i));
+            sink += row.amount.length() + row.statusColor;
+        }
+        return sink;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        Object bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static List<Transaction> history() {
+        List<Transaction> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Transaction(ROWS - i, 1_00 + i, (ROWS - i) * DAY, "Category " + (i % 20),
+                    "row " + i, 1 + i % 2));
+        }
+        return rows;
+    }
+}
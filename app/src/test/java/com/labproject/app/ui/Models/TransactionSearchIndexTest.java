@@ -0,0 +1,165 @@
+package com.labproject.app.ui.Models;
+
+import com.labproject.app.utils.Money;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * The search index has to agree with the scan the search box used to run on
+ * every keystroke, and answer a keystroke over 100k expenses within a frame.
+ */
+public class TransactionSearchIndexTest {
+
+    private static final String[] WORDS = {
+            "coffee", "Groceries", "rent", "Bus pass", "lunch with Sam", "gym", "Books", "taxi",
+            "Électricité", "pharmacy", "", null
+    };
+    private static final String[] CATEGORIES = {"Foods", "Transport", "Bills", "Health", "Other", null};
+
+    @Test
+    public void matchesAgreeWithAPlainScan() {
+        List<Transaction> rows = expenses(5_000, 7);
+        TransactionSearchIndex index = new TransactionSearchIndex(rows);
+
+        String[] queries = {"", "c", "co", "cof", "coffee", "OFF", "ée", "lec", "bus p", "12", "3.4", ".05",
+                "foods", "xyz", "  rent  ", "with sam"};
+        for (String raw : queries) {
+            String query = TransactionSearchIndex.normalize(raw);
+            assertArrayEquals(raw, scan(rows, query), index.match(query));
+        }
+    }
+
+    @Test
+    public void refiningTheLastMatches_givesTheSameAsMatchingAgain() {
+        List<Transaction> rows = expenses(5_000, 11);
+        TransactionSearchIndex index = new TransactionSearchIndex(rows);
+
+        int[] matches = index.match("");
+        String typed = "";
+        for (char c : "lunch with".toCharArray()) {
+            typed += c;
+            matches = index.refine(matches, typed);
+            assertArrayEquals(typed, index.match(typed), matches);
+        }
+    }
+
+    @Test
+    public void keystrokesOverAHundredThousandExpenses_fitInAFrame() {
+        List<Transaction> rows = expenses(100_000, 3);
+        long t0 = System.nanoTime();
+        TransactionSearchIndex index = new TransactionSearchIndex(rows);
+        long buildNanos = System.nanoTime() - t0;
+
+        String[] keystrokes = {"l", "lu", "lun", "lunc", "lunch", "lunch ", "lunch w"};
+        for (int round = 0; round < 3; round++) type(index, keystrokes);   // warm up
+
+        long worst = 0;
+        int[] matches = index.match("");
+        String last = "";
+        for (String query : keystrokes) {
+            long start = System.nanoTime();
+            matches = query.contains(last) ? index.refine(matches, query) : index.match(query);
+            worst = Math.max(worst, System.nanoTime() - start);
+            last = query;
+        }
+
+        long scanStart = System.nanoTime();
+        for (String query : keystrokes) scanLowercasing(rows, query);
+        long scanNanos = (System.nanoTime() - scanStart) / keystrokes.length;
+
+        System.out.println(String.format(Locale.US,
+                "rows=%d  build=%.1f ms  worst keystroke=%.2f ms  scan per keystroke=%.2f ms  matches=%d",
+                rows.size(), buildNanos / 1e6, worst / 1e6, scanNanos / 1e6, matches.length));
+        assertTrue("worst keystroke took " + worst / 1e6 + " ms", worst < 16_000_000L);
+    }
+
+    @Test
+    public void typingIsDebouncedAndOnlyTheLastQueryIsDelivered() throws Exception {
+        List<Transaction> rows = expenses(1_000, 5);
+        AggregateSnapshot snapshot = new AggregateSnapshot(1, rows, new DailyTotalsTree(rows),
+                new AggregateSnapshot.Counters());
+
+        // this thread stands in for the main thread, running what is posted to it
+        BlockingQueue<Runnable> main = new LinkedBlockingQueue<>();
+        ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+        List<List<Transaction>> delivered = new ArrayList<>();
+        try {
+            TransactionSearch search = new TransactionSearch(Transaction.EXPENSE, io, main::add,
+                    (result, total) -> delivered.add(result));
+            search.setSnapshot(snapshot);
+            for (String typed : new String[]{"g", "gy", "gym"}) {
+                search.setFilter(new TransactionSearch.Filter(typed, null, null,
+                        TransactionSearch.SORT_AMOUNT_ASC), true);
+            }
+            Runnable posted;
+            while ((posted = main.poll(3 * TransactionSearch.DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                posted.run();
+            }
+        } finally {
+            io.shutdownNow();
+        }
+
+        assertEquals(1, delivered.size());
+        List<Transaction> result = delivered.get(0);
+        assertEquals(scan(rows, "gym").length, result.size());
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1).amountCents <= result.get(i).amountCents);
+        }
+    }
+
+    private static void type(TransactionSearchIndex index, String[] keystrokes) {
+        for (String query : keystrokes) index.match(query);
+    }
+
+    private static int[] scan(List<Transaction> rows, String query) {
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Transaction t = rows.get(i);
+            String desc = t.description != null ? t.description.toLowerCase(Locale.ROOT) : "";
+            String category = t.category != null ? t.category.toLowerCase(Locale.ROOT) : "";
+            if (query.isEmpty() || desc.contains(query) || category.contains(query)
+                    || Money.plain(t.amountCents).contains(query)) {
+                hits.add(i);
+            }
+        }
+        int[] out = new int[hits.size()];
+        for (int i = 0; i < out.length; i++) out[i] = hits.get(i);
+        return out;
+    }
+
+    // what the fragments did before the index
+    private static int scanLowercasing(List<Transaction> rows, String query) {
+        int n = 0;
+        for (Transaction t : rows) {
+            String desc = t.description != null ? t.description.toLowerCase() : "";
+            String amount = Money.plain(t.amountCents);
+            String category = t.category != null ? t.category.toLowerCase() : "";
+            if (desc.contains(query) || amount.contains(query) || category.contains(query)) n++;
+        }
+        return n;
+    }
+
+    private static List<Transaction> expenses(int count, long seed) {
+        Random random = new Random(seed);
+        List<Transaction> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            String description = word == null ? null : word + (random.nextBoolean() ? " #" + random.nextInt(500) : "");
+            rows.add(new Transaction(i + 1, 1 + random.nextInt(200_000), 1_700_000_000_000L - i * 3_600_000L,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], description, Transaction.EXPENSE));
+        }
+        return rows;
+    }
+}
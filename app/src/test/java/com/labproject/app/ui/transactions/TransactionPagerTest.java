@@ -0,0 +1,135 @@
+package com.labproject.app.ui.transactions;
+
+import com.labproject.app.ui.Models.Transaction;
+import com.labproject.app.ui.Models.TransactionDiff;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TransactionPagerTest {
+
+    private static final int ROWS = 1000;
+
+    // newest first, two rows per timestamp so the id tie-break matters
+    private final List<Transaction> history = new ArrayList<>();
+    private TransactionPager pager;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            int id = ROWS - i;
+            history.add(new Transaction(id, 100, 1_000_000L - (i / 2), "Foods", "row " + id, Transaction.EXPENSE));
+        }
+        // run queries and callbacks inline
+        pager = new TransactionPager(new ListSource(), Runnable::run, Runnable::run);
+    }
+
+    @Test
+    public void refresh_loadsOnlyTheNewestPage() {
+        pager.refresh();
+
+        assertEquals(TransactionPager.PAGE_SIZE, pager.size());
+        assertSame(history.get(0), pager.get(0));
+    }
+
+    @Test
+    public void scrollingToTheEnd_walksTheHistoryInOrderWithABoundedWindow() {
+        pager.refresh();
+
+        for (int i = 0; i < ROWS / TransactionPager.PAGE_SIZE + 2; i++) {
+            pager.onVisibleRange(pager.size() - 1, pager.size() - 1);
+            assertTrue(pager.size() <= TransactionPager.PAGE_SIZE * TransactionPager.MAX_PAGES);
+        }
+
+        assertSame(history.get(ROWS - 1), pager.get(pager.size() - 1));
+        int offset = history.indexOf(pager.get(0));
+        for (int i = 0; i < pager.size(); i++) {
+            assertSame(history.get(offset + i), pager.get(i));
+        }
+        assertEquals(history.subList(offset, ROWS), pager.window());
+    }
+
+    @Test
+    public void scrollingBackUp_reloadsDroppedPages() {
+        pager.refresh();
+        for (int i = 0; i < TransactionPager.MAX_PAGES + 2; i++) {
+            pager.onVisibleRange(pager.size() - 1, pager.size() - 1);
+        }
+        assertNotSame(history.get(0), pager.get(0));
+
+        for (int i = 0; i < TransactionPager.MAX_PAGES + 2; i++) {
+            pager.onVisibleRange(0, 0);
+        }
+        assertSame(history.get(0), pager.get(0));
+        for (int i = 0; i < pager.size(); i++) {
+            assertSame(history.get(i), pager.get(i));
+        }
+    }
+
+    @Test
+    public void invalidate_keepsTheWindowInPlace() {
+        pager.refresh();
+        for (int i = 0; i < TransactionPager.MAX_PAGES + 2; i++) {
+            pager.onVisibleRange(pager.size() - 1, pager.size() - 1);
+        }
+        Transaction first = pager.get(0);
+        int size = pager.size();
+
+        history.get(history.indexOf(pager.get(3))).description = "edited";
+        pager.invalidate();
+
+        assertSame(first, pager.get(0));
+        assertEquals(size, pager.size());
+        assertEquals("edited", pager.get(3).description);
+    }
+
+    @Test
+    public void invalidate_reportsOnlyTheRowThatChanged() {
+        pager.refresh();
+        List<String> events = new ArrayList<>();
+        pager.setCallback(new TransactionPager.Callback() {
+            @Override public void onInserted(int position, int count) { events.add("insert " + position); }
+            @Override public void onRemoved(int position, int count) { events.add("remove " + position); }
+            @Override public void onChanged(int position, int count, Object payload) {
+                events.add("change " + position + "x" + count + " " + payload);
+            }
+            @Override public void onReset() { events.add("reset"); }
+        });
+
+        // the database hands back a new object for the edited row
+        Transaction edited = history.get(3).copy();
+        edited.description = "edited";
+        history.set(3, edited);
+        pager.invalidate();
+
+        assertEquals("[change 3x1 " + TransactionDiff.TEXT + "]", events.toString());
+        assertSame(edited, pager.get(3));
+    }
+
+    private class ListSource implements TransactionPager.Source {
+        @Override
+        public List<Transaction> firstPage(int limit) {
+            return new ArrayList<>(history.subList(0, Math.min(limit, history.size())));
+        }
+
+        @Override
+        public List<Transaction> olderThan(Transaction last, int limit) {
+            int from = history.indexOf(last) + 1;
+            return new ArrayList<>(history.subList(from, Math.min(from + limit, history.size())));
+        }
+
+        @Override
+        public List<Transaction> newerThan(Transaction first, int limit) {
+            List<Transaction> rows = new ArrayList<>();
+            for (int i = history.indexOf(first) - 1; i >= 0 && rows.size() < limit; i--) {
+                rows.add(history.get(i));
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.labproject.app.utils;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MoneyTest {
+
+    @Test
+    public void parse_roundsToTheNearestCent() {
+        assertEquals(12_00, Money.parse("12"));
+        assertEquals(12_50, Money.parse(" 12.5 "));
+        assertEquals(12_35, Money.parse("12.345"));
+        assertEquals(19_99, Money.parse("19.99"));
+        assertEquals(10, Money.parse(".1"));
+        assertEquals(-3_05, Money.parse("-3.05"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parse_rejectsText() {
+        Money.parse("12,50");
+    }
+
+    @Test
+    public void format_alwaysShowsTwoDecimals() {
+        assertEquals("$0.00", Money.format(0));
+        assertEquals("$0.05", Money.format(5));
+        assertEquals("$12.50", Money.format(12_50));
+        assertEquals("-$3.05", Money.format(-3_05));
+        assertEquals("1234.10", Money.plain(1234_10));
+        assertEquals("-0.99", Money.plain(-99));
+    }
+
+    @Test
+    public void fromDouble_undoesTheBinaryError() {
+        // 19.99 * 100 is 1998.9999999999998 as a double
+        assertEquals(19_99, Money.fromDouble(19.99));
+        assertEquals(1_10, Money.fromDouble(1.1));
+    }
+
+    @Test
+    public void millionRandomAmounts_sumExactly() {
+        Random random = new Random(7);
+        long cents = 0;
+        BigDecimal exact = BigDecimal.ZERO;
+        for (int i = 0; i < 1_000_000; i++) {
+            String text = random.nextInt(100_000) + "." + String.format(Locale.US, "%02d", random.nextInt(100));
+            long amount = Money.parse(text);
+            assertEquals(text, Money.plain(amount));
+
+            cents += amount;
+            exact = exact.add(new BigDecimal(text));
+        }
+
+        assertEquals(exact.movePointRight(2).longValueExact(), cents);
+        assertEquals(exact.toPlainString(), Money.plain(cents));
+    }
+}
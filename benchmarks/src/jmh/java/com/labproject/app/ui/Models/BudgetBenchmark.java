@@ -0,0 +1,55 @@
+package com.labproject.app.ui.Models;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Budget evaluation: what each budget spent in its current period, every
+ * recurring occurrence included, then the alert flags and the budgets with
+ * alerts in the Budgets screen's usage order.
+ */
+@State(Scope.Benchmark)
+public class BudgetBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private TransactionColumns columns;
+    private List<Budget> budgets;
+    private Recurrence.Window[] periods;   // indexed like Dataset.BUDGET_PERIODS
+
+    @Setup
+    public void setUp() {
+        columns = new TransactionColumns(Dataset.transactions(size));
+        budgets = Dataset.budgets();
+        periods = new Recurrence.Window[Dataset.BUDGET_PERIODS.length];
+        for (int p = 0; p < periods.length; p++) {
+            periods[p] = Recurrence.window(Dataset.periodStart(Dataset.BUDGET_PERIODS[p]), Dataset.NOW);
+        }
+    }
+
+    @Benchmark
+    public List<Budget> evaluate() {
+        long[][] spent = new long[periods.length][];
+        for (int p = 0; p < periods.length; p++) {
+            spent[p] = columns.sumByCategory(Transaction.EXPENSE, periods[p]);
+        }
+
+        boolean[] keep = new boolean[budgets.size()];
+        for (int i = 0; i < keep.length; i++) {
+            Budget b = budgets.get(i);
+            long[] byCategory = spent[Arrays.asList(Dataset.BUDGET_PERIODS).indexOf(b.period)];
+            int id = columns.categories().idOf(b.category);
+            b.spentCents = id >= 0 && id < byCategory.length ? byCategory[id] : 0;
+            b.evaluateAlert();
+            keep[i] = b.alertTriggered || b.isOverBudget();
+        }
+        return new BudgetOrders(budgets).sorted(BudgetOrders.SORT_USAGE, keep);
+    }
+}
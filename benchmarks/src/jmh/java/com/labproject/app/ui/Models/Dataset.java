@@ -0,0 +1,115 @@
+package com.labproject.app.ui.Models;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A synthetic history for one user, the same for a given size on every run:
+ * {@link #YEARS} years of rows up to {@link #NOW}, mostly one-time expenses,
+ * with income, weekly, monthly and yearly rows and stopped recurring rows
+ * mixed in. Rows come newest first, as the app loads them.
+ */
+final class Dataset {
+
+    static final long NOW = LocalDateTime.of(2025, 6, 15, 12, 0)
+            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    static final int YEARS = 3;
+
+    static final String[] EXPENSE_CATEGORIES = {"Food", "Rent", "Transport", "Bills", "Health",
+            "Entertainment", "Shopping", "Education", "Travel", "Gifts", "Insurance", "Other"};
+    static final String[] INCOME_CATEGORIES = {"Salary", "Freelance", "Investments", "Gifts received", "Refunds"};
+    static final String[] BUDGET_PERIODS = {"monthly", "weekly", "daily"};
+
+    private static final long SEED = 20250615L;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final String[] WORDS = {"coffee", "groceries", "taxi", "lunch", "netflix", "gym", "books",
+            "pharmacy", "fuel", "cinema", "rent", "electricity", "phone", "dinner", "market", "parking"};
+    private static final String[] PLACES = {"downtown", "airport", "mall", "station", "online", "corner shop",
+            "campus", "office"};
+
+    private Dataset() {
+    }
+
+    static List<Transaction> transactions(int size) {
+        Random random = new Random(SEED);
+        long span = YEARS * 365L * DAY_MILLIS;
+        List<Transaction> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long date = NOW - (long) (random.nextDouble() * span);
+            boolean income = random.nextInt(100) < 15;
+            int type = income ? Transaction.INCOME : Transaction.EXPENSE;
+            String category = income ? pick(random, INCOME_CATEGORIES) : pick(random, EXPENSE_CATEGORIES);
+            long amount = income ? 50_00 + random.nextInt(3_000_00) : 1_00 + random.nextInt(250_00);
+            String description = pick(random, WORDS) + " " + pick(random, PLACES) + " " + i % 1000;
+
+            // about 8% recur; a quarter of those were stopped somewhere between their start and now
+            String recurrence = Transaction.RECURRENCE_ONCE;
+            int kind = random.nextInt(100);
+            if (kind < 3) recurrence = Transaction.RECURRENCE_WEEKLY;
+            else if (kind < 7) recurrence = Transaction.RECURRENCE_MONTHLY;
+            else if (kind < 8) recurrence = Transaction.RECURRENCE_YEARLY;
+            boolean active = true;
+            long end = Transaction.NO_END_DATE;
+            if (kind < 8 && random.nextInt(4) == 0) {
+                active = false;
+                end = date + (long) (random.nextDouble() * (NOW - date));
+            }
+            rows.add(new Transaction(i + 1, amount, date, category, description, type, recurrence, active, end));
+        }
+        rows.sort((a, b) -> a.dateMillis != b.dateMillis
+                ? Long.compare(b.dateMillis, a.dateMillis)
+                : Integer.compare(b.id, a.id));
+        return rows;
+    }
+
+    /**
+     * One budget per expense category, the periods taking turns.
+     */
+    static List<Budget> budgets() {
+        Random random = new Random(SEED);
+        List<Budget> budgets = new ArrayList<>();
+        for (int i = 0; i < EXPENSE_CATEGORIES.length; i++) {
+            String period = BUDGET_PERIODS[i % BUDGET_PERIODS.length];
+            long limit = 100_00 + random.nextInt(2_000_00);
+            budgets.add(new Budget(i + 1, EXPENSE_CATEGORIES[i], limit, period, 80));
+        }
+        return budgets;
+    }
+
+    /**
+     * Midnight on the first of the month, months before the month of {@link #NOW}.
+     */
+    static long monthStart(int monthsBack) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate first = Instant.ofEpochMilli(NOW).atZone(zone).toLocalDate().withDayOfMonth(1).minusMonths(monthsBack);
+        return first.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Where a budget's current period starts, as DBHelper.getPeriodStart works it out.
+     */
+    static long periodStart(String period) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(NOW);
+        if ("weekly".equals(period)) {
+            cal.set(Calendar.DAY_OF_WEEK, cal.getFirstDayOfWeek());
+        } else if (!"daily".equals(period)) {
+            cal.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,48 @@
+package com.labproject.app.ui.Models;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Expenses list's filter and sort: the query against the search index,
+ * then the last twelve months kept and put in the sort mode's order, as
+ * {@link TransactionSearch} does it.
+ */
+@State(Scope.Benchmark)
+public class FilterSortBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"", "taxi", "coffee mall"})
+    public String query;
+
+    @Param({"0", "2"})   // TransactionSearch.SORT_DATE_DESC, SORT_AMOUNT_DESC
+    public int sortMode;
+
+    private TransactionSearchIndex index;
+    private TransactionSearch.Filter filter;
+
+    @Setup
+    public void setUp() {
+        List<Transaction> expenses = new ArrayList<>();
+        for (Transaction t : Dataset.transactions(size)) {
+            if (t.type == Transaction.EXPENSE) expenses.add(t);
+        }
+        index = new TransactionSearchIndex(expenses);
+        filter = new TransactionSearch.Filter(query, Dataset.monthStart(11), Dataset.NOW, sortMode);
+        // the permutation is built once per published list; switching to it is what's measured
+        index.order(sortMode);
+    }
+
+    @Benchmark
+    public List<Transaction> search() {
+        return TransactionSearch.inOrder(index, index.match(filter.query), filter);
+    }
+}
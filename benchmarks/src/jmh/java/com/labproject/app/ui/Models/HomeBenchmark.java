@@ -0,0 +1,61 @@
+package com.labproject.app.ui.Models;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * The Home screen's render for a range: the range totals, the recent rows and
+ * the category rankings, off the shared snapshot.
+ */
+@State(Scope.Benchmark)
+public class HomeBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private AggregateSnapshot snapshot;
+    private long[] monthStarts;   // every month of the data, plus the start of the next one
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Transaction> rows = Dataset.transactions(size);
+        snapshot = new AggregateSnapshot(1, rows, new DailyTotalsTree(rows), new AggregateSnapshot.Counters());
+        int months = Dataset.YEARS * 12;
+        monthStarts = new long[months + 1];
+        for (int i = 0; i <= months; i++) monthStarts[i] = Dataset.monthStart(months - 1 - i);
+    }
+
+    /**
+     * Each call a month the snapshot hasn't memoized: there are more months
+     * than it remembers ranges, and they come round in turn.
+     */
+    @Benchmark
+    public void newRange(Blackhole bh) {
+        int month = next;
+        next = (next + 1) % (monthStarts.length - 1);
+        render(monthStarts[month], monthStarts[month + 1] - 1, bh);
+    }
+
+    /**
+     * The current month again, as when the screen comes back into view.
+     */
+    @Benchmark
+    public void sameRange(Blackhole bh) {
+        int current = monthStarts.length - 2;
+        render(monthStarts[current], monthStarts[current + 1] - 1, bh);
+    }
+
+    private void render(long startMillis, long endMillis, Blackhole bh) {
+        PeriodTotals totals = snapshot.totals(startMillis, endMillis);
+        bh.consume(HomeSummary.recent(snapshot, startMillis, endMillis, HomeSummary.RECENT_LIMIT));
+        bh.consume(HomeSummary.largestFirst(totals.incomeByCategory));
+        bh.consume(HomeSummary.largestFirst(totals.expensesByCategory));
+    }
+}
@@ -0,0 +1,53 @@
+package com.labproject.app.ui.Models;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * What the rows add up to over one month, every recurring occurrence
+ * included: row by row through the recurrence engine, over the columns, and
+ * from the day-totals trees.
+ */
+@State(Scope.Benchmark)
+public class PeriodAmountBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private List<Transaction> rows;
+    private Recurrence.Window month;
+    private TransactionColumns columns;
+    private DailyTotalsTree dayTotals;
+
+    @Setup
+    public void setUp() {
+        rows = Dataset.transactions(size);
+        month = Recurrence.window(Dataset.monthStart(0), Dataset.monthStart(-1) - 1);
+        columns = new TransactionColumns(rows);
+        dayTotals = new DailyTotalsTree(rows);
+    }
+
+    @Benchmark
+    public long amountOfEachRow() {
+        long expenses = 0;
+        for (Transaction t : rows) {
+            if (t.type == Transaction.EXPENSE) expenses += month.amountOf(t);
+        }
+        return expenses;
+    }
+
+    @Benchmark
+    public PeriodTotals columnTotals() {
+        return columns.totals(month);
+    }
+
+    @Benchmark
+    public PeriodTotals dayTotalsTree() {
+        return dayTotals.totals(month.startMillis, month.endMillis);
+    }
+}
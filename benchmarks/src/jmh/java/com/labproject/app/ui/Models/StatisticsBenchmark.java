@@ -0,0 +1,69 @@
+package com.labproject.app.ui.Models;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * The Statistics screen's rollups: all time, this month, last month and each
+ * trend month, worked out over the in-memory list by scanning the columns once
+ * per window and from the day-totals trees.
+ */
+@State(Scope.Benchmark)
+public class StatisticsBenchmark {
+
+    // as StatisticsSnapshot.TREND_MONTHS, which needs the database and isn't built here
+    private static final int TREND_MONTHS = 6;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private TransactionColumns columns;
+    private DailyTotalsTree dayTotals;
+    private long[] starts;
+    private long[] ends;
+
+    @Setup
+    public void setUp() {
+        List<Transaction> rows = Dataset.transactions(size);
+        columns = new TransactionColumns(rows);
+        dayTotals = new DailyTotalsTree(rows);
+
+        long oldest = Dataset.NOW;
+        for (Transaction t : rows) oldest = Math.min(oldest, t.dateMillis);
+
+        // all time, then this month, last month and the trend months
+        starts = new long[3 + TREND_MONTHS];
+        ends = new long[3 + TREND_MONTHS];
+        starts[0] = oldest;
+        ends[0] = Dataset.NOW;
+        for (int back = 0; back < 2; back++) {
+            starts[1 + back] = Dataset.monthStart(back);
+            ends[1 + back] = Dataset.monthStart(back - 1) - 1;
+        }
+        for (int i = 0; i < TREND_MONTHS; i++) {
+            int back = TREND_MONTHS - 1 - i;
+            starts[3 + i] = Dataset.monthStart(back);
+            ends[3 + i] = Dataset.monthStart(back - 1) - 1;
+        }
+    }
+
+    @Benchmark
+    public void columnScan(Blackhole bh) {
+        for (int i = 0; i < starts.length; i++) {
+            bh.consume(columns.totals(Recurrence.window(starts[i], ends[i])));
+        }
+    }
+
+    @Benchmark
+    public void dayTotalsTree(Blackhole bh) {
+        for (int i = 0; i < starts.length; i++) {
+            bh.consume(dayTotals.totals(starts[i], ends[i]));
+        }
+    }
+}